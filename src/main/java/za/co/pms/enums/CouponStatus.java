@@ -0,0 +1,12 @@
+package za.co.pms.enums;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public enum CouponStatus {
+    VALID,          // Issued and not yet redeemed
+    MALFORMED,      // Wrong length, characters or check digit
+    UNKNOWN,        // Well-formed but never issued
+    REDEEMED        // Already used
+}
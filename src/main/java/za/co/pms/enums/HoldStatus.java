@@ -0,0 +1,12 @@
+package za.co.pms.enums;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public enum HoldStatus {
+    ACTIVE,     // Stock reserved until the hold expires
+    CONFIRMED,  // Converted into an order; stock stays reserved
+    RELEASED,   // Given up by its owner
+    EXPIRED     // Released by the expiry wheel
+}
@@ -0,0 +1,11 @@
+package za.co.pms.enums;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public enum InventoryDimension {
+    CATEGORY,   // Product category
+    BRAND,      // Product brand
+    VENDOR      // Vendor supplying the product
+}
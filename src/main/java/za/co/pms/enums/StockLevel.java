@@ -0,0 +1,12 @@
+package za.co.pms.enums;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public enum StockLevel {
+    OUT_OF_STOCK,   // Nothing available
+    LAST_FEW,       // At or below the "only N left" threshold
+    LOW,            // At or below the low-stock threshold
+    IN_STOCK        // Above every threshold
+}
@@ -0,0 +1,13 @@
+package za.co.pms.enums;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public enum StockMovementType {
+    RESERVE,    // Stock held for an order
+    RELEASE,    // Held stock returned
+    ADJUST,     // On-hand quantity set (count, feed, transfer)
+    RECEIVE,    // On-hand quantity raised by the amount
+    ISSUE       // On-hand quantity lowered by the amount
+}
@@ -0,0 +1,25 @@
+package za.co.pms.exception;
+
+import lombok.Getter;
+import za.co.pms.service.promotion.PromotionConflict;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Getter
+public class PromotionConflictException extends RuntimeException implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 4418253107914825410L;
+
+    private final transient List<PromotionConflict> conflicts;
+
+    public PromotionConflictException(List<PromotionConflict> conflicts) {
+        super("Promotion overlaps " + conflicts.size() + " existing promotion(s) on shared variants");
+        this.conflicts = conflicts;
+    }
+}
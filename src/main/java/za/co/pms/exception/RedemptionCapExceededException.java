@@ -0,0 +1,16 @@
+package za.co.pms.exception;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public class RedemptionCapExceededException extends RuntimeException implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -2270318950447163214L;
+    public RedemptionCapExceededException() {super();}
+    public RedemptionCapExceededException(String message) {super(message);}
+    public RedemptionCapExceededException(String message, Throwable cause) {super(message,cause);}
+}
@@ -22,6 +22,9 @@ public class Brand {
     @Column(nullable = false)
     private Long id;
 
+    @Column(nullable = false, unique = true)
+    private String name;
+
     @OneToMany(mappedBy = "brand",cascade = CascadeType.ALL,fetch = FetchType.LAZY,orphanRemoval = true)
     @Fetch(FetchMode.SUBSELECT)
     private List<MediaAsset> mediaAssets= new ArrayList<>();
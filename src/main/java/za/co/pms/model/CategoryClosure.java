@@ -0,0 +1,51 @@
+package za.co.pms.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One ancestor-descendant pair of the category hierarchy, including each category paired with
+ * itself at depth 0, so a subtree or an ancestor chain is one indexed lookup. Maintained by
+ * {@code CategoryHierarchyService} alongside {@link Category#addSubCategory} and
+ * {@link Category#removeSubCategory}.
+ **/
+@Getter
+@Setter
+@Entity
+@IdClass(CategoryClosure.Key.class)
+@Table(name = "category_closure",
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth"))
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    public static CategoryClosure of(Long ancestorId, Long descendantId, int depth) {
+        CategoryClosure link = new CategoryClosure();
+        link.setAncestorId(ancestorId);
+        link.setDescendantId(descendantId);
+        link.setDepth(depth);
+        return link;
+    }
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
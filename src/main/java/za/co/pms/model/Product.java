@@ -13,11 +13,61 @@ import java.util.List;
 /**
  * @author NMMkhungo
  * @since 2025/09/13
+ * Fetch plans: every association is lazy and each use case names the graph it needs, so a use
+ * case issues the same statements however many products, variants or prices it touches. The
+ * graphs never join {@code mediaAssets}; it is a second bag beside {@code variants} and loads
+ * with one subselect on first access. A vendor's profile is the inverse side of a one-to-one and
+ * is always loaded with the vendor, so the graphs that take the vendor join it too.
  **/
 @Getter
 @Setter
 @Entity
+@NamedEntityGraph(name = Product.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("category")})
+@NamedEntityGraph(name = Product.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode(value = "variants", subgraph = "variant.priced")},
+        subgraphs = {
+                @NamedSubgraph(name = "variant.priced", attributeNodes = {
+                        @NamedAttributeNode("sku"),
+                        @NamedAttributeNode(value = "prices", subgraph = "price.taxed")}),
+                @NamedSubgraph(name = "price.taxed", attributeNodes = @NamedAttributeNode("taxClass"))})
+@NamedEntityGraph(name = Product.EDIT_GRAPH, attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode(value = "vendor", subgraph = "vendor.profile"),
+        @NamedAttributeNode(value = "variants", subgraph = "variant.stocked")},
+        subgraphs = {
+                @NamedSubgraph(name = "vendor.profile", attributeNodes = @NamedAttributeNode("profile")),
+                @NamedSubgraph(name = "variant.stocked", attributeNodes = {
+                        @NamedAttributeNode("sku"),
+                        @NamedAttributeNode(value = "prices", subgraph = "price.taxed"),
+                        @NamedAttributeNode(value = "stockAllocations", subgraph = "allocation.warehouse")}),
+                @NamedSubgraph(name = "price.taxed", attributeNodes = @NamedAttributeNode("taxClass")),
+                @NamedSubgraph(name = "allocation.warehouse", attributeNodes = @NamedAttributeNode("warehouse"))})
+@NamedEntityGraph(name = Product.EXPORT_GRAPH, attributeNodes = {
+        @NamedAttributeNode("brand"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode(value = "vendor", subgraph = "vendor.profile"),
+        @NamedAttributeNode(value = "variants", subgraph = "variant.priced")},
+        subgraphs = {
+                @NamedSubgraph(name = "vendor.profile", attributeNodes = @NamedAttributeNode("profile")),
+                @NamedSubgraph(name = "variant.priced", attributeNodes = {
+                        @NamedAttributeNode("sku"),
+                        @NamedAttributeNode(value = "prices", subgraph = "price.taxed")}),
+                @NamedSubgraph(name = "price.taxed", attributeNodes = @NamedAttributeNode("taxClass"))})
 public class Product {
+    // Listing rows: brand and category
+    public static final String LISTING_GRAPH = "Product.listing";
+    // Product page: variants with SKU and prices
+    public static final String DETAIL_GRAPH = "Product.detail";
+    // Admin edit: the detail graph plus vendor and stock allocations per warehouse
+    public static final String EDIT_GRAPH = "Product.edit";
+    // Catalogue export in id batches: the detail graph plus vendor
+    public static final String EXPORT_GRAPH = "Product.export";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
     @Column(nullable = false)
@@ -31,7 +81,7 @@ public class Product {
     @Fetch(FetchMode.SUBSELECT)
     private List<Variant> variants= new ArrayList<>();
 
-    @OneToOne( cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinTable(
             name = "vendor_has_products",
             joinColumns = @JoinColumn(name = "product_id", referencedColumnName = "id"),
@@ -39,6 +89,14 @@ public class Product {
             ))
     private Vendor vendor;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", foreignKey = @ForeignKey(name = "fk_product_category"))
+    private Category category;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "brand_id", foreignKey = @ForeignKey(name = "fk_product_brand"))
+    private Brand brand;
+
     private String name;
     private String description;
 
@@ -54,6 +112,7 @@ public class Product {
     }
 
     // Business methods
+    // Loads every variant's allocations; for listings use StockAggregates#product instead
     public int getTotalStock() {
         return variants.stream()
                 .mapToInt(Variant::getTotalStock)
@@ -2,6 +2,7 @@ package za.co.pms.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.util.StringUtils;
@@ -15,6 +16,7 @@ import za.co.pms.model.promotion.Rule;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -31,6 +33,9 @@ public class Promotion {
     @Column(nullable = false)
     private Long id;
 
+    @Version
+    private Long version;
+
     @NotBlank
     @Size(max = 255)
     private String name;
@@ -67,14 +72,52 @@ public class Promotion {
     @DecimalMin(value = "0.0")
     private BigDecimal discountValue;
 
+    // Redemption caps (null = unlimited)
+    @Min(value = 1)
+    private Integer maxRedemptions;
+
+    @Min(value = 1)
+    private Integer maxRedemptionsPerCustomer;
+
+    // Confirmed redemptions, reconciled from the in-memory counters. Written by bulk updates only,
+    // so saving a promotion loaded before a lease or reconcile cannot move the counters back
+    @Column(nullable = false, updatable = false)
+    private int redemptionCount;
+
+    // Capacity leased to application nodes in blocks; never exceeds maxRedemptions
+    @Column(nullable = false, updatable = false)
+    private int redemptionsClaimed;
+
+    // Coupon serials handed out so far; codes are derived from (id, serial). Advanced by a bulk
+    // update only, so a stale save cannot hand the same serials out twice
+    @Column(nullable = false, updatable = false)
+    private long couponsIssued;
+
     // One-to-Many relationship with PriceChanges
     @OneToMany(mappedBy = "promotion", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<PriceChange> priceChanges = new LinkedHashSet<>();
 
+    // Variants the promotion applies to, recorded when it is saved; PriceChanges exist only for
+    // launched price promotions, so conflict checks and labels read these instead
+    @ElementCollection
+    @CollectionTable(name = "promotion_variants", joinColumns = @JoinColumn(name = "promotion_id"))
+    @Column(name = "variant_id")
+    private Set<Long> targetedVariantIds = new HashSet<>();
+
     // SA-Specific Compliance Fields
     @Column(nullable = false)
     private boolean cpaCompliantDisplay; // Must be true for SA launches
 
+    // Set by the compliance watcher when an attached rule's compliance expires
+    @Column(nullable = false)
+    private boolean complianceLapsed;
+
+    // Derived from description/cpaCompliantDisplay; reset by their setters
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Boolean restrictionCompliance;
+
     // Promotion validity
     @NotNull
     @FutureOrPresent
@@ -89,8 +132,13 @@ public class Promotion {
 
     // SA-Specific Business Methods
     public boolean isEligibleForVariant(Variant variant) {
-        // Check if promotion is active
-        if (!isActive()) {
+        return isActive() && appliesTo(variant);
+    }
+
+    // Eligibility of one variant regardless of the validity window, as a launch would see it
+    public boolean appliesTo(Variant variant) {
+        // Check the promotion's compliance has not lapsed
+        if (complianceLapsed) {
             return false;
         }
 
@@ -104,23 +152,16 @@ public class Promotion {
     }
 
     // Business Methods
-    public String getCpaCompliantDescription() {
-        return switch (type) {
-            case BOGO -> String.format("Buy %d, Get %d FREE (%.2f%% saving)",
-                    requiredQuantity, freeQuantity, calculateSavingsPercentage());
-            case MULTIBUY -> String.format("Get %d for the price of %d (%.2f%% saving)",
-                    requiredQuantity + freeQuantity, requiredQuantity, calculateSavingsPercentage());
-            case FREE_SAMPLE -> "FREE sample with purchase (zero-rated for VAT)";
-            default -> description;
-        };
-    }
-
     public boolean isActive() {
         LocalDateTime now = LocalDateTime.now();
         return now.isAfter(startDate) && (endDate == null || now.isBefore(endDate));
     }
 
     public BigDecimal calculateSavingsPercentage() {
+        return savingsPercentage(requiredQuantity, freeQuantity);
+    }
+
+    public static BigDecimal savingsPercentage(int requiredQuantity, int freeQuantity) {
         return BigDecimal.valueOf(freeQuantity)
                 .divide(BigDecimal.valueOf(requiredQuantity + freeQuantity), 4, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100));
@@ -146,7 +187,7 @@ public class Promotion {
                 description.contains("Price includes 15% VAT");
     }
 
-    private BigDecimal calculateDiscountedPrice(BigDecimal basePrice) {
+    public BigDecimal calculateDiscountedPrice(BigDecimal basePrice) {
         return switch (type) {
             //case BOGO, MULTIBUY -> calculateEffectivePrice(new Price(basePrice));
             case PERCENTAGE -> basePrice.multiply(BigDecimal.ONE.subtract(
@@ -186,10 +227,23 @@ public class Promotion {
     }
 
     public boolean isCompliantWithRestrictions() {
-        // Implement SA-specific regulatory checks
-        return cpaCompliantDisplay &&
-                description != null &&
-                description.contains("Price includes 15% VAT");
+        if (restrictionCompliance == null) {
+            // Implement SA-specific regulatory checks
+            restrictionCompliance = cpaCompliantDisplay &&
+                    description != null &&
+                    description.contains("Price includes 15% VAT");
+        }
+        return restrictionCompliance && !complianceLapsed;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.restrictionCompliance = null;
+    }
+
+    public void setCpaCompliantDisplay(boolean cpaCompliantDisplay) {
+        this.cpaCompliantDisplay = cpaCompliantDisplay;
+        this.restrictionCompliance = null;
     }
 
     public void addPriceChange(PriceChange priceChange) {
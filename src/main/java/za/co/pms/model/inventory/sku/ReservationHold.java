@@ -0,0 +1,50 @@
+package za.co.pms.model.inventory.sku;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import za.co.pms.enums.HoldStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Stock reserved for one owner (cart, checkout session) until {@code expiresAt}
+ **/
+@Getter
+@Setter
+@Entity
+@Table(name = "reservation_holds",
+        indexes = {
+                @Index(name = "idx_reservation_hold_status_expiry", columnList = "status, expires_at"),
+                @Index(name = "idx_reservation_hold_owner", columnList = "owner")
+        })
+public class ReservationHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Column(nullable = false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "allocation_id", foreignKey = @ForeignKey(name = "fk_reservation_hold_allocation"))
+    private StockAllocation allocation;
+
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status = HoldStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime closedAt;
+}
@@ -1,6 +1,7 @@
 package za.co.pms.model.inventory.sku;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -54,6 +55,23 @@ public class StockAllocation {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Levels as last read from or written to the database; movements are published as the difference
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private int persistedQuantity;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private int persistedReservedQuantity;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void markPersisted() {
+        persistedQuantity = quantity;
+        persistedReservedQuantity = reservedQuantity;
+    }
+
     // Business methods
     public int getAvailableQuantity() {
         return quantity - reservedQuantity;
@@ -27,6 +27,10 @@ public class Warehouse {
     private String location;
     private boolean active = true;
 
+    // Geocoded from location; see WarehouseLocator
+    private Double latitude;
+    private Double longitude;
+
     @OneToMany(mappedBy = "warehouse", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<StockAllocation> stockAllocations = new HashSet<>();
 
@@ -42,6 +46,7 @@ public class Warehouse {
     }
 
     // Business methods
+    // Loads every allocation; for dashboards use WarehouseInventoryReportService instead
     public int getTotalInventory() {
         return stockAllocations.stream()
                 .mapToInt(StockAllocation::getQuantity)
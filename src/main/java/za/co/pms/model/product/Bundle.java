@@ -0,0 +1,41 @@
+package za.co.pms.model.product;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A kit sold as one item and fulfilled from the stock of its component variants
+ **/
+@Getter
+@Setter
+@Entity
+public class Bundle {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Column(nullable = false)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String code;
+
+    private String name;
+    private boolean active = true;
+
+    @OneToMany(mappedBy = "bundle", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    private List<BundleComponent> components = new ArrayList<>();
+
+    // Helper methods
+    public void addComponent(Variant variant, int quantity) {
+        BundleComponent component = new BundleComponent();
+        component.setBundle(this);
+        component.setVariant(variant);
+        component.setQuantity(quantity);
+        components.add(component);
+    }
+}
@@ -0,0 +1,34 @@
+package za.co.pms.model.product;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Units of one variant in each kit of a {@link Bundle}
+ **/
+@Getter
+@Setter
+@Entity
+@Table(name = "bundle_components",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bundle_component_variant", columnNames = {"bundle_id", "variant_id"}),
+        indexes = @Index(name = "idx_bundle_component_variant", columnList = "variant_id"))
+public class BundleComponent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Column(nullable = false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bundle_id", foreignKey = @ForeignKey(name = "fk_bundle_component_bundle"))
+    private Bundle bundle;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "variant_id", foreignKey = @ForeignKey(name = "fk_bundle_component_variant"))
+    private Variant variant;
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -34,7 +34,7 @@ public class Price {
     @Column(nullable = false)
     private boolean current;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tax_class_id")
     private TaxClass taxClass; // {STANDARD, ZERO_RATED, EXEMPT}
 
@@ -63,15 +63,18 @@ public class Price {
     }
 
     public BigDecimal getDisplayPrice() {
-        return calculateDisplayPrice(basePrice, taxClass);
+        return taxClass == null
+                ? calculateDisplayPrice(basePrice, null, null)
+                : calculateDisplayPrice(basePrice, taxClass.getTaxType(), taxClass.getRate());
     }
 
-    private static BigDecimal calculateDisplayPrice(BigDecimal basePrice, TaxClass taxClass) {
-        if (taxClass == null) {
+    // A null tax type means no tax class
+    public static BigDecimal calculateDisplayPrice(BigDecimal basePrice, TaxType taxType, BigDecimal rate) {
+        if (taxType == null) {
             return basePrice.setScale(2, RoundingMode.HALF_UP);
         }
 
-        BigDecimal taxAmount = taxClass.calculateTax(basePrice);
+        BigDecimal taxAmount = TaxClass.calculateTax(taxType, rate, basePrice);
         return basePrice.add(taxAmount).setScale(2, RoundingMode.HALF_UP);
     }
 
@@ -18,6 +18,7 @@ import java.time.LocalDateTime;
 @Setter
 public class PriceChange {
     @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     @Column(nullable = false)
     private Long id;
 
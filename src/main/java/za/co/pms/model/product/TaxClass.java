@@ -46,6 +46,11 @@ public class TaxClass {
 
     // Business method to calculate tax amount
     public BigDecimal calculateTax(BigDecimal amount) {
+        return calculateTax(taxType, rate, amount);
+    }
+
+    // Same rule for projections that select the type and rate instead of the entity
+    public static BigDecimal calculateTax(TaxType taxType, BigDecimal rate, BigDecimal amount) {
         if (taxType == TaxType.EXEMPT || taxType == TaxType.ZERO_RATED) {
             return BigDecimal.ZERO;
         }
@@ -34,7 +34,7 @@ public class Variant {
             ))
     private Product product;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "sku_id")
     private Sku sku;
 
@@ -66,6 +66,7 @@ public class Variant {
     }
 
     // Business methods
+    // Both walk every allocation; for listings use StockAggregates#variant instead
     public int getTotalStock() {
         return stockAllocations.stream()
                 .mapToInt(StockAllocation::getQuantity)
@@ -0,0 +1,39 @@
+package za.co.pms.model.promotion;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import za.co.pms.model.Promotion;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A redeemed coupon, identified by its serial within the promotion
+ **/
+@Getter
+@Setter
+@Entity
+@Table(name = "coupon_redemptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_coupon_redemption_serial",
+                columnNames = {"promotion_id", "serial"}))
+public class CouponRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Column(nullable = false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "promotion_id", foreignKey = @ForeignKey(name = "fk_coupon_redemption_promotion"))
+    private Promotion promotion;
+
+    @Column(nullable = false)
+    private long serial;
+
+    @Column(length = 64)
+    private String customerId;
+
+    @Column(nullable = false)
+    private LocalDateTime redeemedAt;
+}
@@ -0,0 +1,34 @@
+package za.co.pms.model.promotion;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import za.co.pms.model.Promotion;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Confirmed redemptions of a promotion by one customer, for per-customer caps
+ **/
+@Getter
+@Setter
+@Entity
+@Table(name = "promotion_redemptions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_promotion_redemption_customer",
+                columnNames = {"promotion_id", "customer_id"}))
+public class PromotionRedemption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @Column(nullable = false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "promotion_id", foreignKey = @ForeignKey(name = "fk_promotion_redemption_promotion"))
+    private Promotion promotion;
+
+    @Column(name = "customer_id", nullable = false, length = 64)
+    private String customerId;
+
+    @Column(nullable = false)
+    private int redemptionCount;
+}
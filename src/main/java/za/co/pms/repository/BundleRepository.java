@@ -0,0 +1,25 @@
+package za.co.pms.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import za.co.pms.model.product.Bundle;
+import za.co.pms.repository.projection.BundleComponentLine;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Repository
+public interface BundleRepository extends JpaRepository<Bundle, Long> {
+
+    @Query("""
+            select new za.co.pms.repository.projection.BundleComponentLine(b.id, v.id, c.quantity)
+            from BundleComponent c
+            join c.bundle b
+            join c.variant v
+            where b.active = true""")
+    List<BundleComponentLine> findActiveComponents();
+}
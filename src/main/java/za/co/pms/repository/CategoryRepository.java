@@ -0,0 +1,38 @@
+package za.co.pms.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.co.pms.model.Category;
+import za.co.pms.repository.projection.CategoryNode;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    // The category itself and everything below it
+    @Query("select c.descendantId from CategoryClosure c where c.ancestorId = :categoryId")
+    List<Long> findSubtreeIds(@Param("categoryId") Long categoryId);
+
+    // Root first, ending with the category itself
+    @Query("""
+            select new za.co.pms.repository.projection.CategoryNode(a.id, a.name, p.id)
+            from CategoryClosure c
+            join Category a on a.id = c.ancestorId
+            left join a.parentCategory p
+            where c.descendantId = :categoryId
+            order by c.depth desc""")
+    List<CategoryNode> findAncestors(@Param("categoryId") Long categoryId);
+
+    @Query("""
+            select new za.co.pms.repository.projection.CategoryNode(c.id, c.name, p.id)
+            from Category c
+            left join c.parentCategory p""")
+    List<CategoryNode> findNodes();
+}
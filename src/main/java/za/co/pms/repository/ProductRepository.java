@@ -1,8 +1,21 @@
 package za.co.pms.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import za.co.pms.model.Product;
+import za.co.pms.repository.projection.ProductDetailRow;
+import za.co.pms.repository.projection.ProductListingRow;
+import za.co.pms.repository.projection.ProductSearchRow;
+import za.co.pms.repository.projection.PromotedVariantRow;
+import za.co.pms.repository.projection.VariantPriceLine;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * @author NMMkhungo
@@ -10,4 +23,111 @@ import za.co.pms.model.Product;
  **/
 @Repository
 public interface ProductRepository extends JpaRepository<Product,Long> {
+
+    // Entity reads, one per fetch plan on Product. Each loads its graph in one statement.
+
+    @EntityGraph(Product.LISTING_GRAPH)
+    @Query("select p from Product p where p.id > :afterId order by p.id")
+    List<Product> findListingPage(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(Product.DETAIL_GRAPH)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findDetailById(@Param("id") Long id);
+
+    @EntityGraph(Product.EDIT_GRAPH)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findForEditById(@Param("id") Long id);
+
+    @Query("select p.id from Product p where p.id > :afterId order by p.id")
+    List<Long> findIdPage(@Param("afterId") long afterId, Pageable pageable);
+
+    // Ids from findIdPage rather than a page: the graph joins collections, which cannot be limited in SQL
+    @EntityGraph(Product.EXPORT_GRAPH)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findForExportByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Projections, no managed entities
+
+    @Query("""
+            select new za.co.pms.repository.projection.ProductListingRow(p.id, p.name, b.name,
+                (select m.url from MediaAsset m where m.id =
+                    (select min(i.id) from MediaAsset i where i.product = p and i.type = 'IMAGE')))
+            from Product p
+            left join p.brand b
+            where p.id > :afterId
+            order by p.id""")
+    List<ProductListingRow> findListing(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("""
+            select new za.co.pms.repository.projection.ProductListingRow(p.id, p.name, b.name,
+                (select m.url from MediaAsset m where m.id =
+                    (select min(i.id) from MediaAsset i where i.product = p and i.type = 'IMAGE')))
+            from Product p
+            left join p.brand b
+            where p.category.id in :categoryIds
+              and p.id > :afterId
+            order by p.id""")
+    List<ProductListingRow> findListingInCategories(@Param("categoryIds") Collection<Long> categoryIds,
+                                                    @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("""
+            select new za.co.pms.repository.projection.ProductListingRow(p.id, p.name, b.name,
+                (select m.url from MediaAsset m where m.id =
+                    (select min(i.id) from MediaAsset i where i.product = p and i.type = 'IMAGE')))
+            from Product p
+            left join p.brand b
+            where p.category.id in (select c.descendantId from CategoryClosure c where c.ancestorId = :categoryId)
+              and p.id > :afterId
+            order by p.id""")
+    List<ProductListingRow> findListingInCategoryTree(@Param("categoryId") Long categoryId,
+                                                      @Param("afterId") long afterId, Pageable pageable);
+
+    @Query("""
+            select new za.co.pms.repository.projection.ProductDetailRow(p.id, p.name, p.description, b.name, c.name,
+                m.id, m.url, m.type)
+            from Product p
+            left join p.brand b
+            left join p.category c
+            left join p.mediaAssets m
+            where p.id = :productId
+            order by m.id""")
+    List<ProductDetailRow> findDetailRows(@Param("productId") Long productId);
+
+    @Query("""
+            select new za.co.pms.repository.projection.VariantPriceLine(p.id, v.id, v.name, s.code,
+                pr.basePrice, t.taxType, t.rate)
+            from Variant v
+            join v.product p
+            left join v.sku s
+            left join Price pr on pr.variant = v and pr.current = true
+                and (pr.effectiveTo is null or pr.effectiveTo > local datetime)
+            left join pr.taxClass t
+            where p.id in :productIds
+            order by p.id, v.id""")
+    List<VariantPriceLine> findVariantPrices(@Param("productIds") Collection<Long> productIds);
+
+    @Query("""
+            select new za.co.pms.repository.projection.ProductSearchRow(p.id, p.name, p.description, v.name,
+                s.code, s.barcode)
+            from Product p
+            left join p.variants v
+            left join v.sku s
+            where p.id in :ids
+            order by p.id, v.id""")
+    List<ProductSearchRow> findSearchRows(@Param("ids") Collection<Long> ids);
+
+    // Running promotions on the products' variants, with their compliance intact. Only the fields
+    // a label is rendered from are read; no promotion is loaded.
+    @Query("""
+            select new za.co.pms.repository.projection.PromotedVariantRow(v.product.id, v.id, pr.id, pr.version,
+                pr.type, pr.requiredQuantity, pr.freeQuantity, pr.discountValue, pr.description)
+            from Promotion pr
+            join pr.targetedVariantIds target
+            join Variant v on v.id = target
+            where v.product.id in :productIds
+              and pr.complianceLapsed = false
+              and pr.startDate <= local datetime
+              and (pr.endDate is null or pr.endDate > local datetime)
+            order by v.product.id, v.id, pr.id""")
+    List<PromotedVariantRow> findRunningPromotions(@Param("productIds") Collection<Long> productIds);
 }
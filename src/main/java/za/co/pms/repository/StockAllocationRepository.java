@@ -0,0 +1,67 @@
+package za.co.pms.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.projection.AllocationLevels;
+import za.co.pms.repository.projection.SkuAllocation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Repository
+public interface StockAllocationRepository extends JpaRepository<StockAllocation, Long>, StockAllocationRepositoryCustom {
+
+    @Query("""
+            select new za.co.pms.repository.projection.AllocationLevels(s.id, v.id, w.id, s.quantity, s.reservedQuantity)
+            from StockAllocation s
+            left join s.productVariant v
+            left join s.warehouse w
+            where s.id in :ids""")
+    List<AllocationLevels> findLevels(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new za.co.pms.repository.projection.AllocationLevels(s.id, v.id, w.id, s.quantity, s.reservedQuantity)
+            from StockAllocation s
+            left join s.productVariant v
+            left join s.warehouse w""")
+    List<AllocationLevels> findAllLevels();
+
+    @Query("""
+            select new za.co.pms.repository.projection.AllocationLevels(s.id, v.id, w.id, s.quantity, s.reservedQuantity)
+            from StockAllocation s
+            join s.productVariant v
+            join s.warehouse w
+            where w.active = true and s.quantity > s.reservedQuantity""")
+    List<AllocationLevels> findAvailableInActiveWarehouses();
+
+    @Query("""
+            select new za.co.pms.repository.projection.AllocationLevels(s.id, v.id, w.id, s.quantity, s.reservedQuantity)
+            from StockAllocation s
+            join s.productVariant v
+            join s.warehouse w
+            where w.id in :warehouseIds and v.id in :variantIds""")
+    List<AllocationLevels> findLevelsIn(@Param("warehouseIds") Collection<Long> warehouseIds,
+                                        @Param("variantIds") Collection<Long> variantIds);
+
+    @Query("""
+            select new za.co.pms.repository.projection.SkuAllocation(s.id, sku.code, sku.barcode)
+            from StockAllocation s
+            join s.warehouse w
+            join s.productVariant v
+            join v.sku sku
+            where w.code = :code""")
+    List<SkuAllocation> findSkuAllocations(@Param("code") String warehouseCode);
+
+    @Query("select count(w) > 0 from Warehouse w where w.code = :code")
+    boolean warehouseExists(@Param("code") String warehouseCode);
+
+    @Query("select coalesce(max(s.id), 0) from StockAllocation s")
+    long findMaxId();
+}
@@ -0,0 +1,87 @@
+package za.co.pms.repository;
+
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * JDBC-level stock operations that bypass entity loading and dirty checking
+ **/
+public interface StockAllocationRepositoryCustom {
+
+    /**
+     * Apply coalesced changes in one JDBC batch, bumping {@code version} so stale entities fail
+     * their optimistic check. Unconditional: callers hold the row locks from {@link #lockLevels}
+     * and have checked the new levels themselves.
+     */
+    int[] applyLedgerChanges(List<AllocationChange> changes);
+
+    /**
+     * Reserve in one conditional update, only if {@code quantity - reserved_quantity >= amount}
+     *
+     * @return {@code true} if the row was updated
+     */
+    boolean reserveIfAvailable(long allocationId, int amount);
+
+    /**
+     * Release in one conditional update, only if at least {@code amount} is reserved
+     *
+     * @return {@code true} if the row was updated
+     */
+    boolean releaseIfReserved(long allocationId, int amount);
+
+    /**
+     * Conditionally reserve every line in one JDBC batch. Statements run in list order, so callers
+     * pass lines sorted by allocation id to take row locks in a deterministic order.
+     *
+     * @return affected-row count per line, 0 where stock was short
+     */
+    int[] reserveBatch(List<ReservationLine> lines);
+
+    /**
+     * Conditionally release every line in one JDBC batch, in list order
+     *
+     * @return affected-row count per line, 0 where less was reserved
+     */
+    int[] releaseBatch(List<ReservationLine> lines);
+
+    /**
+     * Read and row-lock the levels of the given allocations in ascending id order
+     *
+     * @return levels of the allocations that still exist; variant and warehouse are not read
+     */
+    List<AllocationLevels> lockLevels(List<Long> allocationIds);
+
+    /**
+     * Set on-hand quantities in one JDBC batch, in list order, only where the new quantity still
+     * covers {@code reserved_quantity}
+     *
+     * @return affected-row count per line, 0 where the quantity would drop below reserved
+     */
+    int[] setQuantities(List<QuantityLine> lines);
+
+    /**
+     * Stream the levels of every allocation with {@code fromId <= id < toId} to {@code consumer},
+     * in no particular order, without materializing the rows
+     */
+    void scanLevels(long fromId, long toId, LevelsConsumer consumer);
+
+    @FunctionalInterface
+    interface LevelsConsumer {
+        void accept(long allocationId, int quantity, int reservedQuantity);
+    }
+
+    record ReservationLine(long allocationId, int amount) {
+    }
+
+    record QuantityLine(long allocationId, int quantity) {
+    }
+
+    /**
+     * @param newQuantity on-hand quantity to set, or {@code null} to keep the current one
+     */
+    record AllocationChange(long allocationId, Integer newQuantity, int reservedDelta) {
+    }
+}
@@ -0,0 +1,146 @@
+package za.co.pms.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import za.co.pms.repository.StockAllocationRepositoryCustom.AllocationChange;
+import za.co.pms.repository.StockAllocationRepositoryCustom.QuantityLine;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+public class StockAllocationRepositoryImpl implements StockAllocationRepositoryCustom {
+
+    private static final String APPLY_CHANGE = """
+            update stock_allocation
+            set quantity = coalesce(?, quantity),
+                reserved_quantity = reserved_quantity + ?,
+                version = version + 1,
+                updated_at = ?
+            where id = ?""";
+
+    private static final String RESERVE_IF_AVAILABLE = """
+            update stock_allocation
+            set reserved_quantity = reserved_quantity + ?,
+                version = version + 1,
+                updated_at = ?
+            where id = ? and quantity - reserved_quantity >= ?""";
+
+    private static final String RELEASE_IF_RESERVED = """
+            update stock_allocation
+            set reserved_quantity = reserved_quantity - ?,
+                version = version + 1,
+                updated_at = ?
+            where id = ? and reserved_quantity >= ?""";
+
+    private static final String SET_QUANTITY = """
+            update stock_allocation
+            set quantity = ?,
+                version = version + 1,
+                updated_at = ?
+            where id = ? and reserved_quantity <= ?""";
+
+    private static final String LOCK_LEVELS =
+            "select id, quantity, reserved_quantity from stock_allocation where id in (%s) order by id for update";
+
+    private static final String SCAN_LEVELS =
+            "select id, quantity, reserved_quantity from stock_allocation where id >= ? and id < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StockAllocationRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] applyLedgerChanges(List<AllocationChange> changes) {
+        if (changes.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(APPLY_CHANGE, changes, changes.size(), (ps, change) -> {
+            ps.setObject(1, change.newQuantity(), Types.INTEGER);
+            ps.setInt(2, change.reservedDelta());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, change.allocationId());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+
+    @Override
+    public boolean reserveIfAvailable(long allocationId, int amount) {
+        return conditionalUpdate(RESERVE_IF_AVAILABLE, allocationId, amount);
+    }
+
+    @Override
+    public boolean releaseIfReserved(long allocationId, int amount) {
+        return conditionalUpdate(RELEASE_IF_RESERVED, allocationId, amount);
+    }
+
+    @Override
+    public int[] reserveBatch(List<ReservationLine> lines) {
+        return conditionalBatch(RESERVE_IF_AVAILABLE, lines);
+    }
+
+    @Override
+    public int[] releaseBatch(List<ReservationLine> lines) {
+        return conditionalBatch(RELEASE_IF_RESERVED, lines);
+    }
+
+    @Override
+    public List<AllocationLevels> lockLevels(List<Long> allocationIds) {
+        if (allocationIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = String.format(LOCK_LEVELS, String.join(",", Collections.nCopies(allocationIds.size(), "?")));
+        return jdbcTemplate.query(sql, (rs, row) -> new AllocationLevels(rs.getLong(1), null, null, rs.getInt(2), rs.getInt(3)),
+                allocationIds.toArray());
+    }
+
+    @Override
+    public int[] setQuantities(List<QuantityLine> lines) {
+        if (lines.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(SET_QUANTITY, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.quantity());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, line.allocationId());
+            ps.setInt(4, line.quantity());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+
+    @Override
+    public void scanLevels(long fromId, long toId, LevelsConsumer consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(rs.getLong(1), rs.getInt(2), rs.getInt(3));
+        jdbcTemplate.query(SCAN_LEVELS, handler, fromId, toId);
+    }
+
+    private boolean conditionalUpdate(String sql, long allocationId, int amount) {
+        return jdbcTemplate.update(sql, amount, Timestamp.valueOf(LocalDateTime.now()), allocationId, amount) == 1;
+    }
+
+    private int[] conditionalBatch(String sql, List<ReservationLine> lines) {
+        if (lines.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(sql, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.amount());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, line.allocationId());
+            ps.setInt(4, line.amount());
+        });
+        return counts.length == 0 ? new int[0] : counts[0];
+    }
+}
@@ -0,0 +1,13 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Stock levels of one allocation without loading the entity
+ */
+public record AllocationLevels(Long id, Long variantId, Long warehouseId, int quantity, int reservedQuantity) {
+
+    public int availableQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
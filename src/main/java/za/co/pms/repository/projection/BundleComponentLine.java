@@ -0,0 +1,9 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One component of an active bundle, without loading the entities
+ */
+public record BundleComponentLine(Long bundleId, Long variantId, int quantity) {
+}
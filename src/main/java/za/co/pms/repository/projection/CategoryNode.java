@@ -0,0 +1,9 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A category without its collections; {@code parentId} is {@code null} for a root
+ */
+public record CategoryNode(Long id, String name, Long parentId) {
+}
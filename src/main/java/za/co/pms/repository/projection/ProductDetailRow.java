@@ -0,0 +1,11 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A product's own columns repeated once per media asset, in asset order. The media columns are
+ * {@code null} on the single row of a product without assets.
+ */
+public record ProductDetailRow(Long productId, String name, String description, String brandName,
+                               String categoryName, Long mediaAssetId, String mediaUrl, String mediaType) {
+}
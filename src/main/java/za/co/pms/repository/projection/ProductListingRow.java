@@ -0,0 +1,9 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * The product columns of a listing row; {@code imageUrl} is the product's first image, if any
+ */
+public record ProductListingRow(Long productId, String name, String brandName, String imageUrl) {
+}
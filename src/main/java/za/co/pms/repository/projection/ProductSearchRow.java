@@ -0,0 +1,11 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * The searchable text of a product, one row per variant; the variant columns are null for a
+ * product without variants
+ */
+public record ProductSearchRow(Long productId, String name, String description, String variantName,
+                               String skuCode, String barcode) {
+}
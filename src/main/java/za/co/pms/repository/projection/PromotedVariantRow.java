@@ -0,0 +1,20 @@
+package za.co.pms.repository.projection;
+
+import za.co.pms.enums.PromotionType;
+
+import java.math.BigDecimal;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A variant targeted by a running promotion, with only what the promotion's label is rendered from
+ */
+public record PromotedVariantRow(Long productId, Long variantId, PromotionLabelSource promotion) {
+
+    public PromotedVariantRow(Long productId, Long variantId, Long promotionId, Long version, PromotionType type,
+                              Integer requiredQuantity, Integer freeQuantity, BigDecimal discountValue,
+                              String description) {
+        this(productId, variantId, new PromotionLabelSource(promotionId, version, type, requiredQuantity,
+                freeQuantity, discountValue, description));
+    }
+}
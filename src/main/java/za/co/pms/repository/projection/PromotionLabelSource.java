@@ -0,0 +1,21 @@
+package za.co.pms.repository.projection;
+
+import za.co.pms.enums.PromotionType;
+import za.co.pms.model.Promotion;
+
+import java.math.BigDecimal;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * The fields of a promotion its display label is rendered from; {@code version} keys the cached label
+ */
+public record PromotionLabelSource(Long id, Long version, PromotionType type, Integer requiredQuantity,
+                                   Integer freeQuantity, BigDecimal discountValue, String description) {
+
+    public static PromotionLabelSource of(Promotion promotion) {
+        return new PromotionLabelSource(promotion.getId(), promotion.getVersion(), promotion.getType(),
+                promotion.getRequiredQuantity(), promotion.getFreeQuantity(), promotion.getDiscountValue(),
+                promotion.getDescription());
+    }
+}
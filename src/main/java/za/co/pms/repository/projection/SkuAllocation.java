@@ -0,0 +1,9 @@
+package za.co.pms.repository.projection;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Allocation id with the SKU keys a stock feed may use to address it
+ */
+public record SkuAllocation(Long allocationId, String skuCode, String barcode) {
+}
@@ -0,0 +1,23 @@
+package za.co.pms.repository.projection;
+
+import za.co.pms.enums.TaxType;
+import za.co.pms.model.product.Price;
+
+import java.math.BigDecimal;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A variant with one of its active current prices, or with {@code null} price columns when it has
+ * none. A variant with several active current prices has a line for each.
+ */
+public record VariantPriceLine(Long productId, Long variantId, String variantName, String skuCode,
+                               BigDecimal basePrice, TaxType taxType, BigDecimal taxRate) {
+
+    /**
+     * VAT inclusive, as {@link Price#getDisplayPrice()}; {@code null} without a price
+     */
+    public BigDecimal displayPrice() {
+        return basePrice == null ? null : Price.calculateDisplayPrice(basePrice, taxType, taxRate);
+    }
+}
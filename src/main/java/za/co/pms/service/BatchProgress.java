@@ -0,0 +1,29 @@
+package za.co.pms.service;
+
+import lombok.Value;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Snapshot of a long-running batch operation, reported after every committed chunk
+ */
+@Value
+public class BatchProgress {
+    String operation;
+    long scanned;
+    long written;
+    long elapsedMillis;
+
+    /**
+     * Rows written per second since the operation started
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? written : written * 1000d / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: scanned=%d, written=%d, elapsed=%dms, throughput=%.1f rows/s",
+                operation, scanned, written, elapsedMillis, getThroughput());
+    }
+}
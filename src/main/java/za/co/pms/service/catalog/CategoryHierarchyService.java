@@ -0,0 +1,235 @@
+package za.co.pms.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.model.Category;
+import za.co.pms.model.CategoryClosure;
+import za.co.pms.repository.CategoryRepository;
+import za.co.pms.repository.projection.CategoryNode;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Owns the category hierarchy. Creating or moving a category updates {@code parentCategory} and
+ * the {@link CategoryClosure} rows in one transaction, after which subtree and ancestor queries
+ * are a single statement. Changes are serialized here; the closure is only consistent if every
+ * hierarchy change goes through this service.
+ * <p>
+ * A {@link CategoryTree} snapshot serves menus and breadcrumbs without queries. It is rebuilt
+ * after every change and on a schedule (to pick up renames) and swapped in whole, so readers
+ * always see one consistent tree.
+ */
+@Slf4j
+@Service
+public class CategoryHierarchyService {
+
+    // Pair every ancestor of the new parent (itself included) with every node of the subtree
+    static final String ATTACH_SUBTREE = """
+            insert into CategoryClosure (ancestorId, descendantId, depth)
+            select a.ancestorId, d.descendantId, a.depth + d.depth + 1
+            from CategoryClosure a, CategoryClosure d
+            where a.descendantId = :parentId and d.ancestorId = :categoryId""";
+
+    // Keeps the links inside the subtree; ids are passed in as MySQL cannot subquery the target table
+    static final String DETACH_SUBTREE = """
+            delete from CategoryClosure c
+            where c.descendantId in :subtreeIds and c.ancestorId not in :subtreeIds""";
+
+    static final String LINK_EXISTS =
+            "select count(c) from CategoryClosure c where c.ancestorId = :ancestorId and c.descendantId = :descendantId";
+
+    static final String SELF_LINK_COUNT = "select count(c) from CategoryClosure c where c.depth = 0";
+
+    static final String CATEGORY_COUNT = "select count(c) from Category c";
+
+    static final String CLEAR_CLOSURE = "delete from CategoryClosure c";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CategoryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final long refreshMinutes;
+    private volatile CategoryTree tree = CategoryTree.empty();
+    private ScheduledExecutorService scheduler;
+
+    public CategoryHierarchyService(CategoryRepository repository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${catalog.categories.refresh-minutes:10}") long refreshMinutes) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.refreshMinutes = refreshMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        long[] counts = Objects.requireNonNull(readOnlyTemplate.execute(status -> new long[]{
+                entityManager.createQuery(SELF_LINK_COUNT, Long.class).getSingleResult(),
+                entityManager.createQuery(CATEGORY_COUNT, Long.class).getSingleResult()}));
+        if (counts[0] != counts[1]) {
+            log.info("Category closure covers {} of {} categories; rebuilding", counts[0], counts[1]);
+            rebuild();
+        }
+        reload();
+        if (refreshMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "category-tree-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reloadQuietly, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * The current snapshot; it never changes, later changes arrive as a new tree
+     */
+    public CategoryTree tree() {
+        return tree;
+    }
+
+    /**
+     * Create a category, as a root when {@code parentId} is {@code null}
+     *
+     * @return the new category's id
+     */
+    public synchronized Long create(String name, String description, Long parentId) {
+        Long id = transactionTemplate.execute(status -> {
+            Category category = new Category();
+            category.setName(name);
+            category.setDescription(description);
+            if (parentId != null) {
+                find(parentId).addSubCategory(category);
+            }
+            entityManager.persist(category);
+            entityManager.persist(CategoryClosure.of(category.getId(), category.getId(), 0));
+            entityManager.flush();
+            if (parentId != null) {
+                attach(category.getId(), parentId);
+            }
+            return category.getId();
+        });
+        reload();
+        return id;
+    }
+
+    /**
+     * Move a category and its subtree under {@code parentId}, or make it a root when {@code null}
+     *
+     * @throws IllegalArgumentException if the new parent is the category or one of its descendants
+     */
+    public synchronized void move(Long categoryId, Long parentId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Category category = find(categoryId);
+            Category parent = parentId == null ? null : find(parentId);
+            if (parent != null && linked(categoryId, parentId)) {
+                throw new IllegalArgumentException("Cannot move category " + categoryId + " under its own subtree");
+            }
+            if (category.getParentCategory() != null) {
+                category.getParentCategory().removeSubCategory(category);
+            }
+            entityManager.createQuery(DETACH_SUBTREE)
+                    .setParameter("subtreeIds", repository.findSubtreeIds(categoryId))
+                    .executeUpdate();
+            if (parent != null) {
+                parent.addSubCategory(category);
+                attach(categoryId, parentId);
+            }
+        });
+        reload();
+    }
+
+    /**
+     * Rewrite the whole closure from the parent links, for data written around this service
+     */
+    public synchronized void rebuild() {
+        int links = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            Map<Long, Long> parents = new HashMap<>();
+            repository.findNodes().forEach(node -> parents.put(node.id(), node.parentId()));
+            entityManager.createQuery(CLEAR_CLOSURE).executeUpdate();
+            int count = 0;
+            for (Long id : parents.keySet()) {
+                Set<Long> seen = new HashSet<>();
+                Long ancestor = id;
+                for (int depth = 0; ancestor != null && parents.containsKey(ancestor) && seen.add(ancestor); depth++) {
+                    entityManager.persist(CategoryClosure.of(ancestor, id, depth));
+                    ancestor = parents.get(ancestor);
+                    if (++count % 500 == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                if (ancestor != null && seen.contains(ancestor)) {
+                    log.warn("Category {} has a cycle in its parents; its closure stops at the cycle", id);
+                }
+            }
+            return count;
+        }));
+        log.info("Category closure rebuilt with {} links", links);
+    }
+
+    /**
+     * Replace the snapshot with one read from the database now
+     */
+    public void reload() {
+        List<CategoryNode> nodes = Objects.requireNonNull(readOnlyTemplate.execute(status -> repository.findNodes()));
+        CategoryTree loaded = CategoryTree.of(nodes);
+        if (loaded.size() < nodes.size()) {
+            log.warn("{} categories are in a parent cycle and left out of the tree", nodes.size() - loaded.size());
+        }
+        tree = loaded;
+        log.debug("Category tree reloaded with {} categories", loaded.size());
+    }
+
+    private void attach(Long categoryId, Long parentId) {
+        entityManager.createQuery(ATTACH_SUBTREE)
+                .setParameter("parentId", parentId)
+                .setParameter("categoryId", categoryId)
+                .executeUpdate();
+    }
+
+    private boolean linked(Long ancestorId, Long descendantId) {
+        return entityManager.createQuery(LINK_EXISTS, Long.class)
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("descendantId", descendantId)
+                .getSingleResult() > 0;
+    }
+
+    private Category find(Long categoryId) {
+        Category category = entityManager.find(Category.class, categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("Unknown category " + categoryId);
+        }
+        return category;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Category tree reload failed; keeping the previous one", e);
+        }
+    }
+}
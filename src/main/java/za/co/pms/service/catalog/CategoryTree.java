@@ -0,0 +1,143 @@
+package za.co.pms.service.catalog;
+
+import za.co.pms.repository.projection.CategoryNode;
+
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Immutable snapshot of the category hierarchy for menus and breadcrumbs. Categories are held in
+ * depth-first order, siblings by name, so every subtree is one contiguous range of the arrays.
+ * A category whose parent is missing is treated as a root; categories caught in a parent cycle
+ * cannot be reached from a root and are left out.
+ */
+public final class CategoryTree {
+
+    private static final CategoryTree EMPTY = new CategoryTree(new CategoryNode[0], new int[0], new int[0], Map.of());
+
+    private final CategoryNode[] nodes;
+    // Position of each node's parent, -1 for roots
+    private final int[] parents;
+    // Position just past each node's subtree
+    private final int[] ends;
+    private final Map<Long, Integer> positions;
+
+    private CategoryTree(CategoryNode[] nodes, int[] parents, int[] ends, Map<Long, Integer> positions) {
+        this.nodes = nodes;
+        this.parents = parents;
+        this.ends = ends;
+        this.positions = positions;
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    public static CategoryTree of(Collection<CategoryNode> categories) {
+        Map<Long, CategoryNode> byId = new HashMap<>(categories.size() * 2);
+        categories.forEach(node -> byId.put(node.id(), node));
+        Map<Long, List<CategoryNode>> children = new HashMap<>();
+        List<CategoryNode> roots = new ArrayList<>();
+        for (CategoryNode node : byId.values()) {
+            if (node.parentId() == null || !byId.containsKey(node.parentId())) {
+                roots.add(node);
+            } else {
+                children.computeIfAbsent(node.parentId(), id -> new ArrayList<>()).add(node);
+            }
+        }
+        Comparator<CategoryNode> siblingOrder = Comparator.comparing(CategoryNode::name, Comparator.nullsLast(String::compareTo))
+                .thenComparing(CategoryNode::id);
+        roots.sort(siblingOrder);
+        children.values().forEach(list -> list.sort(siblingOrder));
+
+        CategoryNode[] ordered = new CategoryNode[byId.size()];
+        int[] parents = new int[ordered.length];
+        int[] ends = new int[ordered.length];
+        Map<Long, Integer> positions = new HashMap<>(ordered.length * 2);
+        // Iterative depth-first walk: an entry is {position, next child index}
+        int size = 0;
+        Deque<int[]> stack = new ArrayDeque<>();
+        for (CategoryNode root : roots) {
+            ordered[size] = root;
+            parents[size] = -1;
+            positions.put(root.id(), size);
+            stack.push(new int[]{size++, 0});
+            while (!stack.isEmpty()) {
+                int[] top = stack.peek();
+                List<CategoryNode> below = children.getOrDefault(ordered[top[0]].id(), List.of());
+                if (top[1] == below.size()) {
+                    ends[stack.pop()[0]] = size;
+                    continue;
+                }
+                CategoryNode child = below.get(top[1]++);
+                ordered[size] = child;
+                parents[size] = top[0];
+                positions.put(child.id(), size);
+                stack.push(new int[]{size++, 0});
+            }
+        }
+        return new CategoryTree(Arrays.copyOf(ordered, size), Arrays.copyOf(parents, size), Arrays.copyOf(ends, size),
+                Map.copyOf(positions));
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public Optional<CategoryNode> node(long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position == null ? Optional.empty() : Optional.of(nodes[position]);
+    }
+
+    public List<CategoryNode> roots() {
+        return siblingsFrom(0, nodes.length);
+    }
+
+    /**
+     * Direct children by name, empty for a leaf or an unknown category
+     */
+    public List<CategoryNode> children(long categoryId) {
+        Integer position = positions.get(categoryId);
+        return position == null ? List.of() : siblingsFrom(position + 1, ends[position]);
+    }
+
+    /**
+     * Root first, ending with the category itself; empty for an unknown category
+     */
+    public List<CategoryNode> breadcrumb(long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        List<CategoryNode> path = new ArrayList<>();
+        for (int at = position; at >= 0; at = parents[at]) {
+            path.add(nodes[at]);
+        }
+        Collections.reverse(path);
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * The category and all of its descendants, depth first; empty for an unknown category
+     */
+    public List<Long> subtreeIds(long categoryId) {
+        Integer position = positions.get(categoryId);
+        if (position == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(ends[position] - position);
+        for (int at = position; at < ends[position]; at++) {
+            ids.add(nodes[at].id());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private List<CategoryNode> siblingsFrom(int from, int to) {
+        List<CategoryNode> siblings = new ArrayList<>();
+        for (int at = from; at < to; at = ends[at]) {
+            siblings.add(nodes[at]);
+        }
+        return Collections.unmodifiableList(siblings);
+    }
+}
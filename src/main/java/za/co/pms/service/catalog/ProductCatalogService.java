@@ -0,0 +1,165 @@
+package za.co.pms.service.catalog;
+
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.repository.ProductRepository;
+import za.co.pms.repository.projection.ProductDetailRow;
+import za.co.pms.repository.projection.ProductListingRow;
+import za.co.pms.repository.projection.PromotedVariantRow;
+import za.co.pms.repository.projection.VariantPriceLine;
+import za.co.pms.service.inventory.StockAggregates;
+import za.co.pms.service.promotion.PromotionLabelCache;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Listing and product pages read as flat projections: two statements per page, one for the
+ * product columns and one for the variants with their current prices, plus one for the promotions
+ * running on those variants. Promotions are the only entities loaded and the transactions are
+ * read-only. Available stock comes from the in-memory {@link StockAggregates} rather than from the
+ * allocations, and promotion labels from {@link PromotionLabelCache}, in the request's locale.
+ */
+@Service
+public class ProductCatalogService {
+
+    private final ProductRepository repository;
+    private final StockAggregates aggregates;
+    private final PromotionLabelCache labelCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductCatalogService(ProductRepository repository,
+                                 StockAggregates aggregates,
+                                 PromotionLabelCache labelCache,
+                                 PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.aggregates = aggregates;
+        this.labelCache = labelCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * One page of all products, ordered by id
+     *
+     * @param cursor {@code null} for the first page, otherwise {@link ProductListingPage#nextCursor()}
+     */
+    public ProductListingPage listing(Long cursor, int limit) {
+        return page(afterId -> repository.findListing(afterId, PageRequest.of(0, limit)), cursor, limit);
+    }
+
+    /**
+     * One page of the products in any of {@code categoryIds}, ordered by id
+     *
+     * @param cursor {@code null} for the first page, otherwise {@link ProductListingPage#nextCursor()}
+     */
+    public ProductListingPage listing(Collection<Long> categoryIds, Long cursor, int limit) {
+        if (categoryIds.isEmpty()) {
+            return new ProductListingPage(List.of(), null);
+        }
+        return page(afterId -> repository.findListingInCategories(categoryIds, afterId, PageRequest.of(0, limit)),
+                cursor, limit);
+    }
+
+    /**
+     * One page of the products in the category and its descendants, ordered by id
+     *
+     * @param cursor {@code null} for the first page, otherwise {@link ProductListingPage#nextCursor()}
+     */
+    public ProductListingPage listingUnder(Long categoryId, Long cursor, int limit) {
+        return page(afterId -> repository.findListingInCategoryTree(categoryId, afterId, PageRequest.of(0, limit)),
+                cursor, limit);
+    }
+
+    /**
+     * The product page, or empty if there is no such product
+     */
+    public Optional<ProductDetail> detail(Long productId) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> {
+            List<ProductDetailRow> rows = repository.findDetailRows(productId);
+            if (rows.isEmpty()) {
+                return Optional.<ProductDetail>empty();
+            }
+            return Optional.of(toDetail(rows, repository.findVariantPrices(List.of(productId)),
+                    repository.findRunningPromotions(List.of(productId))));
+        }));
+    }
+
+    private ProductListingPage page(ListingQuery query, Long cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return transactionTemplate.execute(status -> {
+            List<ProductListingRow> rows = query.read(cursor == null ? 0 : cursor);
+            if (rows.isEmpty()) {
+                return new ProductListingPage(List.of(), null);
+            }
+            List<Long> productIds = rows.stream().map(ProductListingRow::productId).toList();
+            Map<Long, BigDecimal> fromPrices = new HashMap<>(rows.size() * 2);
+            for (VariantPriceLine line : repository.findVariantPrices(productIds)) {
+                BigDecimal price = line.displayPrice();
+                if (price != null) {
+                    fromPrices.merge(line.productId(), price, BigDecimal::min);
+                }
+            }
+
+            // Keyed by promotion id: each promotion is labelled once per product, in id order
+            Locale locale = LocaleContextHolder.getLocale();
+            Map<Long, Map<Long, String>> labels = new HashMap<>();
+            for (PromotedVariantRow promoted : repository.findRunningPromotions(productIds)) {
+                labels.computeIfAbsent(promoted.productId(), id -> new TreeMap<>())
+                        .computeIfAbsent(promoted.promotion().id(),
+                                id -> labelCache.getLabel(promoted.promotion(), locale));
+            }
+
+            List<ProductListing> listings = new ArrayList<>(rows.size());
+            for (ProductListingRow row : rows) {
+                listings.add(new ProductListing(row.productId(), row.name(), row.brandName(), row.imageUrl(),
+                        fromPrices.get(row.productId()), aggregates.product(row.productId()).available(),
+                        List.copyOf(labels.getOrDefault(row.productId(), Map.of()).values())));
+            }
+            Long next = rows.size() < limit ? null : rows.get(rows.size() - 1).productId();
+            return new ProductListingPage(listings, next);
+        });
+    }
+
+    private ProductDetail toDetail(List<ProductDetailRow> rows, List<VariantPriceLine> lines,
+                                   List<PromotedVariantRow> promoted) {
+        ProductDetailRow first = rows.get(0);
+        List<ProductMedia> media = rows.stream()
+                .filter(row -> row.mediaAssetId() != null)
+                .map(row -> new ProductMedia(row.mediaAssetId(), row.mediaUrl(), row.mediaType()))
+                .toList();
+
+        // Conflict checks keep a variant to one running promotion; the lowest id wins if not
+        Locale locale = LocaleContextHolder.getLocale();
+        Map<Long, String> labels = new HashMap<>();
+        for (PromotedVariantRow row : promoted) {
+            labels.computeIfAbsent(row.variantId(), id -> labelCache.getLabel(row.promotion(), locale));
+        }
+
+        // Lines arrive in variant order, one per active current price
+        Map<Long, VariantDetail> variants = new LinkedHashMap<>();
+        for (VariantPriceLine line : lines) {
+            BigDecimal price = line.displayPrice();
+            variants.merge(line.variantId(),
+                    new VariantDetail(line.variantId(), line.variantName(), line.skuCode(), price,
+                            aggregates.variant(line.variantId()).available(), labels.get(line.variantId())),
+                    (kept, other) -> other.price() != null && (kept.price() == null || other.price().compareTo(kept.price()) < 0)
+                            ? other : kept);
+        }
+        return new ProductDetail(first.productId(), first.name(), first.description(), first.brandName(),
+                first.categoryName(), media, List.copyOf(variants.values()),
+                aggregates.product(first.productId()).available());
+    }
+
+    @FunctionalInterface
+    private interface ListingQuery {
+        List<ProductListingRow> read(long afterId);
+    }
+}
@@ -0,0 +1,14 @@
+package za.co.pms.service.catalog;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ */
+@FunctionalInterface
+public interface ProductChangeListener {
+
+    /**
+     * The product, or one of its variants or SKUs, was written or removed in a committed transaction
+     */
+    void onProductChanged(long productId);
+}
@@ -0,0 +1,57 @@
+package za.co.pms.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Reports product changes seen by {@link ProductSearchEntityListener} once their transaction
+ * commits; changes rolled back are dropped. Listeners register themselves, so the publisher has
+ * no dependencies and cannot take part in a bean cycle with the entity manager factory.
+ */
+@Slf4j
+@Component
+public class ProductChangePublisher {
+
+    private final List<ProductChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void register(ProductChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unregister(ProductChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(long productId) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(productId);
+                }
+            });
+        } else {
+            dispatch(productId);
+        }
+    }
+
+    private void dispatch(long productId) {
+        for (ProductChangeListener listener : listeners) {
+            try {
+                listener.onProductChanged(productId);
+            } catch (RuntimeException e) {
+                log.warn("Product change listener {} failed on product {}", listener.getClass().getSimpleName(), productId, e);
+            }
+        }
+    }
+}
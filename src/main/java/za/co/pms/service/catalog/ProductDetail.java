@@ -0,0 +1,12 @@
+package za.co.pms.service.catalog;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A product page, media in asset order and variants in id order
+ */
+public record ProductDetail(Long productId, String name, String description, String brandName, String categoryName,
+                            List<ProductMedia> media, List<VariantDetail> variants, long available) {
+}
@@ -0,0 +1,14 @@
+package za.co.pms.service.catalog;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * The searchable text of one product
+ *
+ * @param codes SKU codes and barcodes of the variants
+ */
+public record ProductDocument(long productId, String name, String description, List<String> variantNames,
+                              List<String> codes) {
+}
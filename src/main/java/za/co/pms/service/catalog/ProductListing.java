@@ -0,0 +1,16 @@
+package za.co.pms.service.catalog;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One row of a product listing page
+ *
+ * @param fromPrice lowest current display price (VAT inclusive) over the variants; {@code null} when unpriced
+ * @param promotionLabels labels of the promotions running on any variant, in promotion id order
+ */
+public record ProductListing(Long productId, String name, String brandName, String imageUrl,
+                             BigDecimal fromPrice, long available, List<String> promotionLabels) {
+}
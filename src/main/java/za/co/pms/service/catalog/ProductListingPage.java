@@ -0,0 +1,12 @@
+package za.co.pms.service.catalog;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ *
+ * @param nextCursor pass back to fetch the next page; {@code null} on the last page
+ */
+public record ProductListingPage(List<ProductListing> rows, Long nextCursor) {
+}
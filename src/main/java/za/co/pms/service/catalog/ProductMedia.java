@@ -0,0 +1,8 @@
+package za.co.pms.service.catalog;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ */
+public record ProductMedia(Long mediaAssetId, String url, String type) {
+}
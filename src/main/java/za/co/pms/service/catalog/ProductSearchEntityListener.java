@@ -0,0 +1,41 @@
+package za.co.pms.service.catalog;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import za.co.pms.model.Product;
+import za.co.pms.model.product.Sku;
+import za.co.pms.model.product.Variant;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Publishes the owning product of every written {@link Product}, {@link Variant} or {@link Sku}
+ * so its search document is rebuilt. Only identifiers are read, so no lazy association is
+ * initialized. Created by Hibernate through Spring's bean container.
+ */
+public class ProductSearchEntityListener {
+
+    private final ProductChangePublisher publisher;
+
+    public ProductSearchEntityListener(ProductChangePublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterWrite(Object entity) {
+        Product product = null;
+        if (entity instanceof Product written) {
+            product = written;
+        } else if (entity instanceof Variant variant) {
+            product = variant.getProduct();
+        } else if (entity instanceof Sku sku && sku.getProductVariant() != null) {
+            product = sku.getProductVariant().getProduct();
+        }
+        if (product != null && product.getId() != null) {
+            publisher.publish(product.getId());
+        }
+    }
+}
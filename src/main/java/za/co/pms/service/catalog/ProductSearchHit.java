@@ -0,0 +1,11 @@
+package za.co.pms.service.catalog;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One product matched by a search
+ *
+ * @param score BM25 relevance; only comparable within one query
+ */
+public record ProductSearchHit(long productId, double score) {
+}
@@ -0,0 +1,460 @@
+package za.co.pms.service.catalog;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * In-memory inverted index over product text, ranked with BM25. Every query term must match;
+ * a typeahead query also treats its last term as a prefix. Text is folded to lower case without
+ * diacritics (so Afrikaans {@code ê}/{@code ë} and typed {@code e} meet) and split on anything
+ * that is not a letter or digit. Common English and Afrikaans function words are dropped, and
+ * English plurals are reduced to the singular. No other stemming is applied: the Nguni and
+ * Sotho languages inflect with prefixes, and prefix queries serve them better than a suffix
+ * stemmer would.
+ * <p>
+ * Fields are weighted by repeating their terms: names and codes count three times, variant
+ * names twice and descriptions once. Replacing a document tombstones its old postings; they
+ * are compacted away once they outnumber the live ones. Reads share a lock and writes are
+ * exclusive.
+ */
+public final class ProductSearchIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int NAME_WEIGHT = 3;
+    static final int CODE_WEIGHT = 3;
+    static final int VARIANT_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+    // A short prefix expands to the most common terms found in this many dictionary entries
+    static final int PREFIX_SCAN = 2_000;
+    static final int PREFIX_EXPANSIONS = 50;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    // Most catalogue text has nothing to decompose
+    private static final Pattern ASCII = Pattern.compile("\\p{ASCII}*");
+    private static final Set<String> STOP_WORDS = Set.of(
+            // English
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "with",
+            // Afrikaans
+            "die", "en", "van", "vir", "met", "n", "op", "te", "wat");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docs = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    // Distinct terms of each live document, to maintain document frequencies on removal
+    private String[][] docTerms = new String[1024][];
+    private int nextDoc;
+    private long totalLength;
+    private long deadPostings;
+    private long livePostings;
+
+    /**
+     * Add the document, replacing any earlier one for the same product
+     */
+    public void put(ProductDocument document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = add(frequencies, tokens(document.name()), NAME_WEIGHT)
+                + add(frequencies, tokens(document.description()), DESCRIPTION_WEIGHT);
+        for (String variantName : document.variantNames()) {
+            length += add(frequencies, tokens(variantName), VARIANT_WEIGHT);
+        }
+        for (String code : document.codes()) {
+            length += add(frequencies, tokens(code), CODE_WEIGHT);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.productId());
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            int doc = nextDoc++;
+            ensureCapacity(doc + 1);
+            productIds[doc] = document.productId();
+            lengths[doc] = length;
+            String[] distinct = new String[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                Map.Entry<String, Postings> existing = terms.ceilingEntry(entry.getKey());
+                Postings postings;
+                if (existing != null && existing.getKey().equals(entry.getKey())) {
+                    // Share the dictionary's copy of the term
+                    distinct[i++] = existing.getKey();
+                    postings = existing.getValue();
+                } else {
+                    distinct[i++] = entry.getKey();
+                    postings = new Postings();
+                    terms.put(entry.getKey(), postings);
+                }
+                postings.append(doc, entry.getValue());
+            }
+            docTerms[doc] = distinct;
+            live.set(doc);
+            docs.put(document.productId(), doc);
+            totalLength += length;
+            livePostings += distinct.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether the product was indexed
+     */
+    public boolean remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} products containing every term of the query, best first
+     */
+    public List<ProductSearchHit> search(String query, int limit) {
+        return query(tokens(query), null, limit);
+    }
+
+    /**
+     * Typeahead: as {@link #search}, with the last term of the query matched as a prefix
+     */
+    public List<ProductSearchHit> suggest(String query, int limit) {
+        List<String> folded = fold(query);
+        boolean typingLastTerm = !folded.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        if (!typingLastTerm) {
+            return query(tokens(query), null, limit);
+        }
+        List<String> exact = new ArrayList<>();
+        for (String token : folded.subList(0, folded.size() - 1)) {
+            String term = analyse(token);
+            if (term != null) {
+                exact.add(term);
+            }
+        }
+        return query(exact, folded.get(folded.size() - 1), limit);
+    }
+
+    /**
+     * Lower-cased, diacritic-free terms without stop words, plurals reduced
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : fold(text)) {
+            String term = analyse(token);
+            if (term != null) {
+                tokens.add(term);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> fold(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = (ASCII.matcher(text).matches() ? text
+                : MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll(""))
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // null for a stop word
+    private static String analyse(String token) {
+        return STOP_WORDS.contains(token) ? null : singular(token);
+    }
+
+    static String singular(String token) {
+        int length = token.length();
+        if (length <= 3 || token.charAt(length - 1) != 's' || !Character.isLetter(token.charAt(length - 2))
+                || token.endsWith("ss") || token.endsWith("us") || token.endsWith("is")) {
+            return token;
+        }
+        if (token.endsWith("ies") && length > 4) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes") || token.endsWith("zes")
+                || token.endsWith("sses")) {
+            return token.substring(0, length - 2);
+        }
+        return token.substring(0, length - 1);
+    }
+
+    private List<ProductSearchHit> query(List<String> exact, String prefix, int limit) {
+        if (limit <= 0 || exact.isEmpty() && prefix == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // One clause per query term, each the postings it may match
+            List<Postings[]> clauses = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(exact)) {
+                Postings postings = terms.get(term);
+                if (postings == null || postings.live == 0) {
+                    return List.of();
+                }
+                clauses.add(new Postings[]{postings});
+            }
+            if (prefix != null) {
+                Postings[] expansions = expand(prefix);
+                if (expansions.length == 0) {
+                    return List.of();
+                }
+                clauses.add(expansions);
+            }
+            clauses.sort(Comparator.comparingLong(ProductSearchIndex::liveCount));
+
+            double averageLength = (double) totalLength / docs.size();
+            // Candidates in document order with their scores so far, seeded by the rarest clause
+            int[] candidates;
+            double[] scores;
+            int count = 0;
+            Postings[] first = clauses.get(0);
+            if (first.length == 1) {
+                Postings postings = first[0];
+                double idf = idf(postings.live);
+                candidates = new int[postings.live];
+                scores = new double[postings.live];
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    if (live.get(doc)) {
+                        candidates[count] = doc;
+                        scores[count++] = score(idf, postings.frequencies[i], doc, averageLength);
+                    }
+                }
+            } else {
+                // Prefix expansions overlap; a document scores its best expansion
+                double[] best = new double[nextDoc];
+                for (Postings postings : first) {
+                    double idf = idf(postings.live);
+                    for (int i = 0; i < postings.size; i++) {
+                        int doc = postings.docs[i];
+                        if (live.get(doc)) {
+                            best[doc] = Math.max(best[doc], score(idf, postings.frequencies[i], doc, averageLength));
+                        }
+                    }
+                }
+                candidates = new int[(int) Math.min(nextDoc, liveCount(first))];
+                scores = new double[candidates.length];
+                for (int doc = 0; doc < nextDoc; doc++) {
+                    if (best[doc] > 0) {
+                        candidates[count] = doc;
+                        scores[count++] = best[doc];
+                    }
+                }
+            }
+            for (int c = 1; c < clauses.size() && count > 0; c++) {
+                Postings[] clause = clauses.get(c);
+                double[] idfs = new double[clause.length];
+                for (int p = 0; p < clause.length; p++) {
+                    idfs[p] = idf(clause[p].live);
+                }
+                // Candidates and postings are both in document order, so each search starts where the last ended
+                int[] cursors = new int[clause.length];
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    double best = 0;
+                    for (int p = 0; p < clause.length; p++) {
+                        int at = Arrays.binarySearch(clause[p].docs, cursors[p], clause[p].size, candidates[i]);
+                        cursors[p] = at < 0 ? -at - 1 : at;
+                        int frequency = at < 0 ? 0 : clause[p].frequencies[at];
+                        if (frequency > 0) {
+                            best = Math.max(best, score(idfs[p], frequency, candidates[i], averageLength));
+                        }
+                    }
+                    if (best > 0) {
+                        candidates[kept] = candidates[i];
+                        scores[kept++] = scores[i] + best;
+                    }
+                }
+                count = kept;
+            }
+
+            // Lowest of the best at the head
+            Comparator<ProductSearchHit> order = Comparator.comparingDouble(ProductSearchHit::score)
+                    .thenComparing(ProductSearchHit::productId, Comparator.reverseOrder());
+            PriorityQueue<ProductSearchHit> best = new PriorityQueue<>(Math.min(limit, count) + 1, order);
+            for (int i = 0; i < count; i++) {
+                ProductSearchHit hit = new ProductSearchHit(productIds[candidates[i]], scores[i]);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (order.compare(hit, best.peek()) > 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+            List<ProductSearchHit> hits = new ArrayList<>(best);
+            hits.sort(order.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Postings[] expand(String prefix) {
+        List<Postings> found = new ArrayList<>();
+        // A finished plural is indexed as its singular, which the prefix no longer covers
+        Postings singular = terms.get(singular(prefix));
+        if (singular != null && singular.live > 0 && !singular(prefix).equals(prefix)) {
+            found.add(singular);
+        }
+        int scanned = 0;
+        for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (postings.live > 0) {
+                found.add(postings);
+            }
+            if (++scanned == PREFIX_SCAN) {
+                break;
+            }
+        }
+        if (found.size() > PREFIX_EXPANSIONS) {
+            found.sort(Comparator.comparingInt((Postings postings) -> postings.live).reversed());
+            found = found.subList(0, PREFIX_EXPANSIONS);
+        }
+        return found.toArray(Postings[]::new);
+    }
+
+    private static long liveCount(Postings[] clause) {
+        long count = 0;
+        for (Postings postings : clause) {
+            count += postings.live;
+        }
+        return count;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (docs.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double score(double idf, int frequency, int doc, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengths[doc] / averageLength));
+    }
+
+    private boolean removeLocked(long productId) {
+        Integer doc = docs.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        totalLength -= lengths[doc];
+        for (String term : docTerms[doc]) {
+            terms.get(term).live--;
+        }
+        livePostings -= docTerms[doc].length;
+        deadPostings += docTerms[doc].length;
+        docTerms[doc] = null;
+        if (deadPostings > 10_000 && deadPostings > livePostings) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Drop dead postings and unused terms, and renumber the live documents densely. Numbers keep
+     * their order, so postings stay sorted.
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDoc];
+        int next = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (live.get(doc)) {
+                renumbered[doc] = next;
+                productIds[next] = productIds[doc];
+                lengths[next] = lengths[doc];
+                docTerms[next] = docTerms[doc];
+                next++;
+            }
+        }
+        Arrays.fill(docTerms, next, nextDoc, null);
+        Iterator<Postings> iterator = terms.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            if (postings.live == 0) {
+                iterator.remove();
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                if (live.get(postings.docs[i])) {
+                    postings.docs[kept] = renumbered[postings.docs[i]];
+                    postings.frequencies[kept++] = postings.frequencies[i];
+                }
+            }
+            postings.size = kept;
+            postings.trim();
+        }
+        docs.replaceAll((productId, doc) -> renumbered[doc]);
+        live.clear();
+        live.set(0, next);
+        nextDoc = next;
+        deadPostings = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int grown = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            docTerms = Arrays.copyOf(docTerms, grown);
+        }
+    }
+
+    private static int add(Map<String, Integer> frequencies, List<String> tokens, int weight) {
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * Documents containing one term, in increasing document order, with tombstoned ones until compaction
+     */
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+        private int live;
+
+        private void append(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+            live++;
+        }
+
+        private void trim() {
+            if (size < docs.length / 4) {
+                docs = Arrays.copyOf(docs, Math.max(2, size));
+                frequencies = Arrays.copyOf(frequencies, Math.max(2, size));
+            }
+        }
+    }
+}
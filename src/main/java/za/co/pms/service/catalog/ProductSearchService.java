@@ -0,0 +1,193 @@
+package za.co.pms.service.catalog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.repository.ProductRepository;
+import za.co.pms.repository.projection.ProductSearchRow;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Product search and typeahead over a {@link ProductSearchIndex} held in this process. The index
+ * is built from the database at start-up and swapped in whole. After that, products reported by
+ * {@link ProductChangePublisher} are collected and re-read in batches every few seconds, so a
+ * committed change is searchable within {@code catalog.search.refresh-seconds}.
+ */
+@Slf4j
+@Service
+public class ProductSearchService implements ProductChangeListener {
+
+    private final ProductRepository repository;
+    private final ProductChangePublisher publisher;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int batchSize;
+    private final long refreshSeconds;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private ScheduledExecutorService scheduler;
+
+    public ProductSearchService(ProductRepository repository,
+                                ProductChangePublisher publisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${catalog.search.batch-size:500}") int batchSize,
+                                @Value("${catalog.search.refresh-seconds:5}") long refreshSeconds) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Register first so changes committed while the index is built are not missed
+        publisher.register(this);
+        rebuild();
+        if (refreshSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "product-search-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::drainQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.unregister(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onProductChanged(long productId) {
+        dirty.add(productId);
+    }
+
+    public List<ProductSearchHit> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * Typeahead: the last word of the query may be incomplete
+     */
+    public List<ProductSearchHit> suggest(String query, int limit) {
+        return index.suggest(query, limit);
+    }
+
+    /**
+     * Build a new index from every product and swap it in
+     */
+    public synchronized void rebuild() {
+        ProductSearchIndex built = new ProductSearchIndex();
+        long started = System.nanoTime();
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            long from = afterId;
+            ids = Objects.requireNonNull(readOnlyTemplate.execute(status -> {
+                List<Long> page = repository.findIdPage(from, PageRequest.of(0, batchSize));
+                if (!page.isEmpty()) {
+                    documents(repository.findSearchRows(page)).forEach(built::put);
+                }
+                return page;
+            }));
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        index = built;
+        log.info("Product search index built with {} products in {} ms", built.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Re-read the given products into the current index; those no longer found are removed
+     */
+    public synchronized void reindex(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            List<ProductDocument> documents = Objects.requireNonNull(
+                    readOnlyTemplate.execute(status -> documents(repository.findSearchRows(batch))));
+            Set<Long> missing = new HashSet<>(batch);
+            for (ProductDocument document : documents) {
+                index.put(document);
+                missing.remove(document.productId());
+            }
+            missing.forEach(index::remove);
+        }
+    }
+
+    /**
+     * Reindex the products changed since the last drain
+     *
+     * @return how many products were reindexed
+     */
+    public synchronized int drain() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+        try {
+            reindex(ids);
+        } catch (RuntimeException e) {
+            // Try them again on the next drain
+            dirty.addAll(ids);
+            throw e;
+        }
+        log.debug("Reindexed {} changed products", ids.size());
+        return ids.size();
+    }
+
+    // Rows arrive ordered by product, one per variant
+    static List<ProductDocument> documents(List<ProductSearchRow> rows) {
+        List<ProductDocument> documents = new ArrayList<>();
+        int from = 0;
+        while (from < rows.size()) {
+            ProductSearchRow first = rows.get(from);
+            List<String> variantNames = new ArrayList<>();
+            List<String> codes = new ArrayList<>();
+            int to = from;
+            for (; to < rows.size() && rows.get(to).productId().equals(first.productId()); to++) {
+                ProductSearchRow row = rows.get(to);
+                addIfPresent(variantNames, row.variantName());
+                addIfPresent(codes, row.skuCode());
+                addIfPresent(codes, row.barcode());
+            }
+            documents.add(new ProductDocument(first.productId(), first.name(), first.description(), variantNames, codes));
+            from = to;
+        }
+        return documents;
+    }
+
+    private static void addIfPresent(List<String> values, String value) {
+        if (value != null && !value.isBlank()) {
+            values.add(value);
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Product search refresh failed; retrying on the next run", e);
+        }
+    }
+}
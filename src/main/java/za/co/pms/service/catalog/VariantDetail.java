@@ -0,0 +1,14 @@
+package za.co.pms.service.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ *
+ * @param price lowest current display price (VAT inclusive); {@code null} when unpriced
+ * @param promotionLabel label of the promotion running on the variant; {@code null} when there is none
+ */
+public record VariantDetail(Long variantId, String name, String skuCode, BigDecimal price, long available,
+                            String promotionLabel) {
+}
@@ -0,0 +1,10 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One allocation whose levels differ between two sources; a side that does not hold the
+ * allocation reports {@link AllocationState#EMPTY}
+ */
+public record AllocationMismatch(long allocationId, AllocationState expected, AllocationState actual) {
+}
@@ -0,0 +1,33 @@
+package za.co.pms.service.inventory;
+
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Warehouses chosen to fulfil an order, one {@link Shipment} per warehouse
+ */
+public record AllocationPlan(List<Shipment> shipments, double totalCost) {
+
+    public int shipmentCount() {
+        return shipments.size();
+    }
+
+    /**
+     * Every pick as a reservation line, ready for {@link StockReservationService#reserveOrder}
+     */
+    public List<ReservationLine> reservationLines() {
+        return shipments.stream()
+                .flatMap(shipment -> shipment.picks().stream())
+                .map(pick -> new ReservationLine(pick.allocationId(), pick.quantity()))
+                .toList();
+    }
+
+    public record Shipment(long warehouseId, List<Pick> picks, double cost) {
+    }
+
+    public record Pick(long allocationId, long variantId, int quantity) {
+    }
+}
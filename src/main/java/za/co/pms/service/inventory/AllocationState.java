@@ -0,0 +1,15 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * On-hand and reserved quantity of one allocation at a point in time
+ */
+public record AllocationState(int quantity, int reservedQuantity) {
+
+    public static final AllocationState EMPTY = new AllocationState(0, 0);
+
+    public int availableQuantity() {
+        return quantity - reservedQuantity;
+    }
+}
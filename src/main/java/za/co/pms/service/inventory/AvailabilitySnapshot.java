@@ -0,0 +1,116 @@
+package za.co.pms.service.inventory;
+
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Immutable point-in-time availability, laid out for allocation rather than for the entity model.
+ * Warehouses are numbered densely; each variant holds parallel arrays of the warehouses that
+ * stock it and their summed availability, plus the allocation rows behind each warehouse total.
+ */
+public final class AvailabilitySnapshot {
+    private final long[] warehouseIds;
+    private final Map<Long, VariantStock> variants;
+
+    private AvailabilitySnapshot(long[] warehouseIds, Map<Long, VariantStock> variants) {
+        this.warehouseIds = warehouseIds;
+        this.variants = variants;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int warehouseCount() {
+        return warehouseIds.length;
+    }
+
+    public long warehouseId(int index) {
+        return warehouseIds[index];
+    }
+
+    /**
+     * @return {@code null} if the variant is out of stock everywhere
+     */
+    public VariantStock variant(long variantId) {
+        return variants.get(variantId);
+    }
+
+    public int variantCount() {
+        return variants.size();
+    }
+
+    /**
+     * Stock of one variant. {@code warehouses[i]} has {@code available[i]} units spread over
+     * allocations {@code allocationIds[allocationStart[i] .. allocationStart[i + 1])}.
+     */
+    public record VariantStock(int[] warehouses, int[] available, int[] allocationStart,
+                               long[] allocationIds, int[] allocationAvailable) {
+
+        public long total() {
+            long total = 0;
+            for (int units : available) {
+                total += units;
+            }
+            return total;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<Long, Integer> warehouseIndex = new HashMap<>();
+        private final List<Long> warehouseIds = new ArrayList<>();
+        private final Map<Long, List<long[]>> rows = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long allocationId, long variantId, long warehouseId, int available) {
+            if (available <= 0) {
+                return this;
+            }
+            int index = warehouseIndex.computeIfAbsent(warehouseId, id -> {
+                warehouseIds.add(id);
+                return warehouseIds.size() - 1;
+            });
+            rows.computeIfAbsent(variantId, id -> new ArrayList<>()).add(new long[]{index, allocationId, available});
+            return this;
+        }
+
+        public AvailabilitySnapshot build() {
+            Map<Long, VariantStock> variants = new HashMap<>(rows.size() * 2);
+            rows.forEach((variantId, entries) -> variants.put(variantId, toStock(entries)));
+            return new AvailabilitySnapshot(warehouseIds.stream().mapToLong(Long::longValue).toArray(), variants);
+        }
+
+        private static VariantStock toStock(List<long[]> entries) {
+            entries.sort(Comparator.comparingLong((long[] e) -> e[0]).thenComparingLong(e -> e[1]));
+            int distinct = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                if (i == 0 || entries.get(i)[0] != entries.get(i - 1)[0]) {
+                    distinct++;
+                }
+            }
+            int[] warehouses = new int[distinct];
+            int[] available = new int[distinct];
+            int[] allocationStart = new int[distinct + 1];
+            long[] allocationIds = new long[entries.size()];
+            int[] allocationAvailable = new int[entries.size()];
+
+            int slot = -1;
+            for (int i = 0; i < entries.size(); i++) {
+                long[] entry = entries.get(i);
+                if (slot < 0 || warehouses[slot] != (int) entry[0]) {
+                    slot++;
+                    warehouses[slot] = (int) entry[0];
+                    allocationStart[slot] = i;
+                }
+                available[slot] = Math.addExact(available[slot], (int) entry[2]);
+                allocationIds[i] = entry[1];
+                allocationAvailable[i] = (int) entry[2];
+            }
+            allocationStart[distinct] = entries.size();
+            return new VariantStock(warehouses, available, allocationStart, allocationIds, allocationAvailable);
+        }
+    }
+}
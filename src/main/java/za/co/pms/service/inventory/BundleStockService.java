@@ -0,0 +1,182 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.BundleRepository;
+import za.co.pms.repository.projection.BundleComponentLine;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Kit availability kept current without reading allocations. A bundle can supply the least, over
+ * its components, of the component variant's available units divided by the units in each kit.
+ * {@link StockAggregates} reports every change to a variant's availability, and only the bundles
+ * containing that variant are recomputed, each from the aggregates' counters. Bundle definitions
+ * are reloaded on a schedule.
+ * <p>
+ * Reserving kits expands them into component lines and reserves all of them through
+ * {@link OrderAllocationService}, all or nothing.
+ */
+@Slf4j
+@Service
+public class BundleStockService implements VariantAvailabilityListener {
+
+    private final BundleRepository repository;
+    private final StockAggregates aggregates;
+    private final OrderAllocationService allocationService;
+    private final TransactionTemplate transactionTemplate;
+    private final long refreshMinutes;
+
+    private volatile Definitions definitions = new Definitions(Map.of(), Map.of());
+    private final Map<Long, Long> available = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public BundleStockService(BundleRepository repository,
+                              StockAggregates aggregates,
+                              OrderAllocationService allocationService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${inventory.bundles.refresh-minutes:5}") long refreshMinutes) {
+        this.repository = repository;
+        this.aggregates = aggregates;
+        this.allocationService = allocationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.refreshMinutes = refreshMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Registered first so no change is missed between loading and listening
+        aggregates.register(this);
+        refresh();
+        if (refreshMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "bundle-definitions-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        aggregates.unregister(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Whole kits the bundle can supply now, 0 for unknown or inactive bundles
+     */
+    public long available(long bundleId) {
+        Long kits = available.get(bundleId);
+        return kits == null ? 0 : kits;
+    }
+
+    /**
+     * Reserve every component of {@code kits} kits in one transaction
+     *
+     * @throws InsufficientStockException if any component is short; nothing is reserved
+     */
+    public AllocationPlan reserve(long bundleId, int kits) {
+        if (kits <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Component[] components = definitions.bundles().get(bundleId);
+        if (components == null) {
+            throw new IllegalArgumentException("Unknown or inactive bundle " + bundleId);
+        }
+        List<OrderLine> lines = new ArrayList<>(components.length);
+        for (Component component : components) {
+            lines.add(new OrderLine(component.variantId(), Math.multiplyExact(component.quantity(), kits)));
+        }
+        return allocationService.allocate(lines);
+    }
+
+    /**
+     * Reload the active bundles and recompute their availability
+     */
+    public void refresh() {
+        List<BundleComponentLine> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                repository.findActiveComponents()));
+        Map<Long, Map<Long, Integer>> bundles = new HashMap<>();
+        for (BundleComponentLine row : rows) {
+            if (row.quantity() <= 0) {
+                log.warn("Ignoring component {} of bundle {} with quantity {}", row.variantId(), row.bundleId(), row.quantity());
+                continue;
+            }
+            bundles.computeIfAbsent(row.bundleId(), id -> new TreeMap<>()).merge(row.variantId(), row.quantity(), Integer::sum);
+        }
+
+        Map<Long, Component[]> components = new HashMap<>(bundles.size() * 2);
+        Map<Long, List<Long>> containing = new HashMap<>();
+        bundles.forEach((bundleId, quantities) -> {
+            components.put(bundleId, quantities.entrySet().stream()
+                    .map(entry -> new Component(entry.getKey(), entry.getValue()))
+                    .toArray(Component[]::new));
+            quantities.keySet().forEach(variantId -> containing.computeIfAbsent(variantId, id -> new ArrayList<>()).add(bundleId));
+        });
+        Map<Long, long[]> byVariant = new HashMap<>(containing.size() * 2);
+        containing.forEach((variantId, ids) -> byVariant.put(variantId, ids.stream().mapToLong(Long::longValue).toArray()));
+
+        definitions = new Definitions(components, byVariant);
+        available.keySet().retainAll(components.keySet());
+        components.keySet().forEach(this::recompute);
+        log.info("Bundle availability loaded for {} bundles over {} component variants", components.size(), byVariant.size());
+    }
+
+    @Override
+    public void onAvailabilityChanged(long variantId, long previousAvailable, long available) {
+        long[] bundleIds = definitions.byVariant().get(variantId);
+        if (bundleIds != null) {
+            for (long bundleId : bundleIds) {
+                recompute(bundleId);
+            }
+        }
+    }
+
+    private void recompute(long bundleId) {
+        // compute() serializes recomputes of one bundle, and each reads the counters afresh, so the
+        // last writer always stores a value at least as new as every change that triggered it
+        available.compute(bundleId, (id, previous) -> {
+            Component[] components = definitions.bundles().get(id);
+            if (components == null) {
+                return null;
+            }
+            long kits = Long.MAX_VALUE;
+            for (Component component : components) {
+                long units = Math.max(0, aggregates.variant(component.variantId()).available());
+                kits = Math.min(kits, units / component.quantity());
+            }
+            return kits;
+        });
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Bundle definitions refresh failed; keeping the previous ones", e);
+        }
+    }
+
+    private record Component(long variantId, int quantity) {
+    }
+
+    private record Definitions(Map<Long, Component[]> bundles, Map<Long, long[]> byVariant) {
+    }
+}
@@ -0,0 +1,27 @@
+package za.co.pms.service.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Fixed cost per shipment plus a per-unit handling cost, the same for every warehouse
+ */
+@Component
+public class FlatShipmentCostModel implements ShipmentCostModel {
+
+    private final double perShipment;
+    private final double perUnit;
+
+    public FlatShipmentCostModel(@Value("${inventory.allocation.cost-per-shipment:1.0}") double perShipment,
+                                 @Value("${inventory.allocation.cost-per-unit:0.0}") double perUnit) {
+        this.perShipment = perShipment;
+        this.perUnit = perUnit;
+    }
+
+    @Override
+    public double cost(long warehouseId, int units) {
+        return perShipment + perUnit * units;
+    }
+}
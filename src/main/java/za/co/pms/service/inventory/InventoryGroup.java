@@ -0,0 +1,14 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Stock of one category, brand or vendor within a warehouse. {@code id} is {@code null} for
+ * allocations whose product has none; {@code name} is {@code null} where the dimension has no name.
+ */
+public record InventoryGroup(Long id, String name, long total, long reserved) {
+
+    public long available() {
+        return total - reserved;
+    }
+}
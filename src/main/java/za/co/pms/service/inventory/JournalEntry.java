@@ -0,0 +1,12 @@
+package za.co.pms.service.inventory;
+
+import za.co.pms.enums.StockMovementType;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One journaled stock movement. {@code amount} is the quantity reserved/released/received/issued,
+ * or the new on-hand quantity for {@link StockMovementType#ADJUST}.
+ */
+public record JournalEntry(long sequence, long allocationId, StockMovementType type, int amount, long timestampMillis) {
+}
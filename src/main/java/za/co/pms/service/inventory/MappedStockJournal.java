@@ -0,0 +1,266 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import za.co.pms.enums.StockMovementType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * {@link StockJournal} over pre-sized, memory-mapped segment files. An append is a copy into the
+ * mapping under a short lock; {@link #sync(long)} forces only the bytes written since the last
+ * force, outside that lock, so appenders keep going while one thread pays for the fsync. Each
+ * record carries a CRC32C; replay stops at the first zeroed or corrupt record of a segment.
+ */
+@Slf4j
+public class MappedStockJournal implements StockJournal {
+    static final int RECORD_SIZE = 33;
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "movements-";
+    private static final String SEGMENT_SUFFIX = ".mmap";
+    private static final StockMovementType[] TYPES = StockMovementType.values();
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final List<Segment> closedSegments = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+
+    private Segment current;
+    private long nextSegmentIndex;
+    private long appended;
+    private volatile long durable;
+
+    /**
+     * @param segmentBytes size of each mapped file, rounded down to whole records
+     */
+    public MappedStockJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_SIZE;
+        if (this.segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment must hold at least one record");
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing;
+            try (Stream<Path> files = Files.list(directory)) {
+                existing = files.filter(MappedStockJournal::isSegment).sorted().toList();
+            }
+            for (Path path : existing) {
+                Segment segment = Segment.map(path, Files.size(path));
+                segment.recover();
+                closedSegments.add(segment);
+            }
+            if (!closedSegments.isEmpty() && closedSegments.get(closedSegments.size() - 1).hasRoom()) {
+                current = closedSegments.remove(closedSegments.size() - 1);
+                current.forced = current.position;
+            }
+            nextSegmentIndex = existing.isEmpty() ? 0 : segmentIndex(existing.get(existing.size() - 1)) + 1;
+            if (current == null) {
+                current = newSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open stock journal in " + directory, e);
+        }
+    }
+
+    @Override
+    public long append(JournalEntry entry) {
+        synchronized (appendLock) {
+            if (!current.hasRoom()) {
+                roll();
+            }
+            MappedByteBuffer buffer = current.buffer;
+            int start = current.position;
+            buffer.putLong(start, entry.sequence())
+                    .putLong(start + 8, entry.allocationId())
+                    .put(start + 16, (byte) entry.type().ordinal())
+                    .putInt(start + 17, entry.amount())
+                    .putLong(start + 21, entry.timestampMillis());
+            crc.reset();
+            crc.update(buffer.slice(start, PAYLOAD_SIZE));
+            buffer.putInt(start + PAYLOAD_SIZE, (int) crc.getValue());
+            current.position = start + RECORD_SIZE;
+            current.maxSequence = Math.max(current.maxSequence, entry.sequence());
+            return ++appended;
+        }
+    }
+
+    @Override
+    public void sync(long ticket) {
+        if (durable >= ticket) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durable >= ticket) {
+                return; // covered by the force another caller just did
+            }
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            synchronized (appendLock) {
+                segment = current;
+                from = segment.forced;
+                to = segment.position;
+                target = appended;
+            }
+            if (to > from) {
+                segment.buffer.force(from, to - from);
+            }
+            synchronized (appendLock) {
+                segment.forced = Math.max(segment.forced, to);
+            }
+            durable = target;
+        }
+    }
+
+    @Override
+    public void replay(long afterSequence, Consumer<JournalEntry> consumer) {
+        List<Segment> segments;
+        List<Integer> limits = new ArrayList<>();
+        synchronized (appendLock) {
+            segments = new ArrayList<>(closedSegments);
+            segments.add(current);
+            segments.forEach(segment -> limits.add(segment.position));
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            ByteBuffer view = segments.get(i).buffer.duplicate();
+            for (int offset = 0; offset < limits.get(i); offset += RECORD_SIZE) {
+                JournalEntry entry = decode(view, offset);
+                if (entry.sequence() > afterSequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void truncateUpTo(long sequence) {
+        synchronized (appendLock) {
+            closedSegments.removeIf(segment -> {
+                if (segment.maxSequence > sequence) {
+                    return false;
+                }
+                segment.delete();
+                return true;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                current.buffer.force();
+                current.forced = current.position;
+                durable = appended;
+            }
+        }
+    }
+
+    public long bytesOnDisk() {
+        synchronized (appendLock) {
+            return (long) (closedSegments.size() + 1) * segmentBytes;
+        }
+    }
+
+    private void roll() {
+        current.buffer.force();
+        current.forced = current.position;
+        closedSegments.add(current);
+        current = newSegment();
+    }
+
+    private Segment newSegment() {
+        Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegmentIndex++, SEGMENT_SUFFIX));
+        try {
+            return Segment.map(path, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+    }
+
+    private static JournalEntry decode(ByteBuffer buffer, int offset) {
+        return new JournalEntry(buffer.getLong(offset), buffer.getLong(offset + 8), TYPES[buffer.get(offset + 16)],
+                buffer.getInt(offset + 17), buffer.getLong(offset + 21));
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int forced;
+        private long maxSequence;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private static Segment map(Path path, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // The mapping stays valid after the channel is closed
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        private boolean hasRoom() {
+            return buffer.capacity() - position >= RECORD_SIZE;
+        }
+
+        /**
+         * Find the end of the valid records after a restart
+         */
+        private void recover() {
+            CRC32C check = new CRC32C();
+            int offset = 0;
+            while (buffer.capacity() - offset >= RECORD_SIZE) {
+                long sequence = buffer.getLong(offset);
+                check.reset();
+                check.update(buffer.slice(offset, PAYLOAD_SIZE));
+                if (sequence <= 0 || buffer.getInt(offset + PAYLOAD_SIZE) != (int) check.getValue()
+                        || buffer.get(offset + 16) < 0 || buffer.get(offset + 16) >= TYPES.length) {
+                    break;
+                }
+                maxSequence = Math.max(maxSequence, sequence);
+                offset += RECORD_SIZE;
+            }
+            position = offset;
+            forced = offset;
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", path, e);
+            }
+        }
+    }
+}
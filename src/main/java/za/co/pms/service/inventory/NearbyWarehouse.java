@@ -0,0 +1,9 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A warehouse and its great-circle distance from the point searched
+ */
+public record NearbyWarehouse(long warehouseId, String code, double distanceKm) {
+}
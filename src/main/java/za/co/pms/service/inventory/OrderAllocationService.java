@@ -0,0 +1,121 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Plans which warehouses fulfil an order against a periodically rebuilt
+ * {@link AvailabilitySnapshot}, then reserves the plan with the conditional SQL path. A stale
+ * snapshot can only make a reservation fail, in which case the snapshot is rebuilt and the order
+ * planned once more.
+ */
+@Slf4j
+@Service
+public class OrderAllocationService {
+
+    private final StockAllocationRepository repository;
+    private final StockReservationService reservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderAllocator allocator;
+    private final long refreshSeconds;
+    private volatile AvailabilitySnapshot snapshot;
+    private ScheduledExecutorService scheduler;
+
+    public OrderAllocationService(StockAllocationRepository repository,
+                                  StockReservationService reservationService,
+                                  PlatformTransactionManager transactionManager,
+                                  ShipmentCostModel costModel,
+                                  @Value("${inventory.allocation.refresh-seconds:30}") long refreshSeconds) {
+        this.repository = repository;
+        this.reservationService = reservationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.allocator = new OrderAllocator(costModel);
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "availability-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Plan without reserving
+     */
+    public AllocationPlan plan(Collection<OrderLine> order) {
+        return allocator.allocate(currentSnapshot(), order);
+    }
+
+    /**
+     * Plan and reserve every pick, all or nothing
+     *
+     * @throws InsufficientStockException if the order cannot be covered even from fresh availability
+     */
+    public AllocationPlan allocate(Collection<OrderLine> order) {
+        AllocationPlan plan = plan(order);
+        try {
+            reservationService.reserveOrder(plan.reservationLines());
+            return plan;
+        } catch (InsufficientStockException e) {
+            log.debug("Plan went stale, replanning from fresh availability: {}", e.getMessage());
+        }
+        plan = allocator.allocate(refresh(), order);
+        reservationService.reserveOrder(plan.reservationLines());
+        return plan;
+    }
+
+    public AvailabilitySnapshot refresh() {
+        long started = System.nanoTime();
+        List<AllocationLevels> levels = transactionTemplate.execute(status -> repository.findAvailableInActiveWarehouses());
+        AvailabilitySnapshot.Builder builder = AvailabilitySnapshot.builder();
+        Objects.requireNonNull(levels).forEach(level ->
+                builder.add(level.id(), level.variantId(), level.warehouseId(), level.availableQuantity()));
+        AvailabilitySnapshot fresh = builder.build();
+        snapshot = fresh;
+        log.debug("Availability snapshot rebuilt: {} variants over {} warehouses in {} ms", fresh.variantCount(),
+                fresh.warehouseCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return fresh;
+    }
+
+    private AvailabilitySnapshot currentSnapshot() {
+        AvailabilitySnapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Availability snapshot refresh failed; keeping the previous one", e);
+        }
+    }
+}
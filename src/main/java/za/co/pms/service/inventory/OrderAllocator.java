@@ -0,0 +1,264 @@
+package za.co.pms.service.inventory;
+
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.service.inventory.AllocationPlan.Pick;
+import za.co.pms.service.inventory.AllocationPlan.Shipment;
+import za.co.pms.service.inventory.AvailabilitySnapshot.VariantStock;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Chooses warehouses for an order, fewest shipments first and lowest {@link ShipmentCostModel}
+ * cost second. A single warehouse that covers every line is always found, and for orders of up
+ * to 64 lines so is the cheapest pair that covers every line whole; beyond that a greedy set
+ * cover takes, at each step, the warehouse that completes the most lines. Work is linear in the
+ * snapshot entries of the ordered variants, so hundreds of warehouses cost microseconds.
+ */
+public final class OrderAllocator {
+    private static final int MASK_LINES = Long.SIZE;
+
+    private final ShipmentCostModel costModel;
+
+    public OrderAllocator(ShipmentCostModel costModel) {
+        this.costModel = costModel;
+    }
+
+    /**
+     * @throws InsufficientStockException naming every variant the snapshot cannot cover
+     */
+    public AllocationPlan allocate(AvailabilitySnapshot snapshot, Collection<OrderLine> order) {
+        Map<Long, Integer> wanted = new LinkedHashMap<>();
+        order.forEach(line -> wanted.merge(line.variantId(), line.quantity(), Math::addExact));
+
+        int lines = wanted.size();
+        long[] variantIds = new long[lines];
+        int[] quantities = new int[lines];
+        VariantStock[] stocks = new VariantStock[lines];
+        List<Long> shortVariants = new ArrayList<>();
+        int line = 0;
+        for (Map.Entry<Long, Integer> entry : wanted.entrySet()) {
+            variantIds[line] = entry.getKey();
+            quantities[line] = entry.getValue();
+            stocks[line] = snapshot.variant(entry.getKey());
+            if (stocks[line] == null || stocks[line].total() < entry.getValue()) {
+                shortVariants.add(entry.getKey());
+            }
+            line++;
+        }
+        if (!shortVariants.isEmpty()) {
+            throw new InsufficientStockException("Not enough available stock for variants " + shortVariants);
+        }
+        if (lines == 0) {
+            return new AllocationPlan(List.of(), 0);
+        }
+
+        Request request = new Request(snapshot, variantIds, quantities, stocks);
+        AllocationPlan plan = singleWarehouse(request);
+        if (plan == null && lines <= MASK_LINES) {
+            plan = cheapestPair(request);
+        }
+        return plan != null ? plan : greedy(request);
+    }
+
+    private AllocationPlan singleWarehouse(Request request) {
+        int warehouses = request.snapshot.warehouseCount();
+        int[] covered = new int[warehouses];
+        int[] units = new int[warehouses];
+        for (int i = 0; i < request.lines(); i++) {
+            VariantStock stock = request.stocks[i];
+            for (int k = 0; k < stock.warehouses().length; k++) {
+                if (stock.available()[k] >= request.quantities[i]) {
+                    covered[stock.warehouses()[k]]++;
+                    units[stock.warehouses()[k]] += request.quantities[i];
+                }
+            }
+        }
+        int best = -1;
+        double bestCost = Double.MAX_VALUE;
+        for (int w = 0; w < warehouses; w++) {
+            if (covered[w] == request.lines()) {
+                double cost = costModel.cost(request.snapshot.warehouseId(w), units[w]);
+                if (cost < bestCost) {
+                    best = w;
+                    bestCost = cost;
+                }
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        PlanBuilder builder = new PlanBuilder(request);
+        for (int i = 0; i < request.lines(); i++) {
+            builder.take(best, i);
+        }
+        return builder.build();
+    }
+
+    private AllocationPlan cheapestPair(Request request) {
+        int warehouses = request.snapshot.warehouseCount();
+        long[] masks = new long[warehouses];
+        for (int i = 0; i < request.lines(); i++) {
+            VariantStock stock = request.stocks[i];
+            for (int k = 0; k < stock.warehouses().length; k++) {
+                if (stock.available()[k] >= request.quantities[i]) {
+                    masks[stock.warehouses()[k]] |= 1L << i;
+                }
+            }
+        }
+        long all = request.lines() == MASK_LINES ? -1L : (1L << request.lines()) - 1;
+        int[] candidates = IntStream.range(0, warehouses).filter(w -> masks[w] != 0).toArray();
+
+        int bestA = -1;
+        int bestB = -1;
+        double bestCost = Double.MAX_VALUE;
+        for (int x = 0; x < candidates.length; x++) {
+            int a = candidates[x];
+            for (int y = x + 1; y < candidates.length; y++) {
+                int b = candidates[y];
+                if ((masks[a] | masks[b]) != all) {
+                    continue;
+                }
+                // Lines either can fill go to a; b takes only what a lacks
+                double cost = costModel.cost(request.snapshot.warehouseId(a), units(request, masks[a]))
+                        + costModel.cost(request.snapshot.warehouseId(b), units(request, all & ~masks[a]));
+                if (cost < bestCost) {
+                    bestA = a;
+                    bestB = b;
+                    bestCost = cost;
+                }
+            }
+        }
+        if (bestA < 0) {
+            return null;
+        }
+        PlanBuilder builder = new PlanBuilder(request);
+        for (int i = 0; i < request.lines(); i++) {
+            builder.take((masks[bestA] & (1L << i)) != 0 ? bestA : bestB, i);
+        }
+        return builder.build();
+    }
+
+    private AllocationPlan greedy(Request request) {
+        int warehouses = request.snapshot.warehouseCount();
+        int[] covered = new int[warehouses];
+        int[] units = new int[warehouses];
+        boolean[] chosen = new boolean[warehouses];
+        PlanBuilder builder = new PlanBuilder(request);
+
+        while (builder.open > 0) {
+            Arrays.fill(covered, 0);
+            Arrays.fill(units, 0);
+            for (int i = 0; i < request.lines(); i++) {
+                int remaining = builder.remaining[i];
+                if (remaining == 0) {
+                    continue;
+                }
+                VariantStock stock = request.stocks[i];
+                for (int k = 0; k < stock.warehouses().length; k++) {
+                    int w = stock.warehouses()[k];
+                    if (!chosen[w]) {
+                        units[w] += Math.min(stock.available()[k], remaining);
+                        if (stock.available()[k] >= remaining) {
+                            covered[w]++;
+                        }
+                    }
+                }
+            }
+
+            int best = -1;
+            double bestCost = Double.MAX_VALUE;
+            for (int w = 0; w < warehouses; w++) {
+                if (chosen[w] || units[w] == 0) {
+                    continue;
+                }
+                if (best < 0 || covered[w] > covered[best]
+                        || covered[w] == covered[best] && units[w] > units[best]) {
+                    best = w;
+                    bestCost = costModel.cost(request.snapshot.warehouseId(w), units[w]);
+                } else if (covered[w] == covered[best] && units[w] == units[best]) {
+                    double cost = costModel.cost(request.snapshot.warehouseId(w), units[w]);
+                    if (cost < bestCost) {
+                        best = w;
+                        bestCost = cost;
+                    }
+                }
+            }
+            if (best < 0) {
+                throw new IllegalStateException("Snapshot totals cover the order but no warehouse has stock left");
+            }
+            chosen[best] = true;
+            for (int i = 0; i < request.lines(); i++) {
+                if (builder.remaining[i] > 0) {
+                    builder.take(best, i);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int units(Request request, long mask) {
+        int units = 0;
+        for (int i = 0; i < request.lines(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                units += request.quantities[i];
+            }
+        }
+        return units;
+    }
+
+    private record Request(AvailabilitySnapshot snapshot, long[] variantIds, int[] quantities, VariantStock[] stocks) {
+        private int lines() {
+            return variantIds.length;
+        }
+    }
+
+    private final class PlanBuilder {
+        private final Request request;
+        private final int[] remaining;
+        private final Map<Integer, List<Pick>> picks = new LinkedHashMap<>();
+        private final Map<Integer, Integer> units = new HashMap<>();
+        private int open;
+
+        private PlanBuilder(Request request) {
+            this.request = request;
+            this.remaining = request.quantities.clone();
+            this.open = remaining.length;
+        }
+
+        /**
+         * Take as much of line {@code i} as warehouse {@code w} holds, allocation by allocation
+         */
+        private void take(int w, int i) {
+            VariantStock stock = request.stocks[i];
+            int k = Arrays.binarySearch(stock.warehouses(), w);
+            if (k < 0) {
+                return;
+            }
+            for (int j = stock.allocationStart()[k]; j < stock.allocationStart()[k + 1] && remaining[i] > 0; j++) {
+                int quantity = Math.min(stock.allocationAvailable()[j], remaining[i]);
+                picks.computeIfAbsent(w, key -> new ArrayList<>())
+                        .add(new Pick(stock.allocationIds()[j], request.variantIds[i], quantity));
+                units.merge(w, quantity, Integer::sum);
+                remaining[i] -= quantity;
+            }
+            if (remaining[i] == 0) {
+                open--;
+            }
+        }
+
+        private AllocationPlan build() {
+            List<Shipment> shipments = new ArrayList<>(picks.size());
+            double total = 0;
+            for (Map.Entry<Integer, List<Pick>> entry : picks.entrySet()) {
+                long warehouseId = request.snapshot.warehouseId(entry.getKey());
+                double cost = costModel.cost(warehouseId, units.get(entry.getKey()));
+                shipments.add(new Shipment(warehouseId, List.copyOf(entry.getValue()), cost));
+                total += cost;
+            }
+            return new AllocationPlan(List.copyOf(shipments), total);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Units of one variant wanted by an order
+ */
+public record OrderLine(long variantId, int quantity) {
+
+    public OrderLine {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package za.co.pms.service.inventory;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Outcome of comparing maintained aggregates with the allocation rows
+ *
+ * @param drifted   variants whose counters differed from the database on this run
+ * @param corrected variants whose drift was the same as on the previous run and was repaired
+ */
+public record ReconciliationReport(int variantsChecked, List<Long> drifted, List<Long> corrected) {
+
+    public boolean isClean() {
+        return drifted.isEmpty();
+    }
+}
@@ -0,0 +1,110 @@
+package za.co.pms.service.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Counters behind {@link ReservationHoldMetricsMXBean}
+ */
+public class ReservationHoldMetrics implements ReservationHoldMetricsMXBean {
+    private final IntSupplier outstanding;
+    private final IntSupplier quarantined;
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private final LongAdder latencyTotal = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    public ReservationHoldMetrics(IntSupplier outstanding, IntSupplier quarantined) {
+        this.outstanding = outstanding;
+        this.quarantined = quarantined;
+    }
+
+    void placed() {
+        placed.increment();
+    }
+
+    void confirmed() {
+        confirmed.increment();
+    }
+
+    void released() {
+        released.increment();
+    }
+
+    void expiredBatch(int size) {
+        batches.increment();
+        lastBatchSize.set(size);
+        maxBatchSize.accumulateAndGet(size, Math::max);
+    }
+
+    void expired(long latencyMillis) {
+        expired.increment();
+        latencyTotal.add(latencyMillis);
+        maxLatency.accumulateAndGet(latencyMillis, Math::max);
+    }
+
+    @Override
+    public int getOutstandingHolds() {
+        return outstanding.getAsInt();
+    }
+
+    @Override
+    public int getQuarantinedHolds() {
+        return quarantined.getAsInt();
+    }
+
+    @Override
+    public long getHoldsPlaced() {
+        return placed.sum();
+    }
+
+    @Override
+    public long getHoldsConfirmed() {
+        return confirmed.sum();
+    }
+
+    @Override
+    public long getHoldsReleased() {
+        return released.sum();
+    }
+
+    @Override
+    public long getHoldsExpired() {
+        return expired.sum();
+    }
+
+    @Override
+    public long getExpiryBatches() {
+        return batches.sum();
+    }
+
+    @Override
+    public int getLastExpiryBatchSize() {
+        return lastBatchSize.get();
+    }
+
+    @Override
+    public int getMaxExpiryBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    @Override
+    public double getMeanExpiryLatencyMillis() {
+        long count = expired.sum();
+        return count == 0 ? 0 : (double) latencyTotal.sum() / count;
+    }
+
+    @Override
+    public long getMaxExpiryLatencyMillis() {
+        return maxLatency.get();
+    }
+}
@@ -0,0 +1,37 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * JMX view of reservation hold activity, registered as {@code za.co.pms:type=ReservationHolds}
+ */
+public interface ReservationHoldMetricsMXBean {
+
+    int getOutstandingHolds();
+
+    /**
+     * Overdue holds whose stock could not be released and are no longer retried
+     */
+    int getQuarantinedHolds();
+
+    long getHoldsPlaced();
+
+    long getHoldsConfirmed();
+
+    long getHoldsReleased();
+
+    long getHoldsExpired();
+
+    long getExpiryBatches();
+
+    int getLastExpiryBatchSize();
+
+    int getMaxExpiryBatchSize();
+
+    /**
+     * Mean time from a hold's deadline to its stock being released
+     */
+    double getMeanExpiryLatencyMillis();
+
+    long getMaxExpiryLatencyMillis();
+}
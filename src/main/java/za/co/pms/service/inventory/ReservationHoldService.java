@@ -0,0 +1,388 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.HoldStatus;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.ReservationHold;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+import za.co.pms.service.inventory.TimingWheel.Timer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Owned, time-limited stock reservations. Each active hold sits in a {@link TimingWheel}; a tick
+ * thread drains due holds and expires them in batches, each batch one transaction that flips the
+ * holds and releases their stock through {@link StockReservationService}. The table is scanned
+ * at start-up to rebuild the wheel, then every few minutes for overdue holds that have no timer
+ * here, such as holds placed on another node or whose timer was lost after their commit.
+ * <p>
+ * When a batch fails its holds are retried one by one, so a single hold whose stock cannot be
+ * released does not keep the rest of its batch from expiring. A hold whose release is refused is
+ * quarantined: it stays active, is logged and counted, and is not retried until it is confirmed
+ * or released by hand.
+ */
+@Slf4j
+@Service
+public class ReservationHoldService {
+
+    private static final String ACTIVE_DEADLINES =
+            "select h.id, h.expiresAt from ReservationHold h where h.status = :status";
+
+    private static final String OVERDUE_DEADLINES =
+            "select h.id, h.expiresAt from ReservationHold h where h.status = :status and h.expiresAt <= :now";
+
+    private static final String LOCK_ACTIVE =
+            "select h from ReservationHold h where h.id in :ids and h.status = :status";
+
+    private static final int RETRY_TICKS = 50;
+    private static final String METRICS_NAME = "za.co.pms:type=ReservationHolds";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StockReservationService reservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultTtl;
+    private final int batchSize;
+    private final long rescanMinutes;
+    private final TimingWheel<Long> wheel;
+    private final Map<Long, Timer<Long>> timers = new ConcurrentHashMap<>();
+    private final Set<Long> quarantined = ConcurrentHashMap.newKeySet();
+    private final ReservationHoldMetrics metrics;
+    private ScheduledExecutorService scheduler;
+
+    public ReservationHoldService(StockReservationService reservationService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.holds.ttl-minutes:15}") long ttlMinutes,
+                                  @Value("${inventory.holds.tick-millis:100}") long tickMillis,
+                                  @Value("${inventory.holds.batch-size:500}") int batchSize,
+                                  @Value("${inventory.holds.rescan-minutes:5}") long rescanMinutes) {
+        this.reservationService = reservationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultTtl = Duration.ofMinutes(ttlMinutes);
+        this.batchSize = batchSize;
+        this.rescanMinutes = rescanMinutes;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.metrics = new ReservationHoldMetrics(this::outstanding, quarantined::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        registerMetrics();
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery(ACTIVE_DEADLINES, Object[].class)
+                        .setParameter("status", HoldStatus.ACTIVE)
+                        .getResultStream()
+                        .forEach(row -> schedule((Long) row[0], (LocalDateTime) row[1])));
+        log.info("Reservation hold wheel rebuilt with {} active holds", outstanding());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::expireQuietly, wheel.tickMillis(), wheel.tickMillis(), TimeUnit.MILLISECONDS);
+        if (rescanMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::rescanQuietly, rescanMinutes, rescanMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(METRICS_NAME));
+        } catch (JMException e) {
+            log.debug("Reservation hold metrics were not registered", e);
+        }
+    }
+
+    public Long place(long allocationId, String owner, int quantity) {
+        return place(allocationId, owner, quantity, defaultTtl);
+    }
+
+    /**
+     * Reserve {@code quantity} for {@code owner} until {@code ttl} from now
+     *
+     * @return the hold id
+     * @throws InsufficientStockException if the allocation cannot cover the quantity
+     */
+    public Long place(long allocationId, String owner, int quantity, Duration ttl) {
+        ReservationHold hold = transactionTemplate.execute(status -> {
+            if (!reservationService.tryReserve(allocationId, quantity)) {
+                throw new InsufficientStockException("Not enough available stock");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            ReservationHold created = new ReservationHold();
+            created.setAllocation(entityManager.getReference(StockAllocation.class, allocationId));
+            created.setOwner(owner);
+            created.setQuantity(quantity);
+            created.setCreatedAt(now);
+            created.setExpiresAt(now.plus(ttl));
+            entityManager.persist(created);
+            return created;
+        });
+        Objects.requireNonNull(hold);
+        schedule(hold.getId(), hold.getExpiresAt());
+        metrics.placed();
+        return hold.getId();
+    }
+
+    /**
+     * Turn the hold into an order; its stock stays reserved
+     *
+     * @return {@code false} if the hold is no longer active
+     */
+    public boolean confirm(Long holdId) {
+        boolean closed = close(holdId, HoldStatus.CONFIRMED);
+        if (closed) {
+            metrics.confirmed();
+        }
+        return closed;
+    }
+
+    /**
+     * Give the stock back before the hold expires
+     *
+     * @return {@code false} if the hold is no longer active
+     */
+    public boolean release(Long holdId) {
+        boolean closed = close(holdId, HoldStatus.RELEASED);
+        if (closed) {
+            metrics.released();
+        }
+        return closed;
+    }
+
+    public ReservationHoldMetricsMXBean getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Expire every hold due by now
+     *
+     * @return number of holds expired
+     */
+    public int expireDue() {
+        return expireDue(System.currentTimeMillis());
+    }
+
+    /**
+     * Put every active hold that expired by now and has no timer here on the wheel, to be expired
+     * on the next tick
+     *
+     * @return number of holds scheduled
+     */
+    public int rescan() {
+        return rescan(LocalDateTime.now());
+    }
+
+    int expireDue(long nowMillis) {
+        List<Timer<Long>> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(nowMillis, due::add);
+        }
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Timer<Long>> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            batch.forEach(timer -> timers.remove(timer.value(), timer));
+            try {
+                expired += expireBatch(batch, nowMillis);
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} reservation holds; retrying them one by one", batch.size(), e);
+                expired += expireEach(batch, nowMillis);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Expire the holds of a failed batch in their own transactions. A refused release quarantines
+     * its hold; any other failure puts the hold and those after it back on the wheel.
+     */
+    private int expireEach(List<Timer<Long>> batch, long nowMillis) {
+        int expired = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Timer<Long> timer = batch.get(i);
+            try {
+                expired += expireBatch(List.of(timer), nowMillis);
+            } catch (IllegalArgumentException e) {
+                quarantined.add(timer.value());
+                log.error("Quarantined reservation hold {}: its stock cannot be released", timer.value(), e);
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire reservation hold {}; retrying {} holds shortly", timer.value(), batch.size() - i, e);
+                long retryAt = nowMillis + RETRY_TICKS * wheel.tickMillis();
+                batch.subList(i, batch.size()).forEach(retry -> scheduleIfAbsent(retry.value(), retryAt));
+                break;
+            }
+        }
+        return expired;
+    }
+
+    int rescan(LocalDateTime now) {
+        List<Object[]> overdue = Objects.requireNonNull(transactionTemplate.execute(status ->
+                entityManager.createQuery(OVERDUE_DEADLINES, Object[].class)
+                        .setParameter("status", HoldStatus.ACTIVE)
+                        .setParameter("now", now)
+                        .getResultList()));
+        int scheduled = 0;
+        for (Object[] row : overdue) {
+            if (!quarantined.contains((Long) row[0]) && scheduleIfAbsent((Long) row[0], toMillis((LocalDateTime) row[1]))) {
+                scheduled++;
+            }
+        }
+        if (scheduled > 0) {
+            log.info("Reservation hold rescan found {} overdue holds without a timer", scheduled);
+        }
+        return scheduled;
+    }
+
+    private int expireBatch(List<Timer<Long>> batch, long nowMillis) {
+        List<Long> ids = batch.stream().map(Timer::value).toList();
+        List<Long> expired = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            List<ReservationHold> holds = lockActive(ids);
+            LocalDateTime now = LocalDateTime.now();
+            List<ReservationLine> lines = new ArrayList<>(holds.size());
+            for (ReservationHold hold : holds) {
+                hold.setStatus(HoldStatus.EXPIRED);
+                hold.setClosedAt(now);
+                lines.add(new ReservationLine(hold.getAllocation().getId(), hold.getQuantity()));
+            }
+            reservationService.releaseOrder(lines);
+            return holds.stream().map(ReservationHold::getId).toList();
+        }));
+
+        // Holds closed elsewhere since their timer was set are not counted
+        Set<Long> expiredIds = new HashSet<>(expired);
+        for (Timer<Long> timer : batch) {
+            if (expiredIds.contains(timer.value())) {
+                metrics.expired(Math.max(0, nowMillis - timer.deadlineMillis()));
+            }
+        }
+        metrics.expiredBatch(expired.size());
+        return expired.size();
+    }
+
+    private boolean close(Long holdId, HoldStatus outcome) {
+        Boolean closed = transactionTemplate.execute(status -> {
+            List<ReservationHold> holds = lockActive(List.of(holdId));
+            if (holds.isEmpty()) {
+                return false;
+            }
+            ReservationHold hold = holds.get(0);
+            hold.setStatus(outcome);
+            hold.setClosedAt(LocalDateTime.now());
+            if (outcome == HoldStatus.RELEASED) {
+                reservationService.releaseOrder(List.of(new ReservationLine(hold.getAllocation().getId(), hold.getQuantity())));
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(closed)) {
+            quarantined.remove(holdId);
+            Timer<Long> timer = timers.remove(holdId);
+            if (timer != null) {
+                synchronized (wheel) {
+                    wheel.cancel(timer);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private List<ReservationHold> lockActive(List<Long> ids) {
+        return entityManager.createQuery(LOCK_ACTIVE, ReservationHold.class)
+                .setParameter("ids", ids)
+                .setParameter("status", HoldStatus.ACTIVE)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private void schedule(Long holdId, LocalDateTime expiresAt) {
+        schedule(holdId, toMillis(expiresAt));
+    }
+
+    private void schedule(Long holdId, long deadline) {
+        synchronized (wheel) {
+            timers.put(holdId, wheel.schedule(holdId, deadline));
+        }
+    }
+
+    private boolean scheduleIfAbsent(Long holdId, long deadline) {
+        synchronized (wheel) {
+            if (timers.containsKey(holdId)) {
+                return false;
+            }
+            timers.put(holdId, wheel.schedule(holdId, deadline));
+            return true;
+        }
+    }
+
+    private int outstanding() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void registerMetrics() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(METRICS_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            log.warn("Could not register reservation hold metrics", e);
+        }
+    }
+
+    private void rescanQuietly() {
+        try {
+            rescan();
+        } catch (RuntimeException e) {
+            log.warn("Reservation hold rescan failed", e);
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            expireDue();
+        } catch (RuntimeException e) {
+            log.warn("Reservation hold expiry tick failed", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,296 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.StockMovementType;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.AllocationChange;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Group-committed stock mutations for allocations under checkout load. Callers queue a mutation
+ * and wait; a single writer takes everything queued so far, row-locks the allocations involved in
+ * ascending id order, checks each mutation in arrival order against the locked levels and writes
+ * one coalesced change per allocation, all in one transaction. A mutation is acknowledged, and its
+ * movement delivered, only after that transaction commits, so a failed batch leaves nothing
+ * applied and the caller may safely retry.
+ * <p>
+ * The ledger holds no levels of its own. The conditional SQL path, order allocation, holds, feed
+ * ingestion and transfers may write the same rows at any time; they serialise with a batch on the
+ * row locks.
+ */
+@Slf4j
+@Service
+public class ReservationLedger {
+
+    private final StockAllocationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockMovementPublisher publisher;
+    private final int batchSize;
+
+    private final BlockingQueue<Mutation> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread writer;
+
+    public ReservationLedger(StockAllocationRepository repository,
+                             PlatformTransactionManager transactionManager,
+                             StockMovementPublisher publisher,
+                             @Value("${inventory.ledger.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "reservation-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Mutation> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(mutation -> mutation.outcome.completeExceptionally(notRunning()));
+    }
+
+    public int getAvailableQuantity(long allocationId) {
+        List<AllocationLevels> levels = transactionTemplate.execute(status -> repository.findLevels(List.of(allocationId)));
+        return Objects.requireNonNull(levels).stream()
+                .findFirst()
+                .map(AllocationLevels::availableQuantity)
+                .orElseThrow(() -> new IllegalArgumentException("Stock allocation not found: " + allocationId));
+    }
+
+    /**
+     * @throws InsufficientStockException if fewer than {@code amount} units are available
+     */
+    public void reserve(long allocationId, int amount) {
+        requirePositive(amount);
+        mutate(allocationId, StockMovementType.RESERVE, amount);
+    }
+
+    public void release(long allocationId, int amount) {
+        requirePositive(amount);
+        mutate(allocationId, StockMovementType.RELEASE, amount);
+    }
+
+    public void adjustQuantity(long allocationId, int newQuantity) {
+        mutate(allocationId, StockMovementType.ADJUST, newQuantity);
+    }
+
+    /**
+     * Apply one batch in one transaction and settle every mutation in it. If the transaction
+     * fails, every mutation fails with it and nothing is applied.
+     *
+     * @return number of allocation rows written
+     */
+    int commit(List<Mutation> batch) {
+        int written;
+        try {
+            written = Objects.requireNonNull(transactionTemplate.execute(status -> apply(batch)));
+        } catch (RuntimeException e) {
+            log.warn("Reservation ledger batch of {} mutations failed; nothing was applied", batch.size(), e);
+            IllegalStateException failure = new IllegalStateException("Stock mutation was not applied", e);
+            batch.forEach(mutation -> mutation.outcome.completeExceptionally(failure));
+            return 0;
+        }
+        for (Mutation mutation : batch) {
+            if (mutation.refusal == null) {
+                mutation.outcome.complete(null);
+            } else {
+                mutation.outcome.completeExceptionally(mutation.refusal);
+            }
+        }
+        return written;
+    }
+
+    private int apply(List<Mutation> batch) {
+        List<Long> ids = batch.stream().map(Mutation::allocationId).distinct().sorted().toList();
+        Map<Long, Levels> levels = new LinkedHashMap<>();
+        for (AllocationLevels locked : repository.lockLevels(ids)) {
+            levels.put(locked.id(), new Levels(locked.quantity(), locked.reservedQuantity()));
+        }
+
+        List<StockMovement> movements = new ArrayList<>(batch.size());
+        for (Mutation mutation : batch) {
+            Levels current = levels.get(mutation.allocationId());
+            mutation.refusal = current == null
+                    ? new IllegalArgumentException("Stock allocation not found: " + mutation.allocationId())
+                    : current.refusal(mutation.type(), mutation.amount());
+            if (mutation.refusal == null) {
+                movements.add(current.apply(mutation.allocationId(), mutation.type(), mutation.amount()));
+            }
+        }
+
+        List<AllocationChange> changes = new ArrayList<>();
+        levels.forEach((id, level) -> {
+            if (level.changed()) {
+                changes.add(level.change(id));
+            }
+        });
+        repository.applyLedgerChanges(changes);
+        publisher.publishAll(movements);
+        return changes.size();
+    }
+
+    private void mutate(long allocationId, StockMovementType type, int amount) {
+        if (!running) {
+            throw notRunning();
+        }
+        Mutation mutation = new Mutation(allocationId, type, amount);
+        queue.add(mutation);
+        // stop() may have drained the queue between the check and the add
+        if (!running && queue.remove(mutation)) {
+            throw notRunning();
+        }
+        try {
+            // Not interruptible: once queued, the caller learns whether the mutation was applied
+            mutation.outcome.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void drain() {
+        List<Mutation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private static IllegalStateException notRunning() {
+        return new IllegalStateException("Reservation ledger is not running");
+    }
+
+    private static void requirePositive(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    /**
+     * One queued mutation and how it ended; {@code refusal} is written by the writer only
+     */
+    static final class Mutation {
+        private final long allocationId;
+        private final StockMovementType type;
+        private final int amount;
+        private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+        private RuntimeException refusal;
+
+        Mutation(long allocationId, StockMovementType type, int amount) {
+            this.allocationId = allocationId;
+            this.type = type;
+            this.amount = amount;
+        }
+
+        long allocationId() {
+            return allocationId;
+        }
+
+        StockMovementType type() {
+            return type;
+        }
+
+        int amount() {
+            return amount;
+        }
+
+        CompletableFuture<Void> outcome() {
+            return outcome;
+        }
+    }
+
+    /**
+     * Levels of one locked allocation as the batch moves them, and what they were when locked
+     */
+    private static final class Levels {
+        private final int lockedQuantity;
+        private final int lockedReserved;
+        private int quantity;
+        private int reserved;
+
+        private Levels(int quantity, int reserved) {
+            this.lockedQuantity = quantity;
+            this.lockedReserved = reserved;
+            this.quantity = quantity;
+            this.reserved = reserved;
+        }
+
+        private RuntimeException refusal(StockMovementType type, int amount) {
+            return switch (type) {
+                case RESERVE -> amount > quantity - reserved
+                        ? new InsufficientStockException("Not enough available stock") : null;
+                case RELEASE -> amount > reserved
+                        ? new IllegalArgumentException("Cannot release more than reserved") : null;
+                case ADJUST -> amount < reserved
+                        ? new IllegalArgumentException("New quantity cannot be less than reserved quantity") : null;
+                case RECEIVE, ISSUE -> new IllegalArgumentException("Ledger does not apply " + type);
+            };
+        }
+
+        private StockMovement apply(long allocationId, StockMovementType type, int amount) {
+            return switch (type) {
+                case RESERVE -> {
+                    reserved += amount;
+                    yield StockMovement.reserved(allocationId, amount);
+                }
+                case RELEASE -> {
+                    reserved -= amount;
+                    yield StockMovement.released(allocationId, amount);
+                }
+                case ADJUST -> {
+                    int delta = amount - quantity;
+                    quantity = amount;
+                    yield StockMovement.adjusted(allocationId, delta);
+                }
+                case RECEIVE, ISSUE -> throw new IllegalArgumentException("Ledger does not apply " + type);
+            };
+        }
+
+        private boolean changed() {
+            return quantity != lockedQuantity || reserved != lockedReserved;
+        }
+
+        private AllocationChange change(long allocationId) {
+            return new AllocationChange(allocationId, quantity == lockedQuantity ? null : quantity, reserved - lockedReserved);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Cost of sending one shipment from a warehouse. Used by {@link OrderAllocator} to choose between
+ * plans with the same number of shipments.
+ */
+@FunctionalInterface
+public interface ShipmentCostModel {
+
+    double cost(long warehouseId, int units);
+}
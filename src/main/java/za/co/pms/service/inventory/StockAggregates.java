@@ -0,0 +1,304 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Per-variant, per-product and per-variant-per-warehouse stock totals kept in memory and moved by
+ * every {@link StockMovement}, so badges, listings and warehouse routing never touch allocation
+ * rows. Loaded with one grouped query; a scheduled reconciliation re-runs it per variant and
+ * warehouse and repairs counters whose drift is the same on two consecutive runs, which filters
+ * out movements that were in flight during the query. A repair moves the warehouse, variant and
+ * product counters together, so warehouse routing is corrected along with the badges. Every change
+ * to a variant's available units is passed on to the registered {@link VariantAvailabilityListener}s.
+ */
+@Slf4j
+@Service
+public class StockAggregates implements StockMovementListener {
+
+    static final String ALLOCATION_OWNERS = """
+            select s.id, v.id, p.id, w.id from StockAllocation s
+            join s.productVariant v
+            left join v.product p
+            left join s.warehouse w""";
+
+    static final String ALLOCATION_OWNER = ALLOCATION_OWNERS + " where s.id = :id";
+
+    static final String WAREHOUSE_TOTALS = """
+            select v.id, p.id, w.id, sum(s.quantity), sum(s.reservedQuantity) from StockAllocation s
+            join s.productVariant v
+            left join v.product p
+            left join s.warehouse w
+            group by v.id, p.id, w.id""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StockMovementPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long reconcileSeconds;
+
+    private final Map<Long, Owner> owners = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> variants = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> products = new ConcurrentHashMap<>();
+    private final Map<Long, Long> variantProducts = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Counter>> variantWarehouses = new ConcurrentHashMap<>();
+    private final Map<Cell, Drift> previousDrift = new HashMap<>();
+    private final List<VariantAvailabilityListener> availabilityListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public StockAggregates(StockMovementPublisher publisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${inventory.aggregates.reconcile-seconds:300}") long reconcileSeconds) {
+        this.publisher = publisher;
+        // Movements arrive in afterCommit callbacks, so owner lookups need their own transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.reconcileSeconds = reconcileSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher.register(this);
+        load();
+        if (reconcileSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stock-aggregates-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileSeconds, reconcileSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.unregister(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public StockTotals variant(long variantId) {
+        Counter counter = variants.get(variantId);
+        return counter == null ? StockTotals.NONE : counter.totals();
+    }
+
+    /**
+     * Totals of one variant in one warehouse
+     */
+    public StockTotals variant(long variantId, long warehouseId) {
+        Map<Long, Counter> warehouses = variantWarehouses.get(variantId);
+        Counter counter = warehouses == null ? null : warehouses.get(warehouseId);
+        return counter == null ? StockTotals.NONE : counter.totals();
+    }
+
+    public StockTotals product(long productId) {
+        Counter counter = products.get(productId);
+        return counter == null ? StockTotals.NONE : counter.totals();
+    }
+
+    public void register(VariantAvailabilityListener listener) {
+        availabilityListeners.add(listener);
+    }
+
+    public void unregister(VariantAvailabilityListener listener) {
+        availabilityListeners.remove(listener);
+    }
+
+    @Override
+    public void onMovement(StockMovement movement) {
+        Owner owner = owners.get(movement.allocationId());
+        if (owner == null) {
+            owner = lookupOwner(movement.allocationId());
+            if (owner == null) {
+                log.debug("Ignoring movement of unknown allocation {}", movement.allocationId());
+                return;
+            }
+        }
+        apply(owner, movement.quantityDelta(), movement.reservedDelta());
+    }
+
+    /**
+     * Compare every variant in every warehouse with its allocation rows and repair drift seen twice
+     * in a row. Allocations without a warehouse form a cell of their own per variant.
+     */
+    public synchronized ReconciliationReport reconcile() {
+        List<Object[]> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                entityManager.createQuery(WAREHOUSE_TOTALS, Object[].class).getResultList()));
+
+        Map<Cell, Drift> drifts = new HashMap<>();
+        Set<Cell> seen = new HashSet<>(rows.size() * 2);
+        Set<Long> checked = new HashSet<>();
+        for (Object[] row : rows) {
+            Cell cell = new Cell((Long) row[0], (Long) row[2]);
+            seen.add(cell);
+            checked.add(cell.variantId());
+            StockTotals current = cell(cell);
+            Drift drift = new Drift((Long) row[1], number(row[3]) - current.total(), number(row[4]) - current.reserved());
+            if (!drift.isZero()) {
+                drifts.put(cell, drift);
+            }
+        }
+        variants.forEach((variantId, counter) -> {
+            List<Cell> cells = new ArrayList<>();
+            cells.add(new Cell(variantId, null));
+            variantWarehouses.getOrDefault(variantId, Map.of()).keySet()
+                    .forEach(warehouseId -> cells.add(new Cell(variantId, warehouseId)));
+            for (Cell cell : cells) {
+                StockTotals current = cell(cell);
+                if (!seen.contains(cell) && (current.total() != 0 || current.reserved() != 0)) {
+                    drifts.put(cell, new Drift(variantProducts.get(variantId), -current.total(), -current.reserved()));
+                }
+            }
+        });
+
+        Set<Long> drifted = new LinkedHashSet<>();
+        Set<Long> corrected = new LinkedHashSet<>();
+        Map<Cell, Drift> pending = new HashMap<>();
+        drifts.forEach((cell, drift) -> {
+            drifted.add(cell.variantId());
+            if (drift.equals(previousDrift.get(cell))) {
+                apply(new Owner(cell.variantId(), drift.productId(), cell.warehouseId()), drift.total(), drift.reserved());
+                corrected.add(cell.variantId());
+            } else {
+                pending.put(cell, drift);
+            }
+        });
+        previousDrift.clear();
+        previousDrift.putAll(pending);
+        if (!drifts.isEmpty()) {
+            log.warn("Stock aggregates drifted in {} warehouse cells of {} variants, corrected {} variants",
+                    drifts.size(), drifted.size(), corrected.size());
+        }
+        return new ReconciliationReport(checked.size(), List.copyOf(drifted), List.copyOf(corrected));
+    }
+
+    void load() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery(ALLOCATION_OWNERS, Object[].class).getResultStream()
+                    .forEach(row -> owners.put((Long) row[0], new Owner((Long) row[1], (Long) row[2], (Long) row[3])));
+            entityManager.createQuery(WAREHOUSE_TOTALS, Object[].class).getResultStream()
+                    .forEach(row -> apply(new Owner((Long) row[0], (Long) row[1], (Long) row[2]), number(row[3]), number(row[4])));
+        });
+        log.info("Stock aggregates loaded: {} allocations, {} variants, {} products",
+                owners.size(), variants.size(), products.size());
+    }
+
+    private Owner lookupOwner(long allocationId) {
+        Owner owner = transactionTemplate.execute(status ->
+                entityManager.createQuery(ALLOCATION_OWNER, Object[].class)
+                        .setParameter("id", allocationId)
+                        .getResultStream()
+                        .findFirst()
+                        .map(row -> new Owner((Long) row[1], (Long) row[2], (Long) row[3]))
+                        .orElse(null));
+        if (owner != null) {
+            owners.put(allocationId, owner);
+        }
+        return owner;
+    }
+
+    private void apply(Owner owner, long totalDelta, long reservedDelta) {
+        long available = variants.computeIfAbsent(owner.variantId(), id -> new Counter()).add(totalDelta, reservedDelta);
+        long availableDelta = totalDelta - reservedDelta;
+        if (availableDelta != 0) {
+            for (VariantAvailabilityListener listener : availabilityListeners) {
+                listener.onAvailabilityChanged(owner.variantId(), available - availableDelta, available);
+            }
+        }
+        if (owner.productId() != null) {
+            variantProducts.putIfAbsent(owner.variantId(), owner.productId());
+            products.computeIfAbsent(owner.productId(), id -> new Counter()).add(totalDelta, reservedDelta);
+        }
+        if (owner.warehouseId() != null) {
+            variantWarehouses.computeIfAbsent(owner.variantId(), id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(owner.warehouseId(), id -> new Counter())
+                    .add(totalDelta, reservedDelta);
+        }
+    }
+
+    /**
+     * Counters of one cell; the cell without a warehouse holds whatever the variant has beyond its
+     * warehouse counters
+     */
+    private StockTotals cell(Cell cell) {
+        if (cell.warehouseId() != null) {
+            return variant(cell.variantId(), cell.warehouseId());
+        }
+        StockTotals variant = variant(cell.variantId());
+        long total = variant.total();
+        long reserved = variant.reserved();
+        for (Counter counter : variantWarehouses.getOrDefault(cell.variantId(), Map.of()).values()) {
+            StockTotals warehouse = counter.totals();
+            total -= warehouse.total();
+            reserved -= warehouse.reserved();
+        }
+        return new StockTotals(total, reserved);
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Stock aggregate reconciliation failed", e);
+        }
+    }
+
+    private record Owner(long variantId, Long productId, Long warehouseId) {
+    }
+
+    private record Cell(long variantId, Long warehouseId) {
+    }
+
+    private record Drift(Long productId, long total, long reserved) {
+        private boolean isZero() {
+            return total == 0 && reserved == 0;
+        }
+    }
+
+    /**
+     * Two independent counters; a reader can see one movement half applied, which is within the
+     * tolerance of a badge and is never persisted.
+     */
+    private static final class Counter {
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong reserved = new AtomicLong();
+
+        /**
+         * @return available units after the change
+         */
+        private long add(long totalDelta, long reservedDelta) {
+            long newTotal = totalDelta != 0 ? total.addAndGet(totalDelta) : total.get();
+            long newReserved = reservedDelta != 0 ? reserved.addAndGet(reservedDelta) : reserved.get();
+            return newTotal - newReserved;
+        }
+
+        private StockTotals totals() {
+            return new StockTotals(total.get(), reserved.get());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import za.co.pms.model.inventory.sku.StockAllocation;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Publishes the change made through the entity ({@code reserve}, {@code release},
+ * {@code adjustQuantity} or plain setters) as the difference from the levels last read from or
+ * written to the database. Created by Hibernate through Spring's bean container.
+ */
+public class StockAllocationEntityListener {
+
+    private final StockMovementPublisher publisher;
+
+    public StockAllocationEntityListener(StockMovementPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void afterWrite(StockAllocation allocation) {
+        int quantityDelta = allocation.getQuantity() - allocation.getPersistedQuantity();
+        int reservedDelta = allocation.getReservedQuantity() - allocation.getPersistedReservedQuantity();
+        if (quantityDelta != 0 || reservedDelta != 0) {
+            publisher.publish(new StockMovement(allocation.getId(), quantityDelta, reservedDelta));
+        }
+    }
+
+    @PostRemove
+    public void afterRemove(StockAllocation allocation) {
+        publisher.publish(new StockMovement(allocation.getId(),
+                -allocation.getPersistedQuantity(), -allocation.getPersistedReservedQuantity()));
+    }
+}
@@ -0,0 +1,299 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.QuantityLine;
+import za.co.pms.repository.projection.AllocationLevels;
+import za.co.pms.repository.projection.SkuAllocation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Applies nightly full stock counts sent by warehouses as flat files of
+ * {@code warehouse_code,sku_code_or_barcode,quantity} rows, one warehouse per file. Files are
+ * streamed line by line on a small pool, one file per thread; SKUs are resolved through an
+ * in-memory map of the warehouse's allocations loaded once per file. Rows go to the database in
+ * batches sorted by allocation id: each batch locks its rows in id order, skips unchanged
+ * counts and sets the rest in one JDBC batch, refusing, like
+ * {@code StockAllocation.adjustQuantity}, to drop below the reserved quantity.
+ * <p>
+ * Rejected rows are written next to the feed as {@code <file>.rejects}, one
+ * {@code line<TAB>reason<TAB>row} per reject.
+ */
+@Slf4j
+@Service
+public class StockFeedIngestionService {
+
+    static final String REJECTS_SUFFIX = ".rejects";
+
+    private final StockAllocationRepository repository;
+    private final StockMovementPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int threads;
+    private final int batchSize;
+    private ExecutorService executor;
+
+    public StockFeedIngestionService(StockAllocationRepository repository,
+                                     StockMovementPublisher publisher,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${inventory.feed.threads:4}") int threads,
+                                     @Value("${inventory.feed.batch-size:1000}") int batchSize) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "stock-feed-ingestion-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ingest every file, several warehouses at a time
+     *
+     * @return one report per file, in the order given
+     */
+    public List<StockFeedReport> ingest(List<Path> files) {
+        List<Future<StockFeedReport>> futures = new ArrayList<>(files.size());
+        for (Path file : files) {
+            futures.add(executor.submit(() -> ingest(file)));
+        }
+        List<StockFeedReport> reports = new ArrayList<>(files.size());
+        for (Future<StockFeedReport> future : futures) {
+            try {
+                reports.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while ingesting stock feeds", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Stock feed ingestion failed", e.getCause());
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Ingest one warehouse file on the calling thread. Batches already applied stay applied if
+     * the file cannot be read to the end.
+     */
+    public StockFeedReport ingest(Path file) {
+        FileRun run = new FileRun(file);
+        String error = null;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8); run) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                run.accept(line);
+            }
+            run.flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Stock feed {} stopped at line {}", file, run.lineNumber, e);
+            error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        }
+        StockFeedReport report = new StockFeedReport(file.getFileName().toString(), run.warehouseCode, run.rows,
+                run.updated, run.unchanged, run.rejected, System.currentTimeMillis() - run.started, error);
+        log.info("Stock feed {} for warehouse {}: {} rows, {} updated, {} unchanged, {} rejected in {} ms ({} rows/s)",
+                report.file(), report.warehouseCode(), report.rows(), report.updated(), report.unchanged(),
+                report.rejected(), report.elapsedMillis(), (long) report.rowsPerSecond());
+        return report;
+    }
+
+    private BatchOutcome apply(List<Row> batch) {
+        batch.sort(Comparator.comparingLong(Row::allocationId));
+        List<Long> ids = batch.stream().map(Row::allocationId).toList();
+        return transactionTemplate.execute(status -> {
+            Map<Long, AllocationLevels> levels = new HashMap<>(ids.size() * 2);
+            repository.lockLevels(ids).forEach(level -> levels.put(level.id(), level));
+
+            BatchOutcome outcome = new BatchOutcome();
+            List<QuantityLine> changes = new ArrayList<>(batch.size());
+            List<StockMovement> movements = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                AllocationLevels current = levels.get(row.allocationId());
+                if (current == null) {
+                    outcome.rejects.add(new Reject(row, "Allocation no longer exists"));
+                } else if (row.quantity() < current.reservedQuantity()) {
+                    outcome.rejects.add(new Reject(row, "New quantity cannot be less than reserved quantity"));
+                } else if (row.quantity() == current.quantity()) {
+                    outcome.unchanged++;
+                } else {
+                    changes.add(new QuantityLine(row.allocationId(), row.quantity()));
+                    movements.add(StockMovement.adjusted(row.allocationId(), row.quantity() - current.quantity()));
+                }
+            }
+            // Rows are locked, so no line can fall below reserved between the read and the update;
+            // a rewritten MySQL batch reports SUCCESS_NO_INFO rather than 1
+            outcome.updated = Arrays.stream(repository.setQuantities(changes)).filter(count -> count != 0).count();
+            publisher.publishAll(movements);
+            return outcome;
+        });
+    }
+
+    private Map<String, Long> resolveSkus(String warehouseCode) {
+        return readOnlyTemplate.execute(status -> {
+            if (!repository.warehouseExists(warehouseCode)) {
+                return null;
+            }
+            List<SkuAllocation> allocations = repository.findSkuAllocations(warehouseCode);
+            Map<String, Long> byKey = new HashMap<>(allocations.size() * 4);
+            allocations.forEach(allocation -> byKey.put(allocation.skuCode(), allocation.allocationId()));
+            // A SKU code wins over an identical barcode of another SKU
+            allocations.stream()
+                    .filter(allocation -> allocation.barcode() != null)
+                    .forEach(allocation -> byKey.putIfAbsent(allocation.barcode(), allocation.allocationId()));
+            return byKey;
+        });
+    }
+
+    /**
+     * State of one file being streamed; used by a single thread
+     */
+    private final class FileRun implements Closeable {
+        private final Path file;
+        private final long started = System.currentTimeMillis();
+        private final List<Row> batch = new ArrayList<>(batchSize);
+        private final Set<Long> seen = new HashSet<>();
+        private String warehouseCode;
+        private Map<String, Long> skus;
+        private BufferedWriter rejects;
+        private long lineNumber;
+        private long rows;
+        private long updated;
+        private long unchanged;
+        private long rejected;
+
+        private FileRun(Path file) {
+            this.file = file;
+        }
+
+        private void accept(String line) throws IOException {
+            lineNumber++;
+            if (line.isBlank()) {
+                return;
+            }
+            int first = line.indexOf(',');
+            int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+            if (second < 0 || line.indexOf(',', second + 1) >= 0) {
+                rows++;
+                reject(lineNumber, line, "Malformed row");
+                return;
+            }
+            String code = line.substring(0, first).trim();
+            String sku = line.substring(first + 1, second).trim();
+            int quantity;
+            try {
+                quantity = Integer.parseInt(line.substring(second + 1).trim());
+            } catch (NumberFormatException e) {
+                if (lineNumber == 1) {
+                    return; // header
+                }
+                rows++;
+                reject(lineNumber, line, "Quantity is not a whole number");
+                return;
+            }
+            rows++;
+
+            if (warehouseCode == null) {
+                warehouseCode = code;
+                skus = resolveSkus(code);
+            }
+            if (!warehouseCode.equals(code)) {
+                reject(lineNumber, line, "Row for another warehouse");
+            } else if (skus == null) {
+                reject(lineNumber, line, "Unknown warehouse");
+            } else if (quantity < 0) {
+                reject(lineNumber, line, "Quantity cannot be negative");
+            } else {
+                Long allocationId = skus.get(sku);
+                if (allocationId == null) {
+                    reject(lineNumber, line, "Unknown SKU");
+                } else if (!seen.add(allocationId)) {
+                    reject(lineNumber, line, "Duplicate count for SKU");
+                } else {
+                    batch.add(new Row(allocationId, quantity, lineNumber, line));
+                    if (batch.size() >= batchSize) {
+                        flush();
+                    }
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            BatchOutcome outcome = Objects.requireNonNull(apply(batch));
+            updated += outcome.updated;
+            unchanged += outcome.unchanged;
+            for (Reject reject : outcome.rejects) {
+                reject(reject.row().lineNumber(), reject.row().raw(), reject.reason());
+            }
+            batch.clear();
+        }
+
+        private void reject(long line, String raw, String reason) throws IOException {
+            if (rejects == null) {
+                rejects = Files.newBufferedWriter(file.resolveSibling(file.getFileName() + REJECTS_SUFFIX),
+                        StandardCharsets.UTF_8);
+            }
+            rejects.write(line + "\t" + reason + "\t" + raw);
+            rejects.newLine();
+            rejected++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (rejects != null) {
+                rejects.close();
+            }
+        }
+    }
+
+    private record Row(long allocationId, int quantity, long lineNumber, String raw) {
+    }
+
+    private record Reject(Row row, String reason) {
+    }
+
+    private static final class BatchOutcome {
+        private final List<Reject> rejects = new ArrayList<>();
+        private long updated;
+        private long unchanged;
+    }
+}
@@ -0,0 +1,22 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Outcome of ingesting one warehouse stock feed file
+ *
+ * @param rows      data rows read, excluding a header
+ * @param unchanged rows whose count matched the stored quantity
+ * @param error     why the file stopped early, {@code null} if it was read to the end
+ */
+public record StockFeedReport(String file, String warehouseCode, long rows, long updated, long unchanged,
+                              long rejected, long elapsedMillis, String error) {
+
+    public boolean isComplete() {
+        return error == null;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000d / elapsedMillis;
+    }
+}
@@ -0,0 +1,339 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.StockMovementType;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Audit trail of every {@link StockMovement}, however it was made. Movements are appended to a
+ * {@link MappedStockJournal} and made durable with a group-commit fsync instead of a row insert
+ * per movement; a compact {@link StockSnapshot} of all allocation levels is cut on a schedule so
+ * {@link #stateAt(Instant)} replays only the journal written after the nearest earlier snapshot.
+ * Journal segments older than the oldest retained snapshot are deleted; a replay in progress holds
+ * the read side of a retention lock, so its snapshot and segments stay in place until it is done.
+ * <p>
+ * This is the only stock journal: the reservation ledger and every other writer reach it through
+ * {@link StockMovementPublisher}, so each movement is journaled once. Entries are appended after
+ * the movement's transaction commits, which keeps rolled-back movements out of the audit. The
+ * price is that a crash between the commit and the fsync loses those entries. The allocation rows
+ * stay authoritative and this is an audit replica, so the loss is accepted; it shows up as a
+ * mismatch in the next {@link StockReconciler} run instead of going unnoticed.
+ * <p>
+ * On first start the baseline snapshot is read from the allocation rows; movements committed
+ * while that query runs may be counted twice or not at all.
+ */
+@Slf4j
+@Service
+public class StockHistory implements StockMovementListener {
+
+    private final StockMovementPublisher publisher;
+    private final StockAllocationRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotDir;
+    private final MappedStockJournal journal;
+    private final long snapshotMinutes;
+    private final int snapshotsRetained;
+    private final Clock clock;
+
+    // Guarded by this
+    private final Map<Long, int[]> levels = new HashMap<>();
+    private long sequence;
+    private long lastTimestamp;
+    private long movementsSinceSnapshot;
+    private long lastSnapshotMillis;
+
+    private final NavigableMap<Long, SnapshotFile> snapshots = new TreeMap<>();
+    // Read side pins a snapshot and the journal after it; the write side deletes beyond retention
+    private final ReadWriteLock retention = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public StockHistory(StockMovementPublisher publisher,
+                        StockAllocationRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${inventory.journal.dir:./data/journal}") String journalDir,
+                        @Value("${inventory.audit.segment-mb:64}") int segmentMb,
+                        @Value("${inventory.audit.snapshot-minutes:15}") long snapshotMinutes,
+                        @Value("${inventory.audit.snapshots-retained:96}") int snapshotsRetained) {
+        this(publisher, repository, transactionManager, Path.of(journalDir, "movements"), segmentMb << 20,
+                snapshotMinutes, snapshotsRetained, Clock.systemUTC());
+    }
+
+    StockHistory(StockMovementPublisher publisher,
+                 StockAllocationRepository repository,
+                 PlatformTransactionManager transactionManager,
+                 Path directory,
+                 int segmentBytes,
+                 long snapshotMinutes,
+                 int snapshotsRetained,
+                 Clock clock) {
+        if (snapshotsRetained < 1) {
+            throw new IllegalArgumentException("At least one snapshot must be retained");
+        }
+        this.publisher = publisher;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.snapshotDir = directory.resolve("snapshots");
+        this.journal = new MappedStockJournal(directory, segmentBytes);
+        this.snapshotMinutes = snapshotMinutes;
+        this.snapshotsRetained = snapshotsRetained;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        publisher.register(this);
+        if (snapshotMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stock-history-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.unregister(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Override
+    public void onMovement(StockMovement movement) {
+        long ticket = 0;
+        synchronized (this) {
+            long now = Math.max(lastTimestamp, clock.millis());
+            lastTimestamp = now;
+            if (movement.reservedDelta() != 0) {
+                ticket = record(movement.allocationId(), movement.reservedDelta() > 0 ? StockMovementType.RESERVE
+                        : StockMovementType.RELEASE, Math.abs(movement.reservedDelta()), now);
+            }
+            if (movement.quantityDelta() != 0) {
+                ticket = record(movement.allocationId(), movement.quantityDelta() > 0 ? StockMovementType.RECEIVE
+                        : StockMovementType.ISSUE, Math.abs(movement.quantityDelta()), now);
+            }
+            movementsSinceSnapshot++;
+        }
+        if (ticket > 0) {
+            journal.sync(ticket);
+        }
+    }
+
+    /**
+     * Levels of every allocation that held or reserved stock at {@code when}
+     *
+     * @throws IllegalArgumentException if {@code when} is older than the retained history
+     */
+    public Map<Long, AllocationState> stateAt(Instant when) {
+        long millis = when.toEpochMilli();
+        retention.readLock().lock();
+        try {
+            SnapshotFile base;
+            synchronized (snapshots) {
+                base = snapshots.descendingMap().values().stream()
+                        .filter(snapshot -> snapshot.timestampMillis() <= millis)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("No stock history before " + when));
+            }
+            Map<Long, int[]> replayed;
+            try {
+                replayed = StockSnapshot.read(base.path()).toLevels();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read stock snapshot " + base.path(), e);
+            }
+            // Timestamps rise with the sequence, so entries after the snapshot are a prefix up to millis
+            journal.replay(base.sequence(), entry -> {
+                if (entry.timestampMillis() <= millis) {
+                    apply(replayed, entry);
+                }
+            });
+            return states(replayed);
+        } finally {
+            retention.readLock().unlock();
+        }
+    }
+
+    public AllocationState stateAt(long allocationId, Instant when) {
+        return stateAt(when).getOrDefault(allocationId, AllocationState.EMPTY);
+    }
+
+    /**
+     * Levels of every allocation holding or reserving stock as of the last recorded movement
+     */
+    public synchronized Map<Long, AllocationState> currentState() {
+        return states(levels);
+    }
+
+    /**
+     * Cut a snapshot of the current levels and drop history beyond the retention
+     */
+    public void snapshot() {
+        StockSnapshot snapshot;
+        long movements;
+        long elapsedMillis;
+        synchronized (this) {
+            long now = Math.max(lastTimestamp, clock.millis());
+            lastTimestamp = now;
+            snapshot = StockSnapshot.of(sequence, now, levels);
+            movements = movementsSinceSnapshot;
+            elapsedMillis = now - lastSnapshotMillis;
+            movementsSinceSnapshot = 0;
+            lastSnapshotMillis = now;
+        }
+        store(snapshot);
+        log.info("Stock history snapshot at sequence {}: {} allocations, {} movements ({} per second)",
+                snapshot.sequence(), snapshot.allocationIds().length, movements,
+                elapsedMillis > 0 ? movements * 1000 / elapsedMillis : movements);
+    }
+
+    private static Map<Long, AllocationState> states(Map<Long, int[]> levels) {
+        Map<Long, AllocationState> state = new HashMap<>(levels.size() * 2);
+        levels.forEach((id, level) -> {
+            if (level[0] != 0 || level[1] != 0) {
+                state.put(id, new AllocationState(level[0], level[1]));
+            }
+        });
+        return state;
+    }
+
+    private long record(long allocationId, StockMovementType type, int amount, long timestamp) {
+        JournalEntry entry = new JournalEntry(++sequence, allocationId, type, amount, timestamp);
+        apply(levels, entry);
+        return journal.append(entry);
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(snapshotDir);
+            try (Stream<Path> files = Files.list(snapshotDir)) {
+                files.filter(StockSnapshot::isSnapshot).forEach(file -> {
+                    long[] header = StockSnapshot.header(file);
+                    snapshots.put(header[0], new SnapshotFile(file, header[0], header[1]));
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list stock snapshots in " + snapshotDir, e);
+        }
+
+        synchronized (this) {
+            long[] last = new long[2];
+            if (snapshots.isEmpty()) {
+                journal.replay(0, entry -> last[0] = Math.max(last[0], entry.sequence()));
+                List<AllocationLevels> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                        repository.findAllLevels()));
+                rows.forEach(row -> levels.put(row.id(), new int[]{row.quantity(), row.reservedQuantity()}));
+                sequence = last[0];
+                lastTimestamp = clock.millis();
+                lastSnapshotMillis = lastTimestamp;
+                store(StockSnapshot.of(sequence, lastTimestamp, levels));
+                log.info("Stock history baseline taken from {} allocations", rows.size());
+                return;
+            }
+
+            SnapshotFile latest = snapshots.lastEntry().getValue();
+            try {
+                levels.putAll(StockSnapshot.read(latest.path()).toLevels());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read stock snapshot " + latest.path(), e);
+            }
+            last[0] = latest.sequence();
+            last[1] = latest.timestampMillis();
+            journal.replay(latest.sequence(), entry -> {
+                apply(levels, entry);
+                last[0] = Math.max(last[0], entry.sequence());
+                last[1] = Math.max(last[1], entry.timestampMillis());
+            });
+            sequence = last[0];
+            lastTimestamp = last[1];
+            lastSnapshotMillis = clock.millis();
+            log.info("Stock history recovered from snapshot {} and journal up to sequence {}", latest.sequence(), sequence);
+        }
+    }
+
+    private void store(StockSnapshot snapshot) {
+        Path file;
+        try {
+            file = snapshot.write(snapshotDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write stock snapshot", e);
+        }
+        retention.writeLock().lock();
+        try {
+            long oldestRetained;
+            synchronized (snapshots) {
+                snapshots.put(snapshot.sequence(), new SnapshotFile(file, snapshot.sequence(), snapshot.timestampMillis()));
+                while (snapshots.size() > snapshotsRetained) {
+                    delete(snapshots.pollFirstEntry().getValue().path());
+                }
+                oldestRetained = snapshots.firstKey();
+            }
+            journal.truncateUpTo(oldestRetained);
+        } finally {
+            retention.writeLock().unlock();
+        }
+    }
+
+    static void apply(Map<Long, int[]> levels, JournalEntry entry) {
+        int[] level = levels.computeIfAbsent(entry.allocationId(), id -> new int[2]);
+        switch (entry.type()) {
+            case RESERVE -> level[1] += entry.amount();
+            case RELEASE -> level[1] -= entry.amount();
+            case RECEIVE -> level[0] += entry.amount();
+            case ISSUE -> level[0] -= entry.amount();
+            case ADJUST -> level[0] = entry.amount();
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete stock snapshot {}", file, e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Stock history snapshot failed", e);
+        }
+    }
+
+    private record SnapshotFile(Path path, long sequence, long timestampMillis) {
+    }
+}
@@ -0,0 +1,37 @@
+package za.co.pms.service.inventory;
+
+import java.util.function.Consumer;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Append-only log of stock movements
+ */
+public interface StockJournal extends AutoCloseable {
+
+    /**
+     * Buffer an entry
+     *
+     * @return ticket to pass to {@link #sync(long)}
+     */
+    long append(JournalEntry entry);
+
+    /**
+     * Block until the entry with this ticket, and everything appended before it, is durable.
+     * Concurrent callers share one fsync (group commit).
+     */
+    void sync(long ticket);
+
+    /**
+     * Feed every durable entry with {@code sequence > afterSequence} to the consumer in append order
+     */
+    void replay(long afterSequence, Consumer<JournalEntry> consumer);
+
+    /**
+     * Discard entries with {@code sequence <= sequence} where the storage layout allows
+     */
+    void truncateUpTo(long sequence);
+
+    @Override
+    void close();
+}
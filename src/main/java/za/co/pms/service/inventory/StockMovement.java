@@ -0,0 +1,25 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Change to one allocation's on-hand and reserved quantities, however it was made
+ */
+public record StockMovement(long allocationId, int quantityDelta, int reservedDelta) {
+
+    public static StockMovement reserved(long allocationId, int amount) {
+        return new StockMovement(allocationId, 0, amount);
+    }
+
+    public static StockMovement released(long allocationId, int amount) {
+        return new StockMovement(allocationId, 0, -amount);
+    }
+
+    public static StockMovement adjusted(long allocationId, int quantityDelta) {
+        return new StockMovement(allocationId, quantityDelta, 0);
+    }
+
+    public int availableDelta() {
+        return quantityDelta - reservedDelta;
+    }
+}
@@ -0,0 +1,14 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Receives stock movements from {@link StockMovementPublisher}. Called on the publishing thread,
+ * after commit where the movement was transactional, so implementations must be quick and
+ * thread-safe.
+ */
+@FunctionalInterface
+public interface StockMovementListener {
+
+    void onMovement(StockMovement movement);
+}
@@ -0,0 +1,64 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Fan-out point for every path that changes stock: the entity listener, the conditional SQL
+ * path and the reservation ledger. Movements made inside a transaction are delivered after it
+ * commits and dropped if it rolls back. Listeners register themselves, so the publisher has no
+ * dependencies and cannot take part in a bean cycle.
+ */
+@Slf4j
+@Component
+public class StockMovementPublisher {
+
+    private final List<StockMovementListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void register(StockMovementListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unregister(StockMovementListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(StockMovement movement) {
+        publishAll(List.of(movement));
+    }
+
+    public void publishAll(List<StockMovement> movements) {
+        if (movements.isEmpty() || listeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(movements);
+                }
+            });
+        } else {
+            dispatch(movements);
+        }
+    }
+
+    private void dispatch(List<StockMovement> movements) {
+        for (StockMovementListener listener : listeners) {
+            for (StockMovement movement : movements) {
+                try {
+                    listener.onMovement(movement);
+                } catch (RuntimeException e) {
+                    log.warn("Stock movement listener {} failed on {}", listener.getClass().getSimpleName(), movement, e);
+                }
+            }
+        }
+    }
+}
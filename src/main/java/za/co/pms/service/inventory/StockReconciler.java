@@ -0,0 +1,281 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.repository.StockAllocationRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Checks that two copies of allocation levels agree without diffing them row by row. The
+ * allocation id space is cut into partitions of {@code partition-size} ids and each partition
+ * into leaves of {@code leaf-size} ids. Both sources scan every partition in parallel, hashing
+ * each allocation into its leaf; leaf checksums roll up into partition checksums and those into a
+ * root. Equal roots end the run. Otherwise only partitions whose checksums differ are compared
+ * leaf by leaf, and only differing leaves are rescanned and compared allocation by allocation.
+ * <p>
+ * On a schedule the database is compared with the {@link StockHistory} replica. The two are read
+ * at different moments, so a reported mismatch may be a movement in flight.
+ */
+@Slf4j
+@Service
+public class StockReconciler {
+
+    private final StockAllocationRepository repository;
+    private final StockHistory history;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final long partitionSize;
+    private final int leafSize;
+    private final long intervalMinutes;
+    private final StockStateSource database = new DatabaseSource();
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    public StockReconciler(StockAllocationRepository repository,
+                           StockHistory history,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${inventory.reconciliation.threads:4}") int threads,
+                           @Value("${inventory.reconciliation.partition-size:65536}") long partitionSize,
+                           @Value("${inventory.reconciliation.leaf-size:256}") int leafSize,
+                           @Value("${inventory.reconciliation.minutes:60}") long intervalMinutes) {
+        if (leafSize < 1 || partitionSize % leafSize != 0) {
+            throw new IllegalArgumentException("Partition size must be a multiple of the leaf size");
+        }
+        this.repository = repository;
+        this.history = history;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.threads = threads;
+        this.partitionSize = partitionSize;
+        this.leafSize = leafSize;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "stock-reconciler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stock-reconciler-schedule");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The allocation rows, scanned with one range query per partition or leaf
+     */
+    public StockStateSource database() {
+        return database;
+    }
+
+    /**
+     * Compare the database with the stock history replica
+     */
+    public StockReconciliationReport reconcile() {
+        return reconcile(database, StockStateSource.of("stock-history", history.currentState()));
+    }
+
+    public StockReconciliationReport reconcile(StockStateSource expected, StockStateSource actual) {
+        long started = System.currentTimeMillis();
+        long maxId = Math.max(expected.maxAllocationId(), actual.maxAllocationId());
+        int partitions = Math.toIntExact(maxId / partitionSize + 1);
+
+        List<Callable<long[][]>> scans = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            long from = partition * partitionSize;
+            scans.add(() -> new long[][]{leaves(expected, from), leaves(actual, from)});
+        }
+        List<long[][]> digests = all(scans);
+
+        long expectedRoot = 0;
+        long actualRoot = 0;
+        List<Integer> differing = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            long expectedHash = fold(digests.get(partition)[0]);
+            long actualHash = fold(digests.get(partition)[1]);
+            expectedRoot = mix(expectedRoot + expectedHash);
+            actualRoot = mix(actualRoot + actualHash);
+            if (expectedHash != actualHash) {
+                differing.add(partition);
+            }
+        }
+
+        List<AllocationMismatch> mismatches = new ArrayList<>();
+        int leavesDiffering = 0;
+        if (expectedRoot != actualRoot) {
+            List<Callable<List<AllocationMismatch>>> drills = new ArrayList<>();
+            for (int partition : differing) {
+                long from = partition * partitionSize;
+                long[] expectedLeaves = digests.get(partition)[0];
+                long[] actualLeaves = digests.get(partition)[1];
+                for (int leaf = 0; leaf < expectedLeaves.length; leaf++) {
+                    if (expectedLeaves[leaf] != actualLeaves[leaf]) {
+                        long leafFrom = from + (long) leaf * leafSize;
+                        drills.add(() -> compare(expected, actual, leafFrom, leafFrom + leafSize));
+                        leavesDiffering++;
+                    }
+                }
+            }
+            all(drills).forEach(mismatches::addAll);
+        }
+
+        StockReconciliationReport report = new StockReconciliationReport(expected.name(), actual.name(), partitions,
+                differing.size(), leavesDiffering, List.copyOf(mismatches), System.currentTimeMillis() - started);
+        if (report.isClean()) {
+            log.info("Stock reconciliation of {} against {}: {} partitions agree in {} ms",
+                    expected.name(), actual.name(), partitions, report.elapsedMillis());
+        } else {
+            log.warn("Stock reconciliation of {} against {}: {} allocations differ in {} of {} partitions ({} ms)",
+                    expected.name(), actual.name(), mismatches.size(), differing.size(), partitions, report.elapsedMillis());
+        }
+        return report;
+    }
+
+    /**
+     * Checksum of each leaf of the partition starting at {@code from}: the sum of its allocations'
+     * hashes, so sources may scan in any order
+     */
+    private long[] leaves(StockStateSource source, long from) {
+        long[] leaves = new long[(int) (partitionSize / leafSize)];
+        source.scan(from, from + partitionSize, (id, quantity, reserved) -> {
+            if (quantity != 0 || reserved != 0) {
+                leaves[(int) ((id - from) / leafSize)] += hash(id, quantity, reserved);
+            }
+        });
+        return leaves;
+    }
+
+    private static List<AllocationMismatch> compare(StockStateSource expected, StockStateSource actual,
+                                                    long from, long to) {
+        TreeMap<Long, AllocationState> expectedLevels = levels(expected, from, to);
+        TreeMap<Long, AllocationState> actualLevels = levels(actual, from, to);
+        TreeSet<Long> ids = new TreeSet<>(expectedLevels.keySet());
+        ids.addAll(actualLevels.keySet());
+
+        List<AllocationMismatch> mismatches = new ArrayList<>();
+        for (Long id : ids) {
+            AllocationState expectedState = expectedLevels.getOrDefault(id, AllocationState.EMPTY);
+            AllocationState actualState = actualLevels.getOrDefault(id, AllocationState.EMPTY);
+            if (!expectedState.equals(actualState)) {
+                mismatches.add(new AllocationMismatch(id, expectedState, actualState));
+            }
+        }
+        return mismatches;
+    }
+
+    private static TreeMap<Long, AllocationState> levels(StockStateSource source, long from, long to) {
+        TreeMap<Long, AllocationState> levels = new TreeMap<>();
+        source.scan(from, to, (id, quantity, reserved) -> {
+            if (quantity != 0 || reserved != 0) {
+                levels.put(id, new AllocationState(quantity, reserved));
+            }
+        });
+        return levels;
+    }
+
+    private <T> List<T> all(List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reconciling stock", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stock reconciliation scan failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    static long hash(long allocationId, int quantity, int reservedQuantity) {
+        return mix(mix(allocationId) ^ ((long) quantity << 32 | (reservedQuantity & 0xFFFFFFFFL)));
+    }
+
+    private static long fold(long[] hashes) {
+        long hash = 0;
+        for (long child : hashes) {
+            hash = mix(hash + child);
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Stock reconciliation failed", e);
+        }
+    }
+
+    private final class DatabaseSource implements StockStateSource {
+
+        @Override
+        public String name() {
+            return "database";
+        }
+
+        @Override
+        public long maxAllocationId() {
+            return Objects.requireNonNull(transactionTemplate.execute(status -> repository.findMaxId()));
+        }
+
+        @Override
+        public void scan(long fromId, long toId, Visitor visitor) {
+            transactionTemplate.executeWithoutResult(status -> repository.scanLevels(fromId, toId, visitor::accept));
+        }
+    }
+}
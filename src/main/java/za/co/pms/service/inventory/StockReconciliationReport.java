@@ -0,0 +1,20 @@
+package za.co.pms.service.inventory;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Outcome of comparing two {@link StockStateSource}s
+ *
+ * @param partitionsDiffering partitions whose checksums differed and were drilled into
+ * @param leavesDiffering     id ranges within those partitions whose rows were compared one by one
+ */
+public record StockReconciliationReport(String expectedSource, String actualSource, int partitions,
+                                        int partitionsDiffering, int leavesDiffering,
+                                        List<AllocationMismatch> mismatches, long elapsedMillis) {
+
+    public boolean isClean() {
+        return mismatches.isEmpty();
+    }
+}
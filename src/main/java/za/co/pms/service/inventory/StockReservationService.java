@@ -0,0 +1,109 @@
+package za.co.pms.service.inventory;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * All-or-nothing stock reservation for multi-line orders without loading {@code StockAllocation}
+ * entities. Lines are merged per allocation and sent as one batch of conditional updates in
+ * ascending allocation id order, so two orders touching the same rows always lock them in the
+ * same order and cannot deadlock. A short line rolls the whole order back.
+ */
+@Service
+public class StockReservationService {
+
+    private final StockAllocationRepository repository;
+    private final StockMovementPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockReservationService(StockAllocationRepository repository,
+                                   StockMovementPublisher publisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return {@code true} if the stock was reserved
+     */
+    public boolean tryReserve(long allocationId, int amount) {
+        requirePositive(amount);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean reserved = repository.reserveIfAvailable(allocationId, amount);
+            if (reserved) {
+                publisher.publish(StockMovement.reserved(allocationId, amount));
+            }
+            return reserved;
+        }));
+    }
+
+    /**
+     * @throws InsufficientStockException naming every short allocation; nothing is reserved
+     */
+    public void reserveOrder(Collection<ReservationLine> lines) {
+        List<ReservationLine> sorted = mergeSorted(lines);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> shortLines = unapplied(sorted, repository.reserveBatch(sorted));
+            if (!shortLines.isEmpty()) {
+                throw new InsufficientStockException("Not enough available stock for allocations " + shortLines);
+            }
+            publisher.publishAll(sorted.stream().map(line -> StockMovement.reserved(line.allocationId(), line.amount())).toList());
+        });
+    }
+
+    /**
+     * Release a whole order, e.g. on cancellation
+     *
+     * @throws IllegalArgumentException if any line has less reserved than requested; nothing is released
+     */
+    public void releaseOrder(Collection<ReservationLine> lines) {
+        List<ReservationLine> sorted = mergeSorted(lines);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> invalid = unapplied(sorted, repository.releaseBatch(sorted));
+            if (!invalid.isEmpty()) {
+                throw new IllegalArgumentException("Cannot release more than reserved for allocations " + invalid);
+            }
+            publisher.publishAll(sorted.stream().map(line -> StockMovement.released(line.allocationId(), line.amount())).toList());
+        });
+    }
+
+    static List<ReservationLine> mergeSorted(Collection<ReservationLine> lines) {
+        SortedMap<Long, Integer> merged = new TreeMap<>();
+        for (ReservationLine line : lines) {
+            requirePositive(line.amount());
+            merged.merge(line.allocationId(), line.amount(), Math::addExact);
+        }
+        List<ReservationLine> sorted = new ArrayList<>(merged.size());
+        merged.forEach((id, amount) -> sorted.add(new ReservationLine(id, amount)));
+        return sorted;
+    }
+
+    private static List<Long> unapplied(List<ReservationLine> lines, int[] counts) {
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            // SUCCESS_NO_INFO (rewritten batches) cannot tell short lines apart, so refuse rather than guess
+            if (i >= counts.length || counts[i] == 0 || counts[i] == Statement.EXECUTE_FAILED) {
+                failed.add(lines.get(i).allocationId());
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("JDBC driver did not report affected rows; disable rewriteBatchedStatements");
+            }
+        }
+        return failed;
+    }
+
+    private static void requirePositive(int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package za.co.pms.service.inventory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Every non-empty allocation's levels as of one journal sequence. Stored as a fixed header and
+ * 16-byte rows sorted by allocation id; the sequence and timestamp are also in the file name so
+ * snapshots can be indexed without opening them.
+ */
+record StockSnapshot(long sequence, long timestampMillis, long[] allocationIds, int[] quantities, int[] reserved) {
+
+    private static final int MAGIC = 0x534E4150;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    static StockSnapshot of(long sequence, long timestampMillis, Map<Long, int[]> levels) {
+        long[] ids = levels.entrySet().stream()
+                .filter(entry -> entry.getValue()[0] != 0 || entry.getValue()[1] != 0)
+                .mapToLong(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+        int[] quantities = new int[ids.length];
+        int[] reserved = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int[] level = levels.get(ids[i]);
+            quantities[i] = level[0];
+            reserved[i] = level[1];
+        }
+        return new StockSnapshot(sequence, timestampMillis, ids, quantities, reserved);
+    }
+
+    Map<Long, int[]> toLevels() {
+        Map<Long, int[]> levels = new HashMap<>(allocationIds.length * 2);
+        for (int i = 0; i < allocationIds.length; i++) {
+            levels.put(allocationIds[i], new int[]{quantities[i], reserved[i]});
+        }
+        return levels;
+    }
+
+    /**
+     * Write into {@code directory}, atomically replacing any half-written attempt
+     *
+     * @return the snapshot file
+     */
+    Path write(Path directory) throws IOException {
+        Path target = directory.resolve(fileName(sequence, timestampMillis));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeLong(timestampMillis);
+            out.writeInt(allocationIds.length);
+            for (int i = 0; i < allocationIds.length; i++) {
+                out.writeLong(allocationIds[i]);
+                out.writeInt(quantities[i]);
+                out.writeInt(reserved[i]);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return target;
+    }
+
+    static StockSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a stock snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            long timestamp = in.readLong();
+            int count = in.readInt();
+            long[] ids = new long[count];
+            int[] quantities = new int[count];
+            int[] reserved = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readLong();
+                quantities[i] = in.readInt();
+                reserved[i] = in.readInt();
+            }
+            return new StockSnapshot(sequence, timestamp, ids, quantities, reserved);
+        }
+    }
+
+    static String fileName(long sequence, long timestampMillis) {
+        return String.format("%s%019d-%019d%s", PREFIX, sequence, timestampMillis, SUFFIX);
+    }
+
+    static boolean isSnapshot(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    /**
+     * @return {sequence, timestampMillis} parsed from a snapshot file name
+     */
+    static long[] header(Path file) {
+        String name = file.getFileName().toString();
+        String[] parts = name.substring(PREFIX.length(), name.length() - SUFFIX.length()).split("-");
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    }
+}
@@ -0,0 +1,62 @@
+package za.co.pms.service.inventory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One copy of allocation stock levels that {@link StockReconciler} can compare with another: the
+ * database, a cache or replica, or levels read from a warehouse feed. Allocations holding and
+ * reserving nothing count as absent, so a source may skip them.
+ */
+public interface StockStateSource {
+
+    String name();
+
+    /**
+     * @return an upper bound on the allocation ids this source holds, 0 if it holds none
+     */
+    long maxAllocationId();
+
+    /**
+     * Visit every allocation with {@code fromId <= id < toId}, in any order. Called from several
+     * threads at once for different ranges.
+     */
+    void scan(long fromId, long toId, Visitor visitor);
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(long allocationId, int quantity, int reservedQuantity);
+    }
+
+    /**
+     * A source over an in-memory copy of levels, such as {@link StockHistory#currentState()}
+     */
+    static StockStateSource of(String name, Map<Long, AllocationState> levels) {
+        long[] ids = levels.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        AllocationState[] states = new AllocationState[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            states[i] = levels.get(ids[i]);
+        }
+        return new StockStateSource() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public long maxAllocationId() {
+                return ids.length == 0 ? 0 : ids[ids.length - 1];
+            }
+
+            @Override
+            public void scan(long fromId, long toId, Visitor visitor) {
+                int i = Arrays.binarySearch(ids, fromId);
+                for (i = i < 0 ? -i - 1 : i; i < ids.length && ids[i] < toId; i++) {
+                    visitor.accept(ids[i], states[i].quantity(), states[i].reservedQuantity());
+                }
+            }
+        };
+    }
+}
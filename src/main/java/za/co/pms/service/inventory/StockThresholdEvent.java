@@ -0,0 +1,14 @@
+package za.co.pms.service.inventory;
+
+import za.co.pms.enums.StockLevel;
+
+import java.time.Instant;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A variant's stock level changed band since the last event for it
+ */
+public record StockThresholdEvent(long variantId, StockLevel previous, StockLevel current, long available,
+                                  Instant detectedAt) {
+}
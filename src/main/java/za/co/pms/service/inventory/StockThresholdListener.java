@@ -0,0 +1,14 @@
+package za.co.pms.service.inventory;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Receives the coalesced threshold crossings of one window, at most one event per variant
+ */
+@FunctionalInterface
+public interface StockThresholdListener {
+
+    void onThresholdsCrossed(List<StockThresholdEvent> events);
+}
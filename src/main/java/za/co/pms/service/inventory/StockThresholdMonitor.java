@@ -0,0 +1,153 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import za.co.pms.enums.StockLevel;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Low-stock, last-few and out-of-stock events without polling. {@link StockAggregates} reports
+ * every availability change; a change that moves a variant into another {@link StockLevel} only
+ * marks it pending. Once per window the pending variants are re-read and an event is emitted for
+ * each whose level differs from the last one emitted, so a variant that flaps across a threshold
+ * during a flash sale yields at most one event per window, and none if it ends where it started.
+ */
+@Slf4j
+@Service
+public class StockThresholdMonitor implements VariantAvailabilityListener {
+
+    private final StockAggregates aggregates;
+    private final long windowMillis;
+    private final long lastFewThreshold;
+    private final long lowThreshold;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Map<Long, StockLevel> emitted = new ConcurrentHashMap<>();
+    private final List<StockThresholdListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public StockThresholdMonitor(StockAggregates aggregates,
+                                 @Value("${inventory.thresholds.window-millis:1000}") long windowMillis,
+                                 @Value("${inventory.thresholds.last-few:3}") long lastFewThreshold,
+                                 @Value("${inventory.thresholds.low:10}") long lowThreshold) {
+        if (lastFewThreshold < 1 || lowThreshold < lastFewThreshold) {
+            throw new IllegalArgumentException("Thresholds must satisfy 1 <= last-few <= low");
+        }
+        this.aggregates = aggregates;
+        this.windowMillis = windowMillis;
+        this.lastFewThreshold = lastFewThreshold;
+        this.lowThreshold = lowThreshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        aggregates.register(this);
+        if (windowMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "stock-threshold-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        aggregates.unregister(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void register(StockThresholdListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unregister(StockThresholdListener listener) {
+        listeners.remove(listener);
+    }
+
+    public StockLevel levelOf(long available) {
+        if (available <= 0) {
+            return StockLevel.OUT_OF_STOCK;
+        }
+        if (available <= lastFewThreshold) {
+            return StockLevel.LAST_FEW;
+        }
+        return available <= lowThreshold ? StockLevel.LOW : StockLevel.IN_STOCK;
+    }
+
+    @Override
+    public void onAvailabilityChanged(long variantId, long previousAvailable, long available) {
+        StockLevel previous = levelOf(previousAvailable);
+        if (previous != levelOf(available)) {
+            emitted.putIfAbsent(variantId, previous);
+            pending.add(variantId);
+        }
+    }
+
+    /**
+     * Emit one event per pending variant whose level moved since its last event
+     *
+     * @return the events delivered
+     */
+    public List<StockThresholdEvent> flush() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        List<StockThresholdEvent> events = new ArrayList<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            Long variantId = it.next();
+            // Removed before the read, so a change racing with this flush marks the variant again
+            it.remove();
+            long available = aggregates.variant(variantId).available();
+            StockLevel current = levelOf(available);
+            StockLevel previous = emitted.put(variantId, current);
+            if (previous != current) {
+                events.add(new StockThresholdEvent(variantId, previous, current, available, now));
+            }
+        }
+        if (!events.isEmpty()) {
+            deliver(events);
+        }
+        return events;
+    }
+
+    private void deliver(List<StockThresholdEvent> events) {
+        List<StockThresholdEvent> view = List.copyOf(events);
+        for (StockThresholdListener listener : listeners) {
+            try {
+                listener.onThresholdsCrossed(view);
+            } catch (RuntimeException e) {
+                log.warn("Stock threshold listener {} failed on {} events", listener.getClass().getSimpleName(),
+                        view.size(), e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Stock threshold flush failed", e);
+        }
+    }
+}
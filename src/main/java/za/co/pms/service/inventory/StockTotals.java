@@ -0,0 +1,14 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Summed on-hand and reserved units of a variant or product across warehouses
+ */
+public record StockTotals(long total, long reserved) {
+    public static final StockTotals NONE = new StockTotals(0, 0);
+
+    public long available() {
+        return total - reserved;
+    }
+}
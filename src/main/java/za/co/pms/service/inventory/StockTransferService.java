@@ -0,0 +1,153 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.model.inventory.sku.Warehouse;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom;
+import za.co.pms.repository.StockAllocationRepositoryCustom.AllocationChange;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Moves on-hand stock of many variants between two warehouses in one transaction. Every source
+ * and destination allocation is row-locked by a single {@code select ... for update} in ascending
+ * id order, so concurrent transfers, in either direction, queue on the first row they share
+ * instead of deadlocking. Availability is checked against the locked levels and all quantities
+ * are written in one JDBC batch; a short line rolls the whole transfer back.
+ * <p>
+ * Where a warehouse holds several allocations of a variant, the lowest id is used. A destination
+ * without an allocation for the variant gets a new one.
+ */
+@Slf4j
+@Service
+public class StockTransferService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StockAllocationRepository repository;
+    private final StockMovementPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockTransferService(StockAllocationRepository repository,
+                                StockMovementPublisher publisher,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @throws InsufficientStockException naming every short allocation; nothing is moved
+     */
+    public void transfer(long fromWarehouseId, long toWarehouseId, Collection<TransferLine> lines) {
+        if (fromWarehouseId == toWarehouseId) {
+            throw new IllegalArgumentException("Cannot transfer stock within one warehouse");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (TransferLine line : lines) {
+            quantities.merge(line.variantId(), line.quantity(), Math::addExact);
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Long> sources = new HashMap<>();
+            Map<Long, Long> destinations = new HashMap<>();
+            for (AllocationLevels levels : repository.findLevelsIn(List.of(fromWarehouseId, toWarehouseId),
+                    List.copyOf(quantities.keySet()))) {
+                Map<Long, Long> side = levels.warehouseId() == fromWarehouseId ? sources : destinations;
+                side.merge(levels.variantId(), levels.id(), Math::min);
+            }
+            List<Long> unstocked = quantities.keySet().stream().filter(variantId -> !sources.containsKey(variantId)).toList();
+            if (!unstocked.isEmpty()) {
+                throw new InsufficientStockException("Warehouse " + fromWarehouseId + " holds no stock of variants " + unstocked);
+            }
+
+            List<Leg> legs = new ArrayList<>(quantities.size());
+            boolean created = false;
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                Long destination = destinations.get(entry.getKey());
+                if (destination == null) {
+                    destination = createAllocation(toWarehouseId, entry.getKey());
+                    created = true;
+                }
+                legs.add(new Leg(sources.get(entry.getKey()), destination, entry.getValue()));
+            }
+            if (created) {
+                // The JDBC lock below must see the new rows
+                entityManager.flush();
+            }
+            publisher.publishAll(move(repository, legs));
+        });
+        log.debug("Transferred {} variants from warehouse {} to {}", quantities.size(), fromWarehouseId, toWarehouseId);
+    }
+
+    /**
+     * Lock every allocation the legs touch in id order, check availability and write the new
+     * quantities in one batch. Must run in a transaction.
+     *
+     * @return the movements made, in allocation id order
+     */
+    static List<StockMovement> move(StockAllocationRepositoryCustom repository, List<Leg> legs) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        for (Leg leg : legs) {
+            deltas.merge(leg.sourceAllocationId(), -leg.quantity(), Math::addExact);
+            deltas.merge(leg.destinationAllocationId(), leg.quantity(), Math::addExact);
+        }
+        List<AllocationLevels> locked = repository.lockLevels(new ArrayList<>(deltas.keySet()));
+        if (locked.size() != deltas.size()) {
+            throw new IllegalStateException("Allocations removed during transfer");
+        }
+
+        List<Long> shortAllocations = new ArrayList<>();
+        List<AllocationChange> changes = new ArrayList<>(locked.size());
+        List<StockMovement> movements = new ArrayList<>(locked.size());
+        for (AllocationLevels levels : locked) {
+            int delta = deltas.get(levels.id());
+            if (delta == 0) {
+                continue;
+            }
+            if (levels.availableQuantity() + delta < 0) {
+                shortAllocations.add(levels.id());
+            }
+            changes.add(new AllocationChange(levels.id(), levels.quantity() + delta, 0));
+            movements.add(StockMovement.adjusted(levels.id(), delta));
+        }
+        if (!shortAllocations.isEmpty()) {
+            throw new InsufficientStockException("Not enough available stock to transfer from allocations " + shortAllocations);
+        }
+        repository.applyLedgerChanges(changes);
+        return movements;
+    }
+
+    private long createAllocation(long warehouseId, long variantId) {
+        StockAllocation allocation = new StockAllocation();
+        allocation.setWarehouse(entityManager.getReference(Warehouse.class, warehouseId));
+        allocation.setProductVariant(entityManager.getReference(Variant.class, variantId));
+        LocalDateTime now = LocalDateTime.now();
+        allocation.setCreatedAt(now);
+        allocation.setUpdatedAt(now);
+        entityManager.persist(allocation);
+        return allocation.getId();
+    }
+
+    /**
+     * Units moved from one allocation to another
+     */
+    record Leg(long sourceAllocationId, long destinationAllocationId, int quantity) {
+    }
+}
@@ -0,0 +1,167 @@
+package za.co.pms.service.inventory;
+
+import java.util.function.Consumer;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Hierarchical timing wheel: four levels of 256 slots, level {@code n} slots spanning
+ * {@code 256^n} ticks. Scheduling and cancelling are O(1); each tick drains one level-0 slot and,
+ * once every 256 ticks, redistributes one slot of the level above. Timers are doubly linked
+ * nodes so cancellation needs no search. Not thread-safe; callers synchronise.
+ */
+public final class TimingWheel<T> {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Timer<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long originMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.wheels = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedule {@code value} to fire on the first tick at or after {@code deadlineMillis}
+     */
+    public Timer<T> schedule(T value, long deadlineMillis) {
+        Timer<T> timer = new Timer<>(value, deadlineMillis);
+        place(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return {@code false} if the timer already fired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.prev == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Fire every timer due at or before {@code nowMillis}, in tick order
+     *
+     * @return number of timers fired
+     */
+    public int advance(long nowMillis, Consumer<Timer<T>> expired) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int fired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timer<T> head = wheels[0][(int) (currentTick & MASK)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                timer.unlink();
+                size--;
+                fired++;
+                expired.accept(timer);
+            }
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long tickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) != 0) {
+                return;
+            }
+            Timer<T> head = wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                timer.unlink();
+                // Due this very tick: lands in the level-0 slot drained right after the cascade
+                place(timer, currentTick);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer, long earliestTick) {
+        long deadlineTick = Math.max(ceilTick(timer.deadlineMillis), earliestTick);
+        long delta = Math.min(deadlineTick - currentTick, MAX_DELTA);
+        long slotTick = currentTick + delta;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][(int) ((slotTick >>> (BITS * level)) & MASK)].append(timer);
+    }
+
+    private long ceilTick(long millis) {
+        return -Math.floorDiv(originMillis - millis, tickMillis);
+    }
+
+    /**
+     * Handle to one scheduled value
+     */
+    public static final class Timer<T> {
+        private final T value;
+        private final long deadlineMillis;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T value, long deadlineMillis) {
+            this.value = value;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> head = new Timer<>(null, 0);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
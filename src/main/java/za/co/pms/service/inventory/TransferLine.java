@@ -0,0 +1,15 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Units of one variant to move from one warehouse to another
+ */
+public record TransferLine(long variantId, int quantity) {
+
+    public TransferLine {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+}
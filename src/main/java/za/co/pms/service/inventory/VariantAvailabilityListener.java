@@ -0,0 +1,13 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Told by {@link StockAggregates} whenever a variant's available units move. Called on the
+ * movement's thread, so implementations must be quick and thread-safe.
+ */
+@FunctionalInterface
+public interface VariantAvailabilityListener {
+
+    void onAvailabilityChanged(long variantId, long previousAvailable, long available);
+}
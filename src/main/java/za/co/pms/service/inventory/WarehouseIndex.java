@@ -0,0 +1,152 @@
+package za.co.pms.service.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Immutable k-d tree of warehouse sites for nearest-neighbour queries. Sites are stored as points
+ * on the unit sphere, where straight-line distance grows with great-circle distance, so searches
+ * need no special cases at the poles or the antimeridian. The tree is implicit: each range of the
+ * arrays holds its median node, with the lower half to the left and the upper half to the right.
+ */
+public final class WarehouseIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final WarehouseIndex EMPTY = new WarehouseIndex(new WarehouseSite[0], new double[0][]);
+
+    private final WarehouseSite[] sites;
+    private final double[][] points;
+
+    private WarehouseIndex(WarehouseSite[] sites, double[][] points) {
+        this.sites = sites;
+        this.points = points;
+    }
+
+    public static WarehouseIndex empty() {
+        return EMPTY;
+    }
+
+    public static WarehouseIndex of(List<WarehouseSite> sites) {
+        Integer[] order = new Integer[sites.size()];
+        double[][] unordered = new double[sites.size()][];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            unordered[i] = point(sites.get(i).latitude(), sites.get(i).longitude());
+        }
+        build(order, unordered, 0, order.length, 0);
+
+        WarehouseSite[] orderedSites = new WarehouseSite[order.length];
+        double[][] points = new double[order.length][];
+        for (int i = 0; i < order.length; i++) {
+            orderedSites[i] = sites.get(order[i]);
+            points[i] = unordered[order[i]];
+        }
+        return new WarehouseIndex(orderedSites, points);
+    }
+
+    public int size() {
+        return sites.length;
+    }
+
+    /**
+     * Up to {@code k} sites accepted by {@code filter}, nearest first. The filter is only asked
+     * about sites closer than the current k-th best.
+     */
+    public List<NearbyWarehouse> nearest(double latitude, double longitude, int k, LongPredicate filter) {
+        if (k <= 0 || sites.length == 0) {
+            return List.of();
+        }
+        Search search = new Search(point(latitude, longitude), k, filter);
+        search.visit(0, sites.length, 0);
+
+        List<Candidate> found = new ArrayList<>(search.best);
+        found.sort(Comparator.comparingDouble(Candidate::chordSquared));
+        List<NearbyWarehouse> nearest = new ArrayList<>(found.size());
+        for (Candidate candidate : found) {
+            WarehouseSite site = sites[candidate.index()];
+            nearest.add(new NearbyWarehouse(site.warehouseId(), site.code(), kilometres(candidate.chordSquared())));
+        }
+        return nearest;
+    }
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return kilometres(chordSquared(point(latitude1, longitude1), point(latitude2, longitude2)));
+    }
+
+    private static void build(Integer[] order, double[][] points, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> points[i][axis]));
+        int median = (from + to) >>> 1;
+        build(order, points, from, median, depth + 1);
+        build(order, points, median + 1, to, depth + 1);
+    }
+
+    private static double[] point(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double chordSquared(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double kilometres(double chordSquared) {
+        return 2 * Math.asin(Math.min(1, Math.sqrt(chordSquared) / 2)) * EARTH_RADIUS_KM;
+    }
+
+    private record Candidate(int index, double chordSquared) {
+    }
+
+    private final class Search {
+        private final double[] target;
+        private final int k;
+        private final LongPredicate filter;
+        // Worst candidate at the head
+        private final PriorityQueue<Candidate> best =
+                new PriorityQueue<>(Comparator.comparingDouble(Candidate::chordSquared).reversed());
+
+        private Search(double[] target, int k, LongPredicate filter) {
+            this.target = target;
+            this.k = k;
+            this.filter = filter;
+        }
+
+        private void visit(int from, int to, int depth) {
+            if (from >= to) {
+                return;
+            }
+            int median = (from + to) >>> 1;
+            double distance = chordSquared(target, points[median]);
+            if ((best.size() < k || distance < best.peek().chordSquared())
+                    && filter.test(sites[median].warehouseId())) {
+                best.add(new Candidate(median, distance));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+
+            int axis = depth % 3;
+            double offset = target[axis] - points[median][axis];
+            boolean lowerFirst = offset < 0;
+            visit(lowerFirst ? from : median + 1, lowerFirst ? median : to, depth + 1);
+            if (best.size() < k || offset * offset < best.peek().chordSquared()) {
+                visit(lowerFirst ? median + 1 : from, lowerFirst ? to : median, depth + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package za.co.pms.service.inventory;
+
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * On-hand, reserved and available units of one warehouse, optionally broken down by group
+ */
+public record WarehouseInventory(Long warehouseId, String warehouseCode, String warehouseName, long total,
+                                 long reserved, List<InventoryGroup> groups) {
+
+    public long available() {
+        return total - reserved;
+    }
+}
@@ -0,0 +1,196 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.InventoryDimension;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Warehouse stock figures for operations dashboards, each report computed by one grouped query
+ * in the database instead of walking {@code Warehouse.stockAllocations}. Results are cached for a
+ * few seconds, so a wall of dashboards refreshing together costs one query per report. A report
+ * is cached as a future: the caller that finds it stale installs a new one and runs the query
+ * outside any map lock, and callers arriving meanwhile wait on that future.
+ */
+@Slf4j
+@Service
+public class WarehouseInventoryReportService {
+
+    static final String WAREHOUSE_TOTALS = """
+            select w.id, w.code, w.name, sum(s.quantity), sum(s.reservedQuantity) from Warehouse w
+            left join w.stockAllocations s
+            group by w.id, w.code, w.name
+            order by w.code""";
+
+    private static final String TOTALS_KEY = "TOTALS";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlNanos;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    public WarehouseInventoryReportService(PlatformTransactionManager transactionManager,
+                                           @Value("${inventory.analytics.cache-seconds:30}") long cacheSeconds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(cacheSeconds);
+    }
+
+    /**
+     * Every warehouse's totals, including warehouses without allocations
+     */
+    public List<WarehouseInventory> totals() {
+        return cached(TOTALS_KEY, this::loadTotals);
+    }
+
+    /**
+     * Every warehouse with stock, its totals broken down by {@code dimension}
+     */
+    public List<WarehouseInventory> breakdown(InventoryDimension dimension) {
+        return cached(dimension.name(), () -> loadBreakdown(dimension));
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    static String breakdownQuery(InventoryDimension dimension) {
+        String group = switch (dimension) {
+            case CATEGORY -> "p.category";
+            case BRAND -> "p.brand";
+            case VENDOR -> "p.vendor";
+        };
+        String name = hasName(dimension) ? ", g.name" : "";
+        return """
+                select w.id, w.code, w.name, g.id%2$s, sum(s.quantity), sum(s.reservedQuantity) from StockAllocation s
+                join s.warehouse w
+                left join s.productVariant v
+                left join v.product p
+                left join %1$s g
+                group by w.id, w.code, w.name, g.id%2$s
+                order by w.code""".formatted(group, name);
+    }
+
+    private List<WarehouseInventory> cached(String key, Supplier<List<WarehouseInventory>> loader) {
+        while (true) {
+            Cached entry = cache.get(key);
+            if (entry != null && (!entry.reports().isDone() || System.nanoTime() - entry.loadedAt() < ttlNanos)) {
+                return join(entry.reports());
+            }
+            // Only the caller whose entry lands runs the query; the others loop and wait for it
+            Cached loading = new Cached(new CompletableFuture<>(), System.nanoTime());
+            boolean installed = entry == null ? cache.putIfAbsent(key, loading) == null : cache.replace(key, entry, loading);
+            if (!installed) {
+                continue;
+            }
+            List<WarehouseInventory> reports;
+            try {
+                reports = loader.get();
+            } catch (RuntimeException e) {
+                cache.remove(key, loading);
+                loading.reports().completeExceptionally(e);
+                throw e;
+            }
+            loading.reports().complete(reports);
+            cache.replace(key, loading, new Cached(loading.reports(), System.nanoTime()));
+            return reports;
+        }
+    }
+
+    private static List<WarehouseInventory> join(CompletableFuture<List<WarehouseInventory>> reports) {
+        try {
+            return reports.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private List<WarehouseInventory> loadTotals() {
+        List<Object[]> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                entityManager.createQuery(WAREHOUSE_TOTALS, Object[].class).getResultList()));
+        List<WarehouseInventory> reports = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            reports.add(new WarehouseInventory((Long) row[0], (String) row[1], (String) row[2],
+                    number(row[3]), number(row[4]), List.of()));
+        }
+        return List.copyOf(reports);
+    }
+
+    private List<WarehouseInventory> loadBreakdown(InventoryDimension dimension) {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                entityManager.createQuery(breakdownQuery(dimension), Object[].class).getResultList()));
+        int sums = hasName(dimension) ? 5 : 4;
+
+        Map<Long, Builder> warehouses = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Builder warehouse = warehouses.computeIfAbsent((Long) row[0],
+                    id -> new Builder(id, (String) row[1], (String) row[2]));
+            String name = hasName(dimension) ? (String) row[4] : null;
+            warehouse.add(new InventoryGroup((Long) row[3], name, number(row[sums]), number(row[sums + 1])));
+        }
+        List<WarehouseInventory> reports = warehouses.values().stream().map(Builder::build).toList();
+        log.debug("Warehouse inventory by {}: {} groups over {} warehouses in {} ms", dimension, rows.size(),
+                reports.size(), System.currentTimeMillis() - started);
+        return reports;
+    }
+
+    private static boolean hasName(InventoryDimension dimension) {
+        return dimension != InventoryDimension.VENDOR;
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    // loadedAt is when the load started until it completes, then when it completed
+    private record Cached(CompletableFuture<List<WarehouseInventory>> reports, long loadedAt) {
+    }
+
+    private static final class Builder {
+        private final Long id;
+        private final String code;
+        private final String name;
+        private final List<InventoryGroup> groups = new ArrayList<>();
+        private long total;
+        private long reserved;
+
+        private Builder(Long id, String code, String name) {
+            this.id = id;
+            this.code = code;
+            this.name = name;
+        }
+
+        private void add(InventoryGroup group) {
+            groups.add(group);
+            total += group.total();
+            reserved += group.reserved();
+        }
+
+        private WarehouseInventory build() {
+            return new WarehouseInventory(id, code, name, total, reserved, List.copyOf(groups));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package za.co.pms.service.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Routes to the closest warehouses. Coordinates are imported from a local
+ * {@code warehouse_code,latitude,longitude} file onto {@code Warehouse}, and the active geocoded
+ * warehouses are held in a {@link WarehouseIndex} rebuilt on a schedule. Stock filtering reads the
+ * per-warehouse counters of {@link StockAggregates}, so a lookup touches no database rows.
+ */
+@Slf4j
+@Service
+public class WarehouseLocator {
+
+    static final String ACTIVE_SITES = """
+            select w.id, w.code, w.latitude, w.longitude from Warehouse w
+            where w.active = true and w.latitude is not null and w.longitude is not null""";
+
+    static final String SET_COORDINATES =
+            "update Warehouse w set w.latitude = :latitude, w.longitude = :longitude where w.code = :code";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StockAggregates aggregates;
+    private final TransactionTemplate transactionTemplate;
+    private final Path geocodeFile;
+    private final long refreshMinutes;
+    private volatile WarehouseIndex index = WarehouseIndex.empty();
+    private ScheduledExecutorService scheduler;
+
+    public WarehouseLocator(StockAggregates aggregates,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventory.geo.file:./data/warehouse-locations.csv}") String geocodeFile,
+                            @Value("${inventory.geo.refresh-minutes:10}") long refreshMinutes) {
+        this.aggregates = aggregates;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.geocodeFile = Path.of(geocodeFile);
+        this.refreshMinutes = refreshMinutes;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Files.isRegularFile(geocodeFile)) {
+            importGeocodes(geocodeFile);
+        }
+        refresh();
+        if (refreshMinutes > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "warehouse-locator-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Store the coordinates in {@code file} on the warehouses with matching codes. A first line
+     * that does not parse is taken as a header; other bad lines are logged and skipped.
+     *
+     * @return the number of warehouses updated
+     */
+    public int importGeocodes(Path file) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3 || !inRange(parse(fields[1]), 90) || !inRange(parse(fields[2]), 180)) {
+                    if (lineNumber > 1) {
+                        log.warn("Skipping warehouse location line {} of {}: {}", lineNumber, file, line);
+                    }
+                    continue;
+                }
+                rows.add(fields);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read warehouse locations " + file, e);
+        }
+
+        int updated = Objects.requireNonNull(transactionTemplate.execute(status -> {
+            int count = 0;
+            for (String[] row : rows) {
+                count += entityManager.createQuery(SET_COORDINATES)
+                        .setParameter("latitude", parse(row[1]))
+                        .setParameter("longitude", parse(row[2]))
+                        .setParameter("code", row[0].trim())
+                        .executeUpdate();
+            }
+            return count;
+        }));
+        log.info("Imported {} warehouse locations from {}, {} matched a warehouse", rows.size(), file, updated);
+        return updated;
+    }
+
+    /**
+     * Rebuild the index from the active geocoded warehouses
+     */
+    public void refresh() {
+        List<Object[]> rows = Objects.requireNonNull(transactionTemplate.execute(status ->
+                entityManager.createQuery(ACTIVE_SITES, Object[].class).getResultList()));
+        List<WarehouseSite> sites = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            sites.add(new WarehouseSite((Long) row[0], (String) row[1], (Double) row[2], (Double) row[3]));
+        }
+        index = WarehouseIndex.of(sites);
+        log.debug("Warehouse index rebuilt with {} sites", sites.size());
+    }
+
+    /**
+     * Up to {@code k} active warehouses nearest to the point, nearest first
+     */
+    public List<NearbyWarehouse> nearest(double latitude, double longitude, int k) {
+        return index.nearest(latitude, longitude, k, warehouseId -> true);
+    }
+
+    /**
+     * Up to {@code k} active warehouses nearest to the point with at least {@code quantity} units
+     * of the variant available, nearest first
+     */
+    public List<NearbyWarehouse> nearestWithStock(long variantId, int quantity, double latitude, double longitude, int k) {
+        if (aggregates.variant(variantId).available() < quantity) {
+            return List.of();
+        }
+        return index.nearest(latitude, longitude, k,
+                warehouseId -> aggregates.variant(variantId, warehouseId).available() >= quantity);
+    }
+
+    private static Double parse(String value) {
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean inRange(Double degrees, double limit) {
+        return degrees != null && degrees >= -limit && degrees <= limit;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Warehouse index refresh failed", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package za.co.pms.service.inventory;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A geocoded warehouse, in degrees
+ */
+public record WarehouseSite(long warehouseId, String code, double latitude, double longitude) {
+
+    public WarehouseSite {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+    }
+}
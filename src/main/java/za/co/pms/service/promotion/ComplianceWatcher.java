@@ -0,0 +1,247 @@
+package za.co.pms.service.promotion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.model.promotion.Rule;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Keeps active rules in a queue ordered by {@code complianceExpiryDate} and wakes up when the
+ * earliest one lapses. Lapsed rules are deactivated and their promotions flagged
+ * ({@code complianceLapsed}) in batched bulk updates, so eligibility checks only read the flag.
+ */
+@Slf4j
+@Component
+public class ComplianceWatcher {
+
+    private static final String UPCOMING_EXPIRIES = """
+            select r.id, p.id, r.complianceExpiryDate from Rule r
+            left join r.promotion p
+            where r.active = true and r.complianceExpiryDate is not null""";
+
+    private static final String DEACTIVATE_RULES =
+            "update Rule r set r.active = false where r.id in :ids";
+
+    private static final String FLAG_PROMOTIONS =
+            "update versioned Promotion p set p.complianceLapsed = true where p.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+
+    private final PriorityQueue<Expiry> queue = new PriorityQueue<>();
+    // Latest known expiry per rule; queue entries that disagree are stale and skipped
+    private final Map<Long, LocalDateTime> ruleExpiries = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextRun;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastReloadAt;
+
+    public ComplianceWatcher(PlatformTransactionManager transactionManager,
+                             @Value("${compliance.watcher.enabled:false}") boolean enabled,
+                             @Value("${compliance.watcher.poll-seconds:300}") long pollSeconds,
+                             @Value("${compliance.watcher.batch-size:500}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pollInterval = Duration.ofSeconds(pollSeconds);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Compliance watcher disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "compliance-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Register or refresh a rule, e.g. after its compliance dates were edited
+     */
+    public void watch(Rule rule) {
+        Long promotionId = rule.getPromotion() == null ? null : rule.getPromotion().getId();
+        synchronized (this) {
+            if (!rule.isActive() || rule.getComplianceExpiryDate() == null) {
+                ruleExpiries.remove(rule.getId());
+                return;
+            }
+            enqueue(rule.getId(), promotionId, rule.getComplianceExpiryDate());
+        }
+        rescheduleIfEarlier(rule.getComplianceExpiryDate());
+    }
+
+    /**
+     * Reload the queue from the database
+     */
+    public void reload() {
+        reload(LocalDateTime.now());
+    }
+
+    void reload(LocalDateTime now) {
+        List<Object[]> rows = transactionTemplate.execute(status ->
+                entityManager.createQuery(UPCOMING_EXPIRIES, Object[].class).getResultList());
+        synchronized (this) {
+            queue.clear();
+            ruleExpiries.clear();
+            for (Object[] row : Objects.requireNonNull(rows)) {
+                enqueue((Long) row[0], (Long) row[1], (LocalDateTime) row[2]);
+            }
+            lastReloadAt = now;
+            log.debug("Compliance watcher tracking {} rules", ruleExpiries.size());
+        }
+    }
+
+    /**
+     * Deactivate every rule whose compliance expired at or before {@code now} and flag the
+     * promotions they belong to
+     *
+     * @return number of rules deactivated
+     */
+    public int processLapsed(LocalDateTime now) {
+        Set<Long> ruleIds = new LinkedHashSet<>();
+        Set<Long> promotionIds = new LinkedHashSet<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && !queue.peek().expiresAt.isAfter(now)) {
+                Expiry expiry = queue.poll();
+                if (!expiry.expiresAt.equals(ruleExpiries.get(expiry.ruleId))) {
+                    continue;
+                }
+                ruleExpiries.remove(expiry.ruleId);
+                ruleIds.add(expiry.ruleId);
+                if (expiry.promotionId != null) {
+                    promotionIds.add(expiry.promotionId);
+                }
+            }
+        }
+        if (ruleIds.isEmpty()) {
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            updateInBatches(DEACTIVATE_RULES, new ArrayList<>(ruleIds));
+            updateInBatches(FLAG_PROMOTIONS, new ArrayList<>(promotionIds));
+        });
+        log.info("Compliance lapsed for {} rules across {} promotions", ruleIds.size(), promotionIds.size());
+        return ruleIds.size();
+    }
+
+    public synchronized int size() {
+        return ruleExpiries.size();
+    }
+
+    private void enqueue(Long ruleId, Long promotionId, LocalDateTime expiresAt) {
+        ruleExpiries.put(ruleId, expiresAt);
+        queue.add(new Expiry(expiresAt, ruleId, promotionId));
+    }
+
+    private void updateInBatches(String statement, List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            entityManager.createQuery(statement)
+                    .setParameter("ids", ids.subList(from, Math.min(from + batchSize, ids.size())))
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Whether the table should be re-read to pick up rules edited elsewhere: never loaded, or the
+     * last load is a poll interval old, however many expiry wake-ups happened in between
+     */
+    synchronized boolean reloadDue(LocalDateTime now) {
+        return lastReloadAt == null || !now.isBefore(lastReloadAt.plus(pollInterval));
+    }
+
+    /**
+     * The earlier of the next reload and the earliest tracked expiry
+     */
+    synchronized LocalDateTime nextRunAt(LocalDateTime now) {
+        LocalDateTime at = lastReloadAt == null ? null : lastReloadAt.plus(pollInterval);
+        if (at == null || at.isBefore(now)) {
+            // A failed reload is retried a poll interval later rather than in a tight loop
+            at = now.plus(pollInterval);
+        }
+        if (!queue.isEmpty() && queue.peek().expiresAt.isBefore(at)) {
+            at = queue.peek().expiresAt;
+        }
+        return at;
+    }
+
+    private void run() {
+        LocalDateTime now = LocalDateTime.now();
+        if (reloadDue(now)) {
+            try {
+                reload(now);
+            } catch (RuntimeException e) {
+                log.error("Compliance watcher failed to load rules", e);
+            }
+        }
+        try {
+            processLapsed(now);
+        } catch (RuntimeException e) {
+            log.error("Compliance watcher failed to process lapsed rules", e);
+        }
+        schedule();
+    }
+
+    private synchronized void schedule() {
+        if (scheduler == null || scheduler.isShutdown()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime at = nextRunAt(now);
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        nextRunAt = at;
+        long delayMillis = Math.max(0, Duration.between(now, at).toMillis());
+        nextRun = scheduler.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void rescheduleIfEarlier(LocalDateTime expiresAt) {
+        synchronized (this) {
+            if (scheduler == null || nextRunAt == null || !expiresAt.isBefore(nextRunAt)) {
+                return;
+            }
+        }
+        schedule();
+    }
+
+    private record Expiry(LocalDateTime expiresAt, Long ruleId, Long promotionId) implements Comparable<Expiry> {
+        @Override
+        public int compareTo(Expiry other) {
+            return expiresAt.compareTo(other.expiresAt);
+        }
+    }
+}
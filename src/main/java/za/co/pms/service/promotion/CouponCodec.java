@@ -0,0 +1,154 @@
+package za.co.pms.service.promotion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Turns (promotion id, serial) into a 13-character coupon code and back. The 56-bit payload is
+ * encrypted with a keyed Feistel network, so consecutive serials give unrelated codes and a
+ * guessed code is valid with probability issued / 2^56. Twelve Crockford base32 characters carry
+ * the payload and a Luhn mod 32 character catches single-character typos and most transpositions.
+ * Since every code decodes to its serial, no code list has to be stored or looked up.
+ */
+public class CouponCodec {
+    public static final int CODE_LENGTH = 13;
+    public static final long MAX_PROMOTION_ID = (1L << 24) - 1;
+    public static final long MAX_SERIAL = (1L << 32) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] DIGITS = new int[128];
+    private static final int HALF_BITS = 28;
+    private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+    private static final int ROUNDS = 8;
+
+    static {
+        java.util.Arrays.fill(DIGITS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = i;
+            DIGITS[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Crockford aliases for characters people misread
+        DIGITS['O'] = DIGITS['o'] = 0;
+        DIGITS['I'] = DIGITS['i'] = DIGITS['L'] = DIGITS['l'] = 1;
+    }
+
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public CouponCodec(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < ROUNDS; i++) {
+                roundKeys[i] = ((digest[i * 4] & 0xFFL) << 24) | ((digest[i * 4 + 1] & 0xFFL) << 16)
+                        | ((digest[i * 4 + 2] & 0xFFL) << 8) | (digest[i * 4 + 3] & 0xFFL);
+                roundKeys[i] = mix(roundKeys[i] * 0x9E3779B97F4A7C15L + i);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String encode(long promotionId, long serial) {
+        if (promotionId < 0 || promotionId > MAX_PROMOTION_ID) {
+            throw new IllegalArgumentException("Promotion id out of coupon range: " + promotionId);
+        }
+        if (serial < 0 || serial > MAX_SERIAL) {
+            throw new IllegalArgumentException("Coupon serial out of range: " + serial);
+        }
+        long block = encrypt((promotionId << 32) | serial);
+
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 2; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (block & 31)];
+            block >>>= 5;
+        }
+        code[CODE_LENGTH - 1] = ALPHABET[checkDigit(code, CODE_LENGTH - 1)];
+        return new String(code);
+    }
+
+    /**
+     * @return the decoded coupon, or {@code null} if the code is malformed or fails its check digit
+     */
+    public CouponCode decode(String input) {
+        if (input == null) {
+            return null;
+        }
+        char[] code = new char[CODE_LENGTH];
+        int length = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (length == CODE_LENGTH || c >= 128 || DIGITS[c] < 0) {
+                return null;
+            }
+            code[length++] = ALPHABET[DIGITS[c]];
+        }
+        if (length != CODE_LENGTH || DIGITS[code[CODE_LENGTH - 1]] != checkDigit(code, CODE_LENGTH - 1)) {
+            return null;
+        }
+
+        long block = 0;
+        for (int i = 0; i < CODE_LENGTH - 1; i++) {
+            block = (block << 5) | DIGITS[code[i]];
+        }
+        if (block >>> 56 != 0) {
+            return null;
+        }
+        long payload = decrypt(block);
+        return new CouponCode(payload >>> 32, payload & MAX_SERIAL);
+    }
+
+    private long encrypt(long value) {
+        long left = (value >>> HALF_BITS) & HALF_MASK;
+        long right = value & HALF_MASK;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ roundFunction(right, round);
+            left = right;
+            right = next;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long decrypt(long value) {
+        long left = (value >>> HALF_BITS) & HALF_MASK;
+        long right = value & HALF_MASK;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            long previous = right ^ roundFunction(left, round);
+            right = left;
+            left = previous;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private long roundFunction(long half, int round) {
+        return mix(half ^ roundKeys[round]) & HALF_MASK;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Luhn mod N over the base32 digits
+    private static int checkDigit(char[] code, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = factor * DIGITS[code[i]];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return (32 - sum % 32) % 32;
+    }
+
+    /**
+     * A decoded coupon
+     */
+    public record CouponCode(long promotionId, long serial) {
+    }
+}
@@ -0,0 +1,279 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import za.co.pms.enums.CouponStatus;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.promotion.CouponRedemption;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Issues and redeems coupon codes. Generation only advances {@code Promotion.couponsIssued};
+ * the codes themselves are derived by {@link CouponCodec} and streamed to the caller. Validation
+ * decodes the code and checks the in-memory issued bound and {@link RedeemedSet}, so malformed,
+ * unissued and used codes are rejected without a database round trip. Codes naming a promotion
+ * that does not exist are rejected against a snapshot of promotion ids, re-read at most once per
+ * refresh interval, so well-formed guesses cannot drive one query each.
+ */
+@Slf4j
+@Service
+public class CouponService {
+
+    private static final String ISSUED =
+            "select p.couponsIssued from Promotion p where p.id = :id";
+
+    private static final String ADVANCE_ISSUED =
+            "update Promotion p set p.couponsIssued = p.couponsIssued + :count where p.id = :id";
+
+    private static final String REDEEMED_SERIALS =
+            "select r.serial from CouponRedemption r where r.promotion.id = :id";
+
+    private static final String PROMOTION_IDS =
+            "select p.id from Promotion p where p.id between 0 and :maxId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final CouponCodec codec;
+    private final long refreshNanos;
+    private final Map<Long, CouponBook> books = new ConcurrentHashMap<>();
+    private volatile KnownPromotions knownPromotions;
+
+    public CouponService(PlatformTransactionManager transactionManager,
+                         @Value("${promotion.coupon.secret}") String secret,
+                         @Value("${promotion.coupon.refresh-seconds:30}") long refreshSeconds) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalStateException("promotion.coupon.secret is not set; provide PMS_COUPON_SECRET");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.codec = new CouponCodec(secret);
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    /**
+     * Issue {@code count} new codes for a promotion, handing each to {@code sink}
+     *
+     * @return the first serial issued
+     */
+    public long generate(Long promotionId, int count, Consumer<String> sink) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Coupon count must be positive");
+        }
+        Long first = transactionTemplate.execute(status -> {
+            Long issued = entityManager.createQuery(ISSUED, Long.class)
+                    .setParameter("id", promotionId)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultStream()
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Promotion not found: " + promotionId));
+            if (issued + count - 1 > CouponCodec.MAX_SERIAL) {
+                throw new IllegalArgumentException("Promotion " + promotionId + " cannot issue " + count + " more coupons");
+            }
+            entityManager.createQuery(ADVANCE_ISSUED)
+                    .setParameter("count", (long) count)
+                    .setParameter("id", promotionId)
+                    .executeUpdate();
+            return issued;
+        });
+        long from = Objects.requireNonNull(first);
+
+        long started = System.nanoTime();
+        for (long serial = from; serial < from + count; serial++) {
+            sink.accept(codec.encode(promotionId, serial));
+        }
+        CouponBook book = books.get(promotionId);
+        if (book != null) {
+            book.raiseIssued(from + count);
+        }
+        KnownPromotions known = knownPromotions;
+        if (known != null && !known.contains(promotionId)) {
+            knownPromotions = null; // created after the snapshot; re-read on next lookup
+        }
+        log.info("Issued {} coupons for promotion {} in {} ms", count, promotionId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return from;
+    }
+
+    public CouponStatus validate(String code) {
+        CouponCodec.CouponCode coupon = codec.decode(code);
+        if (coupon == null) {
+            return CouponStatus.MALFORMED;
+        }
+        CouponBook book = bookFor(coupon);
+        if (book == null || !book.isIssued(coupon.serial())) {
+            return CouponStatus.UNKNOWN;
+        }
+        return book.redeemed.contains(coupon.serial()) ? CouponStatus.REDEEMED : CouponStatus.VALID;
+    }
+
+    /**
+     * Redeem a code once. The redeemed bit is set before the insert; the unique constraint on
+     * (promotion, serial) settles races with other nodes.
+     */
+    public CouponStatus redeem(String code, String customerId) {
+        CouponCodec.CouponCode coupon = codec.decode(code);
+        if (coupon == null) {
+            return CouponStatus.MALFORMED;
+        }
+        CouponBook book = bookFor(coupon);
+        if (book == null || !book.isIssued(coupon.serial())) {
+            return CouponStatus.UNKNOWN;
+        }
+        if (!book.redeemed.add(coupon.serial())) {
+            return CouponStatus.REDEEMED;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                CouponRedemption redemption = new CouponRedemption();
+                redemption.setPromotion(entityManager.getReference(Promotion.class, coupon.promotionId()));
+                redemption.setSerial(coupon.serial());
+                redemption.setCustomerId(customerId);
+                redemption.setRedeemedAt(LocalDateTime.now());
+                entityManager.persist(redemption);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Coupon {} was redeemed on another node", code);
+            return CouponStatus.REDEEMED;
+        } catch (RuntimeException e) {
+            book.redeemed.remove(coupon.serial());
+            throw e;
+        }
+        return CouponStatus.VALID;
+    }
+
+    /**
+     * Forget a promotion's in-memory state
+     */
+    public void evict(Long promotionId) {
+        books.remove(promotionId);
+    }
+
+    public long memoryBytes(Long promotionId) {
+        CouponBook book = books.get(promotionId);
+        return book == null ? 0 : book.redeemed.memoryBytes();
+    }
+
+    private CouponBook bookFor(CouponCodec.CouponCode coupon) {
+        CouponBook book = books.get(coupon.promotionId());
+        if (book == null) {
+            if (!promotionExists(coupon.promotionId())) {
+                return null;
+            }
+            book = loadBook(coupon.promotionId());
+            if (book == null) {
+                return null;
+            }
+            CouponBook existing = books.putIfAbsent(coupon.promotionId(), book);
+            book = existing != null ? existing : book;
+        }
+        if (!book.isIssued(coupon.serial()) && book.refreshDue(refreshNanos)) {
+            // Another node may have issued more codes since we loaded the bound
+            Long issued = transactionTemplate.execute(status -> readIssued(coupon.promotionId()));
+            if (issued != null) {
+                book.raiseIssued(issued);
+            }
+        }
+        return book;
+    }
+
+    private CouponBook loadBook(long promotionId) {
+        return transactionTemplate.execute(status -> {
+            Long issued = readIssued(promotionId);
+            if (issued == null) {
+                return null;
+            }
+            CouponBook book = new CouponBook(issued);
+            entityManager.createQuery(REDEEMED_SERIALS, Long.class)
+                    .setParameter("id", promotionId)
+                    .getResultStream()
+                    .forEach(book.redeemed::add);
+            return book;
+        });
+    }
+
+    private boolean promotionExists(long promotionId) {
+        KnownPromotions known = knownPromotions;
+        if (known == null || (!known.contains(promotionId) && known.refreshDue(refreshNanos))) {
+            known = refreshKnownPromotions();
+        }
+        return known.contains(promotionId);
+    }
+
+    private synchronized KnownPromotions refreshKnownPromotions() {
+        KnownPromotions known = knownPromotions;
+        if (known != null && !known.refreshDue(refreshNanos)) {
+            return known; // another thread refreshed while we waited
+        }
+        BitSet ids = new BitSet();
+        transactionTemplate.executeWithoutResult(status -> entityManager.createQuery(PROMOTION_IDS, Long.class)
+                .setParameter("maxId", CouponCodec.MAX_PROMOTION_ID)
+                .getResultStream()
+                .forEach(id -> ids.set(id.intValue())));
+        known = new KnownPromotions(ids, System.nanoTime());
+        knownPromotions = known;
+        return known;
+    }
+
+    private Long readIssued(long promotionId) {
+        return entityManager.createQuery(ISSUED, Long.class)
+                .setParameter("id", promotionId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static final class CouponBook {
+        private final RedeemedSet redeemed = new RedeemedSet();
+        private volatile long issued;
+        private volatile long lastRefresh = System.nanoTime();
+
+        private CouponBook(long issued) {
+            this.issued = issued;
+        }
+
+        private boolean isIssued(long serial) {
+            return serial < issued;
+        }
+
+        private synchronized void raiseIssued(long value) {
+            if (value > issued) {
+                issued = value;
+            }
+            lastRefresh = System.nanoTime();
+        }
+
+        private boolean refreshDue(long refreshNanos) {
+            return System.nanoTime() - lastRefresh >= refreshNanos;
+        }
+    }
+
+    // Ids of existing promotions within the coupon range; never mutated once published
+    private record KnownPromotions(BitSet ids, long loadedAt) {
+        private boolean contains(long promotionId) {
+            return ids.get((int) promotionId);
+        }
+
+        private boolean refreshDue(long refreshNanos) {
+            return System.nanoTime() - loadedAt >= refreshNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package za.co.pms.service.promotion;
+
+import java.math.BigDecimal;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * One variant's current and promoted display prices (VAT inclusive). For BOGO/MULTIBUY the
+ * promoted price is the effective per-unit price.
+ */
+public record PricePreview(Long priceId, Long variantId, String variantName,
+                           BigDecimal currentPrice, BigDecimal promotedPrice, BigDecimal saving) {
+}
@@ -0,0 +1,16 @@
+package za.co.pms.service.promotion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Aggregate savings (VAT inclusive) of a promotion preview
+ */
+public record PricePreviewSummary(long count, BigDecimal minSaving, BigDecimal maxSaving, BigDecimal totalSaving) {
+
+    public BigDecimal averageSaving() {
+        return count == 0 ? BigDecimal.ZERO : totalSaving.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+}
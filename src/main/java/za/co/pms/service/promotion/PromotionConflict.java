@@ -0,0 +1,21 @@
+package za.co.pms.service.promotion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Two promotions that target at least one common variant in overlapping windows
+ *
+ * @param sampleVariantIds up to {@link PromotionConflictDetector#SAMPLE_SIZE} of the shared variants
+ */
+public record PromotionConflict(Long firstPromotionId, Long secondPromotionId,
+                                LocalDateTime overlapStart, LocalDateTime overlapEnd,
+                                int sharedVariantCount, List<Long> sampleVariantIds) {
+
+    static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == Long.MAX_VALUE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,183 @@
+package za.co.pms.service.promotion;
+
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Finds promotions that target the same variants in overlapping windows. {@link #findAll} sweeps
+ * start/end events in time order, keeping only the promotions live at each instant per variant,
+ * so non-overlapping promotions are never compared. An instance indexes the windows as a static
+ * interval tree (sorted by start, augmented with the max end of each subtree) for pre-save checks.
+ */
+public class PromotionConflictDetector {
+    static final int SAMPLE_SIZE = 10;
+
+    private final PromotionWindow[] windows;
+    private final long[] maxEnd;
+
+    public PromotionConflictDetector(Collection<PromotionWindow> windows) {
+        this.windows = windows.stream().filter(PromotionConflictDetector::isValid).toArray(PromotionWindow[]::new);
+        Arrays.sort(this.windows, Comparator.comparingLong(PromotionWindow::start));
+        this.maxEnd = new long[this.windows.length];
+        build(0, this.windows.length);
+    }
+
+    /**
+     * Every conflicting pair among {@code windows}
+     */
+    public static List<PromotionConflict> findAll(Collection<PromotionWindow> windows) {
+        PromotionWindow[] indexed = windows.stream().filter(PromotionConflictDetector::isValid)
+                .toArray(PromotionWindow[]::new);
+        int n = indexed.length;
+
+        // Ends sort before starts at the same instant: windows are half-open
+        long[] events = new long[n * 2];
+        Integer[] order = new Integer[n * 2];
+        for (int i = 0; i < n; i++) {
+            order[2 * i] = 2 * i;
+            order[2 * i + 1] = 2 * i + 1;
+            events[2 * i] = indexed[i].start();
+            events[2 * i + 1] = indexed[i].end();
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byTime = Long.compare(events[a], events[b]);
+            return byTime != 0 ? byTime : Integer.compare(b & 1, a & 1);
+        });
+
+        Map<Long, Set<Integer>> liveByVariant = new HashMap<>();
+        Map<Long, ConflictBuilder> conflicts = new LinkedHashMap<>();
+        for (int event : order) {
+            int i = event >> 1;
+            boolean isEnd = (event & 1) == 1;
+            for (long variantId : indexed[i].variantIds()) {
+                if (isEnd) {
+                    Set<Integer> live = liveByVariant.get(variantId);
+                    live.remove(i);
+                    if (live.isEmpty()) {
+                        liveByVariant.remove(variantId);
+                    }
+                    continue;
+                }
+                Set<Integer> live = liveByVariant.computeIfAbsent(variantId, v -> new HashSet<>());
+                for (int j : live) {
+                    long key = (long) Math.min(i, j) * n + Math.max(i, j);
+                    conflicts.computeIfAbsent(key, k -> new ConflictBuilder(indexed[j], indexed[i]))
+                            .add(variantId);
+                }
+                live.add(i);
+            }
+        }
+
+        List<PromotionConflict> result = new ArrayList<>(conflicts.size());
+        conflicts.values().forEach(builder -> result.add(builder.build()));
+        return result;
+    }
+
+    /**
+     * Conflicts between a new or edited promotion and the indexed ones. A window with the same
+     * promotion id as the candidate is ignored; unsaved windows (no id) never match each other.
+     */
+    public List<PromotionConflict> conflictsWith(PromotionWindow candidate) {
+        List<PromotionWindow> overlapping = new ArrayList<>();
+        collectOverlapping(0, windows.length, candidate, overlapping);
+
+        List<PromotionConflict> result = new ArrayList<>();
+        for (PromotionWindow existing : overlapping) {
+            if (existing.promotionId() != null && existing.promotionId().equals(candidate.promotionId())) {
+                continue;
+            }
+            ConflictBuilder builder = new ConflictBuilder(existing, candidate);
+            intersect(existing.variantIds(), candidate.variantIds(), builder);
+            if (builder.count > 0) {
+                result.add(builder.build());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return windows.length;
+    }
+
+    private static boolean isValid(PromotionWindow window) {
+        return window.start() < window.end();
+    }
+
+    private long build(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        maxEnd[mid] = Math.max(windows[mid].end(), Math.max(build(lo, mid), build(mid + 1, hi)));
+        return maxEnd[mid];
+    }
+
+    private void collectOverlapping(int lo, int hi, PromotionWindow candidate, List<PromotionWindow> out) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] <= candidate.start()) {
+            return; // nothing in this subtree is still running when the candidate starts
+        }
+        collectOverlapping(lo, mid, candidate, out);
+        if (windows[mid].start() < candidate.end()) {
+            if (windows[mid].end() > candidate.start()) {
+                out.add(windows[mid]);
+            }
+            collectOverlapping(mid + 1, hi, candidate, out);
+        }
+    }
+
+    private static void intersect(long[] a, long[] b, ConflictBuilder builder) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        if (large.length > small.length * 16L) {
+            for (long variantId : small) {
+                if (Arrays.binarySearch(large, variantId) >= 0) {
+                    builder.add(variantId);
+                }
+            }
+            return;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < small.length && j < large.length) {
+            if (small[i] < large[j]) {
+                i++;
+            } else if (small[i] > large[j]) {
+                j++;
+            } else {
+                builder.add(small[i]);
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private static final class ConflictBuilder {
+        private final PromotionWindow first;
+        private final PromotionWindow second;
+        private final List<Long> samples = new ArrayList<>();
+        private int count;
+
+        private ConflictBuilder(PromotionWindow first, PromotionWindow second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        private void add(long variantId) {
+            if (count++ < SAMPLE_SIZE) {
+                samples.add(variantId);
+            }
+        }
+
+        private PromotionConflict build() {
+            return new PromotionConflict(first.promotionId(), second.promotionId(),
+                    PromotionConflict.toDateTime(Math.max(first.start(), second.start())),
+                    PromotionConflict.toDateTime(Math.min(first.end(), second.end())),
+                    count, List.copyOf(samples));
+        }
+    }
+}
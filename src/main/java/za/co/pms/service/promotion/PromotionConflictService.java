@@ -0,0 +1,180 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.PromotionConflictException;
+import za.co.pms.model.Promotion;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Detects overlapping promotions on shared variants. Every promotion targets the variants stored
+ * with it ({@code targetedVariantIds}), launched or not; a promotion being saved supplies its own
+ * variant set, which is recorded on it and reserved in the index until its transaction completes.
+ */
+@Slf4j
+@Service
+public class PromotionConflictService {
+
+    private static final String RUNNING_WINDOWS = """
+            select pr.id, pr.startDate, pr.endDate from Promotion pr
+            where pr.endDate is null or pr.endDate > :now""";
+
+    private static final String TARGETED_VARIANTS = """
+            select p.id, v from Promotion p
+            join p.targetedVariantIds v
+            where p.id in :ids""";
+
+    private static final int ID_CHUNK = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private volatile Map<Long, PromotionWindow> windows = Map.of();
+    private volatile PromotionConflictDetector index;
+    // Windows of saves still in flight, keyed by the promotion instance; guarded by this
+    private final Map<Promotion, PromotionWindow> reservations = new IdentityHashMap<>();
+
+    public PromotionConflictService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Reload running promotions and report every conflicting pair
+     */
+    public List<PromotionConflict> findConflicts() {
+        refresh();
+        List<PromotionConflict> conflicts = PromotionConflictDetector.findAll(windows.values());
+        log.info("Found {} promotion conflicts across {} running promotions", conflicts.size(), windows.size());
+        return conflicts;
+    }
+
+    /**
+     * Conflicts a promotion would introduce if saved with the given variants, including against
+     * saves that have passed the guard but not yet committed
+     */
+    public List<PromotionConflict> checkBeforeSave(Promotion promotion, Collection<Long> variantIds) {
+        return conflicts(promotion, toWindow(promotion, variantIds));
+    }
+
+    /**
+     * Pre-save guard: reject the promotion if it conflicts, otherwise record the variants on it
+     * and reserve its window in the same step, so a concurrent save of a conflicting promotion is
+     * rejected before either commits. The reservation becomes a regular entry when the surrounding
+     * transaction commits and is dropped if it rolls back. Without a transaction it is added
+     * straight away.
+     */
+    public void assertNoConflicts(Promotion promotion, Collection<Long> variantIds) {
+        Set<Long> targets = new HashSet<>(variantIds);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        synchronized (this) {
+            PromotionWindow window = toWindow(promotion, targets);
+            List<PromotionConflict> conflicts = conflicts(promotion, window);
+            if (!conflicts.isEmpty()) {
+                throw new PromotionConflictException(conflicts);
+            }
+            if (inTransaction) {
+                reservations.put(promotion, window);
+            } else {
+                register(window);
+            }
+        }
+        promotion.getTargetedVariantIds().retainAll(targets);
+        promotion.getTargetedVariantIds().addAll(targets);
+
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // The id may only have been assigned by the save itself
+                    settle(promotion, status == STATUS_COMMITTED ? toWindow(promotion, targets) : null);
+                }
+            });
+        }
+    }
+
+    public synchronized void refresh() {
+        Map<Long, PromotionWindow> loaded = transactionTemplate.execute(status -> loadWindows());
+        windows = Objects.requireNonNull(loaded);
+        index = new PromotionConflictDetector(windows.values());
+    }
+
+    private synchronized List<PromotionConflict> conflicts(Promotion promotion, PromotionWindow window) {
+        if (index == null) {
+            refresh();
+        }
+        List<PromotionConflict> conflicts = new ArrayList<>(index.conflictsWith(window));
+        if (!reservations.isEmpty()) {
+            List<PromotionWindow> pending = new ArrayList<>(reservations.size());
+            reservations.forEach((owner, reserved) -> {
+                if (owner != promotion) {
+                    pending.add(reserved);
+                }
+            });
+            conflicts.addAll(new PromotionConflictDetector(pending).conflictsWith(window));
+        }
+        return conflicts;
+    }
+
+    private synchronized void settle(Promotion promotion, PromotionWindow committed) {
+        reservations.remove(promotion);
+        if (committed != null) {
+            register(committed);
+        }
+    }
+
+    private synchronized void register(PromotionWindow window) {
+        if (window.promotionId() == null) {
+            return;
+        }
+        Map<Long, PromotionWindow> updated = new HashMap<>(windows);
+        updated.put(window.promotionId(), window);
+        windows = updated;
+        index = new PromotionConflictDetector(updated.values());
+    }
+
+    private Map<Long, PromotionWindow> loadWindows() {
+        List<Object[]> rows = entityManager.createQuery(RUNNING_WINDOWS, Object[].class)
+                .setParameter("now", LocalDateTime.now())
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Set<Long>> variantsByPromotion = new HashMap<>();
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            entityManager.createQuery(TARGETED_VARIANTS, Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(from + ID_CHUNK, ids.size())))
+                    .getResultStream()
+                    .forEach(row -> variantsByPromotion
+                            .computeIfAbsent((Long) row[0], id -> new HashSet<>())
+                            .add((Long) row[1]));
+        }
+
+        Map<Long, PromotionWindow> loaded = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            Set<Long> variants = variantsByPromotion.getOrDefault(id, Set.of());
+            loaded.put(id, PromotionWindow.of(id, (LocalDateTime) row[1], (LocalDateTime) row[2],
+                    variants.stream().mapToLong(Long::longValue).toArray()));
+        }
+        return loaded;
+    }
+
+    private static PromotionWindow toWindow(Promotion promotion, Collection<Long> variantIds) {
+        return PromotionWindow.of(promotion.getId(), promotion.getStartDate(), promotion.getEndDate(),
+                variantIds.stream().mapToLong(Long::longValue).toArray());
+    }
+}
@@ -0,0 +1,99 @@
+package za.co.pms.service.promotion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+import za.co.pms.model.Promotion;
+import za.co.pms.repository.projection.PromotionLabelSource;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Renders CPA-compliant promotion labels through the message bundles, once per promotion
+ * version and locale. A promotion whose {@code @Version} moves on is re-rendered on next use.
+ */
+@Slf4j
+@Component
+public class PromotionLabelCache {
+    private static final String LABEL_KEY_PREFIX = "promotion.label.";
+
+    private final MessageSource messageSource;
+    private final ConcurrentMap<Long, VersionedLabels> labels = new ConcurrentHashMap<>();
+
+    public PromotionLabelCache(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Get the display label for a promotion in the given locale
+     */
+    public String getLabel(Promotion promotion, Locale locale) {
+        return getLabel(PromotionLabelSource.of(promotion), locale);
+    }
+
+    /**
+     * Get the display label for a projected promotion, as read by catalog pages
+     */
+    public String getLabel(PromotionLabelSource promotion, Locale locale) {
+        if (promotion.id() == null) {
+            return render(promotion, locale);
+        }
+
+        long version = promotion.version() == null ? 0L : promotion.version();
+        VersionedLabels entry = labels.get(promotion.id());
+        if (entry == null || entry.version < version) {
+            entry = labels.compute(promotion.id(), (id, existing) ->
+                    existing != null && existing.version >= version ? existing : new VersionedLabels(version));
+        }
+        if (entry.version != version) {
+            // Caller holds a stale copy of the promotion; don't let it overwrite newer labels
+            return render(promotion, locale);
+        }
+        return entry.byLocale.computeIfAbsent(locale, l -> render(promotion, l));
+    }
+
+    /**
+     * Drop all cached labels for a promotion
+     */
+    public void evict(Long promotionId) {
+        labels.remove(promotionId);
+    }
+
+    public void clear() {
+        labels.clear();
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    private String render(PromotionLabelSource promotion, Locale locale) {
+        String key = LABEL_KEY_PREFIX + promotion.type().name().toLowerCase(Locale.ROOT);
+        return switch (promotion.type()) {
+            case BOGO -> messageSource.getMessage(key, new Object[]{
+                    promotion.requiredQuantity(),
+                    promotion.freeQuantity(),
+                    Promotion.savingsPercentage(promotion.requiredQuantity(), promotion.freeQuantity())}, locale);
+            case MULTIBUY -> messageSource.getMessage(key, new Object[]{
+                    promotion.requiredQuantity() + promotion.freeQuantity(),
+                    promotion.requiredQuantity(),
+                    Promotion.savingsPercentage(promotion.requiredQuantity(), promotion.freeQuantity())}, locale);
+            case FREE_SAMPLE -> messageSource.getMessage(key, null, locale);
+            default -> promotion.description();
+        };
+    }
+
+    private static final class VersionedLabels {
+        private final long version;
+        private final Map<Locale, String> byLocale = new ConcurrentHashMap<>();
+
+        private VersionedLabels(long version) {
+            this.version = version;
+        }
+    }
+}
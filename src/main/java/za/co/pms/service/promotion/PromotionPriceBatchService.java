@@ -0,0 +1,247 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PriceType;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.product.Price;
+import za.co.pms.model.product.PriceChange;
+import za.co.pms.service.BatchProgress;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Launches and reverts promotions over large variant ranges. Current prices are paged by id
+ * (keyset) and each page is written in its own transaction, so the persistence context never
+ * holds more than one page and inserts go out as JDBC batches (hibernate.jdbc.batch_size).
+ */
+@Slf4j
+@Service
+public class PromotionPriceBatchService {
+
+    private static final String CURRENT_PRICE_PAGE = """
+            select p from Price p
+            join fetch p.variant
+            left join fetch p.taxClass
+            where p.current = true
+              and (p.priceType is null or p.priceType <> :promotional)
+              and p.id > :lastId
+            order by p.id""";
+
+    // The last column counts the variant's current prices set while the promotion ran; prices this
+    // promotion wrote or is restoring are its own, so a variant with several replaced prices gets
+    // all of them back
+    private static final String PROMOTION_CHANGE_PAGE = """
+            select pc.id, pc.oldPrice.id, np.id,
+                (select count(other) from Price other
+                 where other.variant = np.variant and other.current = true
+                   and not exists (select own.id from PriceChange own
+                                   where own.promotion.id = :promotionId
+                                     and (own.newPrice = other or own.oldPrice = other)))
+            from PriceChange pc
+            join pc.newPrice np
+            where pc.promotion.id = :promotionId
+              and np.current = true
+              and pc.id > :lastId
+            order by pc.id""";
+
+    private static final String RETIRE_PRICES =
+            "update Price p set p.current = false, p.effectiveTo = :now where p.id in :ids";
+
+    private static final String RESTORE_PRICES =
+            "update Price p set p.current = true, p.effectiveTo = null where p.id in :ids";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public PromotionPriceBatchService(PlatformTransactionManager transactionManager,
+                                      @Value("${promotion.batch.size:500}") int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Write a PROMOTIONAL price for every eligible variant, retire the price it replaces and
+     * record a {@link PriceChange} linking the two
+     */
+    public BatchProgress applyPromotion(Long promotionId, Consumer<BatchProgress> progressListener) {
+        Promotion promotion = loadPromotion(promotionId);
+        if (!promotion.isActive()) {
+            throw new IllegalStateException("Promotion " + promotionId + " is not active");
+        }
+
+        long started = System.currentTimeMillis();
+        long scanned = 0;
+        long written = 0;
+        long lastId = 0;
+
+        while (true) {
+            long cursor = lastId;
+            PageResult page = transactionTemplate.execute(status -> applyPage(promotion, cursor));
+            if (page == null || page.scanned() == 0) {
+                break;
+            }
+            scanned += page.scanned();
+            written += page.written();
+            lastId = page.lastId();
+            report("apply promotion " + promotionId, scanned, written, started, progressListener);
+        }
+
+        BatchProgress result = new BatchProgress("apply promotion " + promotionId, scanned, written,
+                System.currentTimeMillis() - started);
+        log.info("{}", result);
+        return result;
+    }
+
+    /**
+     * Restore the prices recorded as {@code oldPrice} on this promotion's {@link PriceChange}s,
+     * retiring the promotional prices that are still current. A variant given another current
+     * price during the promotion keeps that price; its old price is not restored.
+     */
+    public BatchProgress revertPromotion(Long promotionId, Consumer<BatchProgress> progressListener) {
+        long started = System.currentTimeMillis();
+        long scanned = 0;
+        long written = 0;
+        long lastId = 0;
+
+        while (true) {
+            long cursor = lastId;
+            PageResult page = transactionTemplate.execute(status -> revertPage(promotionId, cursor));
+            if (page == null || page.scanned() == 0) {
+                break;
+            }
+            scanned += page.scanned();
+            written += page.written();
+            lastId = page.lastId();
+            report("revert promotion " + promotionId, scanned, written, started, progressListener);
+        }
+
+        BatchProgress result = new BatchProgress("revert promotion " + promotionId, scanned, written,
+                System.currentTimeMillis() - started);
+        log.info("{}", result);
+        return result;
+    }
+
+    private Promotion loadPromotion(Long promotionId) {
+        Promotion promotion = transactionTemplate.execute(status -> entityManager.createQuery(
+                        "select distinct pr from Promotion pr left join fetch pr.rules where pr.id = :id",
+                        Promotion.class)
+                .setParameter("id", promotionId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null));
+        if (promotion == null) {
+            throw new IllegalArgumentException("Promotion not found: " + promotionId);
+        }
+        return promotion;
+    }
+
+    private PageResult applyPage(Promotion promotion, long lastId) {
+        List<Price> prices = entityManager.createQuery(CURRENT_PRICE_PAGE, Price.class)
+                .setParameter("promotional", PriceType.PROMOTIONAL)
+                .setParameter("lastId", lastId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (prices.isEmpty()) {
+            return new PageResult(0, 0, lastId);
+        }
+
+        Promotion promotionRef = entityManager.getReference(Promotion.class, promotion.getId());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> retiredIds = new ArrayList<>(prices.size());
+
+        for (Price currentPrice : prices) {
+            if (!promotion.isEligibleForVariant(currentPrice.getVariant())) {
+                continue;
+            }
+            Price promotionalPrice = promotion.createDiscountedPrice(currentPrice.getVariant(), currentPrice);
+            if (promotionalPrice.getBasePrice().compareTo(currentPrice.getBasePrice()) == 0) {
+                continue; // BOGO/MULTIBUY keep the base price; the saving is applied at checkout
+            }
+            promotionalPrice.setEffectiveFrom(now);
+            entityManager.persist(promotionalPrice);
+
+            PriceChange priceChange = new PriceChange();
+            priceChange.setPromotion(promotionRef);
+            priceChange.setOldPrice(currentPrice);
+            priceChange.setNewPrice(promotionalPrice);
+            priceChange.setChangedAt(now);
+            entityManager.persist(priceChange);
+
+            retiredIds.add(currentPrice.getId());
+        }
+
+        if (!retiredIds.isEmpty()) {
+            entityManager.createQuery(RETIRE_PRICES)
+                    .setParameter("now", now)
+                    .setParameter("ids", retiredIds)
+                    .executeUpdate();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        return new PageResult(prices.size(), retiredIds.size(), prices.get(prices.size() - 1).getId());
+    }
+
+    private PageResult revertPage(Long promotionId, long lastId) {
+        List<Object[]> changes = entityManager.createQuery(PROMOTION_CHANGE_PAGE, Object[].class)
+                .setParameter("promotionId", promotionId)
+                .setParameter("lastId", lastId)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (changes.isEmpty()) {
+            return new PageResult(0, 0, lastId);
+        }
+
+        List<Long> restoredIds = new ArrayList<>(changes.size());
+        List<Long> retiredIds = new ArrayList<>(changes.size());
+        for (Object[] change : changes) {
+            retiredIds.add((Long) change[2]);
+            if ((Long) change[3] == 0) {
+                restoredIds.add((Long) change[1]);
+            }
+        }
+        if (restoredIds.size() < retiredIds.size()) {
+            log.info("Promotion {}: {} variants were repriced during the promotion and keep their new price",
+                    promotionId, retiredIds.size() - restoredIds.size());
+        }
+
+        entityManager.createQuery(RETIRE_PRICES)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("ids", retiredIds)
+                .executeUpdate();
+        int restored = restoredIds.isEmpty() ? 0 : entityManager.createQuery(RESTORE_PRICES)
+                .setParameter("ids", restoredIds)
+                .executeUpdate();
+
+        return new PageResult(changes.size(), restored, (Long) changes.get(changes.size() - 1)[0]);
+    }
+
+    private void report(String operation, long scanned, long written, long started,
+                        Consumer<BatchProgress> progressListener) {
+        BatchProgress progress = new BatchProgress(operation, scanned, written,
+                System.currentTimeMillis() - started);
+        log.debug("{}", progress);
+        if (progressListener != null) {
+            progressListener.accept(progress);
+        }
+    }
+
+    private record PageResult(int scanned, int written, long lastId) {
+    }
+}
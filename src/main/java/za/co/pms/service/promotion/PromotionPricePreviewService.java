@@ -0,0 +1,184 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PriceType;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.product.Price;
+import za.co.pms.model.product.TaxClass;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.CategoryRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * What-if pricing of a promotion over a category subtree, against the current non-promotional
+ * prices, as {@link PromotionPriceBatchService} would apply it once the promotion is active: only
+ * variants the promotion applies to, and only prices it would change, so BOGO and MULTIBUY (whose
+ * saving is applied at checkout) preview nothing. Current prices are read page by page as scalar
+ * rows (no managed entities), priced in parallel and discarded, so memory stays bounded by the
+ * page size however large the category is. Nothing is written.
+ */
+@Slf4j
+@Service
+public class PromotionPricePreviewService {
+
+    private static final String CURRENT_PRICE_ROWS = """
+            select p.id, v.id, v.name, p.basePrice, tc.id from Price p
+            join p.variant v
+            join v.product pr
+            left join p.taxClass tc
+            where p.current = true
+              and (p.priceType is null or p.priceType <> :promotional)
+              and pr.category.id in :categoryIds
+              and p.id > :lastId
+            order by p.id""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+
+    public PromotionPricePreviewService(CategoryRepository categoryRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${promotion.batch.size:500}") int pageSize) {
+        this.categoryRepository = categoryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Aggregate savings over every current price in the category and its descendants
+     */
+    public PricePreviewSummary summarize(Promotion promotion, Long categoryId) {
+        PreviewContext context = transactionTemplate.execute(status -> openContext(categoryId));
+        Objects.requireNonNull(context);
+
+        SavingsAccumulator total = new SavingsAccumulator();
+        long cursor = 0;
+        while (true) {
+            long lastId = cursor;
+            List<Object[]> rows = transactionTemplate.execute(status -> readPage(context, lastId, pageSize));
+            if (rows == null || rows.isEmpty()) {
+                break;
+            }
+            SavingsAccumulator page = rows.parallelStream()
+                    .map(row -> preview(promotion, context, row))
+                    .filter(Objects::nonNull)
+                    .collect(SavingsAccumulator::new, SavingsAccumulator::add, SavingsAccumulator::merge);
+            total.merge(page);
+            cursor = (Long) rows.get(rows.size() - 1)[0];
+        }
+        return total.toSummary();
+    }
+
+    /**
+     * One page of per-variant detail, ordered by price id. A page may hold fewer rows than
+     * {@code limit} where prices the promotion would not change were skipped.
+     *
+     * @param cursor {@code null} for the first page, otherwise {@link PricePreviewPage#nextCursor()}
+     */
+    public PricePreviewPage preview(Promotion promotion, Long categoryId, Long cursor, int limit) {
+        return transactionTemplate.execute(status -> {
+            PreviewContext context = openContext(categoryId);
+            List<Object[]> rows = readPage(context, cursor == null ? 0 : cursor, limit);
+            List<PricePreview> previews = rows.parallelStream()
+                    .map(row -> preview(promotion, context, row))
+                    .filter(Objects::nonNull)
+                    .toList();
+            Long next = rows.size() < limit ? null : (Long) rows.get(rows.size() - 1)[0];
+            return new PricePreviewPage(previews, next);
+        });
+    }
+
+    private PreviewContext openContext(Long categoryId) {
+        List<Long> categoryIds = categoryRepository.findSubtreeIds(categoryId);
+        Map<Long, TaxClass> taxClasses = entityManager.createQuery("select tc from TaxClass tc", TaxClass.class)
+                .getResultStream()
+                .collect(Collectors.toMap(TaxClass::getId, Function.identity()));
+        return new PreviewContext(categoryIds, taxClasses);
+    }
+
+    private List<Object[]> readPage(PreviewContext context, long lastId, int limit) {
+        return entityManager.createQuery(CURRENT_PRICE_ROWS, Object[].class)
+                .setParameter("promotional", PriceType.PROMOTIONAL)
+                .setParameter("categoryIds", context.categoryIds())
+                .setParameter("lastId", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * @return {@code null} where the batch would leave the price alone
+     */
+    private static PricePreview preview(Promotion promotion, PreviewContext context, Object[] row) {
+        Variant variant = new Variant();
+        variant.setId((Long) row[1]);
+        variant.setName((String) row[2]);
+        if (!promotion.appliesTo(variant)) {
+            return null;
+        }
+
+        Price current = new Price();
+        current.setBasePrice((BigDecimal) row[3]);
+        current.setTaxClass(row[4] == null ? null : context.taxClasses().get((Long) row[4]));
+
+        Price promoted = promotion.createDiscountedPrice(variant, current);
+        if (promoted.getBasePrice().compareTo(current.getBasePrice()) == 0) {
+            return null;
+        }
+
+        BigDecimal currentDisplay = current.getDisplayPrice();
+        BigDecimal promotedDisplay = promoted.getDisplayPrice();
+        return new PricePreview((Long) row[0], (Long) row[1], (String) row[2],
+                currentDisplay, promotedDisplay, currentDisplay.subtract(promotedDisplay));
+    }
+
+    private record PreviewContext(List<Long> categoryIds, Map<Long, TaxClass> taxClasses) {
+    }
+
+    private static final class SavingsAccumulator {
+        private long count;
+        private BigDecimal min;
+        private BigDecimal max;
+        private BigDecimal total = BigDecimal.ZERO;
+
+        private void add(PricePreview preview) {
+            BigDecimal saving = preview.saving();
+            count++;
+            min = min == null || saving.compareTo(min) < 0 ? saving : min;
+            max = max == null || saving.compareTo(max) > 0 ? saving : max;
+            total = total.add(saving);
+        }
+
+        private void merge(SavingsAccumulator other) {
+            if (other.count == 0) {
+                return;
+            }
+            count += other.count;
+            min = min == null || other.min.compareTo(min) < 0 ? other.min : min;
+            max = max == null || other.max.compareTo(max) > 0 ? other.max : max;
+            total = total.add(other.total);
+        }
+
+        private PricePreviewSummary toSummary() {
+            return new PricePreviewSummary(count,
+                    min == null ? BigDecimal.ZERO : min,
+                    max == null ? BigDecimal.ZERO : max,
+                    total);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package za.co.pms.service.promotion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A promotion's validity window {@code [start, end)} and the variants it targets. An open-ended
+ * promotion ({@code endDate == null}) runs forever.
+ *
+ * @param variantIds sorted, distinct variant ids
+ */
+public record PromotionWindow(Long promotionId, long start, long end, long[] variantIds) {
+
+    public static PromotionWindow of(Long promotionId, LocalDateTime startDate, LocalDateTime endDate,
+                                     long... variantIds) {
+        long[] sorted = Arrays.stream(variantIds).sorted().distinct().toArray();
+        return new PromotionWindow(promotionId,
+                startDate.toEpochSecond(ZoneOffset.UTC),
+                endDate == null ? Long.MAX_VALUE : endDate.toEpochSecond(ZoneOffset.UTC),
+                sorted);
+    }
+
+    public boolean overlaps(PromotionWindow other) {
+        return start < other.end && other.start < end;
+    }
+
+    public boolean targets(long variantId) {
+        return Arrays.binarySearch(variantIds, variantId) >= 0;
+    }
+}
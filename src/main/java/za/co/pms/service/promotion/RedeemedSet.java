@@ -0,0 +1,69 @@
+package za.co.pms.service.promotion;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Thread-safe bitset of redeemed coupon serials. Pages of 64K bits (8 KB) are allocated on first
+ * use, so a promotion with a million issued codes costs at most ~128 KB however many are used.
+ */
+public class RedeemedSet {
+    private static final int PAGE_BITS = 1 << 16;
+    private static final int WORDS_PER_PAGE = PAGE_BITS / 64;
+
+    private final ConcurrentMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    public boolean contains(long serial) {
+        AtomicLongArray page = pages.get(serial / PAGE_BITS);
+        return page != null && (page.get(word(serial)) & bit(serial)) != 0;
+    }
+
+    /**
+     * Mark a serial redeemed
+     *
+     * @return {@code false} if it already was
+     */
+    public boolean add(long serial) {
+        AtomicLongArray page = pages.computeIfAbsent(serial / PAGE_BITS, p -> new AtomicLongArray(WORDS_PER_PAGE));
+        int word = word(serial);
+        long bit = bit(serial);
+        long current = page.get(word);
+        while ((current & bit) == 0) {
+            if (page.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+            current = page.get(word);
+        }
+        return false;
+    }
+
+    /**
+     * Undo {@link #add(long)} when the redemption could not be persisted
+     */
+    public void remove(long serial) {
+        AtomicLongArray page = pages.get(serial / PAGE_BITS);
+        if (page != null) {
+            int word = word(serial);
+            long bit = bit(serial);
+            long current = page.get(word);
+            while (!page.compareAndSet(word, current, current & ~bit)) {
+                current = page.get(word);
+            }
+        }
+    }
+
+    public long memoryBytes() {
+        return (long) pages.size() * WORDS_PER_PAGE * Long.BYTES;
+    }
+
+    private static int word(long serial) {
+        return (int) ((serial % PAGE_BITS) >>> 6);
+    }
+
+    private static long bit(long serial) {
+        return 1L << (serial & 63);
+    }
+}
@@ -0,0 +1,373 @@
+package za.co.pms.service.promotion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.exception.RedemptionCapExceededException;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.promotion.PromotionRedemption;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Enforces "first N" and per-customer redemption caps without touching the promotion row per
+ * checkout. Each node leases capacity from {@code Promotion.redemptionsClaimed} in blocks with a
+ * conditional update and hands it out from a {@link RedemptionCounter}; confirmed redemptions are
+ * written back on a schedule. A node that dies loses its unused lease, so a crash can only
+ * under-sell a promotion, never exceed its cap.
+ * <p>
+ * Open reservations remember the counter that issued them, so they can still be settled after
+ * that counter was evicted: the retired counter is flushed and its lease returned on the spot.
+ * Leasing and retiring take the counter's lock, and a lease claimed for a counter that was evicted
+ * meanwhile is returned at once, so no claimed capacity is stranded on a dead counter.
+ * Reservations neither confirmed nor cancelled within the hold time are cancelled by the same
+ * schedule that reconciles.
+ */
+@Slf4j
+@Service
+public class RedemptionCapService {
+
+    private static final String LOAD_CAPS =
+            "select p.maxRedemptions, p.maxRedemptionsPerCustomer from Promotion p where p.id = :id";
+
+    private static final String UNCLAIMED =
+            "select p.maxRedemptions - p.redemptionsClaimed from Promotion p where p.id = :id";
+
+    private static final String CLAIM = """
+            update Promotion p set p.redemptionsClaimed = p.redemptionsClaimed + :amount
+            where p.id = :id and p.redemptionsClaimed + :amount <= p.maxRedemptions""";
+
+    private static final String RETURN_LEASE =
+            "update Promotion p set p.redemptionsClaimed = p.redemptionsClaimed - :amount where p.id = :id";
+
+    private static final String ADD_CONFIRMED =
+            "update Promotion p set p.redemptionCount = p.redemptionCount + :amount where p.id = :id";
+
+    private static final String CUSTOMER_USAGE = """
+            select r.redemptionCount from PromotionRedemption r
+            where r.promotion.id = :promotionId and r.customerId = :customerId""";
+
+    private static final String ADD_CUSTOMER_CONFIRMED = """
+            update PromotionRedemption r set r.redemptionCount = r.redemptionCount + :amount
+            where r.promotion.id = :promotionId and r.customerId = :customerId""";
+
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int leaseSize;
+    private final int stripeCount;
+    private final long reconcileSeconds;
+    private final Duration holdTime;
+    private final Map<Long, RedemptionCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public RedemptionCapService(PlatformTransactionManager transactionManager,
+                                @Value("${promotion.redemption.lease-size:100}") int leaseSize,
+                                @Value("${promotion.redemption.stripes:16}") int stripeCount,
+                                @Value("${promotion.redemption.reconcile-seconds:5}") long reconcileSeconds,
+                                @Value("${promotion.redemption.hold-minutes:15}") long holdMinutes) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseSize = leaseSize;
+        this.stripeCount = stripeCount;
+        this.reconcileSeconds = reconcileSeconds;
+        this.holdTime = Duration.ofMinutes(holdMinutes);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "redemption-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileSeconds, reconcileSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::expireQuietly, reconcileSeconds, reconcileSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        counters.keySet().forEach(this::evict);
+    }
+
+    /**
+     * Hold one redemption for the customer
+     *
+     * @throws RedemptionCapExceededException if the promotion or the customer has reached its cap
+     */
+    public RedemptionReservation reserve(Long promotionId, String customerId) {
+        RedemptionCounter counter = counters.computeIfAbsent(promotionId, this::loadCounter);
+        while (!acquire(counter)) {
+            if (isLive(counter)) {
+                throw new RedemptionCapExceededException("Promotion " + promotionId + " is fully redeemed");
+            }
+            counter = counters.computeIfAbsent(promotionId, this::loadCounter); // evicted while leasing
+        }
+        if (!counter.tryAcquireForCustomer(customerId, () -> loadCustomerUsage(promotionId, customerId))) {
+            counter.release();
+            throw new RedemptionCapExceededException(
+                    "Customer " + customerId + " has reached the redemption limit for promotion " + promotionId);
+        }
+        RedemptionReservation reservation = new RedemptionReservation(reservationIds.incrementAndGet(),
+                promotionId, customerId, Instant.now().plus(holdTime));
+        holds.put(reservation.id(), new Hold(counter, reservation));
+        return reservation;
+    }
+
+    /**
+     * Turn a reservation into a redemption
+     *
+     * @throws IllegalStateException if the reservation expired or was already settled
+     */
+    public void confirm(RedemptionReservation reservation) {
+        Hold hold = holds.remove(reservation.id());
+        if (hold == null) {
+            throw new IllegalStateException("Reservation " + reservation.id() + " of promotion "
+                    + reservation.promotionId() + " has expired or was already settled");
+        }
+        hold.counter().confirm(reservation.customerId());
+        settleIfRetired(hold.counter());
+    }
+
+    /**
+     * Give the reserved unit back. Cancelling an expired or settled reservation does nothing.
+     */
+    public void cancel(RedemptionReservation reservation) {
+        Hold hold = holds.remove(reservation.id());
+        if (hold != null) {
+            release(hold);
+        }
+    }
+
+    /**
+     * Cancel every reservation held past its expiry
+     *
+     * @return number of reservations cancelled
+     */
+    public int expireHolds(Instant now) {
+        int expired = 0;
+        for (Hold hold : holds.values()) {
+            if (!hold.reservation().expiresAt().isAfter(now) && holds.remove(hold.reservation().id(), hold)) {
+                release(hold);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} abandoned redemption reservations", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Write confirmed redemptions to the database
+     */
+    public void reconcile() {
+        counters.values().forEach(this::reconcile);
+    }
+
+    /**
+     * Flush a promotion's counter, hand its unused lease back and forget it, e.g. after the caps
+     * were edited
+     */
+    public void evict(Long promotionId) {
+        RedemptionCounter counter = counters.remove(promotionId);
+        if (counter != null) {
+            retire(counter);
+        }
+    }
+
+    public int remaining(Long promotionId) {
+        RedemptionCounter counter = counters.get(promotionId);
+        return counter == null ? 0 : counter.remaining();
+    }
+
+    private boolean acquire(RedemptionCounter counter) {
+        while (!counter.tryAcquire()) {
+            if (!leaseMore(counter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean leaseMore(RedemptionCounter counter) {
+        synchronized (counter) {
+            if (!isLive(counter)) {
+                return false;
+            }
+            if (counter.remaining() > 0) {
+                return true; // another thread leased while we waited
+            }
+            for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+                Integer claimed = transactionTemplate.execute(status -> claim(counter.getPromotionId()));
+                if (claimed == null || claimed < 0) {
+                    return false; // nothing left to lease
+                }
+                if (claimed > 0) {
+                    if (!isLive(counter)) {
+                        returnLease(counter.getPromotionId(), claimed); // evicted during the claim
+                        return false;
+                    }
+                    counter.addCapacity(claimed);
+                    log.debug("Leased {} redemptions of promotion {}", claimed, counter.getPromotionId());
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return units claimed, 0 if another node raced us, -1 if the cap is exhausted
+     */
+    private int claim(Long promotionId) {
+        Integer unclaimed = entityManager.createQuery(UNCLAIMED, Integer.class)
+                .setParameter("id", promotionId)
+                .getSingleResult();
+        if (unclaimed == null || unclaimed <= 0) {
+            return -1;
+        }
+        int amount = Math.min(leaseSize, unclaimed);
+        int updated = entityManager.createQuery(CLAIM)
+                .setParameter("amount", amount)
+                .setParameter("id", promotionId)
+                .executeUpdate();
+        return updated == 1 ? amount : 0;
+    }
+
+    private RedemptionCounter loadCounter(Long promotionId) {
+        Object[] caps = transactionTemplate.execute(status -> entityManager.createQuery(LOAD_CAPS, Object[].class)
+                .setParameter("id", promotionId)
+                .getResultStream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Promotion not found: " + promotionId)));
+        Objects.requireNonNull(caps);
+        return new RedemptionCounter(promotionId, (Integer) caps[0], (Integer) caps[1], stripeCount);
+    }
+
+    private int loadCustomerUsage(Long promotionId, String customerId) {
+        Integer usage = transactionTemplate.execute(status -> entityManager.createQuery(CUSTOMER_USAGE, Integer.class)
+                .setParameter("promotionId", promotionId)
+                .setParameter("customerId", customerId)
+                .getResultStream()
+                .findFirst()
+                .orElse(0));
+        return usage == null ? 0 : usage;
+    }
+
+    private void reconcile(RedemptionCounter counter) {
+        int confirmed = counter.drainConfirmed();
+        Map<String, Integer> customers = counter.drainCustomerDeltas();
+        if (confirmed == 0 && customers.isEmpty()) {
+            return;
+        }
+        Long promotionId = counter.getPromotionId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.createQuery(ADD_CONFIRMED)
+                        .setParameter("amount", confirmed)
+                        .setParameter("id", promotionId)
+                        .executeUpdate();
+                customers.forEach((customerId, delta) -> addCustomerConfirmed(promotionId, customerId, delta));
+            });
+        } catch (RuntimeException e) {
+            counter.restore(confirmed, customers);
+            throw e;
+        }
+    }
+
+    private void addCustomerConfirmed(Long promotionId, String customerId, int delta) {
+        int updated = entityManager.createQuery(ADD_CUSTOMER_CONFIRMED)
+                .setParameter("amount", delta)
+                .setParameter("promotionId", promotionId)
+                .setParameter("customerId", customerId)
+                .executeUpdate();
+        if (updated == 0) {
+            PromotionRedemption redemption = new PromotionRedemption();
+            redemption.setPromotion(entityManager.getReference(Promotion.class, promotionId));
+            redemption.setCustomerId(customerId);
+            redemption.setRedemptionCount(delta);
+            entityManager.persist(redemption);
+        }
+    }
+
+    private void release(Hold hold) {
+        RedemptionCounter counter = hold.counter();
+        counter.releaseForCustomer(hold.reservation().customerId());
+        counter.release();
+        settleIfRetired(counter);
+    }
+
+    /**
+     * A counter evicted while it had open reservations is settled as each of them is
+     */
+    private void settleIfRetired(RedemptionCounter counter) {
+        if (!isLive(counter)) {
+            retire(counter);
+        }
+    }
+
+    private boolean isLive(RedemptionCounter counter) {
+        return counters.get(counter.getPromotionId()) == counter;
+    }
+
+    // Flush confirmed redemptions and hand the unused lease back; waits for a lease in flight
+    private void retire(RedemptionCounter counter) {
+        synchronized (counter) {
+            reconcile(counter);
+            int unused = counter.drainCapacity();
+            if (unused > 0) {
+                returnLease(counter.getPromotionId(), unused);
+            }
+        }
+    }
+
+    private void returnLease(Long promotionId, int amount) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.createQuery(RETURN_LEASE)
+                .setParameter("amount", amount)
+                .setParameter("id", promotionId)
+                .executeUpdate());
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Redemption reconciliation failed; deltas kept for the next run", e);
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            expireHolds(Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Redemption hold expiry failed", e);
+        }
+    }
+
+    private record Hold(RedemptionCounter counter, RedemptionReservation reservation) {
+    }
+}
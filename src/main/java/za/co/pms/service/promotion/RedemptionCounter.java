@@ -0,0 +1,178 @@
+package za.co.pms.service.promotion;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntSupplier;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * In-memory redemption capacity for one promotion. Leased capacity is spread over stripes so
+ * concurrent checkouts decrement different cache lines; a reservation only fails once every
+ * stripe is empty, so the cap is never exceeded. Per-customer usage counts reservations as well
+ * as confirmed redemptions.
+ */
+public class RedemptionCounter {
+    // One stripe per 64-byte cache line
+    private static final int PAD = 16;
+
+    private final Long promotionId;
+    private final boolean capped;
+    private final Integer perCustomerCap;
+    private final int stripeCount;
+    private final AtomicIntegerArray stripes;
+
+    private final Map<String, AtomicInteger> customerUsage = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> customerDeltas = new ConcurrentHashMap<>();
+    private final AtomicInteger confirmedDelta = new AtomicInteger();
+
+    public RedemptionCounter(Long promotionId, Integer maxRedemptions, Integer perCustomerCap, int stripeCount) {
+        this.promotionId = promotionId;
+        this.capped = maxRedemptions != null;
+        this.perCustomerCap = perCustomerCap;
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicIntegerArray(stripeCount * PAD);
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public boolean isCapped() {
+        return capped;
+    }
+
+    /**
+     * Take one unit of global capacity
+     */
+    public boolean tryAcquire() {
+        if (!capped) {
+            return true;
+        }
+        int home = ThreadLocalRandom.current().nextInt(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            int slot = ((home + i) % stripeCount) * PAD;
+            int available = stripes.get(slot);
+            while (available > 0) {
+                if (stripes.compareAndSet(slot, available, available - 1)) {
+                    return true;
+                }
+                available = stripes.get(slot);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return one unit of global capacity taken by {@link #tryAcquire()}
+     */
+    public void release() {
+        if (capped) {
+            stripes.incrementAndGet(ThreadLocalRandom.current().nextInt(stripeCount) * PAD);
+        }
+    }
+
+    /**
+     * Spread newly leased capacity over the stripes
+     */
+    public void addCapacity(int amount) {
+        int share = amount / stripeCount;
+        int remainder = amount % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.addAndGet(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * Take all unused capacity, e.g. to hand a lease back on shutdown
+     */
+    public int drainCapacity() {
+        int drained = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            drained += stripes.getAndSet(i * PAD, 0);
+        }
+        return drained;
+    }
+
+    public int remaining() {
+        int remaining = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            remaining += stripes.get(i * PAD);
+        }
+        return remaining;
+    }
+
+    /**
+     * Count one use against the customer's cap
+     *
+     * @param persistedUsage loads the customer's confirmed redemptions the first time they are seen
+     */
+    public boolean tryAcquireForCustomer(String customerId, IntSupplier persistedUsage) {
+        if (perCustomerCap == null || customerId == null) {
+            return true;
+        }
+        AtomicInteger usage = customerUsage.get(customerId);
+        if (usage == null) {
+            AtomicInteger loaded = new AtomicInteger(persistedUsage.getAsInt());
+            usage = customerUsage.putIfAbsent(customerId, loaded);
+            if (usage == null) {
+                usage = loaded;
+            }
+        }
+        int used = usage.get();
+        while (used < perCustomerCap) {
+            if (usage.compareAndSet(used, used + 1)) {
+                return true;
+            }
+            used = usage.get();
+        }
+        return false;
+    }
+
+    public void releaseForCustomer(String customerId) {
+        if (perCustomerCap != null && customerId != null) {
+            AtomicInteger usage = customerUsage.get(customerId);
+            if (usage != null) {
+                usage.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Record a confirmed redemption for the next reconciliation
+     */
+    public void confirm(String customerId) {
+        confirmedDelta.incrementAndGet();
+        if (customerId != null) {
+            customerDeltas.computeIfAbsent(customerId, id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    public int drainConfirmed() {
+        return confirmedDelta.getAndSet(0);
+    }
+
+    public Map<String, Integer> drainCustomerDeltas() {
+        Map<String, Integer> drained = new HashMap<>();
+        customerDeltas.forEach((customerId, delta) -> {
+            int value = delta.getAndSet(0);
+            if (value > 0) {
+                drained.put(customerId, value);
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Put deltas back after a failed reconciliation
+     */
+    public void restore(int confirmed, Map<String, Integer> customers) {
+        confirmedDelta.addAndGet(confirmed);
+        customers.forEach((customerId, delta) ->
+                customerDeltas.computeIfAbsent(customerId, id -> new AtomicInteger()).addAndGet(delta));
+    }
+}
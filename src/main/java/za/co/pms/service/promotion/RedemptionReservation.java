@@ -0,0 +1,12 @@
+package za.co.pms.service.promotion;
+
+import java.time.Instant;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * A held unit of promotion capacity, to be confirmed at payment or cancelled before
+ * {@code expiresAt}; after that the unit goes back to the pool
+ */
+public record RedemptionReservation(long id, Long promotionId, String customerId, Instant expiresAt) {
+}
@@ -0,0 +1,159 @@
+package za.co.pms.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.model.Product;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.model.product.Sku;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.ProductRepository;
+import za.co.pms.service.catalog.ProductChangePublisher;
+import za.co.pms.service.inventory.StockMovement;
+import za.co.pms.service.inventory.StockMovementPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Boots the production persistence wiring in META-INF/spring-datasource.xml on embedded H2; only
+ * the connection settings and the dialect differ. The entity listeners declared in
+ * META-INF/orm.xml have constructor dependencies, so the factory only starts if Hibernate gets
+ * them from the Spring bean container.
+ **/
+@DisplayName("Persistence context boot")
+class PersistenceContextTest {
+
+    private static GenericXmlApplicationContext context;
+
+    @BeforeAll
+    static void boot() {
+        context = new GenericXmlApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("h2", Map.ofEntries(
+                Map.entry("hikari.config.poolName", "persistence_context_test"),
+                Map.entry("hikari.config.connectionTestQuery", "SELECT 1"),
+                Map.entry("hikari.config.dataSourceClassName", "org.h2.jdbcx.JdbcDataSource"),
+                Map.entry("hikari.config.maximumPoolSize", "2"),
+                Map.entry("hikari.config.minimumIdle", "1"),
+                Map.entry("hikari.config.idleTimeout", "30000"),
+                Map.entry("hikari.config.connection-timeout", "5000"),
+                Map.entry("hikari.config.transactionIsolation", "TRANSACTION_READ_COMMITTED"),
+                Map.entry("hikari.config.dataSource.url", "jdbc:h2:mem:persistence_context;DB_CLOSE_DELAY=-1"),
+                Map.entry("hikari.config.dataSource.user", "sa"),
+                Map.entry("hikari.config.dataSource.password", ""))));
+        context.registerBean(PropertySourcesPlaceholderConfigurer.class);
+        context.registerBean(H2Settings.class);
+        // Collaborators of the entity listeners; the component scan supplies them in the application
+        context.registerBean(StockMovementPublisher.class);
+        context.registerBean(ProductChangePublisher.class);
+        context.load("classpath:META-INF/spring-datasource.xml");
+        context.refresh();
+    }
+
+    @AfterAll
+    static void shutDown() {
+        context.close();
+    }
+
+    @Test
+    @DisplayName("Should start the entity manager factory and repositories")
+    void context_shouldStartPersistence() {
+        assertThat(context.getBean(EntityManagerFactory.class).isOpen()).isTrue();
+        assertThat(context.getBean(ProductRepository.class).findListingPage(Long.MAX_VALUE, PageRequest.of(0, 1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should publish stock movements from the injected allocation listener after commit")
+    void allocationListener_shouldPublishAfterCommit() {
+        // Arrange
+        List<StockMovement> movements = new CopyOnWriteArrayList<>();
+        context.getBean(StockMovementPublisher.class).register(movements::add);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        // Act
+        Long allocationId = transactionTemplate.execute(status -> {
+            Variant variant = new Variant();
+            variant.setName("White");
+            StockAllocation allocation = new StockAllocation();
+            allocation.setQuantity(5);
+            variant.addStockAllocation(allocation);
+            entityManager.persist(variant);
+            entityManager.flush();
+            assertThat(movements).isEmpty();
+            return allocation.getId();
+        });
+
+        // Assert
+        assertThat(movements).containsExactly(new StockMovement(allocationId, 5, 0));
+    }
+
+    @Test
+    @DisplayName("Should report written products, variants and SKUs to the search index after commit")
+    void productSearchListener_shouldPublishAfterCommit() {
+        // Arrange
+        List<Long> changed = new CopyOnWriteArrayList<>();
+        context.getBean(ProductChangePublisher.class).register(changed::add);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Long productId = transactionTemplate.execute(status -> {
+            Sku sku = new Sku();
+            sku.setId(1L);
+            sku.setCode("DK-170-W");
+            Variant variant = new Variant();
+            variant.setName("White");
+            variant.setSku(sku);
+            Product product = new Product();
+            product.setName("Defy Kettle");
+            product.addVariant(variant);
+            entityManager.persist(product);
+            return product.getId();
+        });
+        changed.clear();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = entityManager.find(Product.class, productId);
+            product.getVariants().get(0).getSku().setCode("DK-170-WH");
+            entityManager.flush();
+            assertThat(changed).isEmpty();
+        });
+
+        // Assert
+        assertThat(changed).containsExactly(productId);
+    }
+
+    /**
+     * Swaps the MySQL dialect from hibernate.properties for H2 before the factory starts
+     */
+    static class H2Settings implements BeanPostProcessor {
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof LocalContainerEntityManagerFactoryBean factoryBean) {
+                factoryBean.getJpaPropertyMap().putAll(Map.of(
+                        "hibernate.dialect", "org.hibernate.dialect.H2Settings",
+                        "hibernate.auto_quote_keyword", "true"));
+            }
+            return bean;
+        }
+    }
+}
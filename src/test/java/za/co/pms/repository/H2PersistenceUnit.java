@@ -0,0 +1,149 @@
+package za.co.pms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.service.catalog.ProductChangePublisher;
+import za.co.pms.service.inventory.StockMovementPublisher;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * The entity model on an embedded H2 database, for tests that need real JPQL, SQL and flushes.
+ * Wired like spring-datasource.xml: the entity listeners in META-INF/orm.xml are built through a
+ * Spring bean container holding their publishers, and JDBC work joins the JPA transaction.
+ * Bean validation is off so fixtures may use past start dates. An {@value #ISOLATION} override is
+ * applied to every new connection, as the pool's {@code transactionIsolation} is.
+ **/
+public final class H2PersistenceUnit implements AutoCloseable {
+    public static final String ISOLATION = "hibernate.connection.isolation";
+
+    private final LocalContainerEntityManagerFactoryBean factoryBean;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+    private final JpaTransactionManager transactionManager;
+    private final StockMovementPublisher stockMovementPublisher = new StockMovementPublisher();
+    private final ProductChangePublisher productChangePublisher = new ProductChangePublisher();
+
+    private H2PersistenceUnit(String name, Map<String, Object> overrides) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("stockMovementPublisher", stockMovementPublisher);
+        beanFactory.registerSingleton("productChangePublisher", productChangePublisher);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.auto_quote_keyword", "true");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.connection.provider_class",
+                "org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl");
+        properties.put("hibernate.transaction.jta.platform",
+                "org.hibernate.engine.transaction.jta.platform.internal.NoJtaPlatform");
+        properties.put("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.put("hibernate.resource.beans.container", new SpringBeanContainer(beanFactory));
+        properties.put("jakarta.persistence.validation.mode", "none");
+        properties.putAll(overrides);
+
+        dataSource = dataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", (Integer) properties.get(ISOLATION));
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("za.co.pms.model");
+        factoryBean.setMappingResources("META-INF/orm.xml");
+        factoryBean.setPersistenceUnitName(name);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+    }
+
+    public static H2PersistenceUnit start(String name) {
+        return new H2PersistenceUnit(name, Map.of());
+    }
+
+    /**
+     * @param overrides Hibernate or JPA properties replacing the defaults above
+     */
+    public static H2PersistenceUnit start(String name, Map<String, Object> overrides) {
+        return new H2PersistenceUnit(name, overrides);
+    }
+
+    public EntityManagerFactory entityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    /**
+     * Bound to the transaction of {@link #transactionManager()}, as an injected one would be
+     */
+    public EntityManager entityManager() {
+        return entityManager;
+    }
+
+    public PlatformTransactionManager transactionManager() {
+        return transactionManager;
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource);
+    }
+
+    public StockMovementPublisher stockMovementPublisher() {
+        return stockMovementPublisher;
+    }
+
+    public ProductChangePublisher productChangePublisher() {
+        return productChangePublisher;
+    }
+
+    /**
+     * A Spring Data repository on the transaction-bound entity manager
+     *
+     * @param fragments implementations of the repository's custom fragment interfaces
+     */
+    public <T> T repository(Class<T> repositoryInterface, Object... fragments) {
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface, RepositoryFragments.just(fragments));
+    }
+
+    @Override
+    public void close() {
+        factoryBean.destroy();
+    }
+
+    private static DataSource dataSource(String url, Integer isolation) {
+        if (isolation == null) {
+            return new DriverManagerDataSource(url, "sa", "");
+        }
+        return new DriverManagerDataSource(url, "sa", "") {
+            @Override
+            protected Connection getConnectionFromDriverManager(String url, Properties props) throws SQLException {
+                Connection connection = super.getConnectionFromDriverManager(url, props);
+                connection.setTransactionIsolation(isolation);
+                return connection;
+            }
+        };
+    }
+}
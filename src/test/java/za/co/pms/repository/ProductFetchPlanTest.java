@@ -0,0 +1,278 @@
+package za.co.pms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.enums.TaxType;
+import za.co.pms.model.Brand;
+import za.co.pms.model.Category;
+import za.co.pms.model.MediaAsset;
+import za.co.pms.model.Product;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.Vendor;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.model.inventory.sku.Warehouse;
+import za.co.pms.model.inventory.vendor.Profile;
+import za.co.pms.model.product.Price;
+import za.co.pms.model.product.Sku;
+import za.co.pms.model.product.TaxClass;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.projection.PromotedVariantRow;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Pins the statements each product fetch plan issues on embedded H2, touching everything its use
+ * case renders. Three products of three variants, each with two prices and an allocation in two
+ * warehouses, so any per-row loading shows up as extra statements.
+ **/
+@DisplayName("Product fetch plan statement counts")
+class ProductFetchPlanTest {
+    private static final int PRODUCTS = 3;
+    private static final int VARIANTS = 3;
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static H2PersistenceUnit persistenceUnit;
+    private static EntityManagerFactory entityManagerFactory;
+    private static List<Long> productIds;
+
+    private EntityManager entityManager;
+    private ProductRepository repository;
+
+    @BeforeAll
+    static void createSchema() {
+        persistenceUnit = H2PersistenceUnit.start("product_fetch_plans", Map.of(
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        entityManagerFactory = persistenceUnit.entityManagerFactory();
+        productIds = populate();
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        persistenceUnit.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        repository = new JpaRepositoryFactory(entityManager).getRepository(ProductRepository.class);
+        statements.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+    }
+
+    @Test
+    @DisplayName("Listing page should load products, brands and categories in one statement")
+    void listingGraph_shouldUseOneStatement() {
+        // Act
+        List<Product> page = repository.findListingPage(0, PageRequest.of(0, PRODUCTS));
+        page.forEach(product -> {
+            product.getName();
+            product.getBrand().getName();
+            product.getCategory().getName();
+        });
+
+        // Assert
+        assertThat(page).hasSize(PRODUCTS);
+        assertThat(statements).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Product page should load variants, SKUs, prices and media in two statements")
+    void detailGraph_shouldUseTwoStatements() {
+        // Act
+        Product product = repository.findDetailById(productIds.get(0)).orElseThrow();
+        touchVariants(product);
+        product.getMediaAssets().forEach(MediaAsset::getUrl);
+
+        // Assert
+        assertThat(product.getVariants()).hasSize(VARIANTS);
+        assertThat(product.getMediaAssets()).hasSize(2);
+        assertThat(statements).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Admin edit should add vendor and allocations without more statements")
+    void editGraph_shouldUseTwoStatements() {
+        // Act
+        Product product = repository.findForEditById(productIds.get(0)).orElseThrow();
+        touchVariants(product);
+        product.getVendor().getProfile().getId();
+        product.getVariants().forEach(variant -> variant.getStockAllocations()
+                .forEach(allocation -> allocation.getWarehouse().getCode()));
+        product.getMediaAssets().forEach(MediaAsset::getUrl);
+
+        // Assert
+        assertThat(product.getVariants()).allSatisfy(variant -> assertThat(variant.getStockAllocations()).hasSize(2));
+        assertThat(statements).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Export should read an id batch and its graph in two statements")
+    void exportGraph_shouldUseTwoStatementsPerBatch() {
+        // Act
+        List<Long> ids = repository.findIdPage(0, PageRequest.of(0, PRODUCTS));
+        List<Product> batch = repository.findForExportByIdIn(ids);
+        batch.forEach(product -> {
+            product.getBrand().getName();
+            product.getCategory().getName();
+            product.getVendor().getProfile().getId();
+            touchVariants(product);
+        });
+
+        // Assert
+        assertThat(batch).extracting(Product::getId).containsExactlyElementsOf(productIds);
+        assertThat(statements).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Loading by id without a plan should fetch per association")
+    void findById_withoutPlan_shouldIssueStatementPerAssociation() {
+        // Act
+        Product product = repository.findById(productIds.get(0)).orElseThrow();
+        touchVariants(product);
+
+        // Assert: product, variants, then a SKU, a price set and tax classes per variant
+        assertThat(statements.size()).isGreaterThan(VARIANTS * 2);
+    }
+
+    @Test
+    @DisplayName("Running promotions should be read in one statement without managed entities")
+    void runningPromotions_shouldProjectWithoutEntities() {
+        // Arrange
+        Long variantId = entityManager.createQuery("select v.id from Variant v where v.product.id = :id order by v.id",
+                Long.class).setParameter("id", productIds.get(0)).setMaxResults(1).getSingleResult();
+        Promotion promotion = new Promotion();
+        promotion.setId(1L);
+        promotion.setName("Two for one");
+        promotion.setDescription("Price includes 15% VAT");
+        promotion.setType(PromotionType.BOGO);
+        promotion.setRequiredQuantity(1);
+        promotion.setFreeQuantity(1);
+        promotion.setStartDate(LocalDateTime.now().minusDays(1));
+        promotion.getTargetedVariantIds().add(variantId);
+        entityManager.persist(promotion);
+        entityManager.flush();
+        entityManager.clear();
+        statements.clear();
+
+        // Act
+        List<PromotedVariantRow> rows = repository.findRunningPromotions(productIds);
+
+        // Assert
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.variantId()).isEqualTo(variantId);
+            assertThat(row.promotion().type()).isEqualTo(PromotionType.BOGO);
+            assertThat(row.promotion().version()).isNotNull();
+        });
+        assertThat(entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities())
+                .isZero();
+        assertThat(statements).hasSize(1);
+    }
+
+    private static void touchVariants(Product product) {
+        product.getVariants().forEach(variant -> {
+            variant.getSku().getCode();
+            variant.getPrices().forEach(Price::getDisplayPrice);
+        });
+    }
+
+    private static List<Long> populate() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        em.getTransaction().begin();
+        TaxClass vat = new TaxClass();
+        vat.setTaxType(TaxType.STANDARD);
+        vat.setName("VAT");
+        vat.setRate(new BigDecimal("15"));
+        em.persist(vat);
+        Brand brand = new Brand();
+        brand.setName("Defy");
+        em.persist(brand);
+        Category category = new Category();
+        category.setName("Kitchen");
+        em.persist(category);
+        Warehouse[] warehouses = new Warehouse[2];
+        for (int w = 0; w < warehouses.length; w++) {
+            warehouses[w] = new Warehouse();
+            warehouses[w].setCode("WH-" + w);
+            em.persist(warehouses[w]);
+        }
+
+        long skuId = 1;
+        for (int p = 0; p < PRODUCTS; p++) {
+            Vendor vendor = new Vendor();
+            Product product = new Product();
+            product.setName("Product " + p);
+            product.setBrand(brand);
+            product.setCategory(category);
+            product.setVendor(vendor);
+            for (int m = 0; m < 2; m++) {
+                MediaAsset asset = new MediaAsset();
+                asset.setUrl("https://cdn/" + p + "/" + m + ".jpg");
+                asset.setType("IMAGE");
+                asset.setProduct(product);
+                product.getMediaAssets().add(asset);
+            }
+            for (int v = 0; v < VARIANTS; v++) {
+                Sku sku = new Sku();
+                sku.setId(skuId);
+                sku.setCode("SKU-" + skuId++);
+                Variant variant = new Variant();
+                variant.setName("Variant " + v);
+                variant.setSku(sku);
+                for (Warehouse warehouse : warehouses) {
+                    StockAllocation allocation = new StockAllocation();
+                    allocation.setQuantity(10);
+                    allocation.setWarehouse(warehouse);
+                    variant.addStockAllocation(allocation);
+                }
+                product.addVariant(variant);
+            }
+            em.persist(product);
+            Profile profile = new Profile();
+            profile.setVendor(vendor);
+            em.persist(profile);
+            for (Variant variant : product.getVariants()) {
+                for (int i = 0; i < 2; i++) {
+                    Price price = new Price();
+                    price.setBasePrice(new BigDecimal(100 + i));
+                    price.setCurrent(i == 0);
+                    price.setTaxClass(vat);
+                    price.setEffectiveFrom(LocalDateTime.now());
+                    variant.addPrice(price);
+                    em.persist(price);
+                }
+            }
+        }
+        em.getTransaction().commit();
+        List<Long> ids = em.createQuery("select p.id from Product p order by p.id", Long.class).getResultList();
+        em.close();
+        return ids;
+    }
+}
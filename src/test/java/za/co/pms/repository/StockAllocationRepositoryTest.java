@@ -0,0 +1,190 @@
+package za.co.pms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.StockAllocationRepositoryCustom.QuantityLine;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Runs the conditional SQL of {@link StockAllocationRepositoryImpl} on embedded H2: each update
+ * applies only while its guard holds, reports 0 where it does not and bumps the version.
+ **/
+@DisplayName("StockAllocationRepository Unit Tests")
+class StockAllocationRepositoryTest {
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private StockAllocationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("stock_allocations");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        repository = persistenceUnit.repository(StockAllocationRepository.class,
+                new StockAllocationRepositoryImpl(persistenceUnit.jdbcTemplate()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should reserve while enough is available and refuse a short reservation")
+    void reserveIfAvailable_shouldRefuse_whenShort() {
+        // Arrange
+        long allocationId = allocation(10, 4);
+
+        // Act
+        Boolean exact = transactionTemplate.execute(status -> repository.reserveIfAvailable(allocationId, 6));
+        Boolean shortOne = transactionTemplate.execute(status -> repository.reserveIfAvailable(allocationId, 1));
+
+        // Assert
+        assertThat(exact).isTrue();
+        assertThat(shortOne).isFalse();
+        assertLevels(allocationId, 10, 10);
+    }
+
+    @Test
+    @DisplayName("Should release what is reserved and refuse to release more")
+    void releaseIfReserved_shouldRefuse_whenLessReserved() {
+        // Arrange
+        long allocationId = allocation(10, 4);
+
+        // Act
+        Boolean refused = transactionTemplate.execute(status -> repository.releaseIfReserved(allocationId, 5));
+        Boolean released = transactionTemplate.execute(status -> repository.releaseIfReserved(allocationId, 4));
+
+        // Assert
+        assertThat(refused).isFalse();
+        assertThat(released).isTrue();
+        assertLevels(allocationId, 10, 0);
+    }
+
+    @Test
+    @DisplayName("Should report the short line of a reservation batch and apply the others")
+    void reserveBatch_shouldReportShortLine() {
+        // Arrange
+        long first = allocation(5, 0);
+        long second = allocation(2, 1);
+        long third = allocation(8, 0);
+
+        // Act
+        int[] counts = transactionTemplate.execute(status -> repository.reserveBatch(List.of(
+                new ReservationLine(first, 5),
+                new ReservationLine(second, 2),
+                new ReservationLine(third, 3))));
+
+        // Assert: the caller decides whether to roll back
+        assertThat(counts).containsExactly(1, 0, 1);
+        assertLevels(first, 5, 5);
+        assertLevels(second, 2, 1);
+        assertLevels(third, 8, 3);
+    }
+
+    @Test
+    @DisplayName("Should apply later lines of a batch on top of earlier ones for the same allocation")
+    void releaseBatch_shouldApplyLinesInOrder() {
+        // Arrange
+        long allocationId = allocation(10, 6);
+
+        // Act
+        int[] counts = transactionTemplate.execute(status -> repository.releaseBatch(List.of(
+                new ReservationLine(allocationId, 4),
+                new ReservationLine(allocationId, 3),
+                new ReservationLine(allocationId, 2))));
+
+        // Assert
+        assertThat(counts).containsExactly(1, 0, 1);
+        assertLevels(allocationId, 10, 0);
+    }
+
+    @Test
+    @DisplayName("Should set quantities that still cover the reserved units and refuse the rest")
+    void setQuantities_shouldRefuse_belowReserved() {
+        // Arrange
+        long covered = allocation(10, 4);
+        long uncovered = allocation(10, 4);
+
+        // Act
+        int[] counts = transactionTemplate.execute(status -> repository.setQuantities(List.of(
+                new QuantityLine(covered, 4),
+                new QuantityLine(uncovered, 3))));
+
+        // Assert
+        assertThat(counts).containsExactly(1, 0);
+        assertLevels(covered, 4, 4);
+        assertLevels(uncovered, 10, 4);
+    }
+
+    @Test
+    @DisplayName("Should lock and read levels in id order, skipping allocations that do not exist")
+    void lockLevels_shouldReturnExistingInIdOrder() {
+        // Arrange
+        long first = allocation(3, 1);
+        long second = allocation(7, 2);
+
+        // Act
+        List<AllocationLevels> levels = transactionTemplate.execute(status ->
+                repository.lockLevels(List.of(second, 999L, first)));
+
+        // Assert
+        assertThat(levels).containsExactly(
+                new AllocationLevels(first, null, null, 3, 1),
+                new AllocationLevels(second, null, null, 7, 2));
+    }
+
+    @Test
+    @DisplayName("Should bump the version so an entity loaded before the update fails its check")
+    void reserveIfAvailable_shouldFailStaleEntity() {
+        // Arrange
+        long allocationId = allocation(10, 0);
+        StockAllocation stale = find(allocationId);
+
+        // Act
+        transactionTemplate.execute(status -> repository.reserveIfAvailable(allocationId, 2));
+        stale.reserve(1);
+
+        // Assert
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> entityManager.merge(stale)))
+                .isInstanceOfAny(OptimisticLockException.class, ObjectOptimisticLockingFailureException.class);
+        assertLevels(allocationId, 10, 2);
+    }
+
+    private long allocation(int quantity, int reserved) {
+        return transactionTemplate.execute(status -> {
+            StockAllocation allocation = new StockAllocation();
+            allocation.setQuantity(quantity);
+            allocation.setReservedQuantity(reserved);
+            entityManager.persist(allocation);
+            return allocation.getId();
+        });
+    }
+
+    private StockAllocation find(long allocationId) {
+        return transactionTemplate.execute(status -> entityManager.find(StockAllocation.class, allocationId));
+    }
+
+    private void assertLevels(long allocationId, int quantity, int reserved) {
+        StockAllocation allocation = find(allocationId);
+        assertThat(allocation.getQuantity()).isEqualTo(quantity);
+        assertThat(allocation.getReservedQuantity()).isEqualTo(reserved);
+    }
+}
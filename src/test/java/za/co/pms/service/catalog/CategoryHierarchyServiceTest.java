@@ -0,0 +1,158 @@
+package za.co.pms.service.catalog;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.model.Category;
+import za.co.pms.model.CategoryClosure;
+import za.co.pms.repository.CategoryRepository;
+import za.co.pms.repository.projection.CategoryNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryHierarchyService Unit Tests")
+class CategoryHierarchyServiceTest {
+
+    @Mock
+    private CategoryRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Long> linkQuery;
+    @Mock
+    private Query detachQuery;
+    @Mock
+    private Query attachQuery;
+
+    private CategoryHierarchyService service;
+    private Category electronics;
+    private Category phones;
+    private Category home;
+
+    @BeforeEach
+    void setUp() {
+        service = new CategoryHierarchyService(repository, transactionManager, 0);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        electronics = category(1L, "Electronics", null);
+        phones = category(2L, "Phones", electronics);
+        home = category(5L, "Home", null);
+    }
+
+    @Test
+    @DisplayName("Should move the closure with the subtree and publish a new tree")
+    void move_shouldDetachThenAttachSubtree() {
+        // Arrange
+        stubFind(phones, home);
+        stubLinked(2L, 5L, 0L);
+        when(repository.findSubtreeIds(2L)).thenReturn(List.of(2L, 4L));
+        when(entityManager.createQuery(CategoryHierarchyService.DETACH_SUBTREE)).thenReturn(detachQuery);
+        when(detachQuery.setParameter(anyString(), any())).thenReturn(detachQuery);
+        when(entityManager.createQuery(CategoryHierarchyService.ATTACH_SUBTREE)).thenReturn(attachQuery);
+        when(attachQuery.setParameter(anyString(), any())).thenReturn(attachQuery);
+        when(repository.findNodes()).thenReturn(List.of(
+                new CategoryNode(1L, "Electronics", null),
+                new CategoryNode(2L, "Phones", 5L),
+                new CategoryNode(5L, "Home", null)));
+        CategoryTree before = service.tree();
+
+        // Act
+        service.move(2L, 5L);
+
+        // Assert
+        assertThat(phones.getParentCategory()).isSameAs(home);
+        assertThat(electronics.getSubCategories()).isEmpty();
+        InOrder order = inOrder(detachQuery, attachQuery);
+        order.verify(detachQuery).setParameter("subtreeIds", List.of(2L, 4L));
+        order.verify(detachQuery).executeUpdate();
+        order.verify(attachQuery).setParameter("parentId", 5L);
+        order.verify(attachQuery).executeUpdate();
+        assertThat(before.size()).isZero();
+        assertThat(service.tree().breadcrumb(2L)).extracting(CategoryNode::name).containsExactly("Home", "Phones");
+    }
+
+    @Test
+    @DisplayName("Should refuse to move a category under its own descendant")
+    void move_shouldRejectCycles() {
+        // Arrange
+        stubFind(electronics, phones);
+        stubLinked(1L, 2L, 1L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.move(1L, 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("own subtree");
+        assertThat(phones.getParentCategory()).isSameAs(electronics);
+        verify(entityManager, never()).createQuery(CategoryHierarchyService.DETACH_SUBTREE);
+    }
+
+    @Test
+    @DisplayName("Should rebuild every ancestor link from the parent pointers")
+    void rebuild_shouldPersistClosureOfEveryCategory() {
+        // Arrange
+        when(entityManager.createQuery(CategoryHierarchyService.CLEAR_CLOSURE)).thenReturn(detachQuery);
+        when(repository.findNodes()).thenReturn(List.of(
+                new CategoryNode(1L, "Electronics", null),
+                new CategoryNode(2L, "Phones", 1L),
+                new CategoryNode(4L, "Android", 2L)));
+        List<CategoryClosure> persisted = new ArrayList<>();
+        doAnswer(invocation -> persisted.add(invocation.getArgument(0))).when(entityManager).persist(any(CategoryClosure.class));
+
+        // Act
+        service.rebuild();
+
+        // Assert
+        verify(detachQuery).executeUpdate();
+        assertThat(persisted).extracting(link -> List.of(link.getAncestorId(), link.getDescendantId(), (long) link.getDepth()))
+                .containsExactlyInAnyOrder(
+                        List.of(1L, 1L, 0L),
+                        List.of(2L, 2L, 0L), List.of(1L, 2L, 1L),
+                        List.of(4L, 4L, 0L), List.of(2L, 4L, 1L), List.of(1L, 4L, 2L));
+    }
+
+    private void stubFind(Category... categories) {
+        for (Category category : categories) {
+            when(entityManager.find(Category.class, category.getId())).thenReturn(category);
+        }
+    }
+
+    private void stubLinked(Long ancestorId, Long descendantId, long count) {
+        when(entityManager.createQuery(CategoryHierarchyService.LINK_EXISTS, Long.class)).thenReturn(linkQuery);
+        when(linkQuery.setParameter(eq("ancestorId"), eq(ancestorId))).thenReturn(linkQuery);
+        when(linkQuery.setParameter(eq("descendantId"), eq(descendantId))).thenReturn(linkQuery);
+        when(linkQuery.getSingleResult()).thenReturn(count);
+    }
+
+    private static Category category(Long id, String name, Category parent) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        if (parent != null) {
+            parent.addSubCategory(category);
+        }
+        return category;
+    }
+}
@@ -0,0 +1,61 @@
+package za.co.pms.service.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import za.co.pms.repository.projection.CategoryNode;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@DisplayName("CategoryTree Unit Tests")
+class CategoryTreeTest {
+
+    // Electronics > {Phones > Android, Audio}; Home; Garden under a missing parent; 7 and 8 in a cycle
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            new CategoryNode(4L, "Android", 2L),
+            new CategoryNode(1L, "Electronics", null),
+            new CategoryNode(5L, "Home", null),
+            new CategoryNode(2L, "Phones", 1L),
+            new CategoryNode(3L, "Audio", 1L),
+            new CategoryNode(9L, "Garden", 99L),
+            new CategoryNode(7L, "Loop A", 8L),
+            new CategoryNode(8L, "Loop B", 7L)));
+
+    @Test
+    @DisplayName("Should list roots and children by name")
+    void roots_andChildren_shouldBeOrderedByName() {
+        assertThat(tree.roots()).extracting(CategoryNode::name).containsExactly("Electronics", "Garden", "Home");
+        assertThat(tree.children(1L)).extracting(CategoryNode::name).containsExactly("Audio", "Phones");
+        assertThat(tree.children(4L)).isEmpty();
+        assertThat(tree.children(42L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should build breadcrumbs from the root down")
+    void breadcrumb_shouldWalkToRoot() {
+        assertThat(tree.breadcrumb(4L)).extracting(CategoryNode::name).containsExactly("Electronics", "Phones", "Android");
+        assertThat(tree.breadcrumb(5L)).extracting(CategoryNode::id).containsExactly(5L);
+        assertThat(tree.breadcrumb(42L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return each subtree depth first")
+    void subtreeIds_shouldIncludeDescendants() {
+        assertThat(tree.subtreeIds(1L)).containsExactly(1L, 3L, 2L, 4L);
+        assertThat(tree.subtreeIds(2L)).containsExactly(2L, 4L);
+        assertThat(tree.subtreeIds(3L)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should leave out categories caught in a parent cycle")
+    void of_shouldDropUnreachableCycles() {
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.node(7L)).isEmpty();
+        assertThat(tree.node(9L)).contains(new CategoryNode(9L, "Garden", 99L));
+    }
+}
@@ -0,0 +1,161 @@
+package za.co.pms.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.enums.TaxType;
+import za.co.pms.repository.ProductRepository;
+import za.co.pms.repository.projection.ProductDetailRow;
+import za.co.pms.repository.projection.ProductListingRow;
+import za.co.pms.repository.projection.PromotedVariantRow;
+import za.co.pms.repository.projection.PromotionLabelSource;
+import za.co.pms.repository.projection.VariantPriceLine;
+import za.co.pms.service.inventory.StockAggregates;
+import za.co.pms.service.inventory.StockTotals;
+import za.co.pms.service.promotion.PromotionLabelCache;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCatalogService Unit Tests")
+class ProductCatalogServiceTest {
+
+    private static final BigDecimal VAT = new BigDecimal("15");
+
+    @Mock
+    private ProductRepository repository;
+    @Mock
+    private StockAggregates aggregates;
+    @Mock
+    private PromotionLabelCache labelCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductCatalogService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductCatalogService(repository, aggregates, labelCache, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should build a listing page from one product query and one price query")
+    void listing_shouldCombineRowsPricesAndStock() {
+        // Arrange
+        when(repository.findListing(0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new ProductListingRow(1L, "Kettle", "Defy", "https://cdn/kettle.jpg"),
+                new ProductListingRow(2L, "Toaster", null, null)));
+        when(repository.findVariantPrices(List.of(1L, 2L))).thenReturn(List.of(
+                new VariantPriceLine(1L, 10L, "White", "K-W", new BigDecimal("100.00"), TaxType.STANDARD, VAT),
+                new VariantPriceLine(1L, 11L, "Black", "K-B", new BigDecimal("90.00"), TaxType.STANDARD, VAT),
+                new VariantPriceLine(2L, 20L, "Two slice", "T-2", null, null, null)));
+        when(aggregates.product(1L)).thenReturn(new StockTotals(12, 2));
+        when(aggregates.product(2L)).thenReturn(StockTotals.NONE);
+
+        // Act
+        ProductListingPage page = service.listing(null, 2);
+
+        // Assert
+        assertThat(page.rows()).containsExactly(
+                new ProductListing(1L, "Kettle", "Defy", "https://cdn/kettle.jpg", new BigDecimal("103.50"), 10, List.of()),
+                new ProductListing(2L, "Toaster", null, null, null, 0, List.of()));
+        assertThat(page.nextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should end paging on a short page")
+    void listing_shouldReturnNoCursor_onLastPage() {
+        // Arrange
+        when(repository.findListingInCategories(List.of(5L), 2L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new ProductListingRow(3L, "Iron", null, null)));
+        when(repository.findVariantPrices(List.of(3L))).thenReturn(List.of(
+                new VariantPriceLine(3L, 30L, "Steam", "I-S", new BigDecimal("200.00"), TaxType.EXEMPT, VAT)));
+        when(aggregates.product(3L)).thenReturn(new StockTotals(1, 0));
+
+        // Act
+        ProductListingPage page = service.listing(List.of(5L), 2L, 2);
+
+        // Assert
+        assertThat(page.rows()).extracting(ProductListing::fromPrice).containsExactly(new BigDecimal("200.00"));
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fold media rows and keep each variant's lowest current price")
+    void detail_shouldFlattenRowsIntoProductPage() {
+        // Arrange
+        when(repository.findDetailRows(1L)).thenReturn(List.of(
+                new ProductDetailRow(1L, "Kettle", "1.7l", "Defy", "Kitchen", 7L, "https://cdn/front.jpg", "IMAGE"),
+                new ProductDetailRow(1L, "Kettle", "1.7l", "Defy", "Kitchen", 8L, "https://cdn/manual.pdf", "DOCUMENT")));
+        when(repository.findVariantPrices(List.of(1L))).thenReturn(List.of(
+                new VariantPriceLine(1L, 10L, "White", "K-W", new BigDecimal("100.00"), TaxType.STANDARD, VAT),
+                new VariantPriceLine(1L, 10L, "White", "K-W", new BigDecimal("80.00"), TaxType.STANDARD, VAT),
+                new VariantPriceLine(1L, 11L, "Black", "K-B", null, null, null)));
+        when(aggregates.variant(10L)).thenReturn(new StockTotals(5, 1));
+        when(aggregates.variant(11L)).thenReturn(new StockTotals(3, 0));
+        when(aggregates.product(1L)).thenReturn(new StockTotals(8, 1));
+
+        // Act
+        ProductDetail detail = service.detail(1L).orElseThrow();
+
+        // Assert
+        assertThat(detail.media()).extracting(ProductMedia::type).containsExactly("IMAGE", "DOCUMENT");
+        assertThat(detail.variants()).containsExactly(
+                new VariantDetail(10L, "White", "K-W", new BigDecimal("92.00"), 4, null),
+                new VariantDetail(11L, "Black", "K-B", null, 3, null));
+        assertThat(detail.available()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should label each running promotion once per product through the label cache")
+    void listing_shouldAttachCachedPromotionLabels() {
+        // Arrange
+        PromotionLabelSource bogo = promotion(7L, PromotionType.BOGO);
+        PromotionLabelSource sample = promotion(9L, PromotionType.FREE_SAMPLE);
+        when(repository.findListing(0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new ProductListingRow(1L, "Kettle", null, null)));
+        when(repository.findRunningPromotions(List.of(1L))).thenReturn(List.of(
+                new PromotedVariantRow(1L, 10L, bogo),
+                new PromotedVariantRow(1L, 10L, sample),
+                new PromotedVariantRow(1L, 11L, bogo)));
+        when(labelCache.getLabel(eq(bogo), any(Locale.class))).thenReturn("Buy 2, Get 1 FREE");
+        when(labelCache.getLabel(eq(sample), any(Locale.class))).thenReturn("FREE sample");
+        when(aggregates.product(1L)).thenReturn(StockTotals.NONE);
+
+        // Act
+        ProductListingPage page = service.listing(null, 2);
+
+        // Assert
+        assertThat(page.rows()).singleElement().extracting(ProductListing::promotionLabels)
+                .isEqualTo(List.of("Buy 2, Get 1 FREE", "FREE sample"));
+        verify(labelCache, times(1)).getLabel(eq(bogo), any(Locale.class));
+    }
+
+    @Test
+    @DisplayName("Should report an unknown product as empty")
+    void detail_shouldBeEmpty_forUnknownProduct() {
+        when(repository.findDetailRows(99L)).thenReturn(List.of());
+
+        assertThat(service.detail(99L)).isEmpty();
+    }
+
+    private static PromotionLabelSource promotion(Long id, PromotionType type) {
+        return new PromotionLabelSource(id, 0L, type, 2, 1, null, null);
+    }
+}
@@ -0,0 +1,146 @@
+package za.co.pms.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Builds an index over a synthetic catalogue and measures build rate and query latency for
+ * single-term, multi-term and typeahead queries, against scanning every product's text with
+ * {@code contains}, the cost of a {@code like '%term%'} search without an index.
+ **/
+@Slf4j
+@DisplayName("Product search index load test")
+class ProductSearchIndexLoadTest {
+    private static final int PRODUCTS = 200_000;
+    private static final int QUERIES = 2_000;
+    private static final int SCAN_QUERIES = 50;
+
+    private static final String[] BRANDS = {"Defy", "Russell Hobbs", "Samsung", "Hisense", "Bosch", "Kenwood",
+            "Sunbeam", "Salton", "Logik", "Mellerware", "Philips", "LG"};
+    private static final String[] NOUNS = {"kettle", "toaster", "fridge", "freezer", "microwave", "blender",
+            "iron", "heater", "fan", "vacuum", "television", "speaker", "oven", "stove", "braai", "geyser",
+            "lamp", "mixer", "grinder", "dishwasher"};
+    private static final String[] ADJECTIVES = {"cordless", "stainless", "compact", "digital", "portable",
+            "classic", "smart", "silent", "family", "deluxe", "inverter", "retro", "turbo", "slim"};
+    private static final String[] COLOURS = {"white", "black", "silver", "red", "blue", "charcoal", "cream"};
+
+    @Test
+    @DisplayName("Index queries should answer in microseconds and agree with a full scan")
+    void index_shouldOutrunScan_andMatchItsResults() {
+        // Arrange
+        Random random = new Random(7);
+        List<ProductDocument> documents = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            documents.add(document(id, random));
+        }
+        String[] searchText = documents.stream()
+                .map(document -> String.join(" ", ProductSearchIndex.tokens(text(document))))
+                .toArray(String[]::new);
+        List<String> single = new ArrayList<>();
+        List<String> multi = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            String noun = pick(NOUNS, random);
+            single.add(random.nextBoolean() ? noun : noun + "s");
+            multi.add(pick(BRANDS, random) + " " + pick(ADJECTIVES, random) + " " + noun);
+            prefixes.add(pick(BRANDS, random) + " " + noun.substring(0, 2 + random.nextInt(noun.length() - 1)));
+        }
+
+        // Act
+        ProductSearchIndex index = new ProductSearchIndex();
+        long started = System.nanoTime();
+        documents.forEach(index::put);
+        long buildNanos = System.nanoTime() - started;
+        long[] singleNanos = time(single, query -> index.search(query, 20));
+        long[] multiNanos = time(multi, query -> index.search(query, 20));
+        long[] prefixNanos = time(prefixes, query -> index.suggest(query, 10));
+        long[] scanNanos = time(multi.subList(0, SCAN_QUERIES), query -> scan(searchText, query));
+
+        // Assert
+        log.info("Built {} products in {} ms ({} docs/s)", PRODUCTS, buildNanos / 1_000_000,
+                (long) PRODUCTS * 1_000_000_000L / Math.max(1, buildNanos));
+        report("single term", singleNanos);
+        report("multi term", multiNanos);
+        report("prefix", prefixNanos);
+        report("full scan", scanNanos);
+        assertThat(index.size()).isEqualTo(PRODUCTS);
+        for (String query : multi.subList(0, SCAN_QUERIES)) {
+            List<Long> scanned = scan(searchText, query);
+            List<ProductSearchHit> hits = index.search(query, PRODUCTS);
+            assertThat(hits).extracting(ProductSearchHit::productId).containsExactlyInAnyOrderElementsOf(scanned);
+        }
+        assertThat(percentile(multiNanos, 0.50)).isLessThan(percentile(scanNanos, 0.50));
+    }
+
+    private static ProductDocument document(long id, Random random) {
+        String noun = pick(NOUNS, random);
+        String name = pick(BRANDS, random) + " " + pick(ADJECTIVES, random) + " " + noun + " " + (100 + random.nextInt(900));
+        String description = "A " + pick(ADJECTIVES, random) + " " + noun + " for the " + pick(NOUNS, random)
+                + " corner, with " + pick(ADJECTIVES, random) + " finish and " + (1 + random.nextInt(5)) + " year warranty";
+        List<String> variants = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        for (int v = 0, count = 1 + random.nextInt(3); v < count; v++) {
+            String colour = pick(COLOURS, random);
+            variants.add(colour);
+            codes.add(noun.substring(0, 3).toUpperCase(Locale.ROOT) + "-" + id + "-" + colour.charAt(0));
+            codes.add(String.format("600%010d", id * 10 + v));
+        }
+        return new ProductDocument(id, name, description, variants, codes);
+    }
+
+    private static String text(ProductDocument document) {
+        return document.name() + " " + document.description() + " " + String.join(" ", document.variantNames())
+                + " " + String.join(" ", document.codes());
+    }
+
+    // Every query term as a whole word of the product's analysed text
+    private static List<Long> scan(String[] searchText, String query) {
+        List<String> terms = ProductSearchIndex.tokens(query);
+        List<Long> found = new ArrayList<>();
+        for (int i = 0; i < searchText.length; i++) {
+            String text = " " + searchText[i] + " ";
+            if (terms.stream().allMatch(term -> text.contains(" " + term + " "))) {
+                found.add(i + 1L);
+            }
+        }
+        return found;
+    }
+
+    private static long[] time(List<String> queries, Function<String, ?> query) {
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            query.apply(queries.get(i));
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String kind, long[] sorted) {
+        long total = Arrays.stream(sorted).sum();
+        log.info("{}: {} queries, p50={}us p99={}us, {} queries/s", kind, sorted.length,
+                percentile(sorted, 0.50) / 1_000, percentile(sorted, 0.99) / 1_000,
+                (long) sorted.length * 1_000_000_000L / Math.max(1, total));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,106 @@
+package za.co.pms.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@DisplayName("ProductSearchIndex Unit Tests")
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(new ProductDocument(1L, "Defy Kettle", "Cordless kettle with a 1.7 litre jug",
+                List.of("White", "Black"), List.of("DK-170-W", "6001234567890")));
+        index.put(new ProductDocument(2L, "Russell Hobbs Toaster", "Two slice toaster, matches the kettle",
+                List.of("Stainless"), List.of("RH-TOAST-2")));
+        index.put(new ProductDocument(3L, "Braai Tongs", "Stainless steel tongs vir die braai",
+                List.of(), List.of("BT-1")));
+        index.put(new ProductDocument(4L, "Koffiebeker", "Geëmailleerde beker met deksel",
+                List.of("Rooi"), List.of()));
+    }
+
+    @Test
+    @DisplayName("Should fold case and diacritics, drop stop words and reduce plurals")
+    void tokens_shouldFoldAndAnalyse() {
+        assertThat(ProductSearchIndex.tokens("The Geëmailleerde Kettles, vir die BRAAI!"))
+                .containsExactly("geemailleerde", "kettle", "braai");
+        assertThat(ProductSearchIndex.tokens("Batteries boxes glass")).containsExactly("battery", "box", "glass");
+        assertThat(ProductSearchIndex.tokens(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rank a name match above a description match")
+    void search_shouldWeightNameAboveDescription() {
+        List<ProductSearchHit> hits = index.search("kettles", 10);
+
+        assertThat(hits).extracting(ProductSearchHit::productId).containsExactly(1L, 2L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    @DisplayName("Should require every term and match typed diacritics either way")
+    void search_shouldMatchAllTerms() {
+        assertThat(index.search("stainless tongs", 10)).extracting(ProductSearchHit::productId).containsExactly(3L);
+        assertThat(index.search("geemailleerde beker", 10)).extracting(ProductSearchHit::productId).containsExactly(4L);
+        assertThat(index.search("kettle tongs", 10)).isEmpty();
+        assertThat(index.search("the", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should find products by SKU code and barcode")
+    void search_shouldMatchCodes() {
+        assertThat(index.search("dk-170-w", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+        assertThat(index.search("6001234567890", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should treat the last typed word as a prefix")
+    void suggest_shouldMatchPrefixOfLastTerm() {
+        assertThat(index.suggest("ket", 10)).extracting(ProductSearchHit::productId).containsExactly(1L, 2L);
+        assertThat(index.suggest("russell to", 10)).extracting(ProductSearchHit::productId).containsExactly(2L);
+        assertThat(index.suggest("kettles", 10)).extracting(ProductSearchHit::productId).containsExactly(1L, 2L);
+        // A trailing space ends the word
+        assertThat(index.suggest("ket ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replace and remove documents")
+    void put_andRemove_shouldUpdateResults() {
+        // Act
+        index.put(new ProductDocument(2L, "Russell Hobbs Toaster", "Four slice toaster", List.of(), List.of()));
+        boolean removed = index.remove(3L);
+
+        // Assert
+        assertThat(removed).isTrue();
+        assertThat(index.remove(3L)).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.search("kettle", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+        assertThat(index.search("tongs", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep results correct after compacting tombstones")
+    void put_shouldCompactReplacedDocuments() {
+        // Act: enough replacements to trigger compaction several times
+        for (int round = 0; round < 5_000; round++) {
+            index.put(new ProductDocument(5L, "Mug " + round, "Ceramic mug, dishwasher safe", List.of(), List.of()));
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.search("mug 4999", 10)).extracting(ProductSearchHit::productId).containsExactly(5L);
+        assertThat(index.search("mug 10", 10)).isEmpty();
+        assertThat(index.search("kettle", 10)).extracting(ProductSearchHit::productId).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,107 @@
+package za.co.pms.service.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.repository.ProductRepository;
+import za.co.pms.repository.projection.ProductSearchRow;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductSearchService Unit Tests")
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ProductChangePublisher publisher = new ProductChangePublisher();
+    private ProductSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductSearchService(repository, publisher, transactionManager, 2, 0);
+    }
+
+    @Test
+    @DisplayName("Should build the index page by page at start-up")
+    void start_shouldIndexEveryPage() {
+        // Arrange
+        when(repository.findIdPage(0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+        when(repository.findIdPage(2L, PageRequest.of(0, 2))).thenReturn(List.of(3L));
+        when(repository.findSearchRows(List.of(1L, 2L))).thenReturn(List.of(
+                new ProductSearchRow(1L, "Defy Kettle", "Cordless", "White", "DK-W", "6001234567890"),
+                new ProductSearchRow(1L, "Defy Kettle", "Cordless", "Black", "DK-B", null),
+                new ProductSearchRow(2L, "Toaster", null, null, null, null)));
+        when(repository.findSearchRows(List.of(3L))).thenReturn(List.of(
+                new ProductSearchRow(3L, "Braai Tongs", "Stainless", "Steel", "BT-1", null)));
+
+        // Act
+        service.start();
+
+        // Assert
+        assertThat(service.search("kettle black", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+        assertThat(service.search("dk-w", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+        assertThat(service.suggest("bra", 10)).extracting(ProductSearchHit::productId).containsExactly(3L);
+        assertThat(service.search("toasters", 10)).extracting(ProductSearchHit::productId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should reindex published products on drain and drop deleted ones")
+    void drain_shouldReindexChangedProducts() {
+        // Arrange
+        when(repository.findIdPage(0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+        when(repository.findIdPage(2L, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(repository.findSearchRows(List.of(1L, 2L))).thenReturn(List.of(
+                new ProductSearchRow(1L, "Defy Kettle", null, null, null, null),
+                new ProductSearchRow(2L, "Toaster", null, null, null, null)));
+        service.start();
+        doReturn(List.of(new ProductSearchRow(1L, "Defy Glass Kettle", null, null, null, null)))
+                .when(repository).findSearchRows(anyCollection());
+
+        // Act
+        publisher.publish(1L);
+        publisher.publish(2L);
+        int drained = service.drain();
+
+        // Assert
+        assertThat(drained).isEqualTo(2);
+        assertThat(service.search("glass", 10)).extracting(ProductSearchHit::productId).containsExactly(1L);
+        assertThat(service.search("toaster", 10)).isEmpty();
+        assertThat(service.drain()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop listening for changes once stopped")
+    void stop_shouldUnregister() {
+        // Arrange
+        when(repository.findIdPage(0L, PageRequest.of(0, 2))).thenReturn(List.of());
+        service.start();
+
+        // Act
+        service.stop();
+        publisher.publish(1L);
+
+        // Assert
+        assertThat(service.drain()).isZero();
+        verify(repository, never()).findSearchRows(anyCollection());
+    }
+}
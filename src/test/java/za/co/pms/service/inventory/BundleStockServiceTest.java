@@ -0,0 +1,133 @@
+package za.co.pms.service.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.BundleRepository;
+import za.co.pms.repository.projection.BundleComponentLine;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BundleStockService Unit Tests")
+class BundleStockServiceTest {
+
+    @Mock
+    private BundleRepository repository;
+    @Mock
+    private StockAggregates aggregates;
+    @Mock
+    private OrderAllocationService allocationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BundleStockService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BundleStockService(repository, aggregates, allocationService, transactionManager, 0);
+        // Bundle 1: 2 x variant 10 + 1 x variant 20; bundle 2: 3 x variant 30
+        when(repository.findActiveComponents()).thenReturn(List.of(
+                new BundleComponentLine(1L, 10L, 2),
+                new BundleComponentLine(1L, 20L, 1),
+                new BundleComponentLine(2L, 30L, 3)));
+        when(aggregates.variant(10L)).thenReturn(new StockTotals(9, 2));
+        when(aggregates.variant(20L)).thenReturn(new StockTotals(5, 0));
+        when(aggregates.variant(30L)).thenReturn(new StockTotals(4, 0));
+        service.start();
+    }
+
+    @Test
+    @DisplayName("Should derive kits from the scarcest component")
+    void start_shouldComputeAvailabilityFromComponents() {
+        assertThat(service.available(1L)).isEqualTo(3);
+        assertThat(service.available(2L)).isEqualTo(1);
+        assertThat(service.available(99L)).isZero();
+        verify(aggregates).register(service);
+    }
+
+    @Test
+    @DisplayName("Should recompute only the bundles containing the changed variant")
+    void onAvailabilityChanged_shouldRecomputeAffectedBundles() {
+        // Arrange
+        when(aggregates.variant(20L)).thenReturn(new StockTotals(5, 4));
+
+        // Act
+        service.onAvailabilityChanged(20L, 5, 1);
+        service.onAvailabilityChanged(40L, 1, 0);
+
+        // Assert
+        assertThat(service.available(1L)).isEqualTo(1);
+        assertThat(service.available(2L)).isEqualTo(1);
+        verify(aggregates, times(1)).variant(30L);
+    }
+
+    @Test
+    @DisplayName("Should treat an oversold component as no kits")
+    void onAvailabilityChanged_shouldClampNegativeAvailability() {
+        // Arrange
+        when(aggregates.variant(30L)).thenReturn(new StockTotals(2, 5));
+
+        // Act
+        service.onAvailabilityChanged(30L, 4, -3);
+
+        // Assert
+        assertThat(service.available(2L)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reserve every component of the kits in one allocation")
+    void reserve_shouldExpandKitsIntoComponentLines() {
+        // Arrange
+        AllocationPlan plan = new AllocationPlan(List.of(), 0);
+        when(allocationService.allocate(List.of(new OrderLine(10L, 6), new OrderLine(20L, 3)))).thenReturn(plan);
+
+        // Act & Assert
+        assertThat(service.reserve(1L, 3)).isSameAs(plan);
+    }
+
+    @Test
+    @DisplayName("Should propagate a short component and refuse unknown bundles")
+    void reserve_shouldFailAsAWhole() {
+        // Arrange
+        when(allocationService.allocate(List.of(new OrderLine(30L, 6)))).thenThrow(new InsufficientStockException("short"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.reserve(2L, 2)).isInstanceOf(InsufficientStockException.class);
+        assertThatThrownBy(() -> service.reserve(99L, 1)).isInstanceOf(IllegalArgumentException.class);
+        verify(allocationService, times(1)).allocate(anyList());
+    }
+
+    @Test
+    @DisplayName("Should drop bundles that are no longer active on refresh")
+    void refresh_shouldForgetInactiveBundles() {
+        // Arrange
+        when(repository.findActiveComponents()).thenReturn(List.of(new BundleComponentLine(2L, 30L, 3)));
+
+        // Act
+        service.refresh();
+        service.onAvailabilityChanged(10L, 7, 0);
+
+        // Assert
+        assertThat(service.available(1L)).isZero();
+        assertThat(service.available(2L)).isEqualTo(1);
+        verify(allocationService, never()).allocate(anyList());
+    }
+}
@@ -0,0 +1,144 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import za.co.pms.enums.StockMovementType;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@DisplayName("MappedStockJournal Unit Tests")
+class MappedStockJournalTest {
+    private static final int SEGMENT = MappedStockJournal.RECORD_SIZE * 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should replay entries after a sequence across segment rolls")
+    void replay_shouldReturnEntriesAfterSequence() {
+        // Arrange
+        MappedStockJournal journal = new MappedStockJournal(directory, SEGMENT);
+        for (long sequence = 1; sequence <= 10; sequence++) {
+            journal.append(entry(sequence));
+        }
+
+        // Act
+        List<Long> replayed = new ArrayList<>();
+        journal.replay(3, entry -> replayed.add(entry.sequence()));
+
+        // Assert
+        assertThat(replayed).containsExactly(4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(journal.bytesOnDisk()).isEqualTo(3L * SEGMENT);
+    }
+
+    @Test
+    @DisplayName("Should continue after the last valid record when reopened")
+    void reopen_shouldStopAtCorruptTail() throws Exception {
+        // Arrange: three records, the last one torn
+        MappedStockJournal journal = new MappedStockJournal(directory, SEGMENT * 2);
+        journal.append(entry(1));
+        journal.append(entry(2));
+        journal.sync(journal.append(entry(3)));
+        journal.close();
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), MappedStockJournal.RECORD_SIZE * 2L + 20);
+        }
+
+        // Act
+        MappedStockJournal reopened = new MappedStockJournal(directory, SEGMENT * 2);
+        reopened.append(entry(3));
+        List<JournalEntry> replayed = new ArrayList<>();
+        reopened.replay(0, replayed::add);
+
+        // Assert
+        assertThat(replayed).extracting(JournalEntry::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(replayed.get(2)).isEqualTo(entry(3));
+    }
+
+    @Test
+    @DisplayName("Should delete only segments wholly covered by the truncation point")
+    void truncateUpTo_shouldDeleteCoveredSegments() {
+        // Arrange
+        MappedStockJournal journal = new MappedStockJournal(directory, SEGMENT);
+        for (long sequence = 1; sequence <= 10; sequence++) {
+            journal.append(entry(sequence));
+        }
+
+        // Act
+        journal.truncateUpTo(6);
+
+        // Assert
+        List<Long> replayed = new ArrayList<>();
+        journal.replay(0, entry -> replayed.add(entry.sequence()));
+        assertThat(replayed).containsExactly(5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(journal.bytesOnDisk()).isEqualTo(2L * SEGMENT);
+    }
+
+    @Test
+    @DisplayName("Should sustain durable movements per second with group commit")
+    void appendAndSync_shouldGroupCommit_underConcurrency() throws Exception {
+        // Arrange
+        MappedStockJournal journal = new MappedStockJournal(directory, 64 << 20);
+        int threads = 8;
+        int perThread = 20_000;
+        AtomicLong sequence = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // Act: every movement is acknowledged only once it is durable
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long ticket;
+                    synchronized (sequence) {
+                        ticket = journal.append(entry(sequence.incrementAndGet()));
+                    }
+                    journal.sync(ticket);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+
+        // Assert
+        long total = (long) threads * perThread;
+        log.info("Mapped journal: {} durable movements/s across {} threads",
+                total * TimeUnit.SECONDS.toNanos(1) / elapsedNanos, threads);
+        AtomicLong replayed = new AtomicLong();
+        journal.replay(0, entry -> replayed.incrementAndGet());
+        assertThat(replayed.get()).isEqualTo(total);
+    }
+
+    private static JournalEntry entry(long sequence) {
+        return new JournalEntry(sequence, 100 + sequence % 7, StockMovementType.RESERVE, (int) sequence, 1_000 + sequence);
+    }
+}
@@ -0,0 +1,168 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@DisplayName("OrderAllocator Unit Tests")
+class OrderAllocatorTest {
+    private static final ShipmentCostModel FLAT = (warehouseId, units) -> 1.0;
+
+    @Nested
+    @DisplayName("Shipment count")
+    class ShipmentCountTests {
+
+        @Test
+        @DisplayName("Should ship from one warehouse when one covers the whole order")
+        void allocate_shouldUseSingleWarehouse_whenPossible() {
+            // Arrange
+            AvailabilitySnapshot snapshot = AvailabilitySnapshot.builder()
+                    .add(1, 100, 1, 5)
+                    .add(2, 200, 2, 5)
+                    .add(3, 100, 3, 2)
+                    .add(4, 200, 3, 2)
+                    .build();
+
+            // Act
+            AllocationPlan plan = new OrderAllocator(FLAT).allocate(snapshot,
+                    List.of(new OrderLine(100, 2), new OrderLine(200, 2)));
+
+            // Assert
+            assertThat(plan.shipmentCount()).isEqualTo(1);
+            assertThat(plan.shipments().get(0).warehouseId()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should find a two-warehouse plan the greedy choice would miss")
+        void allocate_shouldFindPair_whenNoSingleWarehouseCovers() {
+            // Arrange: greedy takes warehouse 1 (four lines) and then needs two more; 2 and 3 suffice
+            AvailabilitySnapshot.Builder builder = AvailabilitySnapshot.builder();
+            long allocationId = 0;
+            for (long variant : new long[]{10, 20, 40, 50}) {
+                builder.add(++allocationId, variant, 1, 1);
+            }
+            for (long variant : new long[]{10, 20, 30}) {
+                builder.add(++allocationId, variant, 2, 1);
+            }
+            for (long variant : new long[]{40, 50, 60}) {
+                builder.add(++allocationId, variant, 3, 1);
+            }
+            AvailabilitySnapshot snapshot = builder.build();
+
+            // Act
+            AllocationPlan plan = new OrderAllocator(FLAT).allocate(snapshot, List.of(
+                    new OrderLine(10, 1), new OrderLine(20, 1), new OrderLine(30, 1),
+                    new OrderLine(40, 1), new OrderLine(50, 1), new OrderLine(60, 1)));
+
+            // Assert
+            assertThat(plan.shipmentCount()).isEqualTo(2);
+            assertThat(plan.shipments()).extracting(AllocationPlan.Shipment::warehouseId)
+                    .containsExactlyInAnyOrder(2L, 3L);
+        }
+
+        @Test
+        @DisplayName("Should split a line across warehouses and allocations when no one holds enough")
+        void allocate_shouldSplitLine_acrossWarehouses() {
+            // Arrange
+            AvailabilitySnapshot snapshot = AvailabilitySnapshot.builder()
+                    .add(1, 100, 1, 3)
+                    .add(2, 100, 1, 2)
+                    .add(3, 100, 2, 4)
+                    .build();
+
+            // Act
+            AllocationPlan plan = new OrderAllocator(FLAT).allocate(snapshot, List.of(new OrderLine(100, 8)));
+
+            // Assert
+            assertThat(plan.shipmentCount()).isEqualTo(2);
+            Map<Long, Integer> reserved = plan.reservationLines().stream()
+                    .collect(Collectors.toMap(ReservationLine::allocationId, ReservationLine::amount));
+            assertThat(reserved).containsEntry(1L, 3).containsEntry(2L, 2).containsEntry(3L, 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should pick the cheapest of equally good warehouses")
+    void allocate_shouldPreferLowerCost_whenShipmentCountTies() {
+        // Arrange
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.builder()
+                .add(1, 100, 1, 5)
+                .add(2, 100, 2, 5)
+                .build();
+        ShipmentCostModel cheaperSecond = (warehouseId, units) -> warehouseId == 2 ? 1.0 : 3.0;
+
+        // Act
+        AllocationPlan plan = new OrderAllocator(cheaperSecond).allocate(snapshot, List.of(new OrderLine(100, 1)));
+
+        // Assert
+        assertThat(plan.shipments().get(0).warehouseId()).isEqualTo(2);
+        assertThat(plan.totalCost()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should name every variant that cannot be covered")
+    void allocate_shouldThrow_whenStockIsShort() {
+        // Arrange
+        AvailabilitySnapshot snapshot = AvailabilitySnapshot.builder().add(1, 100, 1, 2).build();
+
+        // Act & Assert
+        assertThatThrownBy(() -> new OrderAllocator(FLAT).allocate(snapshot,
+                List.of(new OrderLine(100, 3), new OrderLine(200, 1))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("[100, 200]");
+    }
+
+    @Test
+    @DisplayName("Should plan a 40-line order over 300 warehouses in milliseconds")
+    void allocate_shouldBeFast_forHundredsOfWarehouses() {
+        // Arrange
+        Random random = new Random(42);
+        AvailabilitySnapshot.Builder builder = AvailabilitySnapshot.builder();
+        long allocationId = 0;
+        for (long variant = 0; variant < 2_000; variant++) {
+            for (long warehouse = 0; warehouse < 300; warehouse++) {
+                if (random.nextInt(4) == 0) {
+                    builder.add(++allocationId, variant, warehouse, 1 + random.nextInt(10));
+                }
+            }
+        }
+        AvailabilitySnapshot snapshot = builder.build();
+        OrderAllocator allocator = new OrderAllocator(FLAT);
+        List<List<OrderLine>> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            List<OrderLine> order = new ArrayList<>();
+            random.ints(40, 0, 2_000).distinct().forEach(variant -> order.add(new OrderLine(variant, 1 + random.nextInt(3))));
+            orders.add(order);
+        }
+
+        // Act
+        long started = System.nanoTime();
+        int shipments = 0;
+        for (List<OrderLine> order : orders) {
+            shipments += allocator.allocate(snapshot, order).shipmentCount();
+        }
+        double millisPerOrder = (System.nanoTime() - started) / 1e6 / orders.size();
+
+        // Assert
+        log.info("Allocated {} orders over 300 warehouses: {} ms/order, {} shipments/order",
+                orders.size(), String.format("%.3f", millisPerOrder), (double) shipments / orders.size());
+        assertThat(millisPerOrder).isLessThan(50.0);
+    }
+}
@@ -0,0 +1,255 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.HoldStatus;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.ReservationHold;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.H2PersistenceUnit;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Holds of fifteen minutes on a 100 ms wheel against embedded H2. Expiry is driven with explicit
+ * clock readings instead of the tick thread, which is never started.
+ **/
+@DisplayName("ReservationHoldService Unit Tests")
+class ReservationHoldServiceTest {
+    private static final long TICK_MILLIS = 100;
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private StockAllocationRepository repository;
+    private StockReservationService reservationService;
+    private ReservationHoldService service;
+    private long allocationId;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("reservation_holds");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        repository = persistenceUnit.repository(StockAllocationRepository.class,
+                new StockAllocationRepositoryImpl(persistenceUnit.jdbcTemplate()));
+        reservationService = spy(new StockReservationService(repository, new StockMovementPublisher(),
+                persistenceUnit.transactionManager()));
+        service = new ReservationHoldService(reservationService, persistenceUnit.transactionManager(),
+                TTL.toMinutes(), TICK_MILLIS, 500, 5);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        allocationId = transactionTemplate.execute(status -> {
+            StockAllocation allocation = new StockAllocation();
+            allocation.setQuantity(10);
+            entityManager.persist(allocation);
+            return allocation.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should reserve the stock of a placed hold and refuse one the allocation cannot cover")
+    void place_shouldReserveStock() {
+        // Act
+        Long holdId = service.place(allocationId, "cart-1", 6);
+
+        // Assert
+        assertThat(hold(holdId).getStatus()).isEqualTo(HoldStatus.ACTIVE);
+        assertThat(reserved()).isEqualTo(6);
+        assertThatThrownBy(() -> service.place(allocationId, "cart-2", 5)).isInstanceOf(InsufficientStockException.class);
+        assertThat(count()).isEqualTo(1);
+        assertThat(service.getMetrics().getHoldsPlaced()).isEqualTo(1);
+        assertThat(service.getMetrics().getOutstandingHolds()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the stock of a confirmed hold reserved and never expire it")
+    void confirm_shouldKeepStockReserved() {
+        // Arrange
+        Long holdId = service.place(allocationId, "cart-1", 4);
+
+        // Act
+        boolean confirmed = service.confirm(holdId);
+        boolean again = service.confirm(holdId);
+        int expired = service.expireDue(afterExpiry());
+
+        // Assert
+        assertThat(confirmed).isTrue();
+        assertThat(again).isFalse();
+        assertThat(expired).isZero();
+        assertThat(hold(holdId).getStatus()).isEqualTo(HoldStatus.CONFIRMED);
+        assertThat(reserved()).isEqualTo(4);
+        assertThat(service.getMetrics().getOutstandingHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give the stock of a released hold back")
+    void release_shouldReturnStock() {
+        // Arrange
+        Long holdId = service.place(allocationId, "cart-1", 4);
+
+        // Act
+        boolean released = service.release(holdId);
+
+        // Assert
+        assertThat(released).isTrue();
+        assertThat(service.release(holdId)).isFalse();
+        assertThat(hold(holdId).getStatus()).isEqualTo(HoldStatus.RELEASED);
+        assertThat(reserved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should expire a hold once due and give its stock back")
+    void expireDue_shouldExpireDueHolds() {
+        // Arrange
+        Long holdId = service.place(allocationId, "cart-1", 4);
+
+        // Act
+        int early = service.expireDue(System.currentTimeMillis());
+        int expired = service.expireDue(afterExpiry());
+
+        // Assert
+        assertThat(early).isZero();
+        assertThat(expired).isEqualTo(1);
+        assertThat(hold(holdId).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(hold(holdId).getClosedAt()).isNotNull();
+        assertThat(reserved()).isZero();
+        assertThat(service.getMetrics().getHoldsExpired()).isEqualTo(1);
+        assertThat(service.getMetrics().getOutstandingHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count only holds it expired, not ones closed elsewhere since their timer was set")
+    void expireDue_shouldNotCountHoldsClosedElsewhere() {
+        // Arrange: another node confirms the second hold
+        service.place(allocationId, "cart-1", 2);
+        Long confirmedElsewhere = service.place(allocationId, "cart-2", 3);
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(ReservationHold.class, confirmedElsewhere).setStatus(HoldStatus.CONFIRMED));
+
+        // Act
+        int expired = service.expireDue(afterExpiry());
+
+        // Assert
+        assertThat(expired).isEqualTo(1);
+        assertThat(reserved()).isEqualTo(3);
+        assertThat(service.getMetrics().getHoldsExpired()).isEqualTo(1);
+        assertThat(service.getMetrics().getLastExpiryBatchSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave the batch untouched when it fails and expire it on the retry")
+    void expireDue_shouldRetry_afterFailedBatch() {
+        // Arrange
+        Long holdId = service.place(allocationId, "cart-1", 4);
+        doThrow(new IllegalStateException("database down")).doThrow(new IllegalStateException("database down"))
+                .doCallRealMethod()
+                .when(reservationService).releaseOrder(anyCollection());
+        long firstAttempt = afterExpiry();
+
+        // Act
+        int failed = service.expireDue(firstAttempt);
+        HoldStatus afterFailure = hold(holdId).getStatus();
+        int retried = service.expireDue(firstAttempt + 60 * TICK_MILLIS);
+
+        // Assert
+        assertThat(failed).isZero();
+        assertThat(afterFailure).isEqualTo(HoldStatus.ACTIVE);
+        assertThat(retried).isEqualTo(1);
+        assertThat(hold(holdId).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(reserved()).isZero();
+        assertThat(service.getMetrics().getHoldsExpired()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should expire the rest of a batch and quarantine a hold whose release is refused")
+    void expireDue_shouldQuarantineRefusedHold() {
+        // Arrange: a reservation was lost elsewhere, so the larger hold can no longer be released
+        Long refused = service.place(allocationId, "cart-1", 4);
+        Long released = service.place(allocationId, "cart-2", 2);
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(StockAllocation.class, allocationId).setReservedQuantity(3));
+
+        // Act
+        int expired = service.expireDue(afterExpiry());
+        int rescanned = service.rescan(LocalDateTime.now().plus(TTL).plusMinutes(1));
+
+        // Assert
+        assertThat(expired).isEqualTo(1);
+        assertThat(hold(released).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(hold(refused).getStatus()).isEqualTo(HoldStatus.ACTIVE);
+        assertThat(reserved()).isEqualTo(1);
+        assertThat(rescanned).isZero();
+        assertThat(service.getMetrics().getQuarantinedHolds()).isEqualTo(1);
+        assertThat(service.getMetrics().getOutstandingHolds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should pick up overdue holds that have no timer here, once each")
+    void rescan_shouldScheduleOverdueHoldsWithoutTimer() {
+        // Arrange: a hold placed on another node, already overdue, next to a live one placed here
+        service.place(allocationId, "cart-1", 2);
+        Long orphan = transactionTemplate.execute(status -> {
+            repository.reserveIfAvailable(allocationId, 3);
+            ReservationHold hold = new ReservationHold();
+            hold.setAllocation(entityManager.getReference(StockAllocation.class, allocationId));
+            hold.setOwner("cart-2");
+            hold.setQuantity(3);
+            hold.setCreatedAt(LocalDateTime.now().minus(TTL).minusMinutes(1));
+            hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            entityManager.persist(hold);
+            return hold.getId();
+        });
+
+        // Act
+        int scheduled = service.rescan(LocalDateTime.now());
+        int again = service.rescan(LocalDateTime.now());
+        int expired = service.expireDue(System.currentTimeMillis() + TICK_MILLIS);
+
+        // Assert
+        assertThat(scheduled).isEqualTo(1);
+        assertThat(again).isZero();
+        assertThat(expired).isEqualTo(1);
+        assertThat(hold(orphan).getStatus()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(reserved()).isEqualTo(2);
+    }
+
+    private static long afterExpiry() {
+        return System.currentTimeMillis() + TTL.plusMinutes(1).toMillis();
+    }
+
+    private ReservationHold hold(Long holdId) {
+        return transactionTemplate.execute(status -> entityManager.find(ReservationHold.class, holdId));
+    }
+
+    private long count() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                "select count(h) from ReservationHold h", Long.class).getSingleResult());
+    }
+
+    private int reserved() {
+        return transactionTemplate.execute(status ->
+                entityManager.find(StockAllocation.class, allocationId).getReservedQuantity());
+    }
+}
@@ -0,0 +1,203 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.StockMovementType;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.H2PersistenceUnit;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryImpl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Group commit against embedded H2, with the conditional SQL path writing the same row.
+ **/
+@DisplayName("ReservationLedger Unit Tests")
+class ReservationLedgerTest {
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private StockAllocationRepository repository;
+    private final List<StockMovement> movements = new CopyOnWriteArrayList<>();
+    private final StockMovementPublisher publisher = new StockMovementPublisher();
+    private ReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("reservation_ledger");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        repository = persistenceUnit.repository(StockAllocationRepository.class,
+                new StockAllocationRepositoryImpl(persistenceUnit.jdbcTemplate()));
+        publisher.register(movements::add);
+        ledger = start(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.stop();
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should never oversell when many threads reserve the same allocation")
+    void reserve_shouldBeExact_underContention() throws Exception {
+        // Arrange
+        long allocationId = allocation(100, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    ledger.reserve(allocationId, 1);
+                    succeeded.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Assert
+        assertThat(succeeded.get()).isEqualTo(100);
+        assertThat(rejected.get()).isEqualTo(300);
+        assertThat(ledger.getAvailableQuantity(allocationId)).isZero();
+        assertThat(find(allocationId).getReservedQuantity()).isEqualTo(100);
+        assertThat(movements).hasSize(100).containsOnly(StockMovement.reserved(allocationId, 1));
+    }
+
+    @Test
+    @DisplayName("Should see what the conditional SQL path wrote between two mutations")
+    void reserve_shouldCheckAgainstRowWrittenByOtherWriters() {
+        // Arrange
+        long allocationId = allocation(10, 0);
+        ledger.reserve(allocationId, 4);
+
+        // Act
+        Boolean direct = transactionTemplate.execute(status -> repository.reserveIfAvailable(allocationId, 5));
+
+        // Assert
+        assertThat(direct).isTrue();
+        assertThatThrownBy(() -> ledger.reserve(allocationId, 2)).isInstanceOf(InsufficientStockException.class);
+        assertThatThrownBy(() -> ledger.adjustQuantity(allocationId, 8)).isInstanceOf(IllegalArgumentException.class);
+        ledger.release(allocationId, 9);
+        StockAllocation allocation = find(allocationId);
+        assertThat(allocation.getQuantity()).isEqualTo(10);
+        assertThat(allocation.getReservedQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should write one change per allocation for a batch and refuse each invalid mutation alone")
+    void commit_shouldCoalesceBatch_perAllocation() {
+        // Arrange
+        long allocationId = allocation(10, 2);
+        List<ReservationLedger.Mutation> batch = List.of(
+                new ReservationLedger.Mutation(allocationId, StockMovementType.RESERVE, 5),
+                new ReservationLedger.Mutation(allocationId, StockMovementType.RELEASE, 3),
+                new ReservationLedger.Mutation(allocationId, StockMovementType.RESERVE, 30),
+                new ReservationLedger.Mutation(allocationId, StockMovementType.ADJUST, 20),
+                new ReservationLedger.Mutation(404L, StockMovementType.RESERVE, 1));
+
+        // Act
+        int written = ledger.commit(batch);
+
+        // Assert
+        assertThat(written).isEqualTo(1);
+        assertThat(batch.get(0).outcome()).isCompleted();
+        assertThat(batch.get(2).outcome()).isCompletedExceptionally();
+        assertThat(batch.get(4).outcome()).isCompletedExceptionally();
+        StockAllocation allocation = find(allocationId);
+        assertThat(allocation.getQuantity()).isEqualTo(20);
+        assertThat(allocation.getReservedQuantity()).isEqualTo(4);
+        assertThat(movements).containsExactly(
+                StockMovement.reserved(allocationId, 5),
+                StockMovement.released(allocationId, 3),
+                StockMovement.adjusted(allocationId, 10));
+    }
+
+    @Test
+    @DisplayName("Should apply nothing when the batch fails, so a retry reserves once")
+    void reserve_shouldApplyNothing_whenBatchFails() {
+        // Arrange
+        long allocationId = allocation(10, 0);
+        StockAllocationRepository failing = mock(StockAllocationRepository.class, delegatesTo(repository));
+        doThrow(new IllegalStateException("database down"))
+                .doAnswer(delegatesTo(repository))
+                .when(failing).applyLedgerChanges(anyList());
+        ledger.stop();
+        ledger = start(failing);
+
+        // Act
+        assertThatThrownBy(() -> ledger.reserve(allocationId, 4)).isInstanceOf(IllegalStateException.class);
+        int afterFailure = find(allocationId).getReservedQuantity();
+        ledger.reserve(allocationId, 4);
+
+        // Assert
+        assertThat(afterFailure).isZero();
+        assertThat(find(allocationId).getReservedQuantity()).isEqualTo(4);
+        assertThat(movements).containsExactly(StockMovement.reserved(allocationId, 4));
+    }
+
+    @Test
+    @DisplayName("Should refuse mutations once stopped")
+    void reserve_shouldThrow_whenStopped() {
+        // Arrange
+        long allocationId = allocation(10, 0);
+        ledger.stop();
+
+        // Act & Assert
+        assertThatThrownBy(() -> ledger.reserve(allocationId, 1)).isInstanceOf(IllegalStateException.class);
+        assertThat(find(allocationId).getReservedQuantity()).isZero();
+    }
+
+    private ReservationLedger start(StockAllocationRepository repository) {
+        ReservationLedger started = new ReservationLedger(repository, persistenceUnit.transactionManager(), publisher, 50);
+        started.start();
+        return started;
+    }
+
+    private long allocation(int quantity, int reserved) {
+        return transactionTemplate.execute(status -> {
+            StockAllocation allocation = new StockAllocation();
+            allocation.setQuantity(quantity);
+            allocation.setReservedQuantity(reserved);
+            entityManager.persist(allocation);
+            return allocation.getId();
+        });
+    }
+
+    private StockAllocation find(long allocationId) {
+        return transactionTemplate.execute(status -> entityManager.find(StockAllocation.class, allocationId));
+    }
+}
@@ -0,0 +1,373 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.H2PersistenceUnit;
+import za.co.pms.repository.StockAllocationRepositoryImpl;
+
+import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Drives many threads at a few hot {@link StockAllocation} rows on embedded H2 and measures a
+ * {@link Strategy}: throughput, conflict rate, p50/p99 latency and invariant violations (reserved
+ * above on-hand, below zero, or different from what the workers were told they reserved). The
+ * schema comes from the entity model and each worker has its own {@link EntityManager}, with
+ * connections at {@code TRANSACTION_REPEATABLE_READ} as configured for the application pool. New
+ * reservation strategies plug in by implementing {@link Strategy}.
+ **/
+@Slf4j
+final class ReservationStressHarness {
+
+    private static final String LEVELS = "select s.id, s.quantity, s.reservedQuantity from StockAllocation s order by s.id";
+
+    /**
+     * Reservation path under test. Runs on the worker's entity manager and owns its transaction:
+     * it begins, then commits or rolls back. A {@link PersistenceException} escaping it
+     * counts as a lost race.
+     */
+    interface Strategy {
+        String name();
+
+        Outcome reserve(EntityManager entityManager, long allocationId, int amount);
+
+        Outcome release(EntityManager entityManager, long allocationId, int amount);
+    }
+
+    enum Outcome {
+        APPLIED,    // Committed
+        SHORT,      // Refused by a business rule
+        CONFLICT    // Lost a race; retried up to the configured limit
+    }
+
+    record Workload(int threads, boolean virtualThreads, int operationsPerThread, int hotAllocations,
+                    int stockPerAllocation, double releaseRatio, int maxRetries) {
+    }
+
+    record Report(String strategy, int threads, long operations, long applied, long shortOperations, long conflicts,
+                  long failures, double operationsPerSecond, long p50Micros, long p99Micros,
+                  List<String> violations) {
+
+        double conflictRate() {
+            long attempts = operations + conflicts;
+            return attempts == 0 ? 0 : (double) conflicts / attempts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-20s threads=%d ops=%d applied=%d short=%d conflicts=%.1f%% failed=%d "
+                            + "throughput=%.0f ops/s p50=%dus p99=%dus violations=%d",
+                    strategy, threads, operations, applied, shortOperations, conflictRate() * 100, failures,
+                    operationsPerSecond, p50Micros, p99Micros, violations.size());
+        }
+    }
+
+    private ReservationStressHarness() {
+    }
+
+    static Report run(Strategy strategy, Workload workload) throws Exception {
+        try (H2PersistenceUnit persistenceUnit = H2PersistenceUnit.start("stock_stress",
+                Map.of(H2PersistenceUnit.ISOLATION, Connection.TRANSACTION_REPEATABLE_READ))) {
+            return run(persistenceUnit, strategy, workload);
+        }
+    }
+
+    private static Report run(H2PersistenceUnit persistenceUnit, Strategy strategy, Workload workload) throws Exception {
+        long[] allocationIds = populate(persistenceUnit, workload);
+        AtomicLongArray granted = new AtomicLongArray(allocationIds.length);
+        LongAdder applied = new LongAdder();
+        LongAdder shortOperations = new LongAdder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder failures = new LongAdder();
+        long[][] latencies = new long[workload.threads()][];
+        CountDownLatch ready = new CountDownLatch(workload.threads());
+        CountDownLatch go = new CountDownLatch(1);
+
+        ExecutorService executor = executor(workload);
+        List<Future<?>> futures = new ArrayList<>(workload.threads());
+        for (int t = 0; t < workload.threads(); t++) {
+            int worker = t;
+            futures.add(executor.submit(() -> {
+                EntityManager entityManager = persistenceUnit.entityManagerFactory().createEntityManager();
+                try {
+                    SplittableRandom random = new SplittableRandom(worker);
+                    Deque<Integer> held = new ArrayDeque<>();
+                    long[] samples = new long[workload.operationsPerThread()];
+                    ready.countDown();
+                    go.await();
+                    for (int op = 0; op < samples.length; op++) {
+                        boolean release = !held.isEmpty() && random.nextDouble() < workload.releaseRatio();
+                        int hot = release ? held.peek() : random.nextInt(allocationIds.length);
+                        long started = System.nanoTime();
+                        Outcome outcome = Outcome.CONFLICT;
+                        for (int attempt = 0; attempt <= workload.maxRetries() && outcome == Outcome.CONFLICT; attempt++) {
+                            try {
+                                outcome = release ? strategy.release(entityManager, allocationIds[hot], 1)
+                                        : strategy.reserve(entityManager, allocationIds[hot], 1);
+                            } catch (PersistenceException e) {
+                                // Lock timeouts and H2's concurrent-update errors are lost races too
+                                outcome = Outcome.CONFLICT;
+                            } finally {
+                                if (entityManager.getTransaction().isActive()) {
+                                    entityManager.getTransaction().rollback();
+                                }
+                                entityManager.clear();
+                            }
+                            if (outcome == Outcome.CONFLICT) {
+                                conflicts.increment();
+                            }
+                        }
+                        samples[op] = System.nanoTime() - started;
+                        switch (outcome) {
+                            case APPLIED -> {
+                                applied.increment();
+                                if (release) {
+                                    held.pop();
+                                    granted.decrementAndGet(hot);
+                                } else {
+                                    held.push(hot);
+                                    granted.incrementAndGet(hot);
+                                }
+                            }
+                            case SHORT -> shortOperations.increment();
+                            case CONFLICT -> failures.increment();
+                        }
+                    }
+                    latencies[worker] = samples;
+                } finally {
+                    entityManager.close();
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        long started = System.nanoTime();
+        go.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long operations = all.length;
+        return new Report(strategy.name(), workload.threads(), operations, applied.sum(), shortOperations.sum(),
+                conflicts.sum(), failures.sum(), operations * 1e9 / elapsedNanos,
+                percentile(all, 0.50) / 1_000, percentile(all, 0.99) / 1_000,
+                checkInvariants(persistenceUnit, allocationIds, granted));
+    }
+
+    /**
+     * The JPA path: load the entity, apply {@link StockAllocation#reserve}/{@link StockAllocation#release}
+     * and flush, letting Hibernate's {@code @Version} check decide
+     */
+    static final Strategy ENTITY_OPTIMISTIC = new Strategy() {
+        @Override
+        public String name() {
+            return "entity-optimistic";
+        }
+
+        @Override
+        public Outcome reserve(EntityManager entityManager, long allocationId, int amount) {
+            return versioned(entityManager, allocationId, allocation -> allocation.reserve(amount));
+        }
+
+        @Override
+        public Outcome release(EntityManager entityManager, long allocationId, int amount) {
+            return versioned(entityManager, allocationId, allocation -> allocation.release(amount));
+        }
+    };
+
+    /**
+     * One conditional statement per operation through {@link StockAllocationRepositoryImpl}, on the
+     * entity manager's connection
+     */
+    static final Strategy CONDITIONAL_UPDATE = new Strategy() {
+        @Override
+        public String name() {
+            return "conditional-update";
+        }
+
+        @Override
+        public Outcome reserve(EntityManager entityManager, long allocationId, int amount) {
+            return conditional(entityManager, repository -> repository.reserveIfAvailable(allocationId, amount));
+        }
+
+        @Override
+        public Outcome release(EntityManager entityManager, long allocationId, int amount) {
+            return conditional(entityManager, repository -> repository.releaseIfReserved(allocationId, amount));
+        }
+    };
+
+    /**
+     * Load the entity with {@code PESSIMISTIC_WRITE}, then the entity's business rule and a flush
+     */
+    static final Strategy PESSIMISTIC = new Strategy() {
+        @Override
+        public String name() {
+            return "pessimistic";
+        }
+
+        @Override
+        public Outcome reserve(EntityManager entityManager, long allocationId, int amount) {
+            return locked(entityManager, allocationId, allocation -> allocation.reserve(amount));
+        }
+
+        @Override
+        public Outcome release(EntityManager entityManager, long allocationId, int amount) {
+            return locked(entityManager, allocationId, allocation -> allocation.release(amount));
+        }
+    };
+
+    private static Outcome versioned(EntityManager entityManager, long allocationId, Change change) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        StockAllocation allocation = entityManager.find(StockAllocation.class, allocationId);
+        if (!applies(change, allocation)) {
+            transaction.rollback();
+            return Outcome.SHORT;
+        }
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            // Another transaction bumped the version since our read
+            transaction.rollback();
+            return Outcome.CONFLICT;
+        }
+        transaction.commit();
+        return Outcome.APPLIED;
+    }
+
+    private static Outcome locked(EntityManager entityManager, long allocationId, Change change) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        StockAllocation allocation = entityManager.find(StockAllocation.class, allocationId, LockModeType.PESSIMISTIC_WRITE);
+        if (!applies(change, allocation)) {
+            transaction.rollback();
+            return Outcome.SHORT;
+        }
+        transaction.commit();
+        return Outcome.APPLIED;
+    }
+
+    private static Outcome conditional(EntityManager entityManager, Condition condition) {
+        EntityTransaction transaction = entityManager.getTransaction();
+        transaction.begin();
+        boolean applied = entityManager.unwrap(Session.class).doReturningWork(connection -> condition.apply(
+                new StockAllocationRepositoryImpl(new JdbcTemplate(new SingleConnectionDataSource(connection, true)))));
+        if (applied) {
+            transaction.commit();
+            return Outcome.APPLIED;
+        }
+        transaction.rollback();
+        return Outcome.SHORT;
+    }
+
+    private static boolean applies(Change change, StockAllocation allocation) {
+        try {
+            change.apply(allocation);
+            return true;
+        } catch (InsufficientStockException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static long[] populate(H2PersistenceUnit persistenceUnit, Workload workload) {
+        EntityManager entityManager = persistenceUnit.entityManagerFactory().createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            long[] ids = new long[workload.hotAllocations()];
+            for (int i = 0; i < ids.length; i++) {
+                StockAllocation allocation = new StockAllocation();
+                allocation.setQuantity(workload.stockPerAllocation());
+                entityManager.persist(allocation);
+                ids[i] = allocation.getId();
+            }
+            entityManager.getTransaction().commit();
+            return ids;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static List<String> checkInvariants(H2PersistenceUnit persistenceUnit, long[] allocationIds,
+                                                AtomicLongArray granted) {
+        EntityManager entityManager = persistenceUnit.entityManagerFactory().createEntityManager();
+        try {
+            List<String> violations = new ArrayList<>();
+            List<Object[]> rows = entityManager.createQuery(LEVELS, Object[].class).getResultList();
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                int quantity = (Integer) row[1];
+                int reserved = (Integer) row[2];
+                long held = granted.get(Arrays.binarySearch(allocationIds, id));
+                if (reserved > quantity) {
+                    violations.add("Allocation " + id + " oversold: reserved " + reserved + " of " + quantity);
+                }
+                if (reserved < 0) {
+                    violations.add("Allocation " + id + " reserved below zero: " + reserved);
+                }
+                if (reserved != held) {
+                    violations.add("Allocation " + id + " reserved " + reserved + " but workers hold " + held);
+                }
+            }
+            return violations;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static ExecutorService executor(Workload workload) {
+        if (workload.virtualThreads()) {
+            try {
+                // Looked up reflectively: the toolchain targets JDK 17, virtual threads need JDK 21
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.info("Virtual threads are not available on this JDK; using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(workload.threads());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    @FunctionalInterface
+    private interface Change {
+        void apply(StockAllocation allocation);
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean apply(StockAllocationRepositoryImpl repository);
+    }
+}
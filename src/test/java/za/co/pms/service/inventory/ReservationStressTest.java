@@ -0,0 +1,62 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import za.co.pms.service.inventory.ReservationStressHarness.Report;
+import za.co.pms.service.inventory.ReservationStressHarness.Strategy;
+import za.co.pms.service.inventory.ReservationStressHarness.Workload;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Contention on a few hot allocations: every reservation strategy must keep reserved stock within
+ * on-hand and equal to what callers were granted, under platform and (on JDK 21+) virtual threads.
+ **/
+@Slf4j
+@DisplayName("Stock reservation stress test")
+class ReservationStressTest {
+    private static final List<Strategy> STRATEGIES = List.of(
+            ReservationStressHarness.ENTITY_OPTIMISTIC,
+            ReservationStressHarness.CONDITIONAL_UPDATE,
+            ReservationStressHarness.PESSIMISTIC);
+
+    @Test
+    @DisplayName("Should never oversell under platform-thread contention")
+    void platformThreads_shouldKeepInvariants() throws Exception {
+        // Demand (200 x 25 reservations, less releases) exceeds the 4 x 500 units on hand
+        Workload workload = new Workload(200, false, 25, 4, 500, 0.3, 20);
+
+        for (Strategy strategy : STRATEGIES) {
+            // Act
+            Report report = ReservationStressHarness.run(strategy, workload);
+            log.info("{}", report);
+
+            // Assert
+            assertThat(report.violations()).as(strategy.name()).isEmpty();
+            assertThat(report.operations()).isEqualTo(200L * 25);
+            assertThat(report.applied()).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Should never oversell with thousands of threads on two allocations")
+    void thousandsOfThreads_shouldKeepInvariants() throws Exception {
+        // Virtual threads where the JDK has them, platform threads otherwise
+        Workload workload = new Workload(2_000, true, 5, 2, 1_000, 0.2, 50);
+
+        for (Strategy strategy : STRATEGIES) {
+            // Act
+            Report report = ReservationStressHarness.run(strategy, workload);
+            log.info("{}", report);
+
+            // Assert
+            assertThat(report.violations()).as(strategy.name()).isEmpty();
+            assertThat(report.p99Micros()).isGreaterThanOrEqualTo(report.p50Micros());
+        }
+    }
+}
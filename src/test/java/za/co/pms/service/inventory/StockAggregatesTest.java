@@ -0,0 +1,176 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockAggregates Unit Tests")
+class StockAggregatesTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Object[]> ownersQuery;
+    @Mock
+    private TypedQuery<Object[]> totalsQuery;
+
+    private final StockMovementPublisher publisher = new StockMovementPublisher();
+    private StockAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        aggregates = new StockAggregates(publisher, transactionManager, 0);
+        ReflectionTestUtils.setField(aggregates, "entityManager", entityManager);
+        when(entityManager.createQuery(StockAggregates.ALLOCATION_OWNERS, Object[].class)).thenReturn(ownersQuery);
+        when(entityManager.createQuery(StockAggregates.WAREHOUSE_TOTALS, Object[].class)).thenReturn(totalsQuery);
+        when(ownersQuery.getResultStream()).thenReturn(rows(
+                new Object[]{1L, 10L, 100L, 1L},
+                new Object[]{2L, 10L, 100L, 2L},
+                new Object[]{3L, 20L, 100L, 1L}).stream());
+        when(totalsQuery.getResultStream()).thenReturn(rows(
+                new Object[]{10L, 100L, 1L, 20L, 5L},
+                new Object[]{10L, 100L, 2L, 30L, 0L},
+                new Object[]{20L, 100L, 1L, 30L, 0L}).stream());
+        aggregates.start();
+    }
+
+    @Test
+    @DisplayName("Should load variant and product totals from one grouped query")
+    void start_shouldLoadTotals() {
+        assertThat(aggregates.variant(10L)).isEqualTo(new StockTotals(50, 5));
+        assertThat(aggregates.product(100L)).isEqualTo(new StockTotals(80, 5));
+        assertThat(aggregates.product(100L).available()).isEqualTo(75);
+        assertThat(aggregates.variant(99L)).isEqualTo(StockTotals.NONE);
+    }
+
+    @Test
+    @DisplayName("Should keep each variant's totals per warehouse")
+    void variantInWarehouse_shouldTrackMovements() {
+        // Act
+        publisher.publish(StockMovement.reserved(2L, 4));
+
+        // Assert
+        assertThat(aggregates.variant(10L, 1L)).isEqualTo(new StockTotals(20, 5));
+        assertThat(aggregates.variant(10L, 2L)).isEqualTo(new StockTotals(30, 4));
+        assertThat(aggregates.variant(20L, 2L)).isEqualTo(StockTotals.NONE);
+    }
+
+    @Test
+    @DisplayName("Should move variant and product counters on every published movement")
+    void onMovement_shouldUpdateCounters_withoutQueries() {
+        // Act
+        publisher.publish(StockMovement.reserved(1L, 4));
+        publisher.publish(StockMovement.released(2L, 1));
+        publisher.publish(StockMovement.adjusted(3L, -10));
+
+        // Assert
+        assertThat(aggregates.variant(10L)).isEqualTo(new StockTotals(50, 8));
+        assertThat(aggregates.variant(20L)).isEqualTo(new StockTotals(20, 0));
+        assertThat(aggregates.product(100L)).isEqualTo(new StockTotals(70, 8));
+        verify(entityManager, never()).createQuery(StockAggregates.ALLOCATION_OWNER, Object[].class);
+    }
+
+    @Test
+    @DisplayName("Should report variant availability before and after each movement")
+    void onMovement_shouldNotifyAvailabilityListeners() {
+        // Arrange
+        List<long[]> changes = new ArrayList<>();
+        aggregates.register((variantId, previous, available) -> changes.add(new long[]{variantId, previous, available}));
+
+        // Act
+        publisher.publish(StockMovement.reserved(1L, 4));
+        publisher.publish(new StockMovement(3L, 5, 5));
+
+        // Assert
+        assertThat(changes).containsExactly(new long[]{10L, 45L, 41L});
+    }
+
+    @Test
+    @DisplayName("Should repair drift only when two consecutive checks agree")
+    void reconcile_shouldCorrectStableDrift_only() {
+        // Arrange: a movement was lost, so the database is 3 reserved ahead of the counters
+        when(totalsQuery.getResultList()).thenReturn(rows(
+                new Object[]{10L, 100L, 1L, 20L, 5L},
+                new Object[]{10L, 100L, 2L, 30L, 3L},
+                new Object[]{20L, 100L, 1L, 30L, 0L}));
+
+        // Act
+        ReconciliationReport first = aggregates.reconcile();
+        ReconciliationReport second = aggregates.reconcile();
+        ReconciliationReport third = aggregates.reconcile();
+
+        // Assert
+        assertThat(first.drifted()).containsExactly(10L);
+        assertThat(first.corrected()).isEmpty();
+        assertThat(second.corrected()).containsExactly(10L);
+        assertThat(third.isClean()).isTrue();
+        assertThat(aggregates.variant(10L)).isEqualTo(new StockTotals(50, 8));
+        assertThat(aggregates.product(100L)).isEqualTo(new StockTotals(80, 8));
+        assertThat(aggregates.variant(10L, 2L)).isEqualTo(new StockTotals(30, 3));
+    }
+
+    @Test
+    @DisplayName("Should repair warehouse counters even when the variant totals agree")
+    void reconcile_shouldCorrectWarehouseDrift() {
+        // Arrange: ten units moved from warehouse 1 to warehouse 2 without a movement reaching the counters
+        when(totalsQuery.getResultList()).thenReturn(rows(
+                new Object[]{10L, 100L, 1L, 10L, 5L},
+                new Object[]{10L, 100L, 2L, 40L, 0L},
+                new Object[]{20L, 100L, 1L, 30L, 0L}));
+
+        // Act
+        ReconciliationReport first = aggregates.reconcile();
+        ReconciliationReport second = aggregates.reconcile();
+
+        // Assert
+        assertThat(first.drifted()).containsExactly(10L);
+        assertThat(second.corrected()).containsExactly(10L);
+        assertThat(aggregates.reconcile().isClean()).isTrue();
+        assertThat(aggregates.variant(10L, 1L)).isEqualTo(new StockTotals(10, 5));
+        assertThat(aggregates.variant(10L, 2L)).isEqualTo(new StockTotals(40, 0));
+        assertThat(aggregates.variant(10L)).isEqualTo(new StockTotals(50, 5));
+        assertThat(aggregates.product(100L)).isEqualTo(new StockTotals(80, 5));
+    }
+
+    @Test
+    @DisplayName("Should clear the counters of a warehouse that no longer holds the variant")
+    void reconcile_shouldClearVanishedWarehouse() {
+        // Arrange: the allocation of variant 10 in warehouse 2 is gone
+        when(totalsQuery.getResultList()).thenReturn(rows(
+                new Object[]{10L, 100L, 1L, 20L, 5L},
+                new Object[]{20L, 100L, 1L, 30L, 0L}));
+
+        // Act
+        aggregates.reconcile();
+        ReconciliationReport second = aggregates.reconcile();
+
+        // Assert
+        assertThat(second.corrected()).containsExactly(10L);
+        assertThat(aggregates.variant(10L, 2L)).isEqualTo(new StockTotals(0, 0));
+        assertThat(aggregates.variant(10L)).isEqualTo(new StockTotals(20, 5));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
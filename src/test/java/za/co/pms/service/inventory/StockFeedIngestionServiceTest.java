@@ -0,0 +1,190 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.QuantityLine;
+import za.co.pms.repository.projection.AllocationLevels;
+import za.co.pms.repository.projection.SkuAllocation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockFeedIngestionService Unit Tests")
+class StockFeedIngestionServiceTest {
+
+    @Mock
+    private StockAllocationRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final StockMovementPublisher publisher = new StockMovementPublisher();
+    private final List<StockMovement> movements = new CopyOnWriteArrayList<>();
+    private StockFeedIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        publisher.register(movements::add);
+        service = new StockFeedIngestionService(repository, publisher, transactionManager, 4, 2);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    @DisplayName("Should set changed counts in sorted batches and report every reject")
+    void ingest_shouldApplyCounts_andWriteRejects() throws IOException {
+        // Arrange
+        stubWarehouse("JHB", Map.of(
+                1L, new AllocationLevels(1L, null, null, 7, 0),
+                2L, new AllocationLevels(2L, null, null, 10, 4),
+                3L, new AllocationLevels(3L, null, null, 5, 0)));
+        Path feed = write("jhb.csv",
+                "warehouse_code,sku,quantity",
+                "JHB,SKU-3,10",
+                "JHB,6001234567890,7",
+                "JHB,SKU-2,1",
+                "JHB,SKU-404,3",
+                "JHB,SKU-3,11",
+                "CPT,SKU-1,1",
+                "JHB,SKU-1",
+                "JHB,SKU-1,-1");
+
+        // Act
+        StockFeedReport report = service.ingest(feed);
+
+        // Assert
+        assertThat(report).isEqualTo(new StockFeedReport("jhb.csv", "JHB", 8, 1, 1, 6, report.elapsedMillis(), null));
+        verify(repository).lockLevels(List.of(1L, 3L));
+        verify(repository).setQuantities(List.of(new QuantityLine(3L, 10)));
+        assertThat(movements).containsExactly(StockMovement.adjusted(3L, 5));
+        assertThat(Files.readAllLines(directory.resolve("jhb.csv" + StockFeedIngestionService.REJECTS_SUFFIX)))
+                .containsExactlyInAnyOrder(
+                        "4\tNew quantity cannot be less than reserved quantity\tJHB,SKU-2,1",
+                        "5\tUnknown SKU\tJHB,SKU-404,3",
+                        "6\tDuplicate count for SKU\tJHB,SKU-3,11",
+                        "7\tRow for another warehouse\tCPT,SKU-1,1",
+                        "8\tMalformed row\tJHB,SKU-1",
+                        "9\tQuantity cannot be negative\tJHB,SKU-1,-1");
+    }
+
+    @Test
+    @DisplayName("Should ingest warehouses in parallel and reject every row of an unknown one")
+    void ingest_shouldReportPerFile_inGivenOrder() throws IOException {
+        // Arrange
+        stubWarehouse("JHB", Map.of(1L, new AllocationLevels(1L, null, null, 7, 0)));
+        when(repository.warehouseExists("XXX")).thenReturn(false);
+        Path known = write("jhb.csv", "JHB,SKU-1,9");
+        Path unknown = write("xxx.csv", "XXX,SKU-1,1", "XXX,SKU-2,2");
+
+        // Act
+        List<StockFeedReport> reports = service.ingest(List.of(unknown, known));
+
+        // Assert
+        assertThat(reports).extracting(StockFeedReport::warehouseCode).containsExactly("XXX", "JHB");
+        assertThat(reports.get(0).rejected()).isEqualTo(2);
+        assertThat(reports.get(1).updated()).isEqualTo(1);
+        assertThat(reports).allMatch(StockFeedReport::isComplete);
+        assertThat(Files.readAllLines(directory.resolve("xxx.csv" + StockFeedIngestionService.REJECTS_SUFFIX)))
+                .allMatch(line -> line.contains("Unknown warehouse"));
+    }
+
+    @Test
+    @DisplayName("Should stream a million feed rows across warehouses")
+    void ingest_shouldSustainMillionsOfRows() throws IOException {
+        // Arrange: four warehouses of 250k SKUs, every count changed
+        int perWarehouse = 250_000;
+        List<SkuAllocation> skus = new ArrayList<>(perWarehouse);
+        for (long id = 1; id <= perWarehouse; id++) {
+            skus.add(new SkuAllocation(id, "SKU-" + id, null));
+        }
+        when(repository.warehouseExists(anyString())).thenReturn(true);
+        when(repository.findSkuAllocations(anyString())).thenReturn(skus);
+        when(repository.lockLevels(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new AllocationLevels(id, null, null, 0, 0)).toList();
+        });
+        when(repository.setQuantities(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        service.stop();
+        service = new StockFeedIngestionService(repository, publisher, transactionManager, 4, 1_000);
+        service.start();
+        List<Path> files = new ArrayList<>();
+        for (String warehouse : List.of("JHB", "CPT", "DBN", "PLZ")) {
+            Path file = directory.resolve(warehouse + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                for (int id = perWarehouse; id >= 1; id--) {
+                    writer.write(warehouse + ",SKU-" + id + "," + (1 + id % 50));
+                    writer.newLine();
+                }
+            }
+            files.add(file);
+        }
+
+        // Act
+        long started = System.nanoTime();
+        List<StockFeedReport> reports = service.ingest(files);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        // Assert
+        long rows = reports.stream().mapToLong(StockFeedReport::rows).sum();
+        log.info("Stock feed ingestion: {} rows in {} ms ({} rows/s, database mocked)", rows, elapsedMillis,
+                rows * 1000 / elapsedMillis);
+        assertThat(rows).isEqualTo(4L * perWarehouse);
+        assertThat(reports).allMatch(report -> report.updated() == perWarehouse && report.rejected() == 0);
+    }
+
+    private void stubWarehouse(String code, Map<Long, AllocationLevels> levels) {
+        when(repository.warehouseExists(code)).thenReturn(true);
+        when(repository.findSkuAllocations(code)).thenReturn(List.of(
+                new SkuAllocation(1L, "SKU-1", "6001234567890"),
+                new SkuAllocation(2L, "SKU-2", null),
+                new SkuAllocation(3L, "SKU-3", null)));
+        when(repository.lockLevels(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(levels::get).filter(Objects::nonNull).toList();
+        });
+        when(repository.setQuantities(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines));
+    }
+}
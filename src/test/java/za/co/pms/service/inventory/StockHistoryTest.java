@@ -0,0 +1,191 @@
+package za.co.pms.service.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockHistory Unit Tests")
+class StockHistoryTest {
+    private static final int SEGMENT = MappedStockJournal.RECORD_SIZE * 4;
+
+    @Mock
+    private StockAllocationRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final StockMovementPublisher publisher = new StockMovementPublisher();
+    private final MutableClock clock = new MutableClock(1_000);
+    private StockHistory history;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAllLevels()).thenReturn(List.of(
+                new AllocationLevels(1L, 10L, 100L, 50, 0),
+                new AllocationLevels(2L, 10L, 200L, 20, 4)));
+        history = newHistory(4);
+        history.start();
+    }
+
+    @Test
+    @DisplayName("Should rebuild allocation levels as of any instant")
+    void stateAt_shouldReplayFromNearestSnapshot() {
+        // Arrange
+        at(2_000, StockMovement.reserved(1L, 5));
+        clock.set(3_000);
+        history.snapshot();
+        at(4_000, StockMovement.adjusted(1L, -10));
+        at(5_000, StockMovement.released(1L, 2));
+        at(5_000, new StockMovement(2L, -20, -4));
+
+        // Act / Assert
+        assertThat(history.stateAt(1L, Instant.ofEpochMilli(1_500))).isEqualTo(new AllocationState(50, 0));
+        assertThat(history.stateAt(1L, Instant.ofEpochMilli(2_000))).isEqualTo(new AllocationState(50, 5));
+        assertThat(history.stateAt(1L, Instant.ofEpochMilli(4_999))).isEqualTo(new AllocationState(40, 5));
+        assertThat(history.stateAt(Instant.ofEpochMilli(5_000)))
+                .containsOnlyKeys(1L)
+                .containsEntry(1L, new AllocationState(40, 3));
+        assertThatThrownBy(() -> history.stateAt(Instant.ofEpochMilli(999)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No stock history before");
+    }
+
+    @Test
+    @DisplayName("Should recover levels from snapshot and journal after a restart")
+    void start_shouldRecover_withoutReadingAllocations() {
+        // Arrange: enough movements to roll several journal segments
+        for (int i = 1; i <= 12; i++) {
+            at(1_000 + i, StockMovement.reserved(1L, 1));
+        }
+        history.stop();
+
+        // Act
+        StockHistory restarted = newHistory(4);
+        restarted.start();
+        clock.set(2_000);
+        restarted.onMovement(StockMovement.released(1L, 2));
+
+        // Assert
+        assertThat(restarted.stateAt(1L, Instant.ofEpochMilli(1_006))).isEqualTo(new AllocationState(50, 6));
+        assertThat(restarted.stateAt(1L, Instant.ofEpochMilli(2_000))).isEqualTo(new AllocationState(50, 10));
+        verify(repository, times(1)).findAllLevels();
+    }
+
+    @Test
+    @DisplayName("Should forget history older than the retained snapshots")
+    void snapshot_shouldDropHistoryBeyondRetention() {
+        // Arrange
+        history.stop();
+        history = newHistory(2);
+        history.start();
+
+        // Act
+        for (int i = 1; i <= 3; i++) {
+            at(1_000 * (i + 1), StockMovement.reserved(1L, i));
+            history.snapshot();
+        }
+
+        // Assert
+        assertThat(history.stateAt(1L, Instant.ofEpochMilli(3_000))).isEqualTo(new AllocationState(50, 3));
+        assertThatThrownBy(() -> history.stateAt(Instant.ofEpochMilli(2_500)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should replay a consistent history while snapshots roll past it")
+    void stateAt_shouldKeepItsSnapshot_whileRetentionDeletes() throws Exception {
+        // Arrange: one snapshot retained, so every new one deletes the last and truncates the journal
+        history.stop();
+        history = newHistory(1);
+        history.start();
+        clock.set(2_000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread snapshotter = new Thread(() -> {
+            while (running.get()) {
+                history.snapshot();
+            }
+        });
+        snapshotter.start();
+
+        // Act / Assert
+        try {
+            for (int i = 1; i <= 200; i++) {
+                history.onMovement(StockMovement.reserved(1L, 1));
+                assertThat(history.stateAt(1L, Instant.ofEpochMilli(2_000))).isEqualTo(new AllocationState(50, i));
+            }
+        } finally {
+            running.set(false);
+            snapshotter.join();
+        }
+    }
+
+    private StockHistory newHistory(int snapshotsRetained) {
+        return new StockHistory(publisher, repository, transactionManager, directory.resolve("movements"), SEGMENT,
+                0, snapshotsRetained, clock);
+    }
+
+    private void at(long millis, StockMovement movement) {
+        clock.set(millis);
+        publisher.publish(movement);
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis;
+
+        private MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        private void set(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
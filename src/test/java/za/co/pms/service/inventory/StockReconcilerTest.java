@@ -0,0 +1,176 @@
+package za.co.pms.service.inventory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.LevelsConsumer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReconciler Unit Tests")
+class StockReconcilerTest {
+
+    @Mock
+    private StockAllocationRepository repository;
+    @Mock
+    private StockHistory history;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockReconciler reconciler;
+
+    @AfterEach
+    void tearDown() {
+        if (reconciler != null) {
+            reconciler.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should agree at the root when both sources hold the same levels")
+    void reconcile_shouldBeCleanForEqualSources() {
+        // Arrange
+        reconciler = reconciler(1024, 64);
+        Map<Long, AllocationState> levels = levels(5_000);
+
+        // Act
+        StockReconciliationReport report = reconciler.reconcile(StockStateSource.of("a", levels),
+                StockStateSource.of("b", new HashMap<>(levels)));
+
+        // Assert
+        assertThat(report.isClean()).isTrue();
+        assertThat(report.partitions()).isEqualTo(5);
+        assertThat(report.partitionsDiffering()).isZero();
+        assertThat(report.leavesDiffering()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drill only into the leaves that differ and report each allocation")
+    void reconcile_shouldReportMismatchesFromDifferingLeavesOnly() {
+        // Arrange
+        reconciler = reconciler(1024, 64);
+        Map<Long, AllocationState> expected = levels(5_000);
+        Map<Long, AllocationState> actual = new HashMap<>(expected);
+        actual.put(10L, new AllocationState(10, 1));
+        actual.remove(3_000L);
+        actual.put(4_999L, new AllocationState(4_999, 3));
+        CountingSource counted = new CountingSource(StockStateSource.of("actual", actual));
+
+        // Act
+        StockReconciliationReport report = reconciler.reconcile(StockStateSource.of("expected", expected), counted);
+
+        // Assert
+        assertThat(report.mismatches()).containsExactlyInAnyOrder(
+                new AllocationMismatch(10L, new AllocationState(10, 0), new AllocationState(10, 1)),
+                new AllocationMismatch(3_000L, new AllocationState(3_000, 0), AllocationState.EMPTY),
+                new AllocationMismatch(4_999L, new AllocationState(4_999, 0), new AllocationState(4_999, 3)));
+        assertThat(report.partitionsDiffering()).isEqualTo(3);
+        assertThat(report.leavesDiffering()).isEqualTo(3);
+        // One scan per partition, then one per differing leaf
+        assertThat(counted.scans.get()).isEqualTo(5 + 3);
+    }
+
+    @Test
+    @DisplayName("Should treat allocations holding nothing as absent")
+    void reconcile_shouldIgnoreEmptyAllocations() {
+        // Arrange
+        reconciler = reconciler(1024, 64);
+        Map<Long, AllocationState> expected = levels(100);
+        Map<Long, AllocationState> actual = new HashMap<>(expected);
+        actual.put(50L, AllocationState.EMPTY);
+        expected.remove(50L);
+
+        // Act
+        StockReconciliationReport report = reconciler.reconcile(StockStateSource.of("expected", expected),
+                StockStateSource.of("actual", actual));
+
+        // Assert
+        assertThat(report.isClean()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should compare the database with the stock history replica")
+    void reconcile_shouldCompareDatabaseWithHistory() {
+        // Arrange
+        reconciler = reconciler(1024, 64);
+        when(repository.findMaxId()).thenReturn(3L);
+        doAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            LevelsConsumer consumer = invocation.getArgument(2);
+            for (long id = Math.max(from, 1); id < Math.min(to, 4); id++) {
+                consumer.accept(id, 20, id == 2 ? 5 : 0);
+            }
+            return null;
+        }).when(repository).scanLevels(anyLong(), anyLong(), any());
+        when(history.currentState()).thenReturn(Map.of(
+                1L, new AllocationState(20, 0),
+                2L, new AllocationState(20, 4),
+                3L, new AllocationState(20, 0)));
+
+        // Act
+        StockReconciliationReport report = reconciler.reconcile();
+
+        // Assert
+        assertThat(report.expectedSource()).isEqualTo("database");
+        assertThat(report.actualSource()).isEqualTo("stock-history");
+        assertThat(report.mismatches()).containsExactly(
+                new AllocationMismatch(2L, new AllocationState(20, 5), new AllocationState(20, 4)));
+    }
+
+    private StockReconciler reconciler(long partitionSize, int leafSize) {
+        StockReconciler reconciler = new StockReconciler(repository, history, transactionManager, 4,
+                partitionSize, leafSize, 0);
+        reconciler.start();
+        return reconciler;
+    }
+
+    private static Map<Long, AllocationState> levels(int count) {
+        Map<Long, AllocationState> levels = new HashMap<>();
+        for (long id = 1; id <= count; id++) {
+            levels.put(id, new AllocationState((int) id, 0));
+        }
+        return levels;
+    }
+
+    private record CountingSource(StockStateSource delegate, AtomicInteger scans) implements StockStateSource {
+
+        CountingSource(StockStateSource delegate) {
+            this(delegate, new AtomicInteger());
+        }
+
+        @Override
+        public String name() {
+            return delegate.name();
+        }
+
+        @Override
+        public long maxAllocationId() {
+            return delegate.maxAllocationId();
+        }
+
+        @Override
+        public void scan(long fromId, long toId, Visitor visitor) {
+            scans.incrementAndGet();
+            delegate.scan(fromId, toId, visitor);
+        }
+    }
+}
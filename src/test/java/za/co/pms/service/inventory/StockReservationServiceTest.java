@@ -0,0 +1,111 @@
+package za.co.pms.service.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.ReservationLine;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Unit Tests")
+class StockReservationServiceTest {
+
+    @Mock
+    private StockAllocationRepository repository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockReservationService(repository, new StockMovementPublisher(), transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should send merged lines in ascending allocation order")
+    void reserveOrder_shouldMergeAndSortLines() {
+        // Arrange
+        when(repository.reserveBatch(anyList())).thenReturn(new int[]{1, 1, 1});
+
+        // Act
+        service.reserveOrder(List.of(
+                new ReservationLine(30L, 1),
+                new ReservationLine(10L, 2),
+                new ReservationLine(30L, 4),
+                new ReservationLine(20L, 1)));
+
+        // Assert
+        verify(repository).reserveBatch(List.of(
+                new ReservationLine(10L, 2),
+                new ReservationLine(20L, 1),
+                new ReservationLine(30L, 5)));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should roll the whole order back when any line is short")
+    void reserveOrder_shouldRollBack_whenALineAffectsNoRows() {
+        // Arrange
+        when(repository.reserveBatch(anyList())).thenReturn(new int[]{1, 0, 1});
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.reserveOrder(List.of(
+                new ReservationLine(1L, 1),
+                new ReservationLine(2L, 1),
+                new ReservationLine(3L, 1))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("[2]");
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse to guess when the driver hides per-statement counts")
+    void reserveOrder_shouldFail_whenCountsAreUnknown() {
+        // Arrange
+        when(repository.reserveBatch(anyList())).thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.reserveOrder(List.of(new ReservationLine(1L, 1))))
+                .isInstanceOf(IllegalStateException.class);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should report a single reservation by affected-row count")
+    void tryReserve_shouldReturnRepositoryOutcome() {
+        // Arrange
+        when(repository.reserveIfAvailable(5L, 3)).thenReturn(true, false);
+
+        // Act & Assert
+        assertThat(service.tryReserve(5L, 3)).isTrue();
+        assertThat(service.tryReserve(5L, 3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive amounts before touching the database")
+    void reserveOrder_shouldRejectNonPositiveAmounts() {
+        assertThatThrownBy(() -> service.reserveOrder(List.of(new ReservationLine(1L, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,107 @@
+package za.co.pms.service.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import za.co.pms.enums.StockLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockThresholdMonitor Unit Tests")
+class StockThresholdMonitorTest {
+
+    @Mock
+    private StockAggregates aggregates;
+
+    private StockThresholdMonitor monitor;
+    private final List<StockThresholdEvent> delivered = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        monitor = new StockThresholdMonitor(aggregates, 0, 3, 10);
+        monitor.start();
+        monitor.register(delivered::addAll);
+    }
+
+    @Test
+    @DisplayName("Should map available units to levels")
+    void levelOf_shouldUseThresholds() {
+        assertThat(monitor.levelOf(-1)).isEqualTo(StockLevel.OUT_OF_STOCK);
+        assertThat(monitor.levelOf(0)).isEqualTo(StockLevel.OUT_OF_STOCK);
+        assertThat(monitor.levelOf(3)).isEqualTo(StockLevel.LAST_FEW);
+        assertThat(monitor.levelOf(10)).isEqualTo(StockLevel.LOW);
+        assertThat(monitor.levelOf(11)).isEqualTo(StockLevel.IN_STOCK);
+    }
+
+    @Test
+    @DisplayName("Should emit one event when a variant crosses into another level")
+    void flush_shouldEmitCrossing() {
+        // Arrange
+        when(aggregates.variant(7L)).thenReturn(new StockTotals(20, 17));
+
+        // Act
+        monitor.onAvailabilityChanged(7L, 12, 8);
+        monitor.onAvailabilityChanged(7L, 8, 3);
+        List<StockThresholdEvent> events = monitor.flush();
+
+        // Assert
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.variantId()).isEqualTo(7L);
+            assertThat(event.previous()).isEqualTo(StockLevel.IN_STOCK);
+            assertThat(event.current()).isEqualTo(StockLevel.LAST_FEW);
+            assertThat(event.available()).isEqualTo(3);
+        });
+        assertThat(delivered).isEqualTo(events);
+        assertThat(monitor.flush()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore changes that stay within a level")
+    void onAvailabilityChanged_shouldIgnoreMovesWithinLevel() {
+        // Act
+        monitor.onAvailabilityChanged(7L, 50, 40);
+        monitor.onAvailabilityChanged(7L, 9, 4);
+
+        // Assert
+        assertThat(monitor.flush()).isEmpty();
+        verify(aggregates, never()).variant(7L);
+    }
+
+    @Test
+    @DisplayName("Should coalesce a flash sale into at most one event per variant and window")
+    void flush_shouldCoalesceFlappingVariants() {
+        // Arrange: 1,000 variants flap across the out-of-stock line 1,000 times each
+        for (long variantId = 1; variantId <= 1_000; variantId++) {
+            for (int i = 0; i < 500; i++) {
+                monitor.onAvailabilityChanged(variantId, 1, 0);
+                monitor.onAvailabilityChanged(variantId, 0, 1);
+            }
+        }
+        for (long variantId = 1; variantId <= 1_000; variantId++) {
+            // Odd variants end sold out, even ones end where they started
+            when(aggregates.variant(variantId)).thenReturn(new StockTotals(variantId % 2 == 0 ? 1 : 0, 0));
+        }
+
+        // Act
+        List<StockThresholdEvent> events = monitor.flush();
+
+        // Assert
+        assertThat(events).hasSize(500)
+                .allMatch(event -> event.variantId() % 2 == 1 && event.current() == StockLevel.OUT_OF_STOCK);
+        assertThat(monitor.flush()).isEmpty();
+    }
+}
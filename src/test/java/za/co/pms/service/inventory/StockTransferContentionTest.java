@@ -0,0 +1,223 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.repository.StockAllocationRepositoryImpl;
+import za.co.pms.service.inventory.StockTransferService.Leg;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Transfers racing in both directions between two warehouses over a handful of variants on
+ * embedded H2. Compares {@link StockTransferService#move}, one ordered lock and one batch per
+ * transfer, with locking and writing each allocation as the request lists it.
+ **/
+@Slf4j
+@DisplayName("Stock transfer contention test")
+class StockTransferContentionTest {
+    private static final String URL = "jdbc:h2:mem:stock_transfer;DB_CLOSE_DELAY=-1";
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 100;
+    private static final int VARIANTS = 8;
+    private static final int LINES_PER_TRANSFER = 3;
+    private static final int STOCK = 1_000;
+
+    private Connection setupConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        setupConnection = DriverManager.getConnection(URL, "sa", "");
+        resetStock();
+    }
+
+    private void resetStock() throws SQLException {
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("drop table if exists stock_allocation");
+            statement.execute("""
+                    create table stock_allocation (
+                        id bigint primary key,
+                        quantity int not null,
+                        reserved_quantity int not null,
+                        version bigint not null,
+                        updated_at timestamp)""");
+            // Variant v lives in allocation v of warehouse A and allocation VARIANTS + v of warehouse B
+            for (int id = 1; id <= 2 * VARIANTS; id++) {
+                statement.execute("insert into stock_allocation values (" + id + ", " + STOCK + ", 0, 0, null)");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        setupConnection.close();
+    }
+
+    @Test
+    @DisplayName("Ordered batched transfers should never deadlock and should conserve stock")
+    void orderedTransfers_shouldNotDeadlock_andReportThroughput() throws Exception {
+        // Act
+        Result ordered = race(10_000, (connection, legs) -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            StockTransferService.move(new StockAllocationRepositoryImpl(jdbcTemplate), legs);
+        });
+        resetStock();
+        Result naive = race(500, StockTransferContentionTest::lockInRequestOrder);
+
+        // Assert
+        log.info("Ordered batch: {}", ordered);
+        log.info("Request order: {}", naive);
+        assertThat(ordered.failed()).isZero();
+        assertThat(ordered.conserved()).isTrue();
+        assertThat(naive.conserved()).isTrue();
+        assertThat(ordered.completed() + ordered.refused()).isEqualTo(THREADS * TRANSFERS_PER_THREAD);
+    }
+
+    private static void lockInRequestOrder(Connection connection, List<Leg> legs) throws SQLException {
+        try (PreparedStatement lock = connection.prepareStatement(
+                "select quantity, reserved_quantity from stock_allocation where id = ? for update");
+             PreparedStatement update = connection.prepareStatement(
+                     "update stock_allocation set quantity = quantity + ?, version = version + 1 where id = ?")) {
+            for (Leg leg : legs) {
+                lock.setLong(1, leg.sourceAllocationId());
+                try (ResultSet rs = lock.executeQuery()) {
+                    rs.next();
+                    if (rs.getInt(1) - rs.getInt(2) < leg.quantity()) {
+                        throw new InsufficientStockException("Not enough available stock");
+                    }
+                }
+                update.setInt(1, -leg.quantity());
+                update.setLong(2, leg.sourceAllocationId());
+                update.executeUpdate();
+                lock.setLong(1, leg.destinationAllocationId());
+                lock.executeQuery().close();
+                update.setInt(1, leg.quantity());
+                update.setLong(2, leg.destinationAllocationId());
+                update.executeUpdate();
+            }
+        }
+    }
+
+    private Result race(int lockTimeoutMillis, Transfer transfer) throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long[][] latencies = new long[THREADS][];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int worker = t;
+            workers.add(() -> {
+                try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("set lock_timeout " + lockTimeoutMillis);
+                    connection.setAutoCommit(false);
+                    // InnoDB's locking reads see the latest committed row even at REPEATABLE READ; in H2
+                    // only READ COMMITTED does, REPEATABLE READ refuses rows changed after the snapshot
+                    connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    SplittableRandom random = new SplittableRandom(worker);
+                    long[] samples = new long[TRANSFERS_PER_THREAD];
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        List<Leg> legs = legs(random);
+                        long started = System.nanoTime();
+                        try {
+                            transfer.apply(connection, legs);
+                            connection.commit();
+                            completed.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            connection.rollback();
+                            refused.incrementAndGet();
+                        } catch (SQLException | DataAccessException e) {
+                            // Deadlock or lock timeout
+                            connection.rollback();
+                            failed.incrementAndGet();
+                        }
+                        samples[i] = System.nanoTime() - started;
+                    }
+                    latencies[worker] = samples;
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        for (Future<Void> future : executor.invokeAll(workers)) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+
+        long[] sorted = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(completed.get(), refused.get(), failed.get(),
+                (completed.get() + refused.get()) * 1e9 / elapsed,
+                sorted[sorted.length / 2] / 1_000, sorted[(int) (sorted.length * 0.99)] / 1_000, conserved());
+    }
+
+    /**
+     * Two to {@code LINES_PER_TRANSFER} distinct variants, all moving one way
+     */
+    private static List<Leg> legs(SplittableRandom random) {
+        boolean toB = random.nextBoolean();
+        int[] variants = random.ints(1, VARIANTS + 1).distinct().limit(random.nextInt(2, LINES_PER_TRANSFER + 1)).toArray();
+        List<Leg> legs = new ArrayList<>(variants.length);
+        for (int variant : variants) {
+            long a = variant;
+            long b = VARIANTS + variant;
+            legs.add(toB ? new Leg(a, b, random.nextInt(1, 4)) : new Leg(b, a, random.nextInt(1, 4)));
+        }
+        return legs;
+    }
+
+    private boolean conserved() throws SQLException {
+        try (Statement statement = setupConnection.createStatement();
+             ResultSet rs = statement.executeQuery("select id, quantity from stock_allocation order by id")) {
+            int[] quantities = new int[2 * VARIANTS + 1];
+            while (rs.next()) {
+                quantities[rs.getInt(1)] = rs.getInt(2);
+            }
+            for (int variant = 1; variant <= VARIANTS; variant++) {
+                int a = quantities[variant];
+                int b = quantities[VARIANTS + variant];
+                if (a < 0 || b < 0 || a + b != 2 * STOCK) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transfer {
+        void apply(Connection connection, List<Leg> legs) throws SQLException;
+    }
+
+    private record Result(int completed, int refused, int failed, double transfersPerSecond, long p50Micros,
+                          long p99Micros, boolean conserved) {
+    }
+}
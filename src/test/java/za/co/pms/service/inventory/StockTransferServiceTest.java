@@ -0,0 +1,144 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.exception.InsufficientStockException;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.repository.StockAllocationRepository;
+import za.co.pms.repository.StockAllocationRepositoryCustom.AllocationChange;
+import za.co.pms.repository.projection.AllocationLevels;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockTransferService Unit Tests")
+class StockTransferServiceTest {
+
+    @Mock
+    private StockAllocationRepository repository;
+    @Mock
+    private StockMovementPublisher publisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+
+    private StockTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockTransferService(repository, publisher, transactionManager);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("Should lock every allocation in id order and move all variants in one batch")
+    void transfer_shouldLockInIdOrderAndWriteOneBatch() {
+        // Arrange
+        when(repository.findLevelsIn(List.of(1L, 2L), List.of(100L, 200L))).thenReturn(List.of(
+                new AllocationLevels(9L, 100L, 1L, 10, 2),
+                new AllocationLevels(3L, 100L, 2L, 1, 0),
+                new AllocationLevels(4L, 200L, 1L, 5, 0),
+                new AllocationLevels(8L, 200L, 2L, 0, 0)));
+        when(repository.lockLevels(List.of(3L, 4L, 8L, 9L))).thenReturn(List.of(
+                new AllocationLevels(3L, null, null, 1, 0),
+                new AllocationLevels(4L, null, null, 5, 0),
+                new AllocationLevels(8L, null, null, 0, 0),
+                new AllocationLevels(9L, null, null, 10, 2)));
+
+        // Act
+        service.transfer(1L, 2L, List.of(new TransferLine(200L, 5), new TransferLine(100L, 3),
+                new TransferLine(100L, 2)));
+
+        // Assert
+        verify(repository).applyLedgerChanges(List.of(
+                new AllocationChange(3L, 6, 0),
+                new AllocationChange(4L, 0, 0),
+                new AllocationChange(8L, 5, 0),
+                new AllocationChange(9L, 5, 0)));
+        verify(publisher).publishAll(List.of(
+                StockMovement.adjusted(3L, 5),
+                StockMovement.adjusted(4L, -5),
+                StockMovement.adjusted(8L, 5),
+                StockMovement.adjusted(9L, -5)));
+    }
+
+    @Test
+    @DisplayName("Should move nothing when a source is short after locking")
+    void transfer_shouldRollBackWhenShort() {
+        // Arrange
+        when(repository.findLevelsIn(List.of(1L, 2L), List.of(100L))).thenReturn(List.of(
+                new AllocationLevels(1L, 100L, 1L, 10, 0),
+                new AllocationLevels(2L, 100L, 2L, 0, 0)));
+        when(repository.lockLevels(List.of(1L, 2L))).thenReturn(List.of(
+                new AllocationLevels(1L, null, null, 10, 8),
+                new AllocationLevels(2L, null, null, 0, 0)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.transfer(1L, 2L, List.of(new TransferLine(100L, 3))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("[1]");
+        verify(repository, never()).applyLedgerChanges(anyList());
+        verify(publisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should create the destination allocation when the warehouse has none")
+    void transfer_shouldCreateMissingDestination() {
+        // Arrange
+        when(repository.findLevelsIn(List.of(1L, 2L), List.of(100L))).thenReturn(List.of(
+                new AllocationLevels(5L, 100L, 1L, 10, 0)));
+        doAnswer(invocation -> {
+            ReflectionTestUtils.setField(invocation.getArgument(0), "id", 42L);
+            return null;
+        }).when(entityManager).persist(any(StockAllocation.class));
+        when(repository.lockLevels(List.of(5L, 42L))).thenReturn(List.of(
+                new AllocationLevels(5L, null, null, 10, 0),
+                new AllocationLevels(42L, null, null, 0, 0)));
+
+        // Act
+        service.transfer(1L, 2L, List.of(new TransferLine(100L, 4)));
+
+        // Assert
+        verify(entityManager).flush();
+        verify(repository).applyLedgerChanges(List.of(new AllocationChange(5L, 6, 0), new AllocationChange(42L, 4, 0)));
+    }
+
+    @Test
+    @DisplayName("Should refuse a source warehouse that does not stock the variant")
+    void transfer_shouldRefuseUnstockedVariant() {
+        // Arrange
+        when(repository.findLevelsIn(List.of(1L, 2L), List.of(100L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.transfer(1L, 2L, List.of(new TransferLine(100L, 1))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("[100]");
+    }
+
+    @Test
+    @DisplayName("Should refuse a transfer within one warehouse")
+    void transfer_shouldRefuseSameWarehouse() {
+        assertThatThrownBy(() -> service.transfer(1L, 1L, List.of(new TransferLine(100L, 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
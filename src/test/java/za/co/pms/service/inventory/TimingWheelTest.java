@@ -0,0 +1,122 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@DisplayName("TimingWheel Unit Tests")
+class TimingWheelTest {
+    private static final long TICK = 100;
+
+    @Test
+    @DisplayName("Should fire timers on their deadline tick, in order")
+    void advance_shouldFireDueTimers_inDeadlineOrder() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("late", 950);
+        wheel.schedule("early", 250);
+        wheel.schedule("middle", 600);
+        List<String> fired = new ArrayList<>();
+
+        // Act
+        wheel.advance(599, timer -> fired.add(timer.value()));
+        List<String> beforeMiddle = List.copyOf(fired);
+        wheel.advance(1_000, timer -> fired.add(timer.value()));
+
+        // Assert
+        assertThat(beforeMiddle).containsExactly("early");
+        assertThat(fired).containsExactly("early", "middle", "late");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not fire cancelled timers")
+    void cancel_shouldRemoveTimer() {
+        // Arrange
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 0);
+        TimingWheel.Timer<Integer> cancelled = wheel.schedule(1, 500);
+        wheel.schedule(2, 500);
+        List<Integer> fired = new ArrayList<>();
+
+        // Act
+        boolean first = wheel.cancel(cancelled);
+        boolean second = wheel.cancel(cancelled);
+        wheel.advance(500, timer -> fired.add(timer.value()));
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(fired).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Should never fire early or late across level boundaries")
+    void advance_shouldFireExactly_afterCascades() {
+        // Arrange: deadlines spread over ~55 hours of 1 ms ticks cross every wheel level
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        Random random = new Random(7);
+        int count = 100_000;
+        long[] deadlines = new long[count];
+        long[] firedAt = new long[count];
+        long[] firedAfter = new long[count];
+        for (int i = 0; i < count; i++) {
+            deadlines[i] = 1 + (long) (Math.pow(random.nextDouble(), 3) * 200_000_000L);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        // Act
+        long previous = 0;
+        for (long now = 1; previous < 200_000_000L; now = Math.min(now + 1 + random.nextInt(5_000), 200_000_000L)) {
+            long from = previous;
+            long to = now;
+            wheel.advance(now, timer -> {
+                firedAfter[timer.value()] = from;
+                firedAt[timer.value()] = to;
+            });
+            previous = now;
+        }
+
+        // Assert
+        for (int i = 0; i < count; i++) {
+            assertThat(deadlines[i]).as("timer %d", i).isGreaterThan(firedAfter[i]).isLessThanOrEqualTo(firedAt[i]);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should tick in constant time with a million outstanding holds")
+    void advance_shouldBeCheap_withMillionTimers() {
+        // Arrange: a million 15-minute holds placed over half an hour
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 0);
+        for (int i = 0; i < 1_000_000; i++) {
+            wheel.schedule(i, 900_000L + (i % 18_000) * TICK);
+        }
+
+        // Act: ten idle minutes before the first expiry
+        long started = System.nanoTime();
+        int fired = 0;
+        int ticks = 0;
+        for (long now = TICK; now <= 600_000; now += TICK, ticks++) {
+            fired += wheel.advance(now, timer -> {
+            });
+        }
+        long nanosPerTick = (System.nanoTime() - started) / ticks;
+
+        // Assert
+        log.info("Idle tick with 1M outstanding holds: {} ns", nanosPerTick);
+        assertThat(fired).isZero();
+        assertThat(wheel.size()).isEqualTo(1_000_000);
+        assertThat(nanosPerTick).isLessThan(1_000_000L);
+    }
+}
@@ -0,0 +1,118 @@
+package za.co.pms.service.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@DisplayName("WarehouseIndex Unit Tests")
+class WarehouseIndexTest {
+
+    @Test
+    @DisplayName("Should return the same neighbours as a brute-force scan")
+    void nearest_shouldMatchBruteForce() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(7);
+        List<WarehouseSite> sites = randomSites(random, 2_000);
+        WarehouseIndex index = WarehouseIndex.of(sites);
+        LongPredicate evenIds = id -> id % 2 == 0;
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = random.nextDouble(-90, 90);
+            double longitude = random.nextDouble(-180, 180);
+
+            // Act
+            List<NearbyWarehouse> nearest = index.nearest(latitude, longitude, 5, evenIds);
+
+            // Assert
+            List<Long> expected = sites.stream()
+                    .filter(site -> evenIds.test(site.warehouseId()))
+                    .sorted(Comparator.comparingDouble(site ->
+                            WarehouseIndex.distanceKm(latitude, longitude, site.latitude(), site.longitude())))
+                    .limit(5)
+                    .map(WarehouseSite::warehouseId)
+                    .toList();
+            assertThat(nearest).extracting(NearbyWarehouse::warehouseId).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report great-circle distances, including across the antimeridian")
+    void nearest_shouldMeasureGreatCircleDistance() {
+        // Arrange
+        WarehouseIndex index = WarehouseIndex.of(List.of(
+                new WarehouseSite(1L, "JHB", -26.2041, 28.0473),
+                new WarehouseSite(2L, "CPT", -33.9249, 18.4241),
+                new WarehouseSite(3L, "FJI", -17.7134, 179.9),
+                new WarehouseSite(4L, "SAM", -13.7590, -172.1046)));
+
+        // Act
+        List<NearbyWarehouse> fromDurban = index.nearest(-29.8587, 31.0218, 2, id -> true);
+        List<NearbyWarehouse> fromAntimeridian = index.nearest(-17.7, -179.9, 1, id -> true);
+
+        // Assert
+        assertThat(fromDurban).extracting(NearbyWarehouse::code).containsExactly("JHB", "CPT");
+        assertThat(fromDurban.get(0).distanceKm()).isCloseTo(500, within(10.0));
+        assertThat(fromAntimeridian).extracting(NearbyWarehouse::code).containsExactly("FJI");
+        assertThat(fromAntimeridian.get(0).distanceKm()).isLessThan(25);
+    }
+
+    @Test
+    @DisplayName("Should return fewer than k when the filter rejects the rest")
+    void nearest_shouldHonourFilter() {
+        // Arrange
+        WarehouseIndex index = WarehouseIndex.of(randomSites(new SplittableRandom(3), 100));
+
+        // Act & Assert
+        assertThat(index.nearest(0, 0, 3, id -> id == 42L)).extracting(NearbyWarehouse::warehouseId).containsExactly(42L);
+        assertThat(index.nearest(0, 0, 3, id -> false)).isEmpty();
+        assertThat(WarehouseIndex.empty().nearest(0, 0, 3, id -> true)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer k-nearest queries in well under a millisecond")
+    void nearest_shouldAnswerInMicroseconds() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(11);
+        WarehouseIndex index = WarehouseIndex.of(randomSites(random, 5_000));
+        int queries = 50_000;
+        double[][] points = new double[queries][];
+        for (int i = 0; i < queries; i++) {
+            points[i] = new double[]{random.nextDouble(-60, 60), random.nextDouble(-180, 180)};
+        }
+
+        // Act
+        long found = 0;
+        long started = System.nanoTime();
+        for (double[] point : points) {
+            found += index.nearest(point[0], point[1], 5, id -> id % 3 != 0).size();
+        }
+        double micros = (System.nanoTime() - started) / 1_000.0 / queries;
+
+        // Assert
+        log.info("5-nearest over {} warehouses: {} us per query", index.size(), String.format("%.2f", micros));
+        assertThat(found).isEqualTo(5L * queries);
+        assertThat(micros).isLessThan(1_000);
+    }
+
+    private static List<WarehouseSite> randomSites(SplittableRandom random, int count) {
+        List<WarehouseSite> sites = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            sites.add(new WarehouseSite(id, "W" + id, random.nextDouble(-90, 90), random.nextDouble(-180, 180)));
+        }
+        return sites;
+    }
+}
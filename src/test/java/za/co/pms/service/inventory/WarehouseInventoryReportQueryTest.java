@@ -0,0 +1,195 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.InventoryDimension;
+import za.co.pms.model.Brand;
+import za.co.pms.model.Category;
+import za.co.pms.model.Product;
+import za.co.pms.model.Vendor;
+import za.co.pms.model.inventory.sku.StockAllocation;
+import za.co.pms.model.inventory.sku.Warehouse;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Runs the grouped report queries on embedded H2. Cape Town holds a branded beverage, an
+ * unbranded snack and an allocation with no variant; Johannesburg holds the beverage only and
+ * Durban holds nothing.
+ **/
+@DisplayName("WarehouseInventoryReportService query Unit Tests")
+class WarehouseInventoryReportQueryTest {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private WarehouseInventoryReportService service;
+    private Fixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("warehouse_inventory", Map.of(
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        entityManager = persistenceUnit.entityManager();
+        service = new WarehouseInventoryReportService(persistenceUnit.transactionManager(), 0);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        fixture = populate();
+        statements.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should total every warehouse in one statement, including one without allocations")
+    void totals_shouldSumPerWarehouse() {
+        // Act
+        List<WarehouseInventory> reports = service.totals();
+
+        // Assert
+        assertThat(reports).containsExactly(
+                new WarehouseInventory(fixture.capeTown(), "CPT", "Cape Town", 120, 20, List.of()),
+                new WarehouseInventory(fixture.durban(), "DBN", "Durban", 0, 0, List.of()),
+                new WarehouseInventory(fixture.johannesburg(), "JHB", "Johannesburg", 8, 0, List.of()));
+        assertThat(statements).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should break stock down by category, with unclassified stock in a group of its own")
+    void breakdown_shouldGroupByCategory() {
+        // Act
+        List<WarehouseInventory> reports = service.breakdown(InventoryDimension.CATEGORY);
+
+        // Assert
+        assertThat(reports).extracting(WarehouseInventory::warehouseCode).containsExactly("CPT", "JHB");
+        assertThat(reports.get(0).total()).isEqualTo(120);
+        assertThat(reports.get(0).reserved()).isEqualTo(20);
+        assertThat(reports.get(0).groups()).containsExactlyInAnyOrder(
+                new InventoryGroup(fixture.beverages(), "Beverages", 70, 5),
+                new InventoryGroup(fixture.snacks(), "Snacks", 30, 10),
+                new InventoryGroup(null, null, 20, 5));
+        assertThat(reports.get(1).groups()).containsExactly(new InventoryGroup(fixture.beverages(), "Beverages", 8, 0));
+        assertThat(statements).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should fold unbranded stock and stock without a variant into one brand group")
+    void breakdown_shouldGroupByBrand() {
+        // Act
+        List<WarehouseInventory> reports = service.breakdown(InventoryDimension.BRAND);
+
+        // Assert
+        assertThat(reports.get(0).groups()).containsExactlyInAnyOrder(
+                new InventoryGroup(fixture.brand(), "Coca-Cola", 70, 5),
+                new InventoryGroup(null, null, 50, 15));
+    }
+
+    @Test
+    @DisplayName("Should break stock down by vendor without names")
+    void breakdown_shouldGroupByVendor() {
+        // Act
+        List<WarehouseInventory> reports = service.breakdown(InventoryDimension.VENDOR);
+
+        // Assert
+        assertThat(reports.get(0).groups()).containsExactlyInAnyOrder(
+                new InventoryGroup(fixture.beverageVendor(), null, 70, 5),
+                new InventoryGroup(fixture.snackVendor(), null, 30, 10),
+                new InventoryGroup(null, null, 20, 5));
+        assertThat(reports.get(1).groups()).containsExactly(new InventoryGroup(fixture.beverageVendor(), null, 8, 0));
+    }
+
+    private Fixture populate() {
+        return new TransactionTemplate(persistenceUnit.transactionManager()).execute(status -> {
+            Warehouse capeTown = warehouse("CPT", "Cape Town");
+            Warehouse johannesburg = warehouse("JHB", "Johannesburg");
+            Warehouse durban = warehouse("DBN", "Durban");
+
+            Brand brand = new Brand();
+            brand.setName("Coca-Cola");
+            entityManager.persist(brand);
+            Category beverages = category("Beverages");
+            Category snacks = category("Snacks");
+
+            Product beverage = product("Cola", beverages, brand);
+            Variant can = variant(beverage);
+            allocate(can, capeTown, 70, 5);
+            allocate(can, johannesburg, 8, 0);
+            entityManager.persist(beverage);
+
+            Product snack = product("Crisps", snacks, null);
+            allocate(variant(snack), capeTown, 30, 10);
+            entityManager.persist(snack);
+
+            StockAllocation unassigned = new StockAllocation();
+            unassigned.setQuantity(20);
+            unassigned.setReservedQuantity(5);
+            capeTown.addStockAllocation(unassigned);
+            entityManager.persist(unassigned);
+
+            return new Fixture(capeTown.getId(), johannesburg.getId(), durban.getId(), beverages.getId(), snacks.getId(),
+                    brand.getId(), beverage.getVendor().getId(), snack.getVendor().getId());
+        });
+    }
+
+    private Warehouse warehouse(String code, String name) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setCode(code);
+        warehouse.setName(name);
+        entityManager.persist(warehouse);
+        return warehouse;
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private static Product product(String name, Category category, Brand brand) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setVendor(new Vendor());
+        return product;
+    }
+
+    private static Variant variant(Product product) {
+        Variant variant = new Variant();
+        variant.setName(product.getName());
+        product.addVariant(variant);
+        return variant;
+    }
+
+    private static void allocate(Variant variant, Warehouse warehouse, int quantity, int reserved) {
+        StockAllocation allocation = new StockAllocation();
+        allocation.setQuantity(quantity);
+        allocation.setReservedQuantity(reserved);
+        allocation.setWarehouse(warehouse);
+        variant.addStockAllocation(allocation);
+    }
+
+    private record Fixture(Long capeTown, Long johannesburg, Long durban, Long beverages, Long snacks, Long brand,
+                           Long beverageVendor, Long snackVendor) {
+    }
+}
@@ -0,0 +1,174 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.enums.InventoryDimension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarehouseInventoryReportService Unit Tests")
+class WarehouseInventoryReportServiceTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Object[]> query;
+    @Mock
+    private TypedQuery<Object[]> otherQuery;
+
+    @Test
+    @DisplayName("Should report every warehouse from one grouped query")
+    void totals_shouldMapGroupedRows() {
+        // Arrange
+        WarehouseInventoryReportService service = service(30);
+        when(entityManager.createQuery(WarehouseInventoryReportService.WAREHOUSE_TOTALS, Object[].class)).thenReturn(query);
+        when(query.getResultList()).thenReturn(rows(
+                new Object[]{1L, "CPT", "Cape Town", 120L, 20L},
+                new Object[]{2L, "JHB", "Johannesburg", null, null}));
+
+        // Act
+        List<WarehouseInventory> reports = service.totals();
+
+        // Assert
+        assertThat(reports).containsExactly(
+                new WarehouseInventory(1L, "CPT", "Cape Town", 120, 20, List.of()),
+                new WarehouseInventory(2L, "JHB", "Johannesburg", 0, 0, List.of()));
+        assertThat(reports.get(0).available()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should group breakdown rows per warehouse and sum their totals")
+    void breakdown_shouldGroupRowsPerWarehouse() {
+        // Arrange
+        WarehouseInventoryReportService service = service(30);
+        when(entityManager.createQuery(WarehouseInventoryReportService.breakdownQuery(InventoryDimension.CATEGORY),
+                Object[].class)).thenReturn(query);
+        when(query.getResultList()).thenReturn(rows(
+                new Object[]{1L, "CPT", "Cape Town", 10L, "Beverages", 70L, 5L},
+                new Object[]{1L, "CPT", "Cape Town", null, null, 50L, 15L},
+                new Object[]{2L, "JHB", "Johannesburg", 10L, "Beverages", 8L, 0L}));
+
+        // Act
+        List<WarehouseInventory> reports = service.breakdown(InventoryDimension.CATEGORY);
+
+        // Assert
+        assertThat(reports).hasSize(2);
+        assertThat(reports.get(0).total()).isEqualTo(120);
+        assertThat(reports.get(0).reserved()).isEqualTo(20);
+        assertThat(reports.get(0).groups()).containsExactly(
+                new InventoryGroup(10L, "Beverages", 70, 5),
+                new InventoryGroup(null, null, 50, 15));
+        assertThat(reports.get(1).groups()).containsExactly(new InventoryGroup(10L, "Beverages", 8, 0));
+    }
+
+    @Test
+    @DisplayName("Should break down by vendor without a name column")
+    void breakdownQuery_shouldOmitNameForVendor() {
+        assertThat(WarehouseInventoryReportService.breakdownQuery(InventoryDimension.VENDOR))
+                .contains("left join p.vendor g")
+                .contains("g.id, sum(")
+                .doesNotContain("g.name");
+        assertThat(WarehouseInventoryReportService.breakdownQuery(InventoryDimension.BRAND))
+                .contains("left join p.brand g")
+                .contains("g.id, g.name, sum(");
+    }
+
+    @Test
+    @DisplayName("Should serve refreshes from the cache until the TTL passes")
+    void totals_shouldCacheWithinTtl() {
+        // Arrange
+        WarehouseInventoryReportService cachedService = service(30);
+        WarehouseInventoryReportService uncachedService = service(0);
+        when(entityManager.createQuery(WarehouseInventoryReportService.WAREHOUSE_TOTALS, Object[].class)).thenReturn(query);
+        when(query.getResultList()).thenAnswer(invocation -> rows(new Object[]{1L, "CPT", "Cape Town", 1L, 0L}));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            cachedService.totals();
+            uncachedService.totals();
+        }
+        cachedService.evictAll();
+        cachedService.totals();
+
+        // Assert: one load before and one after the eviction, plus five uncached loads
+        verify(query, times(7)).getResultList();
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent callers without blocking other reports")
+    void totals_shouldLoadOnce_whileOtherReportsProceed() throws Exception {
+        // Arrange
+        WarehouseInventoryReportService service = service(30);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(entityManager.createQuery(WarehouseInventoryReportService.WAREHOUSE_TOTALS, Object[].class)).thenReturn(query);
+        when(query.getResultList()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return rows(new Object[]{1L, "CPT", "Cape Town", 1L, 0L});
+        });
+        when(entityManager.createQuery(WarehouseInventoryReportService.breakdownQuery(InventoryDimension.VENDOR),
+                Object[].class)).thenReturn(otherQuery);
+        when(otherQuery.getResultList()).thenReturn(rows());
+
+        // Act
+        CompletableFuture<List<WarehouseInventory>> first = CompletableFuture.supplyAsync(service::totals);
+        loading.await(5, TimeUnit.SECONDS);
+        CompletableFuture<List<WarehouseInventory>> second = CompletableFuture.supplyAsync(service::totals);
+        List<WarehouseInventory> other = service.breakdown(InventoryDimension.VENDOR);
+        release.countDown();
+
+        // Assert
+        assertThat(other).isEmpty();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS)).hasSize(1);
+        verify(query, times(1)).getResultList();
+    }
+
+    @Test
+    @DisplayName("Should not cache a failed load")
+    void totals_shouldRetry_afterFailedLoad() {
+        // Arrange
+        WarehouseInventoryReportService service = service(30);
+        when(entityManager.createQuery(WarehouseInventoryReportService.WAREHOUSE_TOTALS, Object[].class)).thenReturn(query);
+        when(query.getResultList()).thenThrow(new IllegalStateException("database down"))
+                .thenReturn(rows(new Object[]{1L, "CPT", "Cape Town", 1L, 0L}));
+
+        // Act & Assert
+        assertThatThrownBy(service::totals).isInstanceOf(IllegalStateException.class);
+        assertThat(service.totals()).hasSize(1);
+    }
+
+    private WarehouseInventoryReportService service(long cacheSeconds) {
+        WarehouseInventoryReportService service = new WarehouseInventoryReportService(transactionManager, cacheSeconds);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        return service;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
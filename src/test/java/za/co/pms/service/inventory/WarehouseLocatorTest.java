@@ -0,0 +1,118 @@
+package za.co.pms.service.inventory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarehouseLocator Unit Tests")
+class WarehouseLocatorTest {
+
+    @Mock
+    private StockAggregates aggregates;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TypedQuery<Object[]> sitesQuery;
+    @Mock
+    private Query updateQuery;
+
+    @TempDir
+    Path tempDir;
+
+    private WarehouseLocator locator;
+
+    @BeforeEach
+    void setUp() {
+        locator = new WarehouseLocator(aggregates, transactionManager, tempDir.resolve("none.csv").toString(), 0);
+        ReflectionTestUtils.setField(locator, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("Should store valid coordinates and skip the header and bad lines")
+    void importGeocodes_shouldUpdateMatchingWarehouses() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("locations.csv");
+        Files.writeString(file, """
+                code,latitude,longitude
+                JHB,-26.2041,28.0473
+                CPT,-33.9249,18.4241
+                BAD,-120,18
+
+                XXX,1,2
+                """);
+        when(entityManager.createQuery(WarehouseLocator.SET_COORDINATES)).thenReturn(updateQuery);
+        when(updateQuery.setParameter(anyString(), any())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1, 1, 0);
+
+        // Act
+        int updated = locator.importGeocodes(file);
+
+        // Assert
+        assertThat(updated).isEqualTo(2);
+        verify(updateQuery, times(3)).executeUpdate();
+        verify(updateQuery).setParameter("code", "JHB");
+        verify(updateQuery).setParameter("latitude", -33.9249);
+    }
+
+    @Test
+    @DisplayName("Should return the nearest warehouses holding enough of the variant")
+    void nearestWithStock_shouldFilterByWarehouseAvailability() {
+        // Arrange
+        when(entityManager.createQuery(WarehouseLocator.ACTIVE_SITES, Object[].class)).thenReturn(sitesQuery);
+        when(sitesQuery.getResultList()).thenReturn(new ArrayList<>(List.of(
+                new Object[]{1L, "JHB", -26.2041, 28.0473},
+                new Object[]{2L, "CPT", -33.9249, 18.4241},
+                new Object[]{3L, "DBN", -29.8587, 31.0218})));
+        locator.refresh();
+        when(aggregates.variant(10L)).thenReturn(new StockTotals(12, 0));
+        when(aggregates.variant(10L, 1L)).thenReturn(new StockTotals(2, 0));
+        when(aggregates.variant(10L, 2L)).thenReturn(new StockTotals(10, 4));
+        when(aggregates.variant(10L, 3L)).thenReturn(StockTotals.NONE);
+
+        // Act
+        List<NearbyWarehouse> nearest = locator.nearestWithStock(10L, 5, -29.0, 31.0, 2);
+
+        // Assert
+        assertThat(nearest).extracting(NearbyWarehouse::code).containsExactly("CPT");
+        assertThat(locator.nearest(-29.0, 31.0, 2)).extracting(NearbyWarehouse::code).containsExactly("DBN", "JHB");
+    }
+
+    @Test
+    @DisplayName("Should not search when the variant is short everywhere")
+    void nearestWithStock_shouldShortCircuitOnVariantTotals() {
+        // Arrange
+        when(aggregates.variant(10L)).thenReturn(new StockTotals(3, 0));
+
+        // Act & Assert
+        assertThat(locator.nearestWithStock(10L, 5, 0, 0, 3)).isEmpty();
+    }
+}
@@ -0,0 +1,167 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.product.Variant;
+import za.co.pms.model.promotion.Rule;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ComplianceWatcher Unit Tests")
+class ComplianceWatcherTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 19, 12, 0);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Query query;
+    @Mock
+    private TypedQuery<Object[]> expiries;
+
+    private ComplianceWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        watcher = new ComplianceWatcher(transactionManager, false, 300, 500);
+        ReflectionTestUtils.setField(watcher, "entityManager", entityManager);
+    }
+
+    @Test
+    @DisplayName("Should deactivate only rules whose compliance has expired")
+    void processLapsed_shouldDeactivateExpiredRules_inExpiryOrder() {
+        // Arrange
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        watcher.watch(rule(1L, 10L, NOW.minusMinutes(5)));
+        watcher.watch(rule(2L, 20L, NOW.plusDays(1)));
+        watcher.watch(rule(3L, 10L, NOW.minusSeconds(1)));
+
+        // Act
+        int lapsed = watcher.processLapsed(NOW);
+
+        // Assert
+        assertThat(lapsed).isEqualTo(2);
+        assertThat(watcher.size()).isEqualTo(1);
+        verify(query).setParameter("ids", List.of(1L, 3L));
+        verify(query).setParameter("ids", List.of(10L));
+    }
+
+    @Test
+    @DisplayName("Should honour the latest expiry when a rule is re-registered")
+    void processLapsed_shouldSkipStaleEntries_whenRuleWasExtended() {
+        // Arrange
+        Rule rule = rule(1L, 10L, NOW.minusMinutes(5));
+        watcher.watch(rule);
+        rule.setComplianceExpiryDate(NOW.plusMonths(6));
+        watcher.watch(rule);
+
+        // Act
+        int lapsed = watcher.processLapsed(NOW);
+
+        // Assert
+        assertThat(lapsed).isZero();
+        assertThat(watcher.size()).isEqualTo(1);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should stop tracking rules that are deactivated")
+    void watch_shouldForgetRule_whenInactive() {
+        // Arrange
+        Rule rule = rule(1L, 10L, NOW.minusMinutes(5));
+        watcher.watch(rule);
+        rule.setActive(false);
+
+        // Act
+        watcher.watch(rule);
+
+        // Assert
+        assertThat(watcher.processLapsed(NOW)).isZero();
+        assertThat(watcher.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reload a poll interval after the last reload, not after the last wake-up")
+    void nextRunAt_shouldKeepReloadDeadline_acrossExpiryWakeUps() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(expiries);
+        when(expiries.getResultList()).thenReturn(List.<Object[]>of(new Object[]{1L, 10L, NOW.plusMinutes(1)}));
+        watcher.reload(NOW);
+
+        // Act & Assert: the expiry wakes the watcher first, without reloading
+        assertThat(watcher.nextRunAt(NOW)).isEqualTo(NOW.plusMinutes(1));
+        assertThat(watcher.reloadDue(NOW.plusMinutes(1))).isFalse();
+
+        // Act & Assert: once it has lapsed, the next run is the reload five minutes after the last one
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        watcher.processLapsed(NOW.plusMinutes(1));
+        assertThat(watcher.nextRunAt(NOW.plusMinutes(1))).isEqualTo(NOW.plusMinutes(5));
+        assertThat(watcher.reloadDue(NOW.plusMinutes(5))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reload on the first run and retry a poll interval after a failed reload")
+    void reloadDue_shouldStayTrue_whenReloadFails() {
+        // Arrange
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenThrow(new IllegalStateException("down"));
+
+        // Act
+        assertThatThrownBy(() -> watcher.reload(NOW)).isInstanceOf(IllegalStateException.class);
+
+        // Assert
+        assertThat(watcher.reloadDue(NOW.plusSeconds(1))).isTrue();
+        assertThat(watcher.nextRunAt(NOW)).isEqualTo(NOW.plusMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Should make a promotion with lapsed compliance ineligible for every variant")
+    void isEligibleForVariant_shouldBeFalse_whenComplianceLapsed() {
+        // Arrange
+        Promotion promotion = new Promotion();
+        promotion.setStartDate(NOW.minusDays(1));
+        Variant variant = new Variant();
+        boolean before = promotion.isEligibleForVariant(variant);
+
+        // Act
+        promotion.setComplianceLapsed(true);
+
+        // Assert
+        assertThat(before).isTrue();
+        assertThat(promotion.isEligibleForVariant(variant)).isFalse();
+    }
+
+    private static Rule rule(Long id, Long promotionId, LocalDateTime expiresAt) {
+        Promotion promotion = new Promotion();
+        promotion.setId(promotionId);
+
+        Rule rule = new Rule();
+        rule.setId(id);
+        rule.setPromotion(promotion);
+        rule.setComplianceExpiryDate(expiresAt);
+        return rule;
+    }
+}
@@ -0,0 +1,146 @@
+package za.co.pms.service.promotion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@Slf4j
+@DisplayName("CouponCodec Unit Tests")
+class CouponCodecTest {
+    private static final int ONE_MILLION = 1_000_000;
+
+    private CouponCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new CouponCodec("test-secret");
+    }
+
+    @Nested
+    @DisplayName("Encoding and decoding")
+    class RoundTripTests {
+
+        @Test
+        @DisplayName("Should decode a code back to its promotion and serial")
+        void decode_shouldReturnPromotionAndSerial_whenCodeIsValid() {
+            // Arrange
+            String code = codec.encode(42L, 123_456L);
+
+            // Act
+            CouponCodec.CouponCode coupon = codec.decode(code);
+
+            // Assert
+            assertThat(code).hasSize(CouponCodec.CODE_LENGTH);
+            assertThat(coupon).isEqualTo(new CouponCodec.CouponCode(42L, 123_456L));
+        }
+
+        @Test
+        @DisplayName("Should accept lower case, hyphens and Crockford look-alikes")
+        void decode_shouldNormaliseInput() {
+            // Arrange
+            String code = codec.encode(7L, 99L);
+            String typed = (code.substring(0, 6) + "-" + code.substring(6)).toLowerCase().replace('0', 'o').replace('1', 'l');
+
+            // Act & Assert
+            assertThat(codec.decode(typed)).isEqualTo(new CouponCodec.CouponCode(7L, 99L));
+        }
+
+        @Test
+        @DisplayName("Should not decode codes made with another secret")
+        void decode_shouldNotMatch_whenSecretDiffers() {
+            // Arrange
+            String code = new CouponCodec("other-secret").encode(42L, 1L);
+
+            // Act & Assert
+            assertThat(codec.decode(code)).isNotEqualTo(new CouponCodec.CouponCode(42L, 1L));
+        }
+
+        @Test
+        @DisplayName("Should reject serials outside the coupon range")
+        void encode_shouldThrow_whenSerialOutOfRange() {
+            assertThatThrownBy(() -> codec.encode(1L, CouponCodec.MAX_SERIAL + 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Check digit")
+    class CheckDigitTests {
+
+        @Test
+        @DisplayName("Should reject every single-character substitution")
+        void decode_shouldReturnNull_whenOneCharacterIsWrong() {
+            // Arrange
+            String code = codec.encode(3L, 2024L);
+            String alphabet = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+            // Act & Assert
+            for (int position = 0; position < code.length(); position++) {
+                for (char replacement : alphabet.toCharArray()) {
+                    if (replacement == code.charAt(position)) {
+                        continue;
+                    }
+                    String typo = code.substring(0, position) + replacement + code.substring(position + 1);
+                    assertThat(codec.decode(typo)).as(typo).isNull();
+                }
+            }
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "ABC", "UUUUUUUUUUUUU", "0000000000000000"})
+        @DisplayName("Should reject malformed input")
+        void decode_shouldReturnNull_whenMalformed(String input) {
+            assertThat(codec.decode(input)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Scale")
+    class ScaleTests {
+
+        @Test
+        @DisplayName("Should issue a million distinct codes and report lookup latency and memory")
+        void millionCodes_shouldBeUnique_andCheapToValidate() {
+            // Arrange
+            String[] codes = new String[ONE_MILLION];
+            for (int serial = 0; serial < ONE_MILLION; serial++) {
+                codes[serial] = codec.encode(11L, serial);
+            }
+            RedeemedSet redeemed = new RedeemedSet();
+
+            // Act
+            long started = System.nanoTime();
+            for (String code : codes) {
+                CouponCodec.CouponCode coupon = codec.decode(code);
+                redeemed.add(coupon.serial());
+            }
+            long nanosPerLookup = (System.nanoTime() - started) / ONE_MILLION;
+
+            // Assert
+            Set<String> distinct = new HashSet<>(ONE_MILLION * 2);
+            for (String code : codes) {
+                distinct.add(code);
+            }
+            log.info("Coupon decode+redeem: {} ns/op, redeemed set: {} bytes per million codes",
+                    nanosPerLookup, redeemed.memoryBytes());
+            assertThat(distinct).hasSize(ONE_MILLION);
+            assertThat(redeemed.memoryBytes()).isLessThanOrEqualTo(16 * 8192L);
+            assertThat(redeemed.contains(999_999L)).isTrue();
+            assertThat(redeemed.add(999_999L)).isFalse();
+        }
+    }
+}
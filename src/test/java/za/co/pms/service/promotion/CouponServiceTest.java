@@ -0,0 +1,198 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.CouponStatus;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.model.Promotion;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Issue and redeem against embedded H2. Two services on the same database stand in for two nodes.
+ **/
+@DisplayName("CouponService Unit Tests")
+class CouponServiceTest {
+    private static final String SECRET = "coupon-test-secret";
+    private static final long PROMOTION_ID = 1L;
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private CouponService service;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("coupons", Map.of(
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        service = node(3600);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Promotion promotion = new Promotion();
+            promotion.setId(PROMOTION_ID);
+            promotion.setName("Voucher drop");
+            promotion.setDescription("R50 off. Price includes 15% VAT");
+            promotion.setType(PromotionType.FIXED);
+            promotion.setStartDate(LocalDateTime.now().minusDays(1));
+            entityManager.persist(promotion);
+        });
+        statements.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should refuse to start without a secret")
+    void constructor_shouldThrow_whenSecretBlank() {
+        assertThatThrownBy(() -> new CouponService(persistenceUnit.transactionManager(), " ", 30))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Should issue distinct codes and advance the issued count")
+    void generate_shouldIssueValidCodes() {
+        // Arrange
+        List<String> codes = new ArrayList<>();
+
+        // Act
+        long first = service.generate(PROMOTION_ID, 3, codes::add);
+
+        // Assert
+        assertThat(first).isZero();
+        assertThat(codes).hasSize(3).doesNotHaveDuplicates();
+        assertThat(codes).allSatisfy(code -> assertThat(service.validate(code)).isEqualTo(CouponStatus.VALID));
+        assertThat(issued()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should redeem a code once and report it redeemed after that")
+    void redeem_shouldRedeemOnce() {
+        // Arrange
+        List<String> codes = new ArrayList<>();
+        service.generate(PROMOTION_ID, 2, codes::add);
+
+        // Act
+        CouponStatus first = service.redeem(codes.get(0), "customer-1");
+        CouponStatus second = service.redeem(codes.get(0), "customer-2");
+
+        // Assert
+        assertThat(first).isEqualTo(CouponStatus.VALID);
+        assertThat(second).isEqualTo(CouponStatus.REDEEMED);
+        assertThat(service.validate(codes.get(0))).isEqualTo(CouponStatus.REDEEMED);
+        assertThat(service.validate(codes.get(1))).isEqualTo(CouponStatus.VALID);
+        assertThat(redemptions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let the unique constraint settle a double redeem across nodes")
+    void redeem_shouldReportRedeemed_whenOtherNodeRedeemedFirst() {
+        // Arrange
+        List<String> codes = new ArrayList<>();
+        service.generate(PROMOTION_ID, 1, codes::add);
+        CouponService otherNode = node(3600);
+        assertThat(otherNode.validate(codes.get(0))).isEqualTo(CouponStatus.VALID);
+
+        // Act
+        CouponStatus here = service.redeem(codes.get(0), "customer-1");
+        CouponStatus there = otherNode.redeem(codes.get(0), "customer-2");
+
+        // Assert
+        assertThat(here).isEqualTo(CouponStatus.VALID);
+        assertThat(there).isEqualTo(CouponStatus.REDEEMED);
+        assertThat(redemptions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should re-read the issued bound for codes issued by another node once a refresh is due")
+    void validate_shouldRefreshStaleIssuedBound() {
+        // Arrange: both nodes have loaded the bound before more codes are issued
+        List<String> codes = new ArrayList<>();
+        service.generate(PROMOTION_ID, 1, codes::add);
+        CouponService staleNode = node(3600);
+        CouponService refreshingNode = node(0);
+        staleNode.validate(codes.get(0));
+        refreshingNode.validate(codes.get(0));
+        service.generate(PROMOTION_ID, 1, codes::add);
+
+        // Act & Assert
+        assertThat(staleNode.validate(codes.get(1))).isEqualTo(CouponStatus.UNKNOWN);
+        assertThat(refreshingNode.validate(codes.get(1))).isEqualTo(CouponStatus.VALID);
+    }
+
+    @Test
+    @DisplayName("Should reject codes for unknown promotions without a query per code")
+    void validate_shouldNotQueryPerCode_forUnknownPromotions() {
+        // Arrange
+        CouponCodec codec = new CouponCodec(SECRET);
+        service.validate(codec.encode(PROMOTION_ID, 0));
+        statements.clear();
+
+        // Act
+        List<CouponStatus> results = new ArrayList<>();
+        for (long promotionId = 100; promotionId < 200; promotionId++) {
+            results.add(service.validate(codec.encode(promotionId, 0)));
+        }
+
+        // Assert
+        assertThat(results).containsOnly(CouponStatus.UNKNOWN);
+        assertThat(statements).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not reissue serials after a promotion loaded earlier is saved")
+    void generate_shouldSurviveStalePromotionSave() {
+        // Arrange
+        Promotion stale = transactionTemplate.execute(status -> entityManager.find(Promotion.class, PROMOTION_ID));
+        service.generate(PROMOTION_ID, 3, code -> { });
+
+        // Act
+        stale.setName("Voucher drop, renamed");
+        transactionTemplate.executeWithoutResult(status -> entityManager.merge(stale));
+        long next = service.generate(PROMOTION_ID, 1, code -> { });
+
+        // Assert
+        assertThat(next).isEqualTo(3);
+        assertThat(issued()).isEqualTo(4);
+    }
+
+    private CouponService node(long refreshSeconds) {
+        CouponService node = new CouponService(persistenceUnit.transactionManager(), SECRET, refreshSeconds);
+        ReflectionTestUtils.setField(node, "entityManager", entityManager);
+        return node;
+    }
+
+    private long issued() {
+        return transactionTemplate.execute(status ->
+                entityManager.find(Promotion.class, PROMOTION_ID).getCouponsIssued());
+    }
+
+    private long redemptions() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                "select count(r) from CouponRedemption r", Long.class).getSingleResult());
+    }
+}
@@ -0,0 +1,140 @@
+package za.co.pms.service.promotion;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@DisplayName("PromotionConflictDetector Unit Tests")
+class PromotionConflictDetectorTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 11, 1, 0, 0);
+
+    @Nested
+    @DisplayName("Sweep over all promotions")
+    class FindAllTests {
+
+        @Test
+        @DisplayName("Should report promotions sharing a variant in overlapping windows")
+        void findAll_shouldReportConflict_whenWindowsAndVariantsOverlap() {
+            // Arrange
+            List<PromotionWindow> windows = List.of(
+                    PromotionWindow.of(1L, T0, T0.plusDays(10), 1, 2, 3),
+                    PromotionWindow.of(2L, T0.plusDays(5), T0.plusDays(20), 3, 4));
+
+            // Act
+            List<PromotionConflict> conflicts = PromotionConflictDetector.findAll(windows);
+
+            // Assert
+            assertThat(conflicts).singleElement().satisfies(conflict -> {
+                assertThat(conflict.firstPromotionId()).isEqualTo(1L);
+                assertThat(conflict.secondPromotionId()).isEqualTo(2L);
+                assertThat(conflict.overlapStart()).isEqualTo(T0.plusDays(5));
+                assertThat(conflict.overlapEnd()).isEqualTo(T0.plusDays(10));
+                assertThat(conflict.sharedVariantCount()).isEqualTo(1);
+                assertThat(conflict.sampleVariantIds()).containsExactly(3L);
+            });
+        }
+
+        @Test
+        @DisplayName("Should treat windows as half-open so back-to-back promotions do not conflict")
+        void findAll_shouldIgnoreAdjacentWindows() {
+            // Arrange
+            List<PromotionWindow> windows = List.of(
+                    PromotionWindow.of(1L, T0, T0.plusDays(10), 1),
+                    PromotionWindow.of(2L, T0.plusDays(10), null, 1));
+
+            // Act & Assert
+            assertThat(PromotionConflictDetector.findAll(windows)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should match a pairwise comparison on random promotions")
+        void findAll_shouldMatchBruteForce() {
+            // Arrange
+            List<PromotionWindow> windows = randomWindows(400);
+            int expected = 0;
+            for (int i = 0; i < windows.size(); i++) {
+                for (int j = i + 1; j < windows.size(); j++) {
+                    if (conflict(windows.get(i), windows.get(j))) {
+                        expected++;
+                    }
+                }
+            }
+
+            // Act & Assert
+            assertThat(PromotionConflictDetector.findAll(windows)).hasSize(expected);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pre-save check against the index")
+    class ConflictsWithTests {
+
+        @Test
+        @DisplayName("Should find indexed promotions that conflict with a candidate")
+        void conflictsWith_shouldReturnOverlappingPromotionsOnSharedVariants() {
+            // Arrange
+            PromotionConflictDetector detector = new PromotionConflictDetector(List.of(
+                    PromotionWindow.of(1L, T0, T0.plusDays(10), 1, 2),
+                    PromotionWindow.of(2L, T0.plusDays(10), null, 2),
+                    PromotionWindow.of(3L, T0.plusDays(11), T0.plusDays(12), 9)));
+
+            // Act
+            List<PromotionConflict> conflicts = detector.conflictsWith(
+                    PromotionWindow.of(5L, T0.plusDays(9), T0.plusDays(11), 2, 7));
+
+            // Assert
+            assertThat(conflicts).extracting(PromotionConflict::firstPromotionId).containsExactlyInAnyOrder(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("Should ignore the candidate's own previous window when editing")
+        void conflictsWith_shouldSkipSamePromotion() {
+            // Arrange
+            PromotionConflictDetector detector = new PromotionConflictDetector(List.of(
+                    PromotionWindow.of(1L, T0, T0.plusDays(10), 1)));
+
+            // Act & Assert
+            assertThat(detector.conflictsWith(PromotionWindow.of(1L, T0, T0.plusDays(20), 1))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should match a linear scan on random promotions")
+        void conflictsWith_shouldMatchLinearScan() {
+            // Arrange
+            List<PromotionWindow> windows = randomWindows(400);
+            PromotionConflictDetector detector = new PromotionConflictDetector(windows);
+            PromotionWindow candidate = PromotionWindow.of(-1L, T0.plusHours(400), T0.plusHours(480), 5, 50, 150);
+            long expected = windows.stream().filter(window -> conflict(window, candidate)).count();
+
+            // Act & Assert
+            assertThat(detector.conflictsWith(candidate)).hasSize((int) expected);
+        }
+    }
+
+    private static boolean conflict(PromotionWindow a, PromotionWindow b) {
+        return a.overlaps(b) && Arrays.stream(a.variantIds()).anyMatch(b::targets);
+    }
+
+    private static List<PromotionWindow> randomWindows(int count) {
+        Random random = new Random(42);
+        List<PromotionWindow> windows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(1000);
+            LocalDateTime end = random.nextInt(10) == 0 ? null : T0.plusHours(start + 1 + random.nextInt(100));
+            windows.add(PromotionWindow.of((long) i, T0.plusHours(start), end, random.longs(5, 0, 200).toArray()));
+        }
+        return windows;
+    }
+}
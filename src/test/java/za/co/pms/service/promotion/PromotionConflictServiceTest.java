@@ -0,0 +1,158 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.exception.PromotionConflictException;
+import za.co.pms.model.Promotion;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Targets are read back from the promotion_variants table on embedded H2; no promotion here has
+ * been launched, so none has a PriceChange.
+ **/
+@DisplayName("PromotionConflictService Unit Tests")
+class PromotionConflictServiceTest {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1);
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private PromotionConflictService service;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("promotion_conflicts");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        service = new PromotionConflictService(persistenceUnit.transactionManager());
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should load the stored targets of an unlaunched BOGO promotion")
+    void findConflicts_shouldUseStoredTargets_whenPromotionNotLaunched() {
+        // Arrange
+        save(promotion(1L, PromotionType.BOGO), List.of(10L, 11L));
+        save(promotion(2L, PromotionType.MULTIBUY), List.of(11L, 12L));
+
+        // Act
+        List<PromotionConflict> conflicts = service.findConflicts();
+
+        // Assert
+        assertThat(conflicts).singleElement().satisfies(conflict -> {
+            assertThat(conflict.sharedVariantCount()).isEqualTo(1);
+            assertThat(conflict.sampleVariantIds()).containsExactly(11L);
+        });
+    }
+
+    @Test
+    @DisplayName("Should index a new promotion once its save commits")
+    void assertNoConflicts_shouldRegisterNewPromotion_afterCommit() {
+        // Arrange
+        service.refresh();
+        Promotion created = promotion(null, PromotionType.BOGO);
+
+        // Act: the id is only assigned by the save, after the check
+        transactionTemplate.executeWithoutResult(status -> {
+            service.assertNoConflicts(created, List.of(10L, 11L));
+            created.setId(1L);
+            entityManager.persist(created);
+        });
+
+        // Assert
+        assertThat(service.checkBeforeSave(promotion(3L, PromotionType.FIXED), List.of(11L)))
+                .singleElement()
+                .satisfies(conflict -> assertThat(conflict.firstPromotionId()).isEqualTo(1L));
+        assertThatThrownBy(() -> service.assertNoConflicts(promotion(3L, PromotionType.FIXED), List.of(10L)))
+                .isInstanceOf(PromotionConflictException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a conflicting save while the first one has not committed yet")
+    void assertNoConflicts_shouldRejectConcurrentSave_whenFirstNotCommitted() throws Exception {
+        // Arrange
+        service.refresh();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // Act
+            transactionTemplate.executeWithoutResult(status -> {
+                service.assertNoConflicts(promotion(null, PromotionType.BOGO), List.of(10L, 11L));
+                Future<?> concurrent = executor.submit(() -> transactionTemplate.executeWithoutResult(
+                        other -> service.assertNoConflicts(promotion(null, PromotionType.FIXED), List.of(11L))));
+
+                // Assert
+                assertThatThrownBy(concurrent::get)
+                        .hasCauseInstanceOf(PromotionConflictException.class);
+                assertThat(service.checkBeforeSave(promotion(3L, PromotionType.FIXED), List.of(11L)))
+                        .singleElement()
+                        .satisfies(conflict -> assertThat(conflict.sharedVariantCount()).isEqualTo(1));
+                status.setRollbackOnly();
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(service.checkBeforeSave(promotion(3L, PromotionType.FIXED), List.of(11L))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave no window behind when the save rolls back")
+    void assertNoConflicts_shouldNotRegister_whenSaveRollsBack() {
+        // Arrange
+        service.refresh();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            Promotion promotion = promotion(1L, PromotionType.BOGO);
+            service.assertNoConflicts(promotion, List.of(10L));
+            entityManager.persist(promotion);
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertThat(service.checkBeforeSave(promotion(2L, PromotionType.FIXED), List.of(10L))).isEmpty();
+        assertThat(service.findConflicts()).isEmpty();
+    }
+
+    private void save(Promotion promotion, List<Long> variantIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            promotion.getTargetedVariantIds().addAll(variantIds);
+            entityManager.persist(promotion);
+        });
+    }
+
+    private static Promotion promotion(Long id, PromotionType type) {
+        Promotion promotion = new Promotion();
+        promotion.setId(id);
+        promotion.setName("Promotion " + id);
+        promotion.setDescription("Price includes 15% VAT");
+        promotion.setType(type);
+        promotion.setRequiredQuantity(2);
+        promotion.setFreeQuantity(1);
+        promotion.setStartDate(START);
+        promotion.setEndDate(START.plusDays(7));
+        return promotion;
+    }
+}
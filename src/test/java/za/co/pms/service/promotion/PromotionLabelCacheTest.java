@@ -0,0 +1,153 @@
+package za.co.pms.service.promotion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.MessageSource;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.model.Promotion;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ **/
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PromotionLabelCache Unit Tests")
+class PromotionLabelCacheTest {
+    private static final Locale ZULU = new Locale("zu", "ZA");
+
+    @Mock
+    private MessageSource messageSource;
+
+    private PromotionLabelCache labelCache;
+    private Promotion promotion;
+
+    @BeforeEach
+    void setUp() {
+        labelCache = new PromotionLabelCache(messageSource);
+
+        promotion = new Promotion();
+        promotion.setId(7L);
+        promotion.setVersion(1L);
+        promotion.setType(PromotionType.BOGO);
+        promotion.setRequiredQuantity(1);
+        promotion.setFreeQuantity(1);
+    }
+
+    @Test
+    @DisplayName("Should render a label once per promotion version and locale")
+    void getLabel_shouldRenderOnce_whenSameVersionAndLocale() {
+        // Arrange
+        when(messageSource.getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH)))
+                .thenReturn("Buy 1, Get 1 FREE (50.00% saving)");
+
+        // Act
+        String first = labelCache.getLabel(promotion, Locale.ENGLISH);
+        String second = labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Assert
+        assertThat(first).isEqualTo("Buy 1, Get 1 FREE (50.00% saving)");
+        assertThat(second).isSameAs(first);
+        verify(messageSource, times(1)).getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH));
+    }
+
+    @Test
+    @DisplayName("Should render separately for each locale")
+    void getLabel_shouldRenderPerLocale_whenLocalesDiffer() {
+        // Arrange
+        when(messageSource.getMessage(eq("promotion.label.bogo"), any(Object[].class), any(Locale.class)))
+                .thenReturn("label");
+
+        // Act
+        labelCache.getLabel(promotion, Locale.ENGLISH);
+        labelCache.getLabel(promotion, ZULU);
+
+        // Assert
+        verify(messageSource).getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH));
+        verify(messageSource).getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(ZULU));
+    }
+
+    @Test
+    @DisplayName("Should re-render when the promotion version changes")
+    void getLabel_shouldRerender_whenVersionIncreases() {
+        // Arrange
+        when(messageSource.getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH)))
+                .thenReturn("Buy 1, Get 1 FREE (50.00% saving)", "Buy 2, Get 1 FREE (33.33% saving)");
+
+        // Act
+        labelCache.getLabel(promotion, Locale.ENGLISH);
+        promotion.setRequiredQuantity(2);
+        promotion.setVersion(2L);
+        String updated = labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Assert
+        assertThat(updated).isEqualTo("Buy 2, Get 1 FREE (33.33% saving)");
+        assertThat(labelCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not replace newer labels with a stale promotion copy")
+    void getLabel_shouldNotCache_whenPromotionCopyIsStale() {
+        // Arrange
+        when(messageSource.getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH)))
+                .thenReturn("new", "stale", "new again");
+        promotion.setVersion(3L);
+        labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        Promotion stale = new Promotion();
+        stale.setId(7L);
+        stale.setVersion(2L);
+        stale.setType(PromotionType.BOGO);
+        stale.setRequiredQuantity(1);
+        stale.setFreeQuantity(1);
+
+        // Act
+        String staleLabel = labelCache.getLabel(stale, Locale.ENGLISH);
+        String current = labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Assert
+        assertThat(staleLabel).isEqualTo("stale");
+        assertThat(current).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("Should use the free-text description for PERCENTAGE and FIXED promotions")
+    void getLabel_shouldReturnDescription_whenTypeHasNoTemplate() {
+        // Arrange
+        promotion.setType(PromotionType.PERCENTAGE);
+        promotion.setDescription("20% off. Price includes 15% VAT");
+
+        // Act
+        String label = labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Assert
+        assertThat(label).isEqualTo("20% off. Price includes 15% VAT");
+        verifyNoInteractions(messageSource);
+    }
+
+    @Test
+    @DisplayName("Should drop cached labels on eviction")
+    void evict_shouldForceRerender() {
+        // Arrange
+        when(messageSource.getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH)))
+                .thenReturn("label");
+        labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Act
+        labelCache.evict(7L);
+        labelCache.getLabel(promotion, Locale.ENGLISH);
+
+        // Assert
+        verify(messageSource, times(2)).getMessage(eq("promotion.label.bogo"), any(Object[].class), eq(Locale.ENGLISH));
+    }
+}
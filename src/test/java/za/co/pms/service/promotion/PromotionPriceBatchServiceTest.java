@@ -0,0 +1,205 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PriceType;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.enums.TaxType;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.product.Price;
+import za.co.pms.model.product.TaxClass;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.H2PersistenceUnit;
+import za.co.pms.service.BatchProgress;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Runs launch and revert on embedded H2 with pages of two, so five variants take three pages.
+ **/
+@DisplayName("PromotionPriceBatchService Unit Tests")
+class PromotionPriceBatchServiceTest {
+    private static final int VARIANTS = 5;
+    private static final long PROMOTION_ID = 1L;
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private PromotionPriceBatchService service;
+    private List<Long> variantIds;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("promotion_price_batch");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        service = new PromotionPriceBatchService(persistenceUnit.transactionManager(), 2);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        variantIds = populate(LocalDateTime.now().minusDays(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should replace every current price with a promotional one, page by page")
+    void applyPromotion_shouldReplaceCurrentPrices() {
+        // Arrange
+        List<BatchProgress> progress = new ArrayList<>();
+
+        // Act
+        BatchProgress result = service.applyPromotion(PROMOTION_ID, progress::add);
+
+        // Assert
+        assertThat(result.getScanned()).isEqualTo(VARIANTS);
+        assertThat(result.getWritten()).isEqualTo(VARIANTS);
+        assertThat(progress).extracting(BatchProgress::getWritten).containsExactly(2L, 4L, 5L);
+        assertThat(currentPrices()).hasSize(VARIANTS).allSatisfy(price -> {
+            assertThat(price.getPriceType()).isEqualTo(PriceType.PROMOTIONAL);
+            assertThat(price.getBasePrice()).isEqualByComparingTo("90.00");
+        });
+        assertThat(count("select count(pc) from PriceChange pc")).isEqualTo(VARIANTS);
+    }
+
+    @Test
+    @DisplayName("Should refuse to launch a promotion that has not started")
+    void applyPromotion_shouldThrow_whenPromotionInactive() {
+        // Arrange
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(Promotion.class, PROMOTION_ID)
+                .setStartDate(LocalDateTime.now().plusDays(1)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.applyPromotion(PROMOTION_ID, null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(count("select count(pc) from PriceChange pc")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should restore the regular prices and retire the promotional ones")
+    void revertPromotion_shouldRestoreOldPrices() {
+        // Arrange
+        service.applyPromotion(PROMOTION_ID, null);
+
+        // Act
+        BatchProgress result = service.revertPromotion(PROMOTION_ID, null);
+
+        // Assert
+        assertThat(result.getWritten()).isEqualTo(VARIANTS);
+        assertThat(currentPrices()).hasSize(VARIANTS).allSatisfy(price -> {
+            assertThat(price.getPriceType()).isEqualTo(PriceType.REGULAR);
+            assertThat(price.getBasePrice()).isEqualByComparingTo("100.00");
+            assertThat(price.getEffectiveTo()).isNull();
+        });
+        assertThat(count("select count(p) from Price p where p.priceType = za.co.pms.enums.PriceType.PROMOTIONAL"
+                + " and p.current = false and p.effectiveTo is not null")).isEqualTo(VARIANTS);
+    }
+
+    @Test
+    @DisplayName("Should keep a price set during the promotion instead of restoring the old one")
+    void revertPromotion_shouldNotRestore_whenVariantRepricedDuringPromotion() {
+        // Arrange
+        service.applyPromotion(PROMOTION_ID, null);
+        Long repriced = variantIds.get(0);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+                regularPrice(entityManager.find(Variant.class, repriced), new BigDecimal("120.00"), null)));
+
+        // Act
+        BatchProgress result = service.revertPromotion(PROMOTION_ID, null);
+
+        // Assert: one current price per variant, the new one for the repriced variant
+        assertThat(result.getWritten()).isEqualTo(VARIANTS - 1);
+        List<Price> current = currentPrices();
+        assertThat(current).extracting(price -> price.getVariant().getId()).containsExactlyElementsOf(variantIds);
+        assertThat(current.get(0).getBasePrice()).isEqualByComparingTo("120.00");
+        assertThat(current.subList(1, VARIANTS)).allSatisfy(price ->
+                assertThat(price.getBasePrice()).isEqualByComparingTo("100.00"));
+    }
+
+    @Test
+    @DisplayName("Should restore every replaced price of a variant that had several current prices")
+    void revertPromotion_shouldRestoreAll_whenVariantHadSeveralCurrentPrices() {
+        // Arrange: a second current price on the first variant, replaced by the same promotion
+        Long doublePriced = variantIds.get(0);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+                regularPrice(entityManager.find(Variant.class, doublePriced), new BigDecimal("90.00"), null)));
+        service.applyPromotion(PROMOTION_ID, null);
+
+        // Act
+        BatchProgress result = service.revertPromotion(PROMOTION_ID, null);
+
+        // Assert
+        assertThat(result.getWritten()).isEqualTo(VARIANTS + 1);
+        List<Price> current = currentPrices();
+        assertThat(current).hasSize(VARIANTS + 1).allSatisfy(price ->
+                assertThat(price.getPriceType()).isEqualTo(PriceType.REGULAR));
+        assertThat(current).filteredOn(price -> price.getVariant().getId().equals(doublePriced))
+                .extracting(Price::getBasePrice)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactlyInAnyOrder(new BigDecimal("100.00"), new BigDecimal("90.00"));
+    }
+
+    private List<Price> currentPrices() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(
+                        "select p from Price p join fetch p.variant v where p.current = true order by v.id", Price.class)
+                .getResultList());
+    }
+
+    private long count(String query) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(query, Long.class).getSingleResult());
+    }
+
+    private List<Long> populate(LocalDateTime startDate) {
+        return transactionTemplate.execute(status -> {
+            TaxClass vat = new TaxClass();
+            vat.setTaxType(TaxType.STANDARD);
+            vat.setName("VAT");
+            vat.setRate(new BigDecimal("15"));
+            entityManager.persist(vat);
+
+            Promotion promotion = new Promotion();
+            promotion.setId(PROMOTION_ID);
+            promotion.setName("Winter sale");
+            promotion.setDescription("10% off. Price includes 15% VAT");
+            promotion.setType(PromotionType.PERCENTAGE);
+            promotion.setDiscountValue(new BigDecimal("10"));
+            promotion.setStartDate(startDate);
+            entityManager.persist(promotion);
+
+            List<Long> ids = new ArrayList<>();
+            for (int v = 0; v < VARIANTS; v++) {
+                Variant variant = new Variant();
+                variant.setName("Variant " + v);
+                entityManager.persist(variant);
+                entityManager.persist(regularPrice(variant, new BigDecimal("100.00"), vat));
+                ids.add(variant.getId());
+            }
+            return ids;
+        });
+    }
+
+    private static Price regularPrice(Variant variant, BigDecimal basePrice, TaxClass taxClass) {
+        Price price = new Price();
+        price.setVariant(variant);
+        price.setBasePrice(basePrice);
+        price.setTaxClass(taxClass);
+        price.setPriceType(PriceType.REGULAR);
+        price.setCurrent(true);
+        price.setEffectiveFrom(LocalDateTime.now().minusDays(30));
+        return price;
+    }
+}
@@ -0,0 +1,182 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PriceType;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.enums.TaxType;
+import za.co.pms.model.Category;
+import za.co.pms.model.CategoryClosure;
+import za.co.pms.model.Product;
+import za.co.pms.model.Promotion;
+import za.co.pms.model.product.Price;
+import za.co.pms.model.product.TaxClass;
+import za.co.pms.model.product.Variant;
+import za.co.pms.repository.CategoryRepository;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Previews a 10% promotion over Kitchen, which has Kettles below it, on embedded H2. The kettle
+ * is already on another promotion; Garden is outside the subtree.
+ **/
+@DisplayName("PromotionPricePreviewService Unit Tests")
+class PromotionPricePreviewServiceTest {
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private PromotionPricePreviewService service;
+    private Promotion promotion;
+    private Long kitchenId;
+    private Long toasterId;
+    private Long kettleId;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("promotion_price_preview");
+        entityManager = persistenceUnit.entityManager();
+        service = new PromotionPricePreviewService(persistenceUnit.repository(CategoryRepository.class),
+                persistenceUnit.transactionManager(), 2);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+
+        promotion = new Promotion();
+        promotion.setType(PromotionType.PERCENTAGE);
+        promotion.setDiscountValue(new BigDecimal("10"));
+        populate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should preview regular current prices in the subtree and skip promotional ones")
+    void preview_shouldSkipPromotionalPrices() {
+        // Act
+        PricePreviewPage page = service.preview(promotion, kitchenId, null, 10);
+
+        // Assert
+        assertThat(page.nextCursor()).isNull();
+        assertThat(page.rows()).extracting(PricePreview::variantId).containsExactly(toasterId, kettleId);
+        assertThat(page.rows().get(0)).satisfies(preview -> {
+            assertThat(preview.currentPrice()).isEqualByComparingTo("115.00");
+            assertThat(preview.promotedPrice()).isEqualByComparingTo("103.50");
+            assertThat(preview.saving()).isEqualByComparingTo("11.50");
+        });
+        assertThat(page.rows().get(1).currentPrice()).isEqualByComparingTo("230.00");
+    }
+
+    @Test
+    @DisplayName("Should aggregate savings across pages")
+    void summarize_shouldAggregateAcrossPages() {
+        // Act
+        PricePreviewSummary summary = service.summarize(promotion, kitchenId);
+
+        // Assert
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.minSaving()).isEqualByComparingTo("11.50");
+        assertThat(summary.maxSaving()).isEqualByComparingTo("23.00");
+        assertThat(summary.totalSaving()).isEqualByComparingTo("34.50");
+        assertThat(summary.averageSaving()).isEqualByComparingTo("17.25");
+    }
+
+    @Test
+    @DisplayName("Should preview nothing for BOGO, whose saving the batch leaves to checkout")
+    void preview_shouldSkipUnchangedPrices() {
+        // Arrange
+        Promotion bogo = new Promotion();
+        bogo.setType(PromotionType.BOGO);
+        bogo.setRequiredQuantity(1);
+        bogo.setFreeQuantity(1);
+
+        // Act
+        PricePreviewPage page = service.preview(bogo, kitchenId, null, 10);
+        PricePreviewSummary summary = service.summarize(bogo, kitchenId);
+
+        // Assert
+        assertThat(page.rows()).isEmpty();
+        assertThat(summary.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should preview nothing for variants the promotion no longer applies to")
+    void preview_shouldSkipIneligibleVariants() {
+        // Arrange
+        promotion.setComplianceLapsed(true);
+
+        // Act
+        PricePreviewPage page = service.preview(promotion, kitchenId, null, 10);
+
+        // Assert
+        assertThat(page.rows()).isEmpty();
+    }
+
+    private void populate() {
+        new TransactionTemplate(persistenceUnit.transactionManager()).executeWithoutResult(status -> {
+            TaxClass vat = new TaxClass();
+            vat.setTaxType(TaxType.STANDARD);
+            vat.setName("VAT");
+            vat.setRate(new BigDecimal("15"));
+            entityManager.persist(vat);
+
+            Category kitchen = category("Kitchen");
+            Category kettles = category("Kettles");
+            kitchen.addSubCategory(kettles);
+            Category garden = category("Garden");
+            entityManager.persist(CategoryClosure.of(kitchen.getId(), kettles.getId(), 1));
+
+            toasterId = variant(kitchen, "Toaster", vat, price("100.00", PriceType.REGULAR, true));
+            kettleId = variant(kettles, "Kettle", vat,
+                    price("200.00", PriceType.REGULAR, true),
+                    price("180.00", PriceType.PROMOTIONAL, true),
+                    price("250.00", PriceType.REGULAR, false));
+            variant(garden, "Hose", vat, price("50.00", PriceType.REGULAR, true));
+            kitchenId = kitchen.getId();
+        });
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        entityManager.persist(category);
+        entityManager.persist(CategoryClosure.of(category.getId(), category.getId(), 0));
+        return category;
+    }
+
+    private Long variant(Category category, String name, TaxClass taxClass, Price... prices) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        Variant variant = new Variant();
+        variant.setName(name);
+        product.addVariant(variant);
+        entityManager.persist(product);
+        for (Price price : prices) {
+            price.setTaxClass(taxClass);
+            price.setVariant(variant);
+            entityManager.persist(price);
+        }
+        return variant.getId();
+    }
+
+    private static Price price(String basePrice, PriceType type, boolean current) {
+        Price price = new Price();
+        price.setBasePrice(new BigDecimal(basePrice));
+        price.setPriceType(type);
+        price.setCurrent(current);
+        price.setEffectiveFrom(LocalDateTime.now().minusDays(1));
+        return price;
+    }
+}
@@ -0,0 +1,169 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.exception.RedemptionCapExceededException;
+import za.co.pms.model.Promotion;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Flash-sale load on embedded H2: many threads race for a capped promotion, once through
+ * {@link RedemptionCapService} leasing from the promotion row and once through a conditional row
+ * update per redemption. Both must stop exactly at the cap; throughput is logged, not asserted.
+ **/
+@Slf4j
+@DisplayName("Redemption cap load test")
+class RedemptionCapLoadTest {
+    private static final int THREADS = 16;
+    private static final int CAP = 2_000;
+    private static final int ATTEMPTS_PER_THREAD = 250; // 2x the cap in total
+    private static final long LEASED_PROMOTION_ID = 1L;
+    private static final long ROW_LOCK_PROMOTION_ID = 2L;
+
+    private static final String CLAIM_ONE = """
+            update Promotion p set p.redemptionCount = p.redemptionCount + 1
+            where p.id = :id and p.redemptionCount < p.maxRedemptions""";
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private RedemptionCapService service;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("redemption_load");
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        service = new RedemptionCapService(persistenceUnit.transactionManager(), 50, 16, 5, 15);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(promotion(LEASED_PROMOTION_ID));
+            entityManager.persist(promotion(ROW_LOCK_PROMOTION_ID));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Leased counters and row locking should both stop exactly at the cap")
+    void reserve_shouldEnforceCapExactly_andReportThroughput() throws Exception {
+        // Arrange
+        AtomicInteger leasedGranted = new AtomicInteger();
+        AtomicInteger rowLockGranted = new AtomicInteger();
+
+        // Act
+        long leasedNanos = race(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                try {
+                    service.confirm(service.reserve(LEASED_PROMOTION_ID, null));
+                    leasedGranted.incrementAndGet();
+                } catch (RedemptionCapExceededException e) {
+                    // sold out
+                }
+            }
+            return null;
+        });
+        service.reconcile();
+        long rowLockNanos = race(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                Integer updated = transactionTemplate.execute(status -> entityManager.createQuery(CLAIM_ONE)
+                        .setParameter("id", ROW_LOCK_PROMOTION_ID)
+                        .executeUpdate());
+                if (updated != null && updated == 1) {
+                    rowLockGranted.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        // Assert
+        log.info("Leased counters: {} ops/s, row lock: {} ops/s", opsPerSecond(leasedNanos), opsPerSecond(rowLockNanos));
+        Promotion leased = find(LEASED_PROMOTION_ID);
+        assertThat(leasedGranted).hasValue(CAP);
+        assertThat(leased.getRedemptionCount()).isEqualTo(CAP);
+        assertThat(leased.getRedemptionsClaimed()).isEqualTo(CAP);
+        assertThat(service.remaining(LEASED_PROMOTION_ID)).isZero();
+        assertThat(rowLockGranted).hasValue(CAP);
+        assertThat(find(ROW_LOCK_PROMOTION_ID).getRedemptionCount()).isEqualTo(CAP);
+    }
+
+    @Test
+    @DisplayName("Per-customer cap should hold under concurrent reservations")
+    void perCustomerCap_shouldHold_whenSameCustomerRacesItself() throws Exception {
+        // Arrange
+        RedemptionCounter counter = new RedemptionCounter(1L, null, 3, 16);
+        AtomicInteger granted = new AtomicInteger();
+
+        // Act
+        race(() -> {
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                if (counter.tryAcquireForCustomer("customer-1", () -> 1)) {
+                    granted.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        // Assert: one redemption was already persisted, so two more are allowed
+        assertThat(granted).hasValue(2);
+    }
+
+    private static Promotion promotion(long id) {
+        Promotion promotion = new Promotion();
+        promotion.setId(id);
+        promotion.setName("Flash sale " + id);
+        promotion.setDescription("Price includes 15% VAT");
+        promotion.setType(PromotionType.FIXED);
+        promotion.setStartDate(LocalDateTime.now().minusDays(1));
+        promotion.setMaxRedemptions(CAP);
+        return promotion;
+    }
+
+    private Promotion find(long id) {
+        return transactionTemplate.execute(status -> entityManager.find(Promotion.class, id));
+    }
+
+    private static long race(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(task);
+            }
+            long started = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long opsPerSecond(long nanos) {
+        return (long) THREADS * ATTEMPTS_PER_THREAD * 1_000_000_000L / Math.max(1, nanos);
+    }
+}
@@ -0,0 +1,218 @@
+package za.co.pms.service.promotion;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import za.co.pms.enums.PromotionType;
+import za.co.pms.exception.RedemptionCapExceededException;
+import za.co.pms.model.Promotion;
+import za.co.pms.repository.H2PersistenceUnit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author NMMkhungo
+ * @since 2025/10/19
+ * Leasing, reconciliation, eviction and hold expiry against the promotion row on embedded H2.
+ * A cap of five leased two at a time.
+ **/
+@DisplayName("RedemptionCapService Unit Tests")
+class RedemptionCapServiceTest {
+    private static final long PROMOTION_ID = 1L;
+    private static final int CAP = 5;
+    // Runs once, just before the next statement that moves redemptions_claimed
+    private static final AtomicReference<Runnable> beforeLeaseUpdate = new AtomicReference<>();
+
+    private H2PersistenceUnit persistenceUnit;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private RedemptionCapService service;
+
+    @BeforeEach
+    void setUp() {
+        persistenceUnit = H2PersistenceUnit.start("redemption_caps", Map.of(
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    if (sql.startsWith("update promotions") && sql.contains("redemptions_claimed")) {
+                        Runnable hook = beforeLeaseUpdate.getAndSet(null);
+                        if (hook != null) {
+                            hook.run();
+                        }
+                    }
+                    return sql;
+                }));
+        entityManager = persistenceUnit.entityManager();
+        transactionTemplate = new TransactionTemplate(persistenceUnit.transactionManager());
+        service = new RedemptionCapService(persistenceUnit.transactionManager(), 2, 4, 5, 15);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Promotion promotion = new Promotion();
+            promotion.setId(PROMOTION_ID);
+            promotion.setName("First five");
+            promotion.setDescription("Price includes 15% VAT");
+            promotion.setType(PromotionType.FIXED);
+            promotion.setStartDate(LocalDateTime.now().minusDays(1));
+            promotion.setMaxRedemptions(CAP);
+            promotion.setMaxRedemptionsPerCustomer(2);
+            entityManager.persist(promotion);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceUnit.close();
+    }
+
+    @Test
+    @DisplayName("Should lease capacity in blocks and refuse once the cap is claimed")
+    void reserve_shouldLeaseInBlocks_untilCapReached() {
+        // Arrange
+        List<RedemptionReservation> reservations = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            reservations.add(service.reserve(PROMOTION_ID, "customer-" + i));
+        }
+        Promotion afterThree = promotion();
+        for (int i = 3; i < CAP; i++) {
+            reservations.add(service.reserve(PROMOTION_ID, "customer-" + i));
+        }
+
+        // Assert
+        assertThat(afterThree.getRedemptionsClaimed()).isEqualTo(4);
+        assertThat(service.remaining(PROMOTION_ID)).isZero();
+        assertThat(promotion().getRedemptionsClaimed()).isEqualTo(CAP);
+        assertThat(reservations).extracting(RedemptionReservation::id).doesNotHaveDuplicates();
+        assertThatThrownBy(() -> service.reserve(PROMOTION_ID, "customer-9"))
+                .isInstanceOf(RedemptionCapExceededException.class);
+    }
+
+    @Test
+    @DisplayName("Should write confirmed redemptions and per-customer counts on reconcile")
+    void reconcile_shouldPersistConfirmedRedemptions() {
+        // Arrange
+        service.confirm(service.reserve(PROMOTION_ID, "customer-1"));
+        service.confirm(service.reserve(PROMOTION_ID, "customer-1"));
+        service.cancel(service.reserve(PROMOTION_ID, "customer-2"));
+
+        // Act
+        service.reconcile();
+
+        // Assert
+        assertThat(promotion().getRedemptionCount()).isEqualTo(2);
+        assertThat(count("select r.redemptionCount from PromotionRedemption r where r.customerId = 'customer-1'"))
+                .isEqualTo(2);
+        assertThatThrownBy(() -> service.reserve(PROMOTION_ID, "customer-1"))
+                .isInstanceOf(RedemptionCapExceededException.class);
+    }
+
+    @Test
+    @DisplayName("Should return the unused lease on evict and still settle open reservations")
+    void evict_shouldReturnLease_andLetOpenReservationsSettle() {
+        // Arrange
+        RedemptionReservation confirmed = service.reserve(PROMOTION_ID, "customer-1");
+        RedemptionReservation cancelled = service.reserve(PROMOTION_ID, "customer-2");
+        service.reserve(PROMOTION_ID, "customer-3");
+
+        // Act
+        service.evict(PROMOTION_ID);
+        int claimedAfterEvict = promotion().getRedemptionsClaimed();
+        service.confirm(confirmed);
+        service.cancel(cancelled);
+
+        // Assert: one unit of the second lease was unused; the cancelled unit goes back too
+        assertThat(claimedAfterEvict).isEqualTo(3);
+        Promotion promotion = promotion();
+        assertThat(promotion.getRedemptionsClaimed()).isEqualTo(2);
+        assertThat(promotion.getRedemptionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should return a lease claimed for a counter evicted during the claim and lease afresh")
+    void reserve_shouldReturnLease_whenEvictedDuringClaim() throws Exception {
+        // Arrange: evict from another thread once the claim is under way; its retire waits for the lease
+        Thread[] evictor = new Thread[1];
+        beforeLeaseUpdate.set(() -> {
+            evictor[0] = new Thread(() -> service.evict(PROMOTION_ID));
+            evictor[0].start();
+            while (counters().containsKey(PROMOTION_ID)) {
+                Thread.onSpinWait();
+            }
+        });
+
+        // Act
+        RedemptionReservation reservation = service.reserve(PROMOTION_ID, "customer-1");
+        evictor[0].join();
+
+        // Assert: only the second counter's lease is still claimed
+        assertThat(reservation).isNotNull();
+        assertThat(service.remaining(PROMOTION_ID)).isEqualTo(1);
+        assertThat(promotion().getRedemptionsClaimed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should give abandoned reservations back to the pool once they expire")
+    void expireHolds_shouldReleaseAbandonedReservations() {
+        // Arrange
+        RedemptionReservation abandoned = service.reserve(PROMOTION_ID, "customer-1");
+        service.confirm(service.reserve(PROMOTION_ID, "customer-2"));
+
+        // Act
+        int notYet = service.expireHolds(abandoned.expiresAt().minusSeconds(1));
+        int expired = service.expireHolds(abandoned.expiresAt());
+
+        // Assert: the unit is reused without leasing more
+        assertThat(notYet).isZero();
+        assertThat(expired).isEqualTo(1);
+        assertThat(service.remaining(PROMOTION_ID)).isEqualTo(1);
+        assertThatThrownBy(() -> service.confirm(abandoned)).isInstanceOf(IllegalStateException.class);
+        service.cancel(abandoned);
+        assertThat(service.remaining(PROMOTION_ID)).isEqualTo(1);
+        service.reserve(PROMOTION_ID, "customer-1");
+        assertThat(promotion().getRedemptionsClaimed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep leased and confirmed counts when a promotion loaded earlier is saved")
+    void reserve_shouldSurviveStalePromotionSave() {
+        // Arrange
+        Promotion stale = promotion();
+        service.confirm(service.reserve(PROMOTION_ID, "customer-1"));
+        service.reconcile();
+
+        // Act
+        stale.setName("First five, renamed");
+        transactionTemplate.executeWithoutResult(status -> entityManager.merge(stale));
+
+        // Assert
+        Promotion promotion = promotion();
+        assertThat(promotion.getName()).isEqualTo("First five, renamed");
+        assertThat(promotion.getRedemptionsClaimed()).isEqualTo(2);
+        assertThat(promotion.getRedemptionCount()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, RedemptionCounter> counters() {
+        return (Map<Long, RedemptionCounter>) ReflectionTestUtils.getField(service, "counters");
+    }
+
+    private Promotion promotion() {
+        return transactionTemplate.execute(status -> entityManager.find(Promotion.class, PROMOTION_ID));
+    }
+
+    private long count(String query) {
+        return transactionTemplate.execute(status -> entityManager.createQuery(query, Integer.class).getSingleResult());
+    }
+}